@@ -0,0 +1,332 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package cli;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.calendarfx.model.Entry;
+
+import model.UserSettings;
+import utilities.AccrualPeriod;
+import utilities.EntriesHelper;
+import utilities.EntryCsv;
+import utilities.HolidayCalendar;
+import utilities.PTOCalculator;
+
+/**
+ * Projects the PTO balances of many employees without the user interface.
+ *
+ * The employees file is a CSV with a header naming the columns
+ * {@code employee}, {@code accrualRate}, {@code accrualPeriod},
+ * {@code maxBalance}, {@code carryOverLimit}, {@code expirationDate} (such as
+ * {@code --12-31}) and {@code currentBalance}; only {@code employee} is
+ * required and fields are not quoted. The entries file has the columns of
+ * {@link EntryCsv} plus an {@code employee} column, and its rows must be grouped
+ * by employee in the order of the employees file. Projecting stops with an
+ * error at the first entry row of an employee that was already projected.
+ *
+ * Both files are streamed: each employee is projected on a worker thread as
+ * soon as their entries are read, and the results are written in input order
+ * with only a few employees per thread held in memory. The output is a CSV of
+ * {@code employee,date,balance} rows.
+ */
+public class BatchProjector {
+    private static final int PENDING_PER_THREAD = 4;
+
+    private final LocalDate startDate;
+    private final List<LocalDate> targetDates;
+    private final int threads;
+    private final HolidayCalendar holidays;
+
+    /**
+     * An employee read from the employees file.
+     */
+    private record Employee(String id, UserSettings settings) {
+    }
+
+    /**
+     * Constructor to project balances at the given dates.
+     *
+     * @param startDate   the date the current balances are for
+     * @param targetDates the dates to project the balances for
+     * @param threads     the number of worker threads
+     */
+    public BatchProjector(LocalDate startDate, List<LocalDate> targetDates, int threads) {
+        this(startDate, targetDates, threads, HolidayCalendar.NONE);
+    }
+
+    /**
+     * Constructor to project balances at the given dates with company holidays.
+     *
+     * @param startDate   the date the current balances are for
+     * @param targetDates the dates to project the balances for
+     * @param threads     the number of worker threads
+     * @param holidays    the holidays on which time off uses no PTO
+     */
+    public BatchProjector(LocalDate startDate, List<LocalDate> targetDates, int threads, HolidayCalendar holidays) {
+        this.startDate = startDate;
+        this.targetDates = targetDates.stream().distinct().sorted().toList();
+        this.threads = threads;
+        this.holidays = holidays;
+    }
+
+    /**
+     * Projects the balances of all employees and writes them as CSV.
+     *
+     * @param employees the employees CSV input
+     * @param entries   the entries CSV input
+     * @param output    the CSV output
+     * @return the number of projected employees
+     * @throws IOException              if the input cannot be read or the output
+     *                                  cannot be written
+     * @throws IllegalArgumentException if a row is invalid or the entries are
+     *                                  not grouped by employee
+     */
+    public long project(Reader employees, Reader entries, Writer output) throws IOException {
+        BufferedReader employeeReader = employees instanceof BufferedReader buffered ? buffered
+                : new BufferedReader(employees);
+        Iterator<EntryCsv.KeyedEntry> entryRows = EntryCsv.readKeyed(entries, "employee");
+        EntryCsv.KeyedEntry nextEntry = entryRows.hasNext() ? entryRows.next() : null;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "Projection Thread");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Deque<Future<String>> pending = new ArrayDeque<>();
+        Set<String> projected = new HashSet<>();
+        long count = 0;
+        try {
+            output.write("employee,date,balance\r\n");
+
+            // Map the header names to column indexes
+            String header = employeeReader.readLine();
+            if (header == null) {
+                throw new IllegalArgumentException("The employees file is empty");
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            String[] names = header.split(",");
+            for (int i = 0; i < names.length; i++) {
+                columns.put(names[i].trim().toLowerCase(Locale.ROOT), i);
+            }
+            if (!columns.containsKey("employee")) {
+                throw new IllegalArgumentException("Missing CSV column: employee");
+            }
+
+            int lineNumber = 1;
+            String line;
+            while ((line = employeeReader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                Employee employee = parseEmployee(line.split(",", -1), columns, lineNumber);
+
+                // Collect the entries of the employee, which follow each other
+                List<Entry<?>> employeeEntries = new ArrayList<>();
+                while (nextEntry != null && employee.id().equals(nextEntry.key())) {
+                    employeeEntries.add(nextEntry.entry());
+                    nextEntry = entryRows.hasNext() ? entryRows.next() : null;
+                }
+
+                // Stop before the employee is written if the next entry row
+                // belongs to an employee that was projected without it
+                projected.add(employee.id());
+                if (nextEntry != null && projected.contains(nextEntry.key())) {
+                    throw new IllegalArgumentException("The entries of employee " + nextEntry.key()
+                            + " are not grouped in the order of the employees file");
+                }
+
+                pending.add(executor.submit(() -> projectEmployee(employee, employeeEntries)));
+                count++;
+
+                // Write finished results in order, bounding the work in flight
+                if (pending.size() >= threads * PENDING_PER_THREAD) {
+                    output.write(await(pending.poll()));
+                }
+            }
+            if (nextEntry != null) {
+                throw new IllegalArgumentException("The entries of employee " + nextEntry.key()
+                        + " do not belong to an employee in the employees file");
+            }
+
+            while (!pending.isEmpty()) {
+                output.write(await(pending.poll()));
+            }
+            output.flush();
+            return count;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Creates an employee from the fields of a row of the employees file.
+     */
+    private static Employee parseEmployee(String[] fields, Map<String, Integer> columns, int lineNumber) {
+        try {
+            UserSettings settings = new UserSettings();
+            String accrualRate = field(fields, columns, "accrualrate");
+            if (accrualRate != null) {
+                settings.setAccrualRate(Double.parseDouble(accrualRate));
+            }
+            String accrualPeriod = field(fields, columns, "accrualperiod");
+            if (accrualPeriod != null) {
+                settings.setAccrualPeriod(AccrualPeriod.valueOf(accrualPeriod.toUpperCase(Locale.ROOT)));
+            }
+            String maxBalance = field(fields, columns, "maxbalance");
+            if (maxBalance != null) {
+                settings.setMaxBalance(Double.parseDouble(maxBalance));
+            }
+            String carryOverLimit = field(fields, columns, "carryoverlimit");
+            if (carryOverLimit != null) {
+                settings.setCarryOverLimit(Double.parseDouble(carryOverLimit));
+            }
+            String expirationDate = field(fields, columns, "expirationdate");
+            if (expirationDate != null) {
+                settings.setExpirationDate(MonthDay.parse(expirationDate));
+            }
+            String currentBalance = field(fields, columns, "currentbalance");
+            if (currentBalance != null) {
+                settings.setCurrentBalance(Double.parseDouble(currentBalance));
+            }
+
+            String id = field(fields, columns, "employee");
+            if (id == null) {
+                throw new IllegalArgumentException("missing employee");
+            }
+            return new Employee(id, settings);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Employees line " + lineNumber + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Gets a field of a row, or null if the column is missing or empty.
+     */
+    private static String field(String[] fields, Map<String, Integer> columns, String name) {
+        Integer column = columns.get(name);
+        if (column == null || column >= fields.length || fields[column].isBlank()) {
+            return null;
+        }
+        return fields[column].trim();
+    }
+
+    /**
+     * Projects the balances of one employee at all target dates.
+     *
+     * @return the output rows of the employee
+     */
+    private String projectEmployee(Employee employee, List<Entry<?>> entries) {
+        employee.settings().setHolidays(holidays);
+        PTOCalculator calculator = new PTOCalculator(employee.settings());
+        double[] balances = calculator.computeAccruedBalances(startDate, targetDates,
+                EntriesHelper.groupByDate(entries));
+
+        StringBuilder rows = new StringBuilder();
+        for (int i = 0; i < balances.length; i++) {
+            rows.append(employee.id()).append(',').append(targetDates.get(i)).append(',')
+                    .append(String.format(Locale.ROOT, "%.2f", balances[i])).append("\r\n");
+        }
+        return rows.toString();
+    }
+
+    /**
+     * Waits for the result of a projection, rethrowing its failure.
+     */
+    private static String await(Future<String> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while projecting", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Projects the balances of the employees in a CSV file and writes them to
+     * standard output. The throughput is printed to standard error.
+     *
+     * Usage: {@code BatchProjector [--start DATE] [--threads N] [--holidays FILE]... EMPLOYEES ENTRIES DATE...}
+     *
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        LocalDate startDate = LocalDate.now();
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<Path> holidayFiles = new ArrayList<>();
+        int i = 0;
+        try {
+            for (; i < args.length && args[i].startsWith("--"); i += 2) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + args[i]);
+                }
+                switch (args[i]) {
+                    case "--start" -> startDate = LocalDate.parse(args[i + 1]);
+                    case "--threads" -> threads = Integer.parseInt(args[i + 1]);
+                    case "--holidays" -> holidayFiles.add(Path.of(args[i + 1]));
+                    default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            if (args.length - i < 3 || threads < 1) {
+                System.err.println(
+                        "Usage: BatchProjector [--start DATE] [--threads N] [--holidays FILE]... EMPLOYEES.csv ENTRIES.csv DATE...");
+                System.exit(2);
+            }
+
+            List<LocalDate> targetDates = new ArrayList<>();
+            for (int j = i + 2; j < args.length; j++) {
+                targetDates.add(LocalDate.parse(args[j]));
+            }
+
+            BatchProjector projector = new BatchProjector(startDate, targetDates, threads,
+                    HolidayCalendar.read(holidayFiles));
+            long start = System.nanoTime();
+            long count;
+            try (Reader employees = Files.newBufferedReader(Path.of(args[i]));
+                    Reader entries = Files.newBufferedReader(Path.of(args[i + 1]))) {
+                Writer output = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+                count = projector.project(employees, entries, output);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.err.println(String.format(Locale.ROOT, "Projected %d employees in %.2f s (%.0f employees/sec)",
+                    count, seconds, count / seconds));
+        } catch (IOException | UncheckedIOException | IllegalArgumentException | DateTimeParseException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -5,6 +5,7 @@
 package gui;
 
 import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
 
 import com.calendarfx.model.Calendar;
 import com.calendarfx.model.Entry;
@@ -26,20 +27,24 @@ import javafx.util.Callback;
 
 public class AddEntryDialog {
     private boolean saved = false;
-    Callback<Entry<?>, String> validationCallback;
+    Callback<Entry<?>, CompletableFuture<String>> validationCallback;
 
     private final Stage stage;
     private final VBox vbox;
 
     private EntryDetailsView details;
+    private Button saveButton;
 
     /**
      * Creates a new AddEntryDialog.
      * 
-     * @param parent      the parent window for this dialog
-     * @param dateControl the date control object for the calendar view
+     * @param parent             the parent window for this dialog
+     * @param dateControl        the date control object for the calendar view
+     * @param validationCallback validates the entry, completing with an error
+     *                           message or null if the entry is valid
      */
-    public AddEntryDialog(Window parent, DateControl dateControl, Callback<Entry<?>, String> validationCallback) {
+    public AddEntryDialog(Window parent, DateControl dateControl,
+            Callback<Entry<?>, CompletableFuture<String>> validationCallback) {
         this.validationCallback = validationCallback;
 
         // Initialize the dialog layout
@@ -83,7 +88,7 @@ public class AddEntryDialog {
         // Create buttons
         Button cancelButton = new Button("Cancel");
         cancelButton.setOnAction(event -> onCancel());
-        Button saveButton = new Button("Save");
+        saveButton = new Button("Save");
         saveButton.setOnAction(event -> onSave());
 
         // Group buttons
@@ -106,18 +111,32 @@ public class AddEntryDialog {
      * Handles the save action.
      */
     private void onSave() {
-        // If there is a validation error, cancel and show an alert to the user
-        String validationError = validationCallback.call(getEntry());
-        if (validationError != null) {
-            // Show an alert with the validation error
-            Alert alert = new Alert(Alert.AlertType.ERROR);
-            alert.setTitle("Invalid Entry");
-            alert.setHeaderText(validationError);
-            alert.showAndWait();
-        } else {
-            saved = true;
-            stage.close();
-        }
+        // Disable saving while the entry is validated in the background
+        saveButton.setDisable(true);
+        validationCallback.call(getEntry()).whenComplete((validationError, exception) -> {
+            saveButton.setDisable(false);
+            if (exception != null) {
+                // Keep the dialog open so the entry can be saved again
+                Alert alert = new Alert(Alert.AlertType.ERROR);
+                alert.setTitle("Validation Failed");
+                alert.setHeaderText("The entry could not be validated");
+                alert.setContentText(String.valueOf(exception.getMessage()));
+                alert.showAndWait();
+                return;
+            }
+
+            // If there is a validation error, cancel and show an alert to the user
+            if (validationError != null) {
+                // Show an alert with the validation error
+                Alert alert = new Alert(Alert.AlertType.ERROR);
+                alert.setTitle("Invalid Entry");
+                alert.setHeaderText(validationError);
+                alert.showAndWait();
+            } else {
+                saved = true;
+                stage.close();
+            }
+        });
     }
 
     /**
@@ -0,0 +1,159 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package gui;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.calendarfx.model.Entry;
+
+import model.UserSettings;
+import utilities.EntriesHelper;
+import utilities.PTOCalculator;
+
+/**
+ * Projected balances for a range of dates, used to color the days of the
+ * calendar. The balances are computed with a single projection over the whole
+ * range and are tagged with the versions of the entries and settings they
+ * were computed from, so they can be reused until either changes.
+ */
+public class BalanceHeatmap {
+    /**
+     * All style classes the heatmap adds to day cells.
+     */
+    public static final List<String> STYLE_CLASSES = List.of("heatmap-level-0", "heatmap-level-1",
+            "heatmap-level-2", "heatmap-level-3", "heatmap-level-4", "heatmap-cap", "heatmap-forfeit");
+
+    private final LocalDate firstDate;
+    private final LocalDate lastDate;
+    private final double[] balances;
+    private final double referenceBalance;
+    private final Double maxBalance;
+    private final Set<LocalDate> forfeitureDates;
+    private final long entriesVersion;
+    private final long settingsVersion;
+
+    private BalanceHeatmap(LocalDate firstDate, LocalDate lastDate, double[] balances, double referenceBalance,
+            Double maxBalance, Set<LocalDate> forfeitureDates, long entriesVersion, long settingsVersion) {
+        this.firstDate = firstDate;
+        this.lastDate = lastDate;
+        this.balances = balances;
+        this.referenceBalance = referenceBalance;
+        this.maxBalance = maxBalance;
+        this.forfeitureDates = forfeitureDates;
+        this.entriesVersion = entriesVersion;
+        this.settingsVersion = settingsVersion;
+    }
+
+    /**
+     * Computes the projected balances between two dates. Dates before today
+     * have no projection.
+     *
+     * @param userSettings    a copy of the user settings
+     * @param entries         detached copies of all entries
+     * @param from            the first date of the range
+     * @param to              the last date of the range
+     * @param entriesVersion  the version of the entries
+     * @param settingsVersion the version of the settings
+     * @return the heatmap for the range
+     */
+    public static BalanceHeatmap compute(UserSettings userSettings, List<Entry<?>> entries, LocalDate from,
+            LocalDate to, long entriesVersion, long settingsVersion) {
+        // Project from the day before the range, so the balance before an
+        // expiration on the first date is known
+        LocalDate today = LocalDate.now();
+        LocalDate firstDate = from.minusDays(1).isBefore(today) ? today : from.minusDays(1);
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate date = firstDate; !date.isAfter(to); date = date.plusDays(1)) {
+            dates.add(date);
+        }
+        double[] balances = new PTOCalculator(userSettings).computeAccruedBalances(today, dates,
+                EntriesHelper.groupByDate(entries));
+
+        // Scale the colors to the max balance, or to the highest balance if there
+        // is no max balance
+        double referenceBalance = 1;
+        for (double balance : balances) {
+            referenceBalance = Math.max(referenceBalance, balance);
+        }
+        Double maxBalance = null;
+        if (userSettings.isMaxBalanceEnabled()) {
+            maxBalance = userSettings.getMaxBalance();
+            referenceBalance = Math.max(1, userSettings.getMaxBalance());
+        }
+
+        // Find the expiration dates where more than the carry over limit is held
+        Set<LocalDate> forfeitureDates = new HashSet<>();
+        if (userSettings.isCarryOverEnabled()) {
+            for (int year = firstDate.getYear(); year <= to.getYear(); year++) {
+                LocalDate expirationDate = userSettings.getExpirationDate().atYear(year);
+                int index = (int) (expirationDate.toEpochDay() - firstDate.toEpochDay()) - 1;
+                if (index >= 0 && index < balances.length
+                        && balances[index] > userSettings.getCarryOverLimit()) {
+                    forfeitureDates.add(expirationDate);
+                }
+            }
+        }
+
+        return new BalanceHeatmap(firstDate, to, balances, referenceBalance, maxBalance, forfeitureDates,
+                entriesVersion, settingsVersion);
+    }
+
+    /**
+     * Checks if the heatmap was computed from the given data versions.
+     *
+     * @param entriesVersion  the current version of the entries
+     * @param settingsVersion the current version of the settings
+     * @return true if the heatmap is up to date, false otherwise
+     */
+    public boolean isCurrent(long entriesVersion, long settingsVersion) {
+        return this.entriesVersion == entriesVersion && this.settingsVersion == settingsVersion;
+    }
+
+    /**
+     * Checks if the heatmap has every projected date between two dates.
+     *
+     * @param from the first date
+     * @param to   the last date
+     * @return true if the dates are covered, false otherwise
+     */
+    public boolean covers(LocalDate from, LocalDate to) {
+        // Past dates have no projection
+        if (to.isBefore(LocalDate.now())) {
+            return true;
+        }
+        LocalDate firstProjectedDate = from.isBefore(LocalDate.now()) ? LocalDate.now() : from;
+        return !firstProjectedDate.isBefore(firstDate) && !to.isAfter(lastDate);
+    }
+
+    /**
+     * Gets the style classes for a day: a level from 0 (empty) to 4 (full), and
+     * markers for days at the max balance and for days where PTO above the
+     * carry over limit expires.
+     *
+     * @param date the date of the day
+     * @return the style classes, empty if the date has no projection
+     */
+    public List<String> getStyleClasses(LocalDate date) {
+        if (date == null || date.isBefore(LocalDate.now()) || date.isBefore(firstDate) || date.isAfter(lastDate)) {
+            return List.of();
+        }
+
+        double balance = balances[(int) (date.toEpochDay() - firstDate.toEpochDay())];
+        int level = (int) Math.max(0, Math.min(4, Math.floor(balance / referenceBalance * 5)));
+        List<String> styleClasses = new ArrayList<>(3);
+        styleClasses.add(STYLE_CLASSES.get(level));
+        if (maxBalance != null && balance >= maxBalance) {
+            styleClasses.add("heatmap-cap");
+        }
+        if (forfeitureDates.contains(date)) {
+            styleClasses.add("heatmap-forfeit");
+        }
+        return styleClasses;
+    }
+}
@@ -0,0 +1,108 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package gui;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javafx.application.Platform;
+
+import utilities.Log;
+
+/**
+ * Runs balance calculations on virtual threads so they never block the JavaFX
+ * Application Thread. Requests are grouped by a key, and a new request
+ * supersedes the pending request with the same key: the older calculation is
+ * cancelled and its result is never published.
+ *
+ * All methods must be called on the JavaFX Application Thread, and results
+ * are published on it. Calculations must only use data that was copied before
+ * submitting them, such as copies of the calendar entries and user settings.
+ */
+public class CalculationService {
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, Request> latestRequests = new HashMap<>();
+
+    /**
+     * A submitted calculation with the future its result is published to.
+     */
+    private static class Request {
+        private final CompletableFuture<?> result;
+        private Future<?> task;
+
+        Request(CompletableFuture<?> result) {
+            this.result = result;
+        }
+
+        void cancel() {
+            task.cancel(true);
+            result.cancel(false);
+        }
+    }
+
+    /**
+     * Submits a calculation, cancelling the pending calculation with the same
+     * key.
+     *
+     * @param <T>         the type of the result
+     * @param key         the key of the calculation, such as "validation"
+     * @param calculation the calculation to run in the background
+     * @return a future completed with the result on the JavaFX Application
+     *         Thread, or cancelled if the calculation is superseded
+     */
+    public <T> CompletableFuture<T> submit(String key, Callable<T> calculation) {
+        // Cancel the superseded request
+        Request previous = latestRequests.get(key);
+        if (previous != null) {
+            previous.cancel();
+        }
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Request request = new Request(result);
+        latestRequests.put(key, request);
+        request.task = executor.submit(() -> {
+            try {
+                T value = calculation.call();
+                publish(key, request, () -> result.complete(value));
+            } catch (Exception e) {
+                publish(key, request, () -> {
+                    Log.error("calculation.failed", "key", key, "exception", e.getClass().getName(), "message",
+                            e.getMessage());
+                    result.completeExceptionally(e);
+                });
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Publishes the outcome of a request on the JavaFX Application Thread unless
+     * a newer request with the same key was submitted.
+     */
+    private void publish(String key, Request request, Runnable outcome) {
+        Platform.runLater(() -> {
+            if (latestRequests.get(key) == request) {
+                latestRequests.remove(key);
+                outcome.run();
+            }
+        });
+    }
+
+    /**
+     * Cancels all pending calculations and stops the background threads.
+     */
+    public void close() {
+        for (Request request : latestRequests.values()) {
+            request.cancel();
+        }
+        latestRequests.clear();
+        executor.shutdownNow();
+    }
+}
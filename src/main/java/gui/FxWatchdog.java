@@ -0,0 +1,135 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package gui;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javafx.application.Platform;
+import utilities.Log;
+import utilities.Metrics;
+
+/**
+ * Watches the JavaFX Application Thread for stalls. A ping is posted to the
+ * thread at a fixed cadence and the delay until it runs is recorded in the
+ * {@code ui.pause} histogram. When a ping waits longer than the threshold, the
+ * stack of the JavaFX Application Thread is logged together with the last
+ * calendar event it handled, while the stall is still in progress.
+ */
+public class FxWatchdog {
+    private static final int MAX_STACK_FRAMES = 40;
+
+    private final Thread fxThread;
+    private final long periodMillis;
+    private final long thresholdNanos;
+    private final Metrics.Timer pauses = Metrics.timer("ui.pause");
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "FX Watchdog Thread");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Time the outstanding ping was posted, or 0 if it already ran
+    private volatile long pingPostedAt = 0;
+    private volatile boolean stallReported = false;
+
+    // Last calendar event handled on the JavaFX Application Thread
+    private volatile String lastEvent;
+    private volatile long lastEventAt;
+
+    /**
+     * Constructor to watch the current thread, which must be the JavaFX
+     * Application Thread.
+     *
+     * @param periodMillis    how often to ping the thread
+     * @param thresholdMillis the delay after which a ping counts as a stall
+     */
+    public FxWatchdog(long periodMillis, long thresholdMillis) {
+        this.fxThread = Thread.currentThread();
+        this.periodMillis = periodMillis;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+    }
+
+    /**
+     * Starts pinging the JavaFX Application Thread.
+     */
+    public void start() {
+        executor.scheduleWithFixedDelay(this::check, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the watchdog.
+     */
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Remembers the calendar event being handled, to report it if the thread
+     * stalls. Called on the JavaFX Application Thread.
+     *
+     * @param description the type of the calendar event
+     */
+    public void recordEvent(String description) {
+        lastEvent = description;
+        lastEventAt = System.nanoTime();
+    }
+
+    /**
+     * Gets the histogram of the measured delays.
+     *
+     * @return the timer holding the delays
+     */
+    public Metrics.Timer getPauses() {
+        return pauses;
+    }
+
+    /**
+     * Posts a ping if the last one ran, otherwise reports the stall once the
+     * ping has waited longer than the threshold.
+     */
+    private void check() {
+        long now = System.nanoTime();
+        long postedAt = pingPostedAt;
+        if (postedAt == 0) {
+            stallReported = false;
+            pingPostedAt = now;
+            Platform.runLater(() -> {
+                long delay = System.nanoTime() - now;
+                pauses.record(delay);
+                if (stallReported) {
+                    Log.warn("ui.resumed", "durationMs", TimeUnit.NANOSECONDS.toMillis(delay));
+                }
+                pingPostedAt = 0;
+            });
+        } else if (!stallReported && now - postedAt > thresholdNanos) {
+            stallReported = true;
+            reportStall(now - postedAt);
+        }
+    }
+
+    /**
+     * Logs the stack of the stalled JavaFX Application Thread.
+     *
+     * @param stallNanos how long the thread has been stalled
+     */
+    private void reportStall(long stallNanos) {
+        StringBuilder report = new StringBuilder();
+        StackTraceElement[] stack = fxThread.getStackTrace();
+        for (int i = 0; i < Math.min(stack.length, MAX_STACK_FRAMES); i++) {
+            report.append(System.lineSeparator()).append("    at ").append(stack[i]);
+        }
+        if (stack.length > MAX_STACK_FRAMES) {
+            report.append(System.lineSeparator()).append("    ... ").append(stack.length - MAX_STACK_FRAMES)
+                    .append(" more");
+        }
+
+        String event = lastEvent;
+        Log.warn("ui.stalled", "durationMs", TimeUnit.NANOSECONDS.toMillis(stallNanos), "lastEvent", event,
+                "lastEventAgoMs", event != null ? TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastEventAt) : null,
+                "stack", report);
+    }
+}
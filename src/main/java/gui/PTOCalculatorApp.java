@@ -4,15 +4,25 @@
 
 package gui;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Iterator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 
 import org.controlsfx.control.PopOver;
 import org.kordamp.ikonli.fontawesome.FontAwesome;
@@ -23,6 +33,7 @@ import com.calendarfx.model.Calendar.Style;
 import com.calendarfx.model.CalendarEvent;
 import com.calendarfx.model.CalendarSource;
 import com.calendarfx.model.Entry;
+import com.calendarfx.model.Interval;
 import com.calendarfx.view.CalendarView;
 import com.calendarfx.view.CalendarView.Page;
 import com.calendarfx.view.DateControl.CreateEntryParameter;
@@ -30,6 +41,8 @@ import com.calendarfx.view.DateControl.EntryContextMenuParameter;
 import com.calendarfx.view.EntryViewBase;
 import com.calendarfx.view.MonthSheetView;
 import com.calendarfx.view.MonthSheetView.ClickBehaviour;
+import com.calendarfx.view.MonthSheetView.DateCell;
+import com.calendarfx.view.MonthSheetView.DateParameter;
 import com.calendarfx.view.MonthView;
 import com.calendarfx.view.RequestEvent;
 import com.calendarfx.view.popover.EntryDetailsView;
@@ -44,12 +57,18 @@ import impl.com.calendarfx.view.print.OptionsViewSkin;
 import impl.com.calendarfx.view.print.SettingsViewSkin;
 import javafx.application.Application;
 import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
+import javafx.beans.WeakInvalidationListener;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.SimpleIntegerProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableSet;
 import javafx.event.ActionEvent;
 import javafx.event.Event;
 import javafx.event.EventHandler;
+import javafx.geometry.Bounds;
 import javafx.geometry.Orientation;
+import javafx.geometry.Point2D;
 import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
@@ -60,6 +79,8 @@ import javafx.scene.control.ContextMenu;
 import javafx.scene.control.Label;
 import javafx.scene.control.MenuItem;
 import javafx.scene.control.Separator;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.ToggleButton;
 import javafx.scene.control.Tooltip;
 import javafx.scene.image.Image;
 import javafx.scene.input.InputEvent;
@@ -71,32 +92,124 @@ import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.stage.WindowEvent;
 import javafx.util.Callback;
-import model.PTODatabase;
+import model.EntryArchive;
+import model.PTOStore;
 import model.UserSettings;
+import utilities.BalanceChange;
+import utilities.BalanceFeed;
+import utilities.BalanceQueryCache;
+import utilities.BatchEdit;
 import utilities.EntriesHelper;
+import utilities.EntryCsv;
+import utilities.EntryICalendar;
+import utilities.EntryImporter;
+import utilities.FlightRecording;
+import utilities.HolidayCalendar;
+import utilities.IntegrityChecker;
+import utilities.Log;
+import utilities.Metrics;
 import utilities.PTOCalculator;
 
 /**
  * Main class for the Paid Time Off Planning Tool providing the user interface.
  */
 public class PTOCalculatorApp extends Application {
+    private static final Metrics.Counter VALIDATION_FAILURES = Metrics.counter("validation.failures");
+    private static final Metrics.Counter REVERTS = Metrics.counter("validation.reverts");
+    private static final Metrics.Timer VALIDATION_TIMER = Metrics.timer("ui.validation");
+
+    // Number of days from today with balances published to the balance feed
+    private static final int BALANCE_FEED_DAYS = 731;
+
     private Stage primaryStage;
     private final CalendarView calendarView = new CalendarView(Page.MONTH, Page.YEAR);
     private final Calendar<?> calendar = new Calendar<>("Time Off");
 
     private final UserSettings userSettings = new UserSettings();
     private final PTOCalculator ptoCalculator = new PTOCalculator(userSettings);
-    private final PTODatabase ptoDatabase = new PTODatabase();
+    private PTOStore ptoStore;
     private final EntriesHelper entriesHelper = new EntriesHelper(calendar);
+    private final CalculationService calculationService = new CalculationService();
+
+    // Timing of each entry when the entries were last validated and saved
+    private final Map<String, EntryTiming> lastValidTimings = new HashMap<>();
+
+    // Changes made while an entry is being edited are validated when editing ends
+    private PopOver openEntryDetailsPopOver;
+    private Entry<?> deferredChangedEntry;
 
     private final Label currentBalanceLabel = new Label();
     private final PopOver projectedBalancePopOver = new PopOver();
     private final Label projectedBalanceLabel = new Label();
     private final Button settingsButton = new Button();
     private final Button addEntryButton = new Button();
+    private final Button importButton = new Button();
+    private final Button exportButton = new Button();
+    private final ToggleButton heatmapButton = new ToggleButton();
+
+    // Versions of the entries and settings, increased on every change
+    private long entriesVersion = 0;
+    private long settingsVersion = 0;
+
+    // Projected balance heatmap shown on the month and year pages
+    private BalanceHeatmap heatmap;
+    private final IntegerProperty heatmapRevision = new SimpleIntegerProperty();
+    private boolean monthViewHeatmapDirty = false;
+
+    // Projected balances shown in the balance popover
+    private final BalanceQueryCache balanceQueryCache = new BalanceQueryCache(256);
+    private LocalDate projectedBalanceDate;
+
+    // Balances changed by saved entries and settings, delivered on the JavaFX
+    // thread, and the earliest changed date not yet published
+    private final BalanceFeed balanceFeed = new BalanceFeed(Platform::runLater);
+    private LocalDate unpublishedChangeFrom;
+
+    // The store and its data are loaded in the background while the window opens
+    private final StartupReport startupReport = new StartupReport();
+    private CompletableFuture<StartupData> startupData;
+
+    // Reports stalls of the JavaFX Application Thread
+    private FxWatchdog watchdog;
+
+    /**
+     * Timing of an entry, used to restore the last valid state of the calendar.
+     */
+    private record EntryTiming(Interval interval, boolean fullDay) {
+        static EntryTiming of(Entry<?> entry) {
+            return new EntryTiming(entry.getInterval(), entry.isFullDay());
+        }
+    }
+
+    /**
+     * Data loaded from the store during startup.
+     * 
+     * @param store         the opened store
+     * @param settings      the stored user settings
+     * @param lastUpdate    the date the settings were last updated, or null
+     * @param firstTimeUser whether the user is a first-time user
+     * @param entries       the stored entries
+     */
+    private record StartupData(PTOStore store, UserSettings settings, LocalDate lastUpdate, boolean firstTimeUser,
+            List<Entry<?>> entries) {
+    }
+
+    /**
+     * Outcome of validating the calendar entries.
+     * 
+     * @param conflict  a changed entry that intersects with another entry, or
+     *                  null
+     * @param overdrawn the entries without enough balance, in date order
+     */
+    private record Validation(Entry<?> conflict, List<PTOCalculator.BalanceCheck> overdrawn) {
+        boolean isValid() {
+            return conflict == null && overdrawn.isEmpty();
+        }
+    }
 
     /**
      * Main method to run the application.
@@ -108,19 +221,58 @@ public class PTOCalculatorApp extends Application {
     }
 
     /**
-     * Starts the application and initializes the main calendar view.
+     * Starts opening the store and loading its data in the background, before
+     * the user interface is built.
+     */
+    @Override
+    public void init() {
+        Log.setDirectory(PTOStore.getDataDirectory());
+        Metrics.startPeriodicDump();
+        FlightRecording.startIfEnabled(PTOStore.getDataDirectory());
+        startupData = CompletableFuture.supplyAsync(this::loadStartupData);
+    }
+
+    /**
+     * Starts the application and initializes the main calendar view. The window
+     * is shown right away, and the calendar is enabled once the data from the
+     * store is loaded.
      * 
      * @param primaryStage The primary stage for the application.
      * @throws Exception If an error occurs during initialization.
      */
     @Override
     public void start(Stage primaryStage) throws Exception {
-        configureCalendarView();
-        customizeCalendarView();
-        buildExtraToolbarControls();
+        long stallThreshold = Long.getLong("pto.watchdog.thresholdMs", 250);
+        if (stallThreshold > 0) {
+            watchdog = new FxWatchdog(100, stallThreshold);
+            watchdog.start();
+        }
+
+        startupReport.time("Build UI", () -> {
+            configureCalendarView();
+            customizeCalendarView();
+            buildExtraToolbarControls();
+            return null;
+        });
 
         // Create the main application layout
         Scene scene = new Scene(calendarView);
+        scene.getStylesheets().add(getClass().getResource("/ptoCalculator.css").toExternalForm());
+        scene.addPostLayoutPulseListener(() -> {
+            // Color the month view days once they are laid out
+            if (monthViewHeatmapDirty) {
+                monthViewHeatmapDirty = false;
+                applyMonthViewHeatmap();
+            }
+        });
+        scene.addPostLayoutPulseListener(new Runnable() {
+            @Override
+            public void run() {
+                // The first pulse after showing the stage renders the first frame
+                startupReport.mark("First frame");
+                scene.removePostLayoutPulseListener(this);
+            }
+        });
         primaryStage.setTitle("Paid Time Off Planning Tool");
         primaryStage.getIcons().add(new Image(getClass().getResourceAsStream("/icon.png")));
         primaryStage.setScene(scene);
@@ -131,16 +283,110 @@ public class PTOCalculatorApp extends Application {
         this.primaryStage = primaryStage;
 
         calendarView.addEventHandler(RequestEvent.ANY, evt -> changeView(evt));
+        calendarView.dateProperty().addListener((observable, oldDate, newDate) -> refreshHeatmap());
+        calendarView.draggedEntryProperty().addListener((observable, oldEntry, newEntry) -> {
+            // Validate the changes made by dragging once the entry is dropped
+            if (newEntry == null) {
+                endEditGesture();
+            }
+        });
         updateToolbar();
-        loadUserSettings();
-        loadEntries();
+
+        // Disable the calendar until the data is loaded
+        calendarView.setDisable(true);
+        currentBalanceLabel.setText("Loading...");
+        startupData.whenComplete((data, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                showStartupError(error);
+            } else {
+                applyStartupData(data);
+            }
+        }));
+    }
+
+    /**
+     * Opens the store and loads the user settings and entries. Runs in the
+     * background while the window is shown.
+     * 
+     * @return the loaded data
+     */
+    private StartupData loadStartupData() {
+        PTOStore store = startupReport.time("Open store", PTOStore::open);
+
+        UserSettings settings = new UserSettings();
+        LocalDate lastUpdate = startupReport.time("Load settings", () -> store.getUserSettings(settings));
+        settings.setHolidays(startupReport.time("Load holidays", HolidayCalendar::fromSystemProperty));
+
+        // Move old entries to the archive so only the active ones are loaded
+        startupReport.time("Archive entries", () -> {
+            archiveOldEntries(store);
+            return null;
+        });
+        List<Entry<?>> entries = startupReport.time("Load entries", store::getVacations);
+        return new StartupData(store, settings, lastUpdate, store.isFirstTimeUser(), entries);
+    }
+
+    /**
+     * Applies the data loaded from the store and enables the calendar.
+     * 
+     * @param data the loaded data
+     */
+    private void applyStartupData(StartupData data) {
+        startupReport.time("Apply data", () -> {
+            ptoStore = data.store();
+            loadUserSettings(data.settings(), data.lastUpdate());
+            loadEntries(data.entries());
+            return null;
+        });
         startUpdateThread();
+        calendarView.setDisable(false);
+        startupReport.mark("Ready");
+        Log.info("startup.ready", "timing", startupReport);
 
-        if (ptoDatabase.isFirstTimeUser()) {
+        if (data.firstTimeUser()) {
             openSettings();
         }
     }
 
+    /**
+     * Shows an error when the store could not be opened and exits.
+     * 
+     * @param error the error that occurred while loading
+     */
+    private void showStartupError(Throwable error) {
+        Log.error("startup.failed", "error", error.getCause() != null ? error.getCause() : error);
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle("Startup Error");
+        alert.setHeaderText("The saved time off could not be loaded.");
+        alert.setContentText(String.valueOf(error.getCause() != null ? error.getCause() : error));
+        alert.showAndWait();
+        Platform.exit();
+    }
+
+    /**
+     * Closes the store when the application exits.
+     */
+    @Override
+    public void stop() {
+        Log.info("cache.balanceQuery", "hits", balanceQueryCache.getHitCount(), "misses",
+                balanceQueryCache.getMissCount());
+        if (Metrics.ENABLED) {
+            Log.info("metrics.report", "metrics", Metrics.report());
+        }
+        calculationService.close();
+        balanceFeed.close();
+        if (watchdog != null) {
+            watchdog.stop();
+            Metrics.Timer pauses = watchdog.getPauses();
+            Log.info("ui.pauses", "samples", pauses.getCount(), "p50Ms", pauses.getP50Millis(), "p99Ms",
+                    pauses.getP99Millis(), "maxMs", pauses.getMaxMillis());
+        }
+        if (ptoStore != null) {
+            ptoStore.close();
+        }
+        Log.flush();
+    }
+
     /**
      * Configure the initial setup for the calendar view.
      */
@@ -212,16 +458,26 @@ public class PTOCalculatorApp extends Application {
             // Fix bug with hiding when interacting with the fields
             // https://github.com/dlsc-software-consulting-gmbh/CalendarFX/issues/208
             PopOver popOver = popUp.getPopOver();
+            openEntryDetailsPopOver = popOver;
             // When the popover is hidden
             popOver.addEventFilter(WindowEvent.WINDOW_HIDDEN, evt -> {
                 // Check if reason for closing if because the scene was redrawn
                 boolean anchorLost = (popOver.getOwnerNode() == null) || (popOver.getOwnerNode().getScene() == null);
+                if (!anchorLost && openEntryDetailsPopOver == popOver) {
+                    // Editing the entry ended, so validate the changes made
+                    openEntryDetailsPopOver = null;
+                    endEditGesture();
+                }
                 if (anchorLost) {
                     Platform.runLater(() -> {
                         // Re-show the popover since the anchor was lost
                         EntryViewBase<?> entryView = calendarView.findEntryView(param.getEntry());
                         if (entryView != null && entryView.getScene() != null) {
                             popOver.show(entryView);
+                        } else if (openEntryDetailsPopOver == popOver) {
+                            // The entry is no longer shown, so editing it ended
+                            openEntryDetailsPopOver = null;
+                            endEditGesture();
                         }
                     });
                 }
@@ -275,6 +531,22 @@ public class PTOCalculatorApp extends Application {
             openBalancePopup(evt, monthSheetView, date);
         });
 
+        // Color the year view days with the projected balance heatmap
+        MonthSheetView yearMonthSheetView = calendarView.getYearPage().getMonthSheetView();
+        Callback<DateParameter, DateCell> defaultCellFactory = yearMonthSheetView.getCellFactory();
+        yearMonthSheetView.setCellFactory(param -> {
+            // Use the default cell factory to create the cell
+            DateCell cell = defaultCellFactory.call(param);
+
+            // Restyle the cell whenever the heatmap changes, keeping the listener
+            // alive only as long as the cell
+            InvalidationListener heatmapListener = observable -> applyHeatmapStyle(cell, param.getDate());
+            cell.getProperties().put("heatmap-listener", heatmapListener);
+            heatmapRevision.addListener(new WeakInvalidationListener(heatmapListener));
+            applyHeatmapStyle(cell, param.getDate());
+            return cell;
+        });
+
         // Customize the year view single click popup to show the projected balance
         calendarView.setDateDetailsCallback(param -> {
             // Extract the mouse event from the parameter
@@ -310,6 +582,7 @@ public class PTOCalculatorApp extends Application {
         projectedBalancePopOver.setDetachable(false);
         projectedBalancePopOver.setArrowLocation(PopOver.ArrowLocation.LEFT_CENTER);
         projectedBalancePopOver.setCornerRadius(4);
+        balanceFeed.subscribe(this::updateProjectedBalance);
         projectedBalancePopOver.setHideOnEscape(true);
         projectedBalancePopOver.setAutoHide(true);
     }
@@ -342,10 +615,40 @@ public class PTOCalculatorApp extends Application {
         addEntryButton.setGraphic(addEntryIcon);
         addEntryButton.setTooltip(new Tooltip("Add Entry"));
 
+        // Build the import and export buttons
+        FontIcon importIcon = new FontIcon(FontAwesome.UPLOAD);
+        importIcon.getStyleClass().addAll("button-icon");
+        importButton.setId("import-button");
+        importButton.setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+        importButton.setOnAction(evt -> importEntries());
+        importButton.setMaxHeight(Double.MAX_VALUE);
+        importButton.setGraphic(importIcon);
+        importButton.setTooltip(new Tooltip("Import Entries"));
+
+        FontIcon exportIcon = new FontIcon(FontAwesome.DOWNLOAD);
+        exportIcon.getStyleClass().addAll("button-icon");
+        exportButton.setId("export-button");
+        exportButton.setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+        exportButton.setOnAction(evt -> exportEntries());
+        exportButton.setMaxHeight(Double.MAX_VALUE);
+        exportButton.setGraphic(exportIcon);
+        exportButton.setTooltip(new Tooltip("Export Entries"));
+
         // Center the current balance label vertically
         currentBalanceLabel.setMaxHeight(Double.MAX_VALUE);
         currentBalanceLabel.setStyle("-fx-font-size: 14px;");
         currentBalanceLabel.setTooltip(new Tooltip("Balance is shown from the start of today"));
+        balanceFeed.subscribe(this::updateCurrentBalanceLabel);
+
+        // Build the heatmap toggle button
+        FontIcon heatmapIcon = new FontIcon(FontAwesome.TH);
+        heatmapIcon.getStyleClass().addAll("button-icon");
+        heatmapButton.setId("heatmap-button");
+        heatmapButton.setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+        heatmapButton.setOnAction(evt -> refreshHeatmap());
+        heatmapButton.setMaxHeight(Double.MAX_VALUE);
+        heatmapButton.setGraphic(heatmapIcon);
+        heatmapButton.setTooltip(new Tooltip("Show Projected Balance Heatmap"));
     }
 
     /**
@@ -362,8 +665,6 @@ public class PTOCalculatorApp extends Application {
                         // If the date changed, accrue PTO
                         if (!calendarView.getToday().equals(LocalDate.now())) {
                             accruePto(calendarView.getToday());
-                            // Update the current balance label
-                            updateCurrentBalanceLabel();
                         }
 
                         // Update the calendar view with the current date and time
@@ -403,253 +704,508 @@ public class PTOCalculatorApp extends Application {
 
         // Update the current balance and user settings
         userSettings.setCurrentBalance(newBalance);
+        settingsChanged();
 
         // Update the last update date to today
-        ptoDatabase.updateUserSettings(userSettings);
+        ptoStore.updateUserSettings(userSettings);
 
-        // Print the accrued PTO
+        // Log the accrued PTO
         double accrued = newBalance - originalBalance;
-        System.out.println("Accrued PTO since " + lastUpdate + ": " + accrued);
+        Log.info("pto.accrued", "since", lastUpdate, "hours", accrued);
     }
 
     /**
-     * Loads user settings from the database and computes accrued PTO.
+     * Applies the user settings loaded from the database and computes accrued
+     * PTO.
+     * 
+     * @param settings   the loaded user settings
+     * @param lastUpdate the date the settings were last updated, or null
      */
-    private void loadUserSettings() {
-        // Load user settings from the database
-        LocalDate lastUpdate = ptoDatabase.getUserSettings(userSettings);
+    private void loadUserSettings(UserSettings settings, LocalDate lastUpdate) {
+        userSettings.copyFrom(settings);
+        settingsChanged();
 
         // If the last update date is before today, accrue PTO
         if (lastUpdate != null && lastUpdate.isBefore(LocalDate.now())) {
             accruePto(lastUpdate);
         }
 
-        // Update the current balance label
-        updateCurrentBalanceLabel();
-
-        // Print the loaded user settings
-        System.out.println("Loaded User Settings: " + userSettings);
+        // Log the loaded user settings
+        Log.info("settings.loaded", "settings", userSettings);
     }
 
     /**
-     * Loads existing vacation entries from the database and adds them to the
-     * calendar.
+     * Adds the vacation entries loaded from the database to the calendar.
+     * 
+     * @param entries the loaded entries
      */
-    private void loadEntries() {
-        // Fetch all vacation entries from the database
-        List<Entry<?>> entries = ptoDatabase.getVacations();
-
-        // Add the valid entries to the calendar
-        calendar.addEntries(entries);
-        System.out.println("Loaded " + entries.size() + " entries from the database.");
+    private void loadEntries(List<Entry<?>> entries) {
+        // Add the entries to the calendar with a single change event
+        calendar.startBatchUpdates();
+        try {
+            calendar.addEntries(entries);
+        } finally {
+            calendar.stopBatchUpdates();
+        }
+        rememberValidTimings(entries);
+        Log.info("entries.loaded", "count", entries.size());
 
         // Remove invalid entries from the calendar and database
         removeInvalidEntries();
     }
 
     /**
-     * Removes invalid entries from the calendar and database.
+     * Moves the entries that ended more than {@code pto.archiveAfterYears} years
+     * ago from the store to the user's entry archive. Archiving is disabled
+     * unless the property is set and the store is kept on disk.
+     * 
+     * @param store the store to move the entries from
      */
-    private void removeInvalidEntries() {
-        // Get all entries starting from today
-        List<Entry<?>> entries = entriesHelper.getAllEntries();
+    private static void archiveOldEntries(PTOStore store) {
+        String archiveAfterYears = System.getProperty("pto.archiveAfterYears");
+        Path archivePath = store.getArchivePath();
+        if (archiveAfterYears == null || archivePath == null) {
+            return;
+        }
 
-        // Validate the entries and remove any invalid ones
-        int invalidCount = 0;
-        Iterator<Entry<?>> iterator = entries.iterator();
-        while (iterator.hasNext()) {
-            // Get the current entry
-            Entry<?> entry = iterator.next();
-
-            // Check if the entry intersects with any existing entries
-            boolean intersects = entriesHelper.intersects(entry);
-
-            // Get future entries to validate against
-            Map<LocalDate, List<Entry<?>>> futureEntries = calendar.findEntries(
-                    LocalDate.now(),
-                    LocalDate.MAX,
-                    ZoneId.systemDefault());
-
-            // If the entry is invalid, remove it from the list
-            if (!entry.getEndDate().isBefore(LocalDate.now())
-                    && (intersects || !ptoCalculator.validateEntry(entry, futureEntries))) {
-                iterator.remove();
-                calendar.removeEntry(entry);
-                invalidCount++;
-            }
+        try {
+            LocalDate cutoff = LocalDate.now().minusYears(Integer.parseInt(archiveAfterYears));
+            int archived = EntryArchive.roll(store, archivePath, cutoff);
+            Log.info("entries.archived", "count", archived, "cutoff", cutoff, "path", archivePath);
+        } catch (IOException | NumberFormatException e) {
+            Log.warn("entries.archiveFailed", "message", e.getMessage());
         }
+    }
 
-        if (invalidCount > 0) {
-            // Update the database to remove invalid entries
-            ptoDatabase.updateVacations(entries);
+    /**
+     * Removes invalid entries from the calendar and database. The entries are
+     * checked in the background, and checked again if the calendar changed
+     * meanwhile.
+     */
+    private void removeInvalidEntries() {
+        // Check copies of the entries with a copy of the settings
+        List<Entry<?>> entries = EntriesHelper.copyEntries(entriesHelper.getAllEntries());
+        IntegrityChecker integrityChecker = new IntegrityChecker(new PTOCalculator(new UserSettings(userSettings)));
+        long version = entriesVersion;
+        calculationService.submit("integrity", () -> integrityChecker.check(entries))
+                .thenAccept(problems -> {
+                    if (problems.isEmpty()) {
+                        return;
+                    }
+                    if (entriesVersion != version) {
+                        removeInvalidEntries();
+                        return;
+                    }
 
-            // Show a warning alert if there are invalid entries
-            Alert alert = new Alert(Alert.AlertType.WARNING);
-            alert.setHeaderText("Invalid Entries Found");
-            alert.setContentText("Found " + invalidCount
-                    + " invalid entries stored in the database. They have been removed from the calendar.");
-            alert.show();
-        }
+                    // Remove the invalid entries from the calendar
+                    Set<String> invalidEntries = new HashSet<>();
+                    StringBuilder details = new StringBuilder();
+                    for (IntegrityChecker.Problem problem : problems) {
+                        invalidEntries.add(problem.entry().getId());
+                        details.append(problem.getDescription()).append(System.lineSeparator());
+                        Log.warn("entries.invalid", "id", problem.entry().getId(), "problem", problem.getDescription());
+                    }
+                    BatchEdit batch = BatchEdit.begin(calendar);
+                    try {
+                        for (Entry<?> entry : entriesHelper.getAllEntries()) {
+                            if (invalidEntries.contains(entry.getId())) {
+                                entry.removeFromCalendar();
+                            }
+                        }
+                    } finally {
+                        batch.end();
+                    }
+
+                    // Update the database to remove invalid entries
+                    List<Entry<?>> validEntries = entries.stream()
+                            .filter(entry -> !invalidEntries.contains(entry.getId()))
+                            .toList();
+                    ptoStore.updateVacations(validEntries);
+                    rememberValidTimings(validEntries);
+
+                    // Show a warning alert if there are invalid entries
+                    Alert alert = new Alert(Alert.AlertType.WARNING);
+                    alert.setHeaderText("Invalid Entries Found");
+                    alert.setContentText("Found " + invalidEntries.size()
+                            + " invalid entries stored in the database. They have been removed from the calendar.");
+                    TextArea detailsArea = new TextArea(details.toString());
+                    detailsArea.setEditable(false);
+                    detailsArea.setWrapText(true);
+                    alert.getDialogPane().setExpandableContent(detailsArea);
+                    alert.show();
+                });
     }
 
     /**
-     * Handles calendar events for when an entry changes.
+     * Handles calendar events for when an entry changes. The calendar is
+     * validated in the background; if a newer change arrives first, only the
+     * newer state is validated. Changes made while dragging or editing an entry
+     * are validated once, when the gesture ends.
      * 
      * @param evt The calendar event to handle.
      */
     private void eventHandler(CalendarEvent evt) {
+        if (watchdog != null) {
+            watchdog.recordEvent(evt.getEventType().getName());
+        }
+        entriesVersion++;
+        balanceQueryCache.retainVersions(settingsVersion, entriesVersion);
+
+        // Batch updates fire a single event without an entry, and the code making
+        // the batch update validates and saves the entries itself
+        if (evt.getEntry() == null) {
+            refreshHeatmap();
+            return;
+        }
+
         // Log the calendar event to the console
         logCalendarEvent(evt);
 
-        // Check if the entry has a calendar
-        boolean hasCalendar = evt.getEntry().getCalendar() != null;
-        if (hasCalendar) {
-            // Check if the entry is in the past
-            boolean isInPast = evt.getEntry().getEndDate().isBefore(LocalDate.now());
-
-            // Get the entries
-            Map<LocalDate, List<Entry<?>>> entries = calendar.findEntries(
-                    LocalDate.now(),
-                    LocalDate.MAX,
-                    ZoneId.systemDefault());
-
-            // If the change intersects with any existing entries
-            if (entriesHelper.intersects(evt.getEntry())) {
-                // Revert the changes made to the entry
-                revertCalendarEvent(evt);
-
-                // Show an alert to the user
-                Alert alert = new Alert(Alert.AlertType.ERROR);
-                alert.setTitle("Conflicting Entry");
-                alert.setHeaderText("Entry intersects with an existing entry");
-                alert.setContentText(
-                        "You cannot take this day off because it conflicts with an existing entry.");
-                alert.showAndWait();
-
-                // Do not update the database since the change was reverted
-                return;
+        // While an entry is being dragged or edited, its interval changes in many
+        // small steps, so only check it provisionally until the gesture ends
+        boolean isTimingChange = evt.getEventType().equals(CalendarEvent.ENTRY_INTERVAL_CHANGED)
+                || evt.getEventType().equals(CalendarEvent.ENTRY_FULL_DAY_CHANGED);
+        if (isTimingChange && isEditGestureActive()) {
+            deferredChangedEntry = evt.getEntry();
+            checkProvisionally(evt.getEntry());
+            return;
+        }
+
+        validateCalendar(evt.getEntry(), evt.getEventType().equals(CalendarEvent.ENTRY_CALENDAR_CHANGED), null);
+    }
+
+    /**
+     * Checks if an entry is being dragged or edited in the entry details popover.
+     * 
+     * @return true if an edit gesture is in progress, false otherwise
+     */
+    private boolean isEditGestureActive() {
+        return openEntryDetailsPopOver != null || calendarView.getDraggedEntry() != null;
+    }
+
+    /**
+     * Validates the changes deferred during an edit gesture, once.
+     */
+    private void endEditGesture() {
+        if (deferredChangedEntry != null && !isEditGestureActive()) {
+            Entry<?> changedEntry = deferredChangedEntry;
+            deferredChangedEntry = null;
+            changedEntry.getStyleClass().remove("provisionally-invalid");
+            validateCalendar(changedEntry, false, null);
+        }
+    }
+
+    /**
+     * Cheaply checks an entry that is being edited, marking it if it looks
+     * invalid. Only the entries on the dates of the entry are checked for
+     * intersections, and the balance is projected only up to the entry, so
+     * the cost does not grow with the number of later entries.
+     * 
+     * @param entry The entry being edited.
+     */
+    private void checkProvisionally(Entry<?> entry) {
+        // Check the entries on the same dates for intersections
+        boolean intersects = calendar.findEntries(entry.getStartDate(), entry.getEndDate(), ZoneId.systemDefault())
+                .values().stream()
+                .flatMap(List::stream)
+                .anyMatch(other -> !other.getId().equals(entry.getId()) && other.intersects(entry));
+
+        // Project the balance using only the entries up to the end of the entry
+        boolean isValid = entry.getEndDate().isBefore(LocalDate.now())
+                || ptoCalculator.validateEntry(entry, calendar.findEntries(
+                        LocalDate.now(),
+                        entry.getEndDate(),
+                        ZoneId.systemDefault()));
+
+        // Mark the entry while it looks invalid
+        if (intersects || !isValid) {
+            if (!entry.getStyleClass().contains("provisionally-invalid")) {
+                entry.getStyleClass().add("provisionally-invalid");
             }
-            // If the change is invalid
-            if (!isInPast) {
-                if (!ptoCalculator.validateEntry(evt.getEntry(), entries)) {
-                    // Revert the changes made to the entry
-                    revertCalendarEvent(evt);
-
-                    // Show an alert to the user
-                    boolean isNew = evt.getEventType().equals(CalendarEvent.ENTRY_CALENDAR_CHANGED);
-                    Alert alert = new Alert(Alert.AlertType.ERROR);
-                    alert.setHeaderText("Not enough PTO balance");
-                    if (isNew) {
-                        alert.setTitle("Invalid Entry");
-                        alert.setContentText("You will not have enough PTO balance to take this day off!");
-                    } else {
-                        alert.setTitle("Invalid Entry Change");
-                        alert.setContentText("You will not have enough PTO balance to make this change!");
-                    }
-                    alert.showAndWait();
+        } else {
+            entry.getStyleClass().remove("provisionally-invalid");
+        }
+    }
 
-                    // Do not update the database since the change was reverted
-                    return;
-                }
+    /**
+     * Validates the whole calendar in the background after a change. Valid
+     * states are saved, and invalid ones are reverted to the last valid state.
+     * If the calendar changed while it was validated, such as by an edit
+     * gesture, it is validated again instead of saving a state that was not
+     * validated.
+     * A batch edit is validated and saved as one change, and rolled back as a
+     * whole if it is invalid.
+     * 
+     * @param changedEntry The entry of the latest change, or null for a batch
+     *                     edit.
+     * @param isNew        Whether the latest change added or removed the entry.
+     * @param batch        The ended batch edit that made the changes, or null.
+     */
+    private void validateCalendar(Entry<?> changedEntry, boolean isNew, BatchEdit batch) {
+        // Changes deferred by an edit gesture are validated now as well
+        deferredChangedEntry = null;
+        refreshHeatmap();
+
+        // Find the entries changed since the last valid state
+        List<Entry<?>> entries = EntriesHelper.copyEntries(entriesHelper.getAllEntries());
+        Set<String> changedEntries = new HashSet<>();
+        for (Entry<?> entry : entries) {
+            if (!EntryTiming.of(entry).equals(lastValidTimings.get(entry.getId()))) {
+                changedEntries.add(entry.getId());
+            }
+        }
 
-                // If the change makes other entries invalid
-                for (Entry<?> entry : entriesHelper.getAllEntries()) {
-                    if (!entry.getEndDate().isBefore(LocalDate.now()) && !ptoCalculator.validateEntry(entry, entries)) {
-                        // Revert the changes made to the entry
-                        revertCalendarEvent(evt);
+        // Validate copies of the entries with a copy of the settings
+        PTOCalculator calculator = new PTOCalculator(new UserSettings(userSettings));
+        long version = entriesVersion;
+        long start = VALIDATION_TIMER.start();
+        calculationService.submit("validation", () -> validateEntries(calculator, entries, changedEntries))
+                .whenComplete((validation, error) -> {
+                    // A newer change is validated instead
+                    if (error instanceof CancellationException) {
+                        return;
+                    }
 
-                        // Show an alert to the user
-                        boolean isNew = evt.getEventType().equals(CalendarEvent.ENTRY_CALENDAR_CHANGED);
-                        Alert alert = new Alert(Alert.AlertType.ERROR);
-                        alert.setHeaderText("Invalidates other entries");
-                        String dateString = entry.getStartDate().format(DateTimeFormatter.ofPattern("MMMM dd, yyyy"));
-                        if (isNew) {
-                            alert.setTitle("Invalid Entry");
-                            alert.setContentText("Adding this entry will invalidate an entry on " + dateString + "!");
-                        } else {
-                            alert.setTitle("Invalid Entry Change");
-                            alert.setContentText("Changing this entry will invalidate an entry on " + dateString + "!");
+                    // Measure from the change until the result is on the JavaFX thread
+                    VALIDATION_TIMER.stop(start);
+                    if (error != null) {
+                        // Revert the changes, since they could not be validated
+                        if (batch != null) {
+                            batch.rollback();
                         }
+                        revertToLastValidTimings();
+                        Alert alert = new Alert(Alert.AlertType.ERROR);
+                        alert.setTitle("Validation Failed");
+                        alert.setHeaderText("The change could not be validated and was undone");
+                        alert.setContentText(String.valueOf(error.getMessage()));
                         alert.showAndWait();
-
-                        // Do not update the database since the change was reverted
-                        return;
+                    } else if (validation.isValid() && entriesVersion != version) {
+                        // Validate the newer state, unless an edit gesture is
+                        // still changing it and validates it when it ends
+                        if (deferredChangedEntry == null) {
+                            validateCalendar(changedEntry, isNew, null);
+                        }
+                    } else if (validation.isValid()) {
+                        // Update the database with the validated entries
+                        ptoStore.updateVacations(entries);
+                        rememberValidTimings(entries);
+                    } else {
+                        // Revert the changes and tell the user why
+                        VALIDATION_FAILURES.increment();
+                        if (batch != null) {
+                            batch.rollback();
+                        }
+                        revertToLastValidTimings();
+                        showValidationError(validation, changedEntry, isNew);
                     }
+                });
+    }
+
+    /**
+     * Validates the calendar entries: changed entries must not intersect with
+     * other entries, and the balance must cover every future entry.
+     * 
+     * @param ptoCalculator  The calculator to validate the balance with.
+     * @param entries        Detached copies of all entries.
+     * @param changedEntries The IDs of the entries changed since the last valid
+     *                       state.
+     * @return The outcome of the validation.
+     */
+    private static Validation validateEntries(PTOCalculator ptoCalculator, List<Entry<?>> entries,
+            Set<String> changedEntries) {
+        // Check if a changed entry intersects with any existing entries
+        Entry<?> conflict = null;
+        for (Entry<?> entry : EntriesHelper.findIntersections(entries).keySet()) {
+            if (changedEntries.contains(entry.getId())) {
+                conflict = entry;
+                break;
+            }
+        }
+
+        // Check the balance of all future entries in one pass
+        return new Validation(conflict,
+                ptoCalculator.findOverdrawnEntries(entries, EntriesHelper.groupByDate(entries)));
+    }
+
+    /**
+     * Remembers the timing of the entries as the last valid state.
+     * 
+     * @param entries The entries that were validated and saved.
+     */
+    private void rememberValidTimings(List<Entry<?>> entries) {
+        // Find the earliest date of the added, changed and removed entries
+        LocalDate changedFrom = null;
+        Map<String, EntryTiming> removedTimings = new HashMap<>(lastValidTimings);
+        for (Entry<?> entry : entries) {
+            EntryTiming timing = EntryTiming.of(entry);
+            EntryTiming lastTiming = removedTimings.remove(entry.getId());
+            if (!timing.equals(lastTiming)) {
+                changedFrom = earliest(changedFrom, timing.interval().getStartDate());
+                if (lastTiming != null) {
+                    changedFrom = earliest(changedFrom, lastTiming.interval().getStartDate());
                 }
             }
         }
+        for (EntryTiming timing : removedTimings.values()) {
+            changedFrom = earliest(changedFrom, timing.interval().getStartDate());
+        }
 
-        // Update the database with the current entries
-        ptoDatabase.updateVacations(entriesHelper.getAllEntries());
+        lastValidTimings.clear();
+        for (Entry<?> entry : entries) {
+            lastValidTimings.put(entry.getId(), EntryTiming.of(entry));
+        }
+
+        // Publish the balances changed by the saved entries
+        if (changedFrom != null) {
+            publishBalanceChange(changedFrom);
+        }
     }
 
     /**
-     * Logs the calendar event to the console.
+     * Gets the earlier of two dates.
      * 
-     * @param evt The calendar event to log.
+     * @param date  A date, or null.
+     * @param other Another date.
+     * @return The earlier date.
      */
-    private void logCalendarEvent(CalendarEvent evt) {
+    private static LocalDate earliest(LocalDate date, LocalDate other) {
+        return date == null || other.isBefore(date) ? other : date;
+    }
 
-        // Added or removed entries
-        if (evt.getEventType().equals(CalendarEvent.ENTRY_CALENDAR_CHANGED)) {
-            if (evt.getEntry().getCalendar() != null) {
-                System.out.println("Added entry " + evt.getEntry().getTitle());
-            } else {
-                System.out.println("Removed entry " + evt.getEntry().getTitle());
+    /**
+     * Projects the balances from a changed date until the end of the feed range
+     * in the background, and publishes them to the balance feed. A change made
+     * before the previous one was published supersedes it, so its range is
+     * extended to cover both.
+     * 
+     * @param changedFrom The earliest date with a changed balance.
+     */
+    private void publishBalanceChange(LocalDate changedFrom) {
+        LocalDate today = LocalDate.now();
+        LocalDate to = today.plusDays(BALANCE_FEED_DAYS - 1);
+        unpublishedChangeFrom = earliest(unpublishedChangeFrom, earliest(to, changedFrom.isBefore(today)
+                ? today
+                : changedFrom));
+        LocalDate from = unpublishedChangeFrom;
+
+        // Project with copies of the entries and settings
+        List<Entry<?>> entries = EntriesHelper.copyEntries(entriesHelper.getAllEntries());
+        PTOCalculator calculator = new PTOCalculator(new UserSettings(userSettings));
+        calculationService.submit("balanceFeed",
+                () -> BalanceChange.project(calculator, EntriesHelper.groupByDate(entries), from, to))
+                .thenAccept(change -> {
+                    unpublishedChangeFrom = null;
+                    balanceFeed.submit(change);
+                });
+    }
+
+    /**
+     * Reverts the calendar to the last valid state: new entries are removed and
+     * changed entries get their last valid timing back.
+     */
+    private void revertToLastValidTimings() {
+        REVERTS.increment();
+        calendar.startBatchUpdates();
+        try {
+            for (Entry<?> entry : entriesHelper.getAllEntries()) {
+                EntryTiming timing = lastValidTimings.get(entry.getId());
+                if (timing == null) {
+                    // Remove the new entry from the calendar
+                    entry.removeFromCalendar();
+                } else if (!timing.equals(EntryTiming.of(entry))) {
+                    // Replace the entry with one with the last valid timing
+                    entry.removeFromCalendar();
+                    Entry<Object> restored = new Entry<>(entry.getTitle(), timing.interval(), entry.getId());
+                    restored.setFullDay(timing.fullDay());
+                    calendar.addEntry(restored);
+                }
             }
+        } finally {
+            calendar.stopBatchUpdates();
         }
-        // Entry full day property changes
-        else if (evt.getEventType().equals(CalendarEvent.ENTRY_FULL_DAY_CHANGED)) {
-            System.out.println("Entry " + evt.getEntry().getTitle() + " changed to "
-                    + (evt.getEntry().isFullDay() ? "full day" : "partial day"));
+
+        // Save the reverted entries, keeping any valid changes such as removals
+        List<Entry<?>> entries = entriesHelper.getAllEntries();
+        ptoStore.updateVacations(entries);
+        rememberValidTimings(entries);
+    }
+
+    /**
+     * Shows an alert explaining why a change was reverted.
+     * 
+     * @param validation   The failed validation.
+     * @param changedEntry The entry of the latest change, or null for a batch
+     *                     edit.
+     * @param isNew        Whether the latest change added the entry.
+     */
+    private void showValidationError(Validation validation, Entry<?> changedEntry, boolean isNew) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+
+        // If the change intersects with any existing entries
+        if (validation.conflict() != null) {
+            alert.setTitle("Conflicting Entry");
+            alert.setHeaderText("Entry intersects with an existing entry");
+            alert.setContentText("You cannot take this day off because it conflicts with an existing entry.");
+            alert.showAndWait();
+            return;
         }
-        // Entry interval property changes
-        else if (evt.getEventType().equals(CalendarEvent.ENTRY_INTERVAL_CHANGED)) {
-            System.out.println("Entry " + evt.getEntry().getTitle() + " changed to "
-                    + evt.getEntry().getInterval());
+
+        // If the change itself is not covered by the balance
+        alert.setTitle(isNew ? "Invalid Entry" : "Invalid Entry Change");
+        PTOCalculator.BalanceCheck firstOverdrawn = validation.overdrawn().getFirst();
+        if (changedEntry == null) {
+            alert.setHeaderText("Not enough PTO balance");
+            alert.setContentText("You will not have enough PTO balance to make these changes!");
+            alert.showAndWait();
+            return;
         }
-        // Entry title property changes
-        else if (evt.getEventType().equals(CalendarEvent.ENTRY_TITLE_CHANGED)) {
-            System.out.println("Entry title changed to " + evt.getEntry().getTitle());
+        boolean changedOverdrawn = validation.overdrawn().stream()
+                .anyMatch(check -> check.entry().getId().equals(changedEntry.getId()));
+        if (changedOverdrawn) {
+            alert.setHeaderText("Not enough PTO balance");
+            alert.setContentText(isNew ? "You will not have enough PTO balance to take this day off!"
+                    : "You will not have enough PTO balance to make this change!");
+        }
+        // If the change makes other entries invalid
+        else {
+            alert.setHeaderText("Invalidates other entries");
+            String dateString = firstOverdrawn.entry().getStartDate().format(DateTimeFormatter.ofPattern("MMMM dd, yyyy"));
+            alert.setContentText((isNew ? "Adding" : "Changing") + " this entry will invalidate an entry on "
+                    + dateString + "!");
         }
+        alert.showAndWait();
     }
 
     /**
-     * Reverts the changes made to an entry based on the calendar event.
+     * Logs the calendar event.
      * 
-     * @param evt The calendar event that triggered the revert.
+     * @param evt The calendar event to log.
      */
-    private void revertCalendarEvent(CalendarEvent evt) {
-        // If the entry was added
+    private void logCalendarEvent(CalendarEvent evt) {
+        if (!Log.isEnabled(Log.Level.INFO)) {
+            return;
+        }
+
+        Entry<?> entry = evt.getEntry();
+        String type = evt.getEventType().getName();
+
+        // Added or removed entries
         if (evt.getEventType().equals(CalendarEvent.ENTRY_CALENDAR_CHANGED)) {
-            // Remove the entry from the calendar
-            evt.getEntry().removeFromCalendar();
+            Log.info(entry.getCalendar() != null ? "calendar.entryAdded" : "calendar.entryRemoved", "id",
+                    entry.getId(), "title", entry.getTitle(), "interval", entry.getInterval());
         }
         // Entry full day property changes
         else if (evt.getEventType().equals(CalendarEvent.ENTRY_FULL_DAY_CHANGED)) {
-            // Remove the entry from the calendar
-            evt.getEntry().removeFromCalendar();
-
-            // Create a new entry with the old interval
-            Entry<Object> entry = new Entry<>(
-                    evt.getEntry().getTitle(),
-                    evt.getEntry().getInterval(),
-                    evt.getEntry().getId());
-            entry.setFullDay(!evt.getEntry().isFullDay()); // Can't use getOldFullDay() here because it's broken
-            calendar.addEntry(entry);
+            Log.info("calendar.entryChanged", "type", type, "id", entry.getId(), "fullDay", entry.isFullDay());
         }
         // Entry interval property changes
         else if (evt.getEventType().equals(CalendarEvent.ENTRY_INTERVAL_CHANGED)) {
-            // Remove the entry from the calendar
-            evt.getEntry().removeFromCalendar();
-
-            // Create a new entry with the old interval
-            Entry<Object> entry = new Entry<>(
-                    evt.getEntry().getTitle(),
-                    evt.getOldInterval(),
-                    evt.getEntry().getId());
-            entry.setFullDay(evt.getEntry().isFullDay());
-            calendar.addEntry(entry);
+            Log.info("calendar.entryChanged", "type", type, "id", entry.getId(), "interval", entry.getInterval(),
+                    "duration", entry.getDuration());
+        }
+        // Entry title property changes
+        else if (evt.getEventType().equals(CalendarEvent.ENTRY_TITLE_CHANGED)) {
+            Log.info("calendar.entryChanged", "type", type, "id", entry.getId(), "title", entry.getTitle());
         }
     }
 
@@ -663,16 +1219,28 @@ public class PTOCalculatorApp extends Application {
         if (!evt.isStillSincePress() || evt.getButton().equals(MouseButton.PRIMARY) && evt.getClickCount() == 1) {
             // If the date is in the future
             if (date != null && !date.isBefore(LocalDate.now())) {
-                // Compute the projected PTO balance at the start of the date
-                Map<LocalDate, List<Entry<?>>> entries = calendar.findEntries(
-                        LocalDate.now(),
-                        LocalDate.MAX,
-                        ZoneId.systemDefault());
-                double balance = ptoCalculator.computeBalanceAtDate(date, entries);
+                double screenX = evt.getScreenX() + 10;
+                double screenY = evt.getScreenY();
 
-                // Show the projected balance in the popover
-                projectedBalanceLabel.setText(String.format("Projected PTO balance (start of date): %.2f", balance));
-                projectedBalancePopOver.show(owner, evt.getScreenX() + 10, evt.getScreenY());
+                // Use the cached balance if nothing changed since it was computed
+                Double cachedBalance = balanceQueryCache.get(date, settingsVersion, entriesVersion);
+                if (cachedBalance != null) {
+                    showProjectedBalance(owner, screenX, screenY, date, cachedBalance);
+                    return;
+                }
+
+                // Compute the projected PTO balance at the start of the date in the
+                // background, using copies of the entries and settings
+                List<Entry<?>> entries = EntriesHelper.copyEntries(entriesHelper.getAllEntries());
+                PTOCalculator calculator = new PTOCalculator(new UserSettings(userSettings));
+                long currentSettingsVersion = settingsVersion;
+                long currentEntriesVersion = entriesVersion;
+                calculationService.submit("balance",
+                        () -> calculator.computeBalanceAtDate(date, EntriesHelper.groupByDate(entries)))
+                        .thenAccept(balance -> {
+                            balanceQueryCache.put(date, currentSettingsVersion, currentEntriesVersion, balance);
+                            showProjectedBalance(owner, screenX, screenY, date, balance);
+                        });
             } else {
                 projectedBalancePopOver.hide();
             }
@@ -681,6 +1249,34 @@ public class PTOCalculatorApp extends Application {
         }
     }
 
+    /**
+     * Shows a projected balance in the balance popover.
+     * 
+     * @param owner   The node the popover belongs to.
+     * @param screenX The horizontal screen position of the popover.
+     * @param screenY The vertical screen position of the popover.
+     * @param date    The date of the projected balance.
+     * @param balance The projected balance.
+     */
+    private void showProjectedBalance(Node owner, double screenX, double screenY, LocalDate date, double balance) {
+        projectedBalanceDate = date;
+        projectedBalanceLabel.setText(String.format("Projected PTO balance (start of date): %.2f", balance));
+        projectedBalancePopOver.show(owner, screenX, screenY);
+    }
+
+    /**
+     * Updates the balance in the open balance popover when it changed.
+     * 
+     * @param change The published balance change.
+     */
+    private void updateProjectedBalance(BalanceChange change) {
+        if (projectedBalancePopOver.isShowing() && change.covers(projectedBalanceDate)
+                && !Double.isNaN(change.balanceAt(projectedBalanceDate))) {
+            projectedBalanceLabel.setText(String.format("Projected PTO balance (start of date): %.2f",
+                    change.balanceAt(projectedBalanceDate)));
+        }
+    }
+
     /**
      * Handle events that change the view, such as switching between month and week
      * views.
@@ -692,6 +1288,7 @@ public class PTOCalculatorApp extends Application {
         if (evt instanceof ActionEvent || evt instanceof RequestEvent) {
             projectedBalancePopOver.hide();
             updateToolbar();
+            refreshHeatmap();
         }
     }
 
@@ -718,13 +1315,20 @@ public class PTOCalculatorApp extends Application {
         leftToolBarBox.getChildren().add(2, new Separator(Orientation.VERTICAL));
         leftToolBarBox.getChildren().add(3, addEntryButton);
 
+        // Add the import and export buttons
+        leftToolBarBox.getChildren().add(4, importButton);
+        leftToolBarBox.getChildren().add(5, exportButton);
+
+        // Add the heatmap toggle button
+        leftToolBarBox.getChildren().add(6, heatmapButton);
+
         // Add the current balance label
         if (calendarView.getSelectedPage().equals(Page.YEAR)) {
-            leftToolBarBox.getChildren().add(6, new Separator(Orientation.VERTICAL));
-            leftToolBarBox.getChildren().add(7, currentBalanceLabel);
+            leftToolBarBox.getChildren().add(9, new Separator(Orientation.VERTICAL));
+            leftToolBarBox.getChildren().add(10, currentBalanceLabel);
         } else {
-            leftToolBarBox.getChildren().add(4, new Separator(Orientation.VERTICAL));
-            leftToolBarBox.getChildren().add(5, currentBalanceLabel);
+            leftToolBarBox.getChildren().add(7, new Separator(Orientation.VERTICAL));
+            leftToolBarBox.getChildren().add(8, currentBalanceLabel);
         }
 
         // Customize the print button action
@@ -757,10 +1361,104 @@ public class PTOCalculatorApp extends Application {
     }
 
     /**
-     * Updates the current balance label with the current PTO balance
+     * Records a change of the user settings and updates the heatmap.
+     */
+    private void settingsChanged() {
+        settingsVersion++;
+        balanceQueryCache.retainVersions(settingsVersion, entriesVersion);
+        refreshHeatmap();
+        publishBalanceChange(LocalDate.now());
+    }
+
+    /**
+     * Updates the projected balance heatmap for the displayed year. The balances
+     * for the displayed year and the years around it are projected in one batch
+     * in the background, and reused until the entries or settings change.
+     */
+    private void refreshHeatmap() {
+        // Remove the heatmap if it is turned off
+        if (!heatmapButton.isSelected()) {
+            if (heatmap != null) {
+                heatmap = null;
+                showHeatmap();
+            }
+            return;
+        }
+
+        // Reuse the heatmap if it is up to date and covers the displayed year
+        int year = calendarView.getDate().getYear();
+        LocalDate from = LocalDate.of(year, 1, 1);
+        LocalDate to = LocalDate.of(year, 12, 31);
+        if (heatmap != null && heatmap.isCurrent(entriesVersion, settingsVersion) && heatmap.covers(from, to)) {
+            showHeatmap();
+            return;
+        }
+
+        // Project the balances for the displayed year and the years around it
+        List<Entry<?>> entries = EntriesHelper.copyEntries(entriesHelper.getAllEntries());
+        UserSettings settings = new UserSettings(userSettings);
+        long currentEntriesVersion = entriesVersion;
+        long currentSettingsVersion = settingsVersion;
+        calculationService.submit("heatmap", () -> BalanceHeatmap.compute(settings, entries,
+                from.minusYears(1), to.plusYears(1), currentEntriesVersion, currentSettingsVersion))
+                .thenAccept(result -> {
+                    if (heatmapButton.isSelected()) {
+                        heatmap = result;
+                        showHeatmap();
+                    }
+                });
+    }
+
+    /**
+     * Restyles the day cells of the month and year pages with the current
+     * heatmap.
      */
-    private void updateCurrentBalanceLabel() {
-        currentBalanceLabel.setText(String.format("Current PTO Balance: %.2f", userSettings.getCurrentBalance()));
+    private void showHeatmap() {
+        // The year view cells listen to the revision
+        heatmapRevision.set(heatmapRevision.get() + 1);
+
+        // The month view days are colored after the next layout pass
+        monthViewHeatmapDirty = true;
+        calendarView.getMonthPage().getMonthView().requestLayout();
+    }
+
+    /**
+     * Colors the days of the month view. The month view has no cell factory, so
+     * the date of each day is found from its position.
+     */
+    private void applyMonthViewHeatmap() {
+        MonthView monthView = calendarView.getMonthPage().getMonthView();
+        for (Node day : monthView.lookupAll(".day")) {
+            Bounds bounds = day.localToScene(day.getBoundsInLocal());
+            Point2D center = monthView.sceneToLocal(bounds.getCenterX(), bounds.getCenterY());
+            ZonedDateTime date = center == null ? null
+                    : monthView.getZonedDateTimeAt(center.getX(), center.getY(), calendarView.getZoneId());
+            applyHeatmapStyle(day, date == null ? null : date.toLocalDate());
+        }
+    }
+
+    /**
+     * Replaces the heatmap style classes of a day.
+     * 
+     * @param day  The node showing the day.
+     * @param date The date of the day.
+     */
+    private void applyHeatmapStyle(Node day, LocalDate date) {
+        List<String> styleClasses = heatmap == null ? List.of() : heatmap.getStyleClasses(date);
+        day.getStyleClass().removeAll(BalanceHeatmap.STYLE_CLASSES);
+        day.getStyleClass().addAll(styleClasses);
+    }
+
+    /**
+     * Updates the current balance label when the balance of today changed.
+     * 
+     * @param change The published balance change.
+     */
+    private void updateCurrentBalanceLabel(BalanceChange change) {
+        LocalDate today = LocalDate.now();
+        if (change.covers(today) && !Double.isNaN(change.balanceAt(today))) {
+            currentBalanceLabel.setText(String.format("Current PTO Balance: %.2f", change.balanceAt(today)));
+        }
     }
 
     /**
@@ -774,9 +1472,15 @@ public class PTOCalculatorApp extends Application {
         alert.setHeaderText("Are you sure you want to delete the selected " + (count == 1 ? "entry?" : "entries?"));
         Optional<ButtonType> result = alert.showAndWait();
 
-        // If the user confirmed, delete the entries
+        // If the user confirmed, delete the entries in one batch edit
         if (result.isPresent() && result.get() == ButtonType.OK) {
-            calendar.removeEntries(entries);
+            BatchEdit batch = BatchEdit.begin(calendar);
+            try {
+                calendar.removeEntries(entries);
+            } finally {
+                batch.end();
+            }
+            validateCalendar(null, false, batch);
         }
     }
 
@@ -792,13 +1496,11 @@ public class PTOCalculatorApp extends Application {
         if (dialog.wasSaved()) {
             // Apply the changes to user settings and update the database
             dialog.applyTo(userSettings);
-            ptoDatabase.updateUserSettings(userSettings);
+            ptoStore.updateUserSettings(userSettings);
+            settingsChanged();
 
             // Remove all entries that are invalid with the new settings
             removeInvalidEntries();
-
-            // Update the current balance label
-            updateCurrentBalanceLabel();
         }
     }
 
@@ -811,18 +1513,22 @@ public class PTOCalculatorApp extends Application {
                 primaryStage,
                 calendarView,
                 entry -> {
-                    // Check if the entry intersects with any existing entries
-                    boolean intersects = entriesHelper.intersects(entry);
-
-                    // Check if the entry is valid
-                    Map<LocalDate, List<Entry<?>>> entries = calendar.findEntries(
-                            LocalDate.now(),
-                            LocalDate.MAX,
-                            ZoneId.systemDefault());
-                    boolean isValid = ptoCalculator.validateEntry(entry, entries);
-
-                    return intersects ? "Entry intersects with an existing entry."
-                            : isValid ? null : "You will not have enough PTO balance to take this day off!";
+                    // Validate copies of the entries with a copy of the settings
+                    Entry<?> newEntry = EntriesHelper.copyEntries(List.of(entry)).getFirst();
+                    List<Entry<?>> entries = EntriesHelper.copyEntries(entriesHelper.getAllEntries());
+                    PTOCalculator calculator = new PTOCalculator(new UserSettings(userSettings));
+                    return calculationService.submit("add-entry", () -> {
+                        // Check if the entry intersects with any existing entries
+                        boolean intersects = entries.stream().anyMatch(
+                                existingEntry -> !existingEntry.getId().equals(newEntry.getId())
+                                        && existingEntry.intersects(newEntry));
+
+                        // Check if the entry is valid
+                        boolean isValid = calculator.validateEntry(newEntry, EntriesHelper.groupByDate(entries));
+
+                        return intersects ? "Entry intersects with an existing entry."
+                                : isValid ? null : "You will not have enough PTO balance to take this day off!";
+                    });
                 });
         dialog.open();
 
@@ -833,4 +1539,138 @@ public class PTOCalculatorApp extends Application {
             calendarView.refreshData();
         }
     }
+
+    /**
+     * Imports entries from a CSV or iCalendar file chosen by the user. The entries
+     * are only added if all of them are valid.
+     */
+    private void importEntries() {
+        // Choose the file to import
+        FileChooser fileChooser = createEntryFileChooser("Import Entries");
+        File file = fileChooser.showOpenDialog(primaryStage);
+        if (file != null) {
+            importEntries(file);
+        }
+    }
+
+    /**
+     * Reads and validates the entries of a file in the background against a
+     * copy of the saved entries and settings, then saves them and adds them to
+     * the calendar. The file is imported again if the entries or settings
+     * changed meanwhile.
+     * 
+     * @param file The file to import.
+     */
+    private void importEntries(File file) {
+        EntryImporter importer = new EntryImporter(new PTOCalculator(new UserSettings(userSettings)), ptoStore);
+        List<Entry<?>> saved = ptoStore.getVacations();
+        long version = entriesVersion;
+        long currentSettingsVersion = settingsVersion;
+        calculationService.submit("import", () -> {
+            try (BufferedReader reader = Files.newBufferedReader(file.toPath())) {
+                boolean isICalendar = file.getName().toLowerCase().endsWith(".ics");
+                return importer.validate(isICalendar ? EntryICalendar.read(reader) : EntryCsv.read(reader), saved);
+            }
+        }).whenComplete((result, error) -> {
+            // A newer import runs instead
+            if (error instanceof CancellationException) {
+                return;
+            }
+
+            if (error != null) {
+                showImportError("The file could not be read", error.getMessage());
+                return;
+            }
+
+            // Show the problems that prevented the import
+            if (!result.succeeded()) {
+                showImportError("No entries were imported because " + result.problems().size()
+                        + (result.problems().size() == 1 ? " entry is invalid" : " entries are invalid"),
+                        String.join("\n", result.problems().subList(0, Math.min(10, result.problems().size()))));
+                return;
+            }
+
+            // The entries were validated against an older state
+            if (entriesVersion != version || settingsVersion != currentSettingsVersion) {
+                importEntries(file);
+                return;
+            }
+
+            // Save the entries in one transaction, so a failure saves none of them
+            if (!ptoStore.addVacations(result.imported())) {
+                showImportError("The entries could not be saved", null);
+                return;
+            }
+
+            // Add the saved entries to the calendar in one batch edit, which
+            // were already validated and saved
+            BatchEdit batch = BatchEdit.begin(calendar);
+            try {
+                calendar.addEntries(result.imported());
+            } finally {
+                batch.end();
+            }
+            // Only the saved entries were validated, not changes still pending
+            rememberValidTimings(ptoStore.getVacations());
+            Log.info("entries.imported", "count", result.imported().size(), "file", file);
+        });
+    }
+
+    /**
+     * Shows an alert explaining why an import failed.
+     * 
+     * @param header  The reason the import failed.
+     * @param details The details of the failure, or null.
+     */
+    private void showImportError(String header, String details) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle("Import Failed");
+        alert.setHeaderText(header);
+        alert.setContentText(details);
+        alert.showAndWait();
+    }
+
+    /**
+     * Exports all entries to a CSV or iCalendar file chosen by the user.
+     */
+    private void exportEntries() {
+        // Choose the file to export to
+        FileChooser fileChooser = createEntryFileChooser("Export Entries");
+        File file = fileChooser.showSaveDialog(primaryStage);
+        if (file == null) {
+            return;
+        }
+
+        // Write the entries in the format matching the file extension
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath())) {
+            List<Entry<?>> entries = entriesHelper.getAllEntries();
+            if (file.getName().toLowerCase().endsWith(".ics")) {
+                EntryICalendar.write(writer, entries);
+            } else {
+                EntryCsv.write(writer, entries);
+            }
+            Log.info("entries.exported", "count", entries.size(), "file", file);
+        } catch (IOException e) {
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setTitle("Export Failed");
+            alert.setHeaderText("The file could not be written");
+            alert.setContentText(e.getMessage());
+            alert.showAndWait();
+        }
+    }
+
+    /**
+     * Creates a file chooser for CSV and iCalendar files.
+     * 
+     * @param title The title of the file chooser.
+     * @return The file chooser.
+     */
+    private FileChooser createEntryFileChooser(String title) {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle(title);
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("CSV Files", "*.csv"),
+                new FileChooser.ExtensionFilter("iCalendar Files", "*.ics"));
+        return fileChooser;
+    }
 }
@@ -0,0 +1,82 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package gui;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Records how long each phase of the application startup takes. Phases may be
+ * recorded from any thread, so the window and the background loading can be
+ * timed together.
+ */
+public class StartupReport {
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+
+    /**
+     * Constructor to start timing. The time the JVM took to reach this point is
+     * recorded as the first phase if it is known.
+     */
+    public StartupReport() {
+        ProcessHandle.current().info().startInstant().ifPresent(processStart -> phases.put("JVM start",
+                Duration.between(processStart, Instant.now()).toNanos()));
+    }
+
+    /**
+     * Runs a phase and records its duration.
+     *
+     * @param <T>   the type of the result
+     * @param phase the name of the phase
+     * @param task  the work done in the phase
+     * @return the result of the task
+     */
+    public <T> T time(String phase, Supplier<T> task) {
+        long start = System.nanoTime();
+        try {
+            return task.get();
+        } finally {
+            record(phase, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Records a milestone as the time elapsed since the report was created.
+     *
+     * @param milestone the name of the milestone, such as "First frame"
+     */
+    public void mark(String milestone) {
+        record(milestone, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Records the duration of a phase.
+     *
+     * @param phase the name of the phase
+     * @param nanos the duration in nanoseconds
+     */
+    public synchronized void record(String phase, long nanos) {
+        phases.put(phase, nanos);
+    }
+
+    /**
+     * Formats the recorded phases, one per line, in milliseconds.
+     *
+     * @return the startup timing report
+     */
+    @Override
+    public synchronized String toString() {
+        StringBuilder report = new StringBuilder("Startup timing:");
+        for (Map.Entry<String, Long> phase : phases.entrySet()) {
+            report.append(String.format("%n  %-16s %6d ms", phase.getKey(),
+                    TimeUnit.NANOSECONDS.toMillis(phase.getValue())));
+        }
+        return report.toString();
+    }
+}
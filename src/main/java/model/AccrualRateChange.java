@@ -0,0 +1,84 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package model;
+
+import java.time.LocalDate;
+
+import utilities.AccrualPeriod;
+
+/**
+ * A change of the accrual rate, either on a fixed date (such as a new
+ * contract) or after a number of years of service (such as a seniority tier).
+ * The new rate applies from the start of the effective date until the next
+ * change.
+ *
+ * @param effectiveDate the date the rate changes on, or null for a seniority
+ *                      tier
+ * @param serviceYears  the years of service after which the rate changes, or 0
+ *                      for a fixed date
+ * @param accrualRate   the new accrual rate
+ * @param accrualPeriod the period of the new accrual rate
+ */
+public record AccrualRateChange(LocalDate effectiveDate, int serviceYears, double accrualRate,
+        AccrualPeriod accrualPeriod) {
+
+    /**
+     * Validates the change.
+     *
+     * @throws IllegalArgumentException if the change has neither or both of an
+     *                                  effective date and years of service, a
+     *                                  negative rate or no period
+     */
+    public AccrualRateChange {
+        if ((effectiveDate == null) == (serviceYears <= 0)) {
+            throw new IllegalArgumentException("Accrual rate change needs either a date or years of service");
+        }
+        if (accrualRate < 0) {
+            throw new IllegalArgumentException("Accrual rate cannot be negative");
+        }
+        if (accrualPeriod == null) {
+            throw new IllegalArgumentException("Accrual period is required");
+        }
+    }
+
+    /**
+     * Creates a change on a fixed date.
+     *
+     * @param effectiveDate the date the rate changes on
+     * @param accrualRate   the new accrual rate
+     * @param accrualPeriod the period of the new accrual rate
+     * @return the change
+     */
+    public static AccrualRateChange onDate(LocalDate effectiveDate, double accrualRate, AccrualPeriod accrualPeriod) {
+        return new AccrualRateChange(effectiveDate, 0, accrualRate, accrualPeriod);
+    }
+
+    /**
+     * Creates a change after a number of years of service.
+     *
+     * @param serviceYears  the years of service
+     * @param accrualRate   the new accrual rate
+     * @param accrualPeriod the period of the new accrual rate
+     * @return the change
+     */
+    public static AccrualRateChange afterServiceYears(int serviceYears, double accrualRate,
+            AccrualPeriod accrualPeriod) {
+        return new AccrualRateChange(null, serviceYears, accrualRate, accrualPeriod);
+    }
+
+    /**
+     * Gets the date the rate changes on for a hire date.
+     *
+     * @param hireDate the hire date, or null if unknown
+     * @return the effective date, or null for a seniority tier without a hire
+     *         date
+     */
+    public LocalDate getEffectiveDate(LocalDate hireDate) {
+        if (effectiveDate != null) {
+            return effectiveDate;
+        }
+        return hireDate != null ? hireDate.plusYears(serviceYears) : null;
+    }
+}
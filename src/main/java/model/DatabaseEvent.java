@@ -0,0 +1,60 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for an operation of the SQLite store.
+ */
+@Name("pto.DatabaseOperation")
+@Label("Database Operation")
+@Category({ "PTO Calculator", "Persistence" })
+@Description("Statements run by the SQLite store for one operation")
+final class DatabaseEvent extends jdk.jfr.Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Statement")
+    String statement;
+
+    @Label("Rows")
+    long rows;
+
+    @Label("From Cache")
+    @Description("Whether the entries were read from the entry cache file instead of the database")
+    boolean cached;
+
+    /**
+     * Starts timing an operation.
+     *
+     * @param operation the store method, such as "updateVacations"
+     * @param statement the main SQL statement of the operation
+     * @return the started event
+     */
+    static DatabaseEvent start(String operation, String statement) {
+        DatabaseEvent event = new DatabaseEvent();
+        event.operation = operation;
+        event.statement = statement;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the operation and commits the event if it is recorded.
+     *
+     * @param rows the number of rows written or read
+     */
+    void finish(long rows) {
+        end();
+        if (shouldCommit()) {
+            this.rows = rows;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,428 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.calendarfx.model.Entry;
+import com.calendarfx.model.Interval;
+
+import utilities.HolidayCalendar;
+import utilities.PTOCalculator;
+
+/**
+ * Compressed, column-oriented archive of past vacation entries. Past entries
+ * never affect projected balances, so they can be moved out of the active
+ * store to keep loading and validation fast. Each column is compressed on its
+ * own, which lets the usage aggregates be computed by decompressing only the
+ * start, duration and flag columns, without creating any entries.
+ *
+ * <pre>
+ * header:  magic, format version, count, (compressed length, raw length) per column
+ * columns: starts     (zigzag varint delta of epoch seconds, in start order)
+ *          durations  (varint seconds)
+ *          nanos      (varint nanos of second of the start and of the end)
+ *          flags      (one byte per entry)
+ *          titles     (varint index into the dictionary)
+ *          dictionary (varint count, then varint length and UTF-8 bytes per title)
+ *          ids        (varint length and UTF-8 bytes per entry)
+ * </pre>
+ */
+public class EntryArchive {
+    private static final int MAGIC = 0x5054_4F41; // "PTOA"
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int STARTS = 0;
+    private static final int DURATIONS = 1;
+    private static final int NANOS = 2;
+    private static final int FLAGS = 3;
+    private static final int TITLES = 4;
+    private static final int DICTIONARY = 5;
+    private static final int IDS = 6;
+    private static final int COLUMN_COUNT = 7;
+    private static final int HEADER_SIZE = 12 + COLUMN_COUNT * 8;
+
+    private static final int FULL_DAY = 1;
+
+    private final byte[] data;
+    private final int count;
+    private final int[] columnOffsets = new int[COLUMN_COUNT];
+    private final int[] compressedLengths = new int[COLUMN_COUNT];
+    private final int[] rawLengths = new int[COLUMN_COUNT];
+
+    // Decoded timing columns, shared by all aggregate queries
+    private long[] startSeconds;
+    private long[] durationSeconds;
+    private byte[] flags;
+
+    private EntryArchive(byte[] data) throws IOException {
+        this.data = data;
+        if (data.length == 0) {
+            count = 0;
+            return;
+        }
+
+        ByteBuffer header = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        if (data.length < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != FORMAT_VERSION) {
+            throw new IOException("Not an entry archive");
+        }
+        count = header.getInt();
+        int offset = HEADER_SIZE;
+        for (int column = 0; column < COLUMN_COUNT; column++) {
+            compressedLengths[column] = header.getInt();
+            rawLengths[column] = header.getInt();
+            columnOffsets[column] = offset;
+            offset += compressedLengths[column];
+        }
+        if (offset != data.length) {
+            throw new IOException("Corrupt entry archive");
+        }
+    }
+
+    /**
+     * Opens an archive, reading it into memory. A missing file is an empty
+     * archive.
+     *
+     * @param path the archive file
+     * @return the opened archive
+     * @throws IOException if the file cannot be read or is not an archive
+     */
+    public static EntryArchive open(Path path) throws IOException {
+        return new EntryArchive(Files.exists(path) ? Files.readAllBytes(path) : new byte[0]);
+    }
+
+    /**
+     * Writes entries to an archive, replacing any existing file atomically.
+     *
+     * @param path    the archive file
+     * @param entries the entries to archive
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, List<Entry<?>> entries) throws IOException {
+        // Sort the entries by start so the start deltas are small
+        List<Entry<?>> sortedEntries = new ArrayList<>(entries);
+        sortedEntries.sort(Comparator.comparing(Entry::getStartAsLocalDateTime));
+
+        // Encode each column separately
+        ColumnWriter[] columns = new ColumnWriter[COLUMN_COUNT];
+        for (int column = 0; column < COLUMN_COUNT; column++) {
+            columns[column] = new ColumnWriter();
+        }
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        long previousStart = 0;
+        for (Entry<?> entry : sortedEntries) {
+            LocalDateTime start = entry.getStartAsLocalDateTime();
+            LocalDateTime end = entry.getEndAsLocalDateTime();
+            long startSecond = start.toEpochSecond(ZoneOffset.UTC);
+            long endSecond = end.toEpochSecond(ZoneOffset.UTC);
+
+            columns[STARTS].writeSignedVarLong(startSecond - previousStart);
+            columns[DURATIONS].writeVarLong(endSecond - startSecond);
+            columns[NANOS].writeVarLong(start.getNano());
+            columns[NANOS].writeVarLong(end.getNano());
+            columns[FLAGS].write(entry.isFullDay() ? FULL_DAY : 0);
+            columns[TITLES].writeVarLong(dictionary.computeIfAbsent(entry.getTitle(), title -> dictionary.size()));
+            columns[IDS].writeString(entry.getId());
+            previousStart = startSecond;
+        }
+        columns[DICTIONARY].writeVarLong(dictionary.size());
+        for (String title : dictionary.keySet()) {
+            columns[DICTIONARY].writeString(title);
+        }
+
+        // Compress the columns and write them after the header
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(sortedEntries.size());
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            for (ColumnWriter column : columns) {
+                byte[] compressed = compress(deflater, column.toByteArray());
+                header.putInt(compressed.length).putInt(column.size());
+                body.write(compressed);
+            }
+        } finally {
+            deflater.end();
+        }
+
+        Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+        byte[] bytes = new byte[HEADER_SIZE + body.size()];
+        System.arraycopy(header.array(), 0, bytes, 0, HEADER_SIZE);
+        System.arraycopy(body.toByteArray(), 0, bytes, HEADER_SIZE, body.size());
+        Files.write(temporaryPath, bytes);
+        Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Moves the entries of a store that ended before a cutoff date into an
+     * archive. The archive is written before the entries are removed from the
+     * store, so an interrupted roll leaves entries in both places, and the
+     * duplicates are dropped by the next roll.
+     *
+     * @param store       the store with the active entries
+     * @param archivePath the archive file
+     * @param cutoff      the date entries must end before to be archived
+     * @return the number of entries moved to the archive
+     * @throws IOException if the archive cannot be read or written
+     */
+    public static int roll(PTOStore store, Path archivePath, LocalDate cutoff) throws IOException {
+        // Split the active entries into the ones to keep and the ones to archive
+        List<Entry<?>> active = new ArrayList<>();
+        List<Entry<?>> expired = new ArrayList<>();
+        for (Entry<?> entry : store.getVacations()) {
+            (entry.getEndDate().isBefore(cutoff) ? expired : active).add(entry);
+        }
+        if (expired.isEmpty()) {
+            return 0;
+        }
+
+        // Merge with the archived entries, keeping one entry per ID
+        Map<String, Entry<?>> archived = new LinkedHashMap<>();
+        for (Entry<?> entry : open(archivePath).getEntries()) {
+            archived.put(entry.getId(), entry);
+        }
+        for (Entry<?> entry : expired) {
+            archived.put(entry.getId(), entry);
+        }
+
+        write(archivePath, new ArrayList<>(archived.values()));
+        store.updateVacations(active);
+        return expired.size();
+    }
+
+    /**
+     * Gets the number of archived entries.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Computes the PTO hours used in each month of a year, using the same
+     * deductions as the balance projection: no PTO is used on weekends and
+     * holidays. Only the timing columns are read.
+     *
+     * @param year     the year to summarize
+     * @param holidays the holidays of the user
+     * @return the hours used, indexed by month from 0 (January) to 11
+     */
+    public double[] getMonthlyHours(int year, HolidayCalendar holidays) {
+        decodeTiming();
+        double[] hours = new double[12];
+        LocalDate firstDay = LocalDate.of(year, 1, 1);
+        LocalDate lastDay = LocalDate.of(year, 12, 31);
+        long yearEndSecond = lastDay.plusDays(1).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        for (int i = 0; i < count && startSeconds[i] < yearEndSecond; i++) {
+            LocalDateTime start = LocalDateTime.ofEpochSecond(startSeconds[i], 0, ZoneOffset.UTC);
+            LocalDateTime end = LocalDateTime.ofEpochSecond(startSeconds[i] + durationSeconds[i], 0, ZoneOffset.UTC);
+            if (end.toLocalDate().isBefore(firstDay)) {
+                continue;
+            }
+
+            boolean multiDay = end.toLocalDate().isAfter(start.toLocalDate());
+            double deduction = PTOCalculator.calculateDeduction((flags[i] & FULL_DAY) != 0, multiDay,
+                    durationSeconds[i] / 60);
+            if (!multiDay) {
+                if (holidays.isWorkingDay(start.toLocalDate())) {
+                    hours[start.getMonthValue() - 1] += deduction;
+                }
+                continue;
+            }
+
+            // Deduct the hours on the working days the entry spans in each month
+            LocalDate from = start.toLocalDate().isBefore(firstDay) ? firstDay : start.toLocalDate();
+            LocalDate to = end.toLocalDate().isAfter(lastDay) ? lastDay : end.toLocalDate();
+            while (!from.isAfter(to)) {
+                LocalDate nextMonth = from.withDayOfMonth(1).plusMonths(1);
+                LocalDate until = nextMonth.isAfter(to) ? to.plusDays(1) : nextMonth;
+                hours[from.getMonthValue() - 1] += deduction * holidays.countWorkingDays(from, until);
+                from = nextMonth;
+            }
+        }
+        return hours;
+    }
+
+    /**
+     * Computes the PTO hours used in a year.
+     *
+     * @param year     the year to summarize
+     * @param holidays the holidays of the user
+     * @return the hours used
+     */
+    public double getYearlyHours(int year, HolidayCalendar holidays) {
+        double total = 0;
+        for (double hours : getMonthlyHours(year, holidays)) {
+            total += hours;
+        }
+        return total;
+    }
+
+    /**
+     * Creates calendar entries for all archived entries, in start order.
+     *
+     * @return the list of calendar entries
+     */
+    public List<Entry<?>> getEntries() {
+        decodeTiming();
+        ColumnReader nanos = new ColumnReader(inflate(NANOS));
+        ColumnReader titles = new ColumnReader(inflate(TITLES));
+        ColumnReader ids = new ColumnReader(inflate(IDS));
+        ColumnReader dictionaryColumn = new ColumnReader(inflate(DICTIONARY));
+
+        String[] dictionary = new String[count == 0 ? 0 : (int) dictionaryColumn.readVarLong()];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = dictionaryColumn.readString();
+        }
+
+        List<Entry<?>> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalDateTime start = LocalDateTime.ofEpochSecond(startSeconds[i], (int) nanos.readVarLong(),
+                    ZoneOffset.UTC);
+            LocalDateTime end = LocalDateTime.ofEpochSecond(startSeconds[i] + durationSeconds[i],
+                    (int) nanos.readVarLong(), ZoneOffset.UTC);
+            Entry<Object> entry = new Entry<>(dictionary[(int) titles.readVarLong()], new Interval(start, end),
+                    ids.readString());
+            entry.setFullDay((flags[i] & FULL_DAY) != 0);
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    /**
+     * Decodes the start, duration and flag columns into primitive arrays.
+     */
+    private synchronized void decodeTiming() {
+        if (startSeconds != null) {
+            return;
+        }
+
+        long[] starts = new long[count];
+        long[] durations = new long[count];
+        if (count > 0) {
+            ColumnReader startColumn = new ColumnReader(inflate(STARTS));
+            ColumnReader durationColumn = new ColumnReader(inflate(DURATIONS));
+            long start = 0;
+            for (int i = 0; i < count; i++) {
+                start += startColumn.readSignedVarLong();
+                starts[i] = start;
+                durations[i] = durationColumn.readVarLong();
+            }
+        }
+        flags = count > 0 ? inflate(FLAGS) : new byte[0];
+        durationSeconds = durations;
+        startSeconds = starts;
+    }
+
+    private byte[] inflate(int column) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, columnOffsets[column], compressedLengths[column]);
+            byte[] raw = new byte[rawLengths[column]];
+            int length = 0;
+            while (length < raw.length && !inflater.finished()) {
+                length += inflater.inflate(raw, length, raw.length - length);
+            }
+            if (length != raw.length) {
+                throw new IllegalStateException("Corrupt entry archive column " + column);
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt entry archive column " + column, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static byte[] compress(Deflater deflater, byte[] raw) {
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 4 + 64);
+        byte[] buffer = new byte[8192];
+        while (!deflater.finished()) {
+            compressed.write(buffer, 0, deflater.deflate(buffer));
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * Column buffer with variable-length integer encoding.
+     */
+    private static class ColumnWriter extends ByteArrayOutputStream {
+        void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void writeSignedVarLong(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        void writeString(String value) {
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(encoded.length);
+            write(encoded, 0, encoded.length);
+        }
+    }
+
+    /**
+     * Reader for a decompressed column.
+     */
+    private static class ColumnReader {
+        private final byte[] bytes;
+        private int position = 0;
+
+        ColumnReader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        long readSignedVarLong() {
+            long value = readVarLong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        String readString() {
+            int length = (int) readVarLong();
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package model;
+
+import java.time.LocalDateTime;
+
+import com.calendarfx.model.Entry;
+import com.calendarfx.model.Interval;
+
+/**
+ * Immutable copy of a vacation entry as it is kept by the storage backends.
+ *
+ * @param id      the entry ID
+ * @param title   the entry title
+ * @param start   the start of the entry
+ * @param end     the end of the entry
+ * @param fullDay whether the entry is a full day entry
+ */
+record EntryRecord(String id, String title, LocalDateTime start, LocalDateTime end, boolean fullDay) {
+    /**
+     * Copies the stored fields of a calendar entry.
+     *
+     * @param entry the entry to copy
+     * @return the entry record
+     */
+    static EntryRecord of(Entry<?> entry) {
+        return new EntryRecord(entry.getId(), entry.getTitle(), entry.getStartAsLocalDateTime(),
+                entry.getEndAsLocalDateTime(), entry.isFullDay());
+    }
+
+    /**
+     * Creates a new calendar entry from the record.
+     *
+     * @return the calendar entry
+     */
+    Entry<?> toEntry() {
+        Entry<Object> entry = new Entry<>(title, new Interval(start, end), id);
+        entry.setFullDay(fullDay);
+        return entry;
+    }
+
+    /**
+     * Checks if another record has the same interval and full day flag.
+     *
+     * @param other the record to compare with
+     * @return true if the timing is the same, false otherwise
+     */
+    boolean sameTiming(EntryRecord other) {
+        return start.equals(other.start) && end.equals(other.end) && fullDay == other.fullDay;
+    }
+}
@@ -0,0 +1,121 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package model;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.calendarfx.model.Entry;
+
+/**
+ * In-memory store for the Paid Time Off Planning Tool. Nothing is persisted,
+ * which makes it suitable for tests, benchmarks and batch jobs. Updates swap
+ * immutable copies of the data, so readers never block and never see a
+ * partially applied update. Writers are serialized.
+ */
+public class InMemoryPTOStore implements PTOStore {
+    private volatile List<EntryRecord> entries = List.of();
+    private volatile StoredSettings settings;
+
+    /**
+     * Immutable copy of the user settings with the date they were saved.
+     */
+    private record StoredSettings(UserSettings userSettings, LocalDate lastUpdate) {
+    }
+
+    /**
+     * Checks if the user is a first-time user.
+     *
+     * @return true if no settings have been saved yet, false otherwise
+     */
+    @Override
+    public boolean isFirstTimeUser() {
+        return settings == null;
+    }
+
+    /**
+     * Updates the vacation entries.
+     *
+     * @param newEntries the complete list of vacation entries
+     */
+    @Override
+    public synchronized void updateVacations(List<Entry<?>> newEntries) {
+        List<EntryRecord> records = new ArrayList<>(newEntries.size());
+        for (Entry<?> entry : newEntries) {
+            records.add(EntryRecord.of(entry));
+        }
+        entries = List.copyOf(records);
+    }
+
+    /**
+     * Adds vacation entries to the existing ones.
+     *
+     * @param newEntries the vacation entries to add
+     * @return true, since adding entries in memory cannot fail
+     */
+    @Override
+    public synchronized boolean addVacations(List<Entry<?>> newEntries) {
+        List<EntryRecord> records = new ArrayList<>(entries);
+        for (Entry<?> entry : newEntries) {
+            records.add(EntryRecord.of(entry));
+        }
+        entries = List.copyOf(records);
+        return true;
+    }
+
+    /**
+     * Retrieves the vacation entries.
+     *
+     * @return a list of vacation entries
+     */
+    @Override
+    public List<Entry<?>> getVacations() {
+        List<EntryRecord> records = entries;
+        List<Entry<?>> result = new ArrayList<>(records.size());
+        for (EntryRecord record : records) {
+            result.add(record.toEntry());
+        }
+        return result;
+    }
+
+    /**
+     * Updates the user settings.
+     *
+     * @param userSettings the user settings to update
+     */
+    @Override
+    public void updateUserSettings(UserSettings userSettings) {
+        settings = new StoredSettings(new UserSettings(userSettings), LocalDate.now());
+    }
+
+    /**
+     * Retrieves the user settings.
+     *
+     * @param userSettings the user settings object to populate
+     * @return the last update, or null if no settings have been saved
+     */
+    @Override
+    public LocalDate getUserSettings(UserSettings userSettings) {
+        StoredSettings stored = settings;
+        if (stored == null) {
+            return null;
+        }
+
+        userSettings.copyFrom(stored.userSettings());
+        return stored.lastUpdate();
+    }
+
+    /**
+     * Gets the archive file, which an in-memory store does not have.
+     *
+     * @return null
+     */
+    @Override
+    public Path getArchivePath() {
+        return null;
+    }
+}
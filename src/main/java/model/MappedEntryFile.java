@@ -0,0 +1,586 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.calendarfx.model.Entry;
+import com.calendarfx.model.Interval;
+
+/**
+ * Compact binary file of vacation entries that is read through a memory
+ * mapping. Entries are stored as fixed-width records holding the start and
+ * end in epoch minutes, flags and offsets into a pool of deduplicated
+ * strings, so loading the file parses nothing and only the pages of the
+ * records that are actually read are touched.
+ *
+ * The records area has spare slots and the pool grows at its end, so saving
+ * changed entries only patches their records, appends their new strings and
+ * rewrites the header. The file is always written in place and never
+ * replaced, since a file that is still mapped cannot be replaced on Windows
+ * and Java cannot unmap it on demand. Every write first marks the header
+ * invalid and only writes the final header last, forcing the file to disk
+ * before and after the records change, so an interrupted write or a crash
+ * leaves a file that is not trusted.
+ *
+ * <pre>
+ * header:  magic, format version, data version (long), count, capacity,
+ *          pool offset, pool end, unused pool bytes, padding
+ * records: start minute, end minute, title offset, id offset, flags, precise offset
+ * pool:    (unsigned short length, UTF-8 bytes) per string,
+ *          (nanos of minute start, nanos of minute end) per sub-minute entry
+ * </pre>
+ */
+public class MappedEntryFile {
+    private static final int MAGIC = 0x50544F45; // "PTOE"
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_SIZE = 40;
+    private static final int RECORD_SIZE = 24;
+    private static final int MIN_SPARE_RECORDS = 16;
+
+    private static final int FULL_DAY = 1;
+    private static final int PRECISE = 2;
+
+    private final ByteBuffer buffer;
+    private final long dataVersion;
+    private final int count;
+    private final int capacity;
+    private final int poolEnd;
+    private final int unusedPoolBytes;
+
+    private MappedEntryFile(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Not an entry file");
+        }
+        dataVersion = buffer.getLong(8);
+        count = buffer.getInt(16);
+        capacity = buffer.getInt(20);
+        poolEnd = buffer.getInt(28);
+        unusedPoolBytes = buffer.getInt(32);
+        if (count < 0 || count > capacity || buffer.getInt(24) != poolOffset(capacity)
+                || poolEnd < buffer.getInt(24) || poolEnd > buffer.capacity()) {
+            throw new IOException("Corrupt entry file");
+        }
+    }
+
+    /**
+     * Opens an entry file by mapping it into memory.
+     *
+     * @param path the file to open
+     * @return the opened entry file
+     * @throws IOException if the file cannot be read or is not an entry file
+     */
+    public static MappedEntryFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new MappedEntryFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Writes all entries to an entry file, overwriting any existing file in
+     * place.
+     *
+     * @param path        the file to write
+     * @param entries     the entries to write
+     * @param dataVersion the version of the source data the entries belong to
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, List<Entry<?>> entries, long dataVersion) throws IOException {
+        int capacity = entries.size() + Math.max(MIN_SPARE_RECORDS, entries.size() / 4);
+        PoolBuilder pool = new PoolBuilder(poolOffset(capacity));
+        // The spare slots are written as zeros, so the pool follows them
+        ByteBuffer records = ByteBuffer.allocate(capacity * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        for (Entry<?> entry : entries) {
+            putRecord(records, entry, pool.addString(entry.getTitle()), pool.addString(entry.getId()), pool);
+        }
+        records.clear();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            writeInvalidHeader(channel);
+            writeFully(channel, records, HEADER_SIZE);
+            writeFully(channel, pool.toByteBuffer(), pool.base);
+            writeValidHeader(channel, header(dataVersion, entries.size(), capacity, pool.end(), 0));
+        }
+    }
+
+    /**
+     * Patches an entry file so it holds exactly the given entries. Only the
+     * records of added, changed and removed entries are written. Removing an
+     * entry moves the last record into its slot, so the order of the records
+     * is not kept.
+     *
+     * @param path            the file to patch
+     * @param expectedVersion the data version the file must have
+     * @param entries         all entries of the new version
+     * @param dataVersion     the new data version
+     * @return true if the file was patched, false if it has another version,
+     *         no room for the entries or too many unused strings, so it must
+     *         be written with {@link #write(Path, List, long)}
+     * @throws IOException if the file cannot be read or written
+     */
+    public static boolean update(Path path, long expectedVersion, List<Entry<?>> entries, long dataVersion)
+            throws IOException {
+        return patch(path, expectedVersion, entries, dataVersion, true);
+    }
+
+    /**
+     * Adds entries to an entry file, patching the records of entries with the
+     * same IDs.
+     *
+     * @param path            the file to patch
+     * @param expectedVersion the data version the file must have
+     * @param entries         the entries to add
+     * @param dataVersion     the new data version
+     * @return true if the entries were added, false if the file must be
+     *         written with {@link #write(Path, List, long)}
+     * @throws IOException if the file cannot be read or written
+     */
+    public static boolean append(Path path, long expectedVersion, List<Entry<?>> entries, long dataVersion)
+            throws IOException {
+        return patch(path, expectedVersion, entries, dataVersion, false);
+    }
+
+    /**
+     * Marks an entry file as invalid so it is not trusted, deleting it if the
+     * header cannot be written.
+     *
+     * @param path the file to invalidate
+     * @throws IOException if the file can neither be marked nor deleted
+     */
+    public static void invalidate(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            writeInvalidHeader(channel);
+        } catch (NoSuchFileException e) {
+            // Nothing to invalidate
+        } catch (IOException e) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Patches the records of an entry file.
+     */
+    private static boolean patch(Path path, long expectedVersion, List<Entry<?>> entries, long dataVersion,
+            boolean replaceAll) throws IOException {
+        if (!Files.exists(path)) {
+            return false;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Read the file into the heap, so no mapping of it is created here
+            ByteBuffer bytes = ByteBuffer.allocate(Math.toIntExact(channel.size()));
+            while (bytes.hasRemaining() && channel.read(bytes) >= 0) {
+                // Keep reading
+            }
+            MappedEntryFile current;
+            try {
+                current = new MappedEntryFile(bytes);
+            } catch (IOException e) {
+                return false;
+            }
+            if (current.dataVersion != expectedVersion) {
+                return false;
+            }
+
+            // Titles already in the pool are shared by new records
+            Map<String, Integer> indexById = new HashMap<>();
+            PoolBuilder pool = new PoolBuilder(current.poolEnd);
+            for (int i = 0; i < current.count; i++) {
+                indexById.put(current.getId(i), i);
+                pool.reuse(current.getTitle(i), current.buffer.getInt(recordOffset(i) + 8));
+            }
+
+            // Records are changed in the heap copy, and the changed slots written
+            ByteBuffer records = bytes.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            BitSet changed = new BitSet();
+            long unused = current.unusedPoolBytes;
+            int count = current.count;
+            List<Entry<?>> added = new ArrayList<>();
+            boolean[] kept = new boolean[count];
+
+            for (Entry<?> entry : entries) {
+                Integer index = indexById.get(entry.getId());
+                if (index == null) {
+                    added.add(entry);
+                    continue;
+                }
+                kept[index] = true;
+                if (!current.matches(index, entry)) {
+                    int titleOffset = pool.addString(entry.getTitle());
+                    unused += current.preciseBytes(index);
+                    records.position(recordOffset(index));
+                    putRecord(records, entry, titleOffset, current.buffer.getInt(recordOffset(index) + 12), pool);
+                    changed.set(index);
+                }
+            }
+
+            // Fill the slots of removed entries with the last records
+            if (replaceAll) {
+                for (int index = count - 1; index >= 0; index--) {
+                    if (!kept[index]) {
+                        unused += current.stringBytes(index) + current.preciseBytes(index);
+                        int last = --count;
+                        if (index != last) {
+                            byte[] record = new byte[RECORD_SIZE];
+                            bytes.get(recordOffset(last), record);
+                            records.put(recordOffset(index), record);
+                            changed.set(index);
+                        }
+                    }
+                }
+            }
+
+            // Add the new entries in the spare slots
+            if (count + added.size() > current.capacity) {
+                return false;
+            }
+            for (Entry<?> entry : added) {
+                records.position(recordOffset(count));
+                putRecord(records, entry, pool.addString(entry.getTitle()), pool.addString(entry.getId()), pool);
+                changed.set(count++);
+            }
+
+            // Compact with a full write once half of the pool is unused
+            if (unused > (pool.end() - poolOffset(current.capacity)) / 2) {
+                return false;
+            }
+
+            writeInvalidHeader(channel);
+            writeFully(channel, pool.toByteBuffer(), pool.base);
+            for (int start = changed.nextSetBit(0); start >= 0; start = changed.nextSetBit(start)) {
+                int end = changed.nextClearBit(start);
+                ByteBuffer run = bytes.duplicate();
+                run.limit(recordOffset(end - 1) + RECORD_SIZE).position(recordOffset(start));
+                writeFully(channel, run, recordOffset(start));
+                start = end;
+            }
+            writeValidHeader(channel, header(dataVersion, count, current.capacity, pool.end(), (int) unused));
+            return true;
+        }
+    }
+
+    /**
+     * Gets the version of the source data the entries belong to.
+     *
+     * @return the data version
+     */
+    public long getDataVersion() {
+        return dataVersion;
+    }
+
+    /**
+     * Gets the number of entries in the file.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Gets the start of an entry in minutes since the epoch.
+     *
+     * @param index the index of the entry
+     * @return the start in epoch minutes
+     */
+    public int getStartMinute(int index) {
+        return buffer.getInt(checkedRecordOffset(index));
+    }
+
+    /**
+     * Gets the end of an entry in minutes since the epoch.
+     *
+     * @param index the index of the entry
+     * @return the end in epoch minutes
+     */
+    public int getEndMinute(int index) {
+        return buffer.getInt(checkedRecordOffset(index) + 4);
+    }
+
+    /**
+     * Checks if an entry is a full day entry.
+     *
+     * @param index the index of the entry
+     * @return true if the entry is a full day entry, false otherwise
+     */
+    public boolean isFullDay(int index) {
+        return (buffer.getInt(checkedRecordOffset(index) + 16) & FULL_DAY) != 0;
+    }
+
+    /**
+     * Gets the title of an entry.
+     *
+     * @param index the index of the entry
+     * @return the entry title
+     */
+    public String getTitle(int index) {
+        return readString(buffer.getInt(checkedRecordOffset(index) + 8));
+    }
+
+    /**
+     * Gets the ID of an entry.
+     *
+     * @param index the index of the entry
+     * @return the entry ID
+     */
+    public String getId(int index) {
+        return readString(buffer.getInt(checkedRecordOffset(index) + 12));
+    }
+
+    /**
+     * Gets the exact start of an entry.
+     *
+     * @param index the index of the entry
+     * @return the start of the entry
+     */
+    public LocalDateTime getStart(int index) {
+        return toDateTime(getStartMinute(index), preciseNanos(index, 0));
+    }
+
+    /**
+     * Gets the exact end of an entry.
+     *
+     * @param index the index of the entry
+     * @return the end of the entry
+     */
+    public LocalDateTime getEnd(int index) {
+        return toDateTime(getEndMinute(index), preciseNanos(index, 8));
+    }
+
+    /**
+     * Creates a calendar entry for a single record.
+     *
+     * @param index the index of the entry
+     * @return the calendar entry
+     */
+    public Entry<?> getEntry(int index) {
+        Entry<Object> entry = new Entry<>(getTitle(index), new Interval(getStart(index), getEnd(index)), getId(index));
+        entry.setFullDay(isFullDay(index));
+        return entry;
+    }
+
+    /**
+     * Creates calendar entries for all records.
+     *
+     * @return the list of calendar entries
+     */
+    public List<Entry<?>> getEntries() {
+        List<Entry<?>> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            entries.add(getEntry(i));
+        }
+        return entries;
+    }
+
+    /**
+     * Gets the number of bytes used by the string pool, including strings no
+     * record refers to anymore.
+     *
+     * @return the pool size in bytes
+     */
+    int getPoolSize() {
+        return poolEnd - poolOffset(capacity);
+    }
+
+    /**
+     * Checks if a record holds the same values as an entry with its ID.
+     */
+    private boolean matches(int index, Entry<?> entry) {
+        return getStart(index).equals(entry.getStartAsLocalDateTime())
+                && getEnd(index).equals(entry.getEndAsLocalDateTime()) && isFullDay(index) == entry.isFullDay()
+                && getTitle(index).equals(entry.getTitle());
+    }
+
+    /**
+     * Gets the pool bytes of the strings of a record, which may be shared with
+     * other records.
+     */
+    private int stringBytes(int index) {
+        int offset = checkedRecordOffset(index);
+        return 4 + Short.toUnsignedInt(buffer.getShort(buffer.getInt(offset + 8)))
+                + Short.toUnsignedInt(buffer.getShort(buffer.getInt(offset + 12)));
+    }
+
+    /**
+     * Gets the pool bytes of the sub-minute parts of a record.
+     */
+    private int preciseBytes(int index) {
+        return (buffer.getInt(checkedRecordOffset(index) + 16) & PRECISE) != 0 ? 16 : 0;
+    }
+
+    private int checkedRecordOffset(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return recordOffset(index);
+    }
+
+    private static int recordOffset(int index) {
+        return HEADER_SIZE + index * RECORD_SIZE;
+    }
+
+    private static int poolOffset(int capacity) {
+        return HEADER_SIZE + capacity * RECORD_SIZE;
+    }
+
+    /**
+     * Writes a record for an entry at the position of a buffer.
+     */
+    private static void putRecord(ByteBuffer records, Entry<?> entry, int titleOffset, int idOffset,
+            PoolBuilder pool) {
+        LocalDateTime start = entry.getStartAsLocalDateTime();
+        LocalDateTime end = entry.getEndAsLocalDateTime();
+        long startNanos = nanosOfMinute(start);
+        long endNanos = nanosOfMinute(end);
+        boolean precise = startNanos != 0 || endNanos != 0;
+
+        records.putInt(Math.toIntExact(epochMinute(start)));
+        records.putInt(Math.toIntExact(epochMinute(end)));
+        records.putInt(titleOffset);
+        records.putInt(idOffset);
+        records.putInt((entry.isFullDay() ? FULL_DAY : 0) | (precise ? PRECISE : 0));
+        records.putInt(precise ? pool.addNanos(startNanos, endNanos) : 0);
+    }
+
+    private static ByteBuffer header(long dataVersion, int count, int capacity, int poolEnd, int unusedPoolBytes) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(dataVersion).putInt(count).putInt(capacity)
+                .putInt(poolOffset(capacity)).putInt(poolEnd).putInt(unusedPoolBytes);
+        return header.rewind();
+    }
+
+    private static void writeInvalidHeader(FileChannel channel) throws IOException {
+        writeFully(channel, ByteBuffer.allocate(HEADER_SIZE), 0);
+        channel.force(false);
+    }
+
+    /**
+     * Writes the header that makes the file trusted, once the records and pool
+     * it describes are on disk.
+     */
+    private static void writeValidHeader(FileChannel channel, ByteBuffer header) throws IOException {
+        channel.force(false);
+        writeFully(channel, header, 0);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer bytes, long position) throws IOException {
+        while (bytes.hasRemaining()) {
+            position += channel.write(bytes, position);
+        }
+    }
+
+    private long preciseNanos(int index, int field) {
+        int offset = checkedRecordOffset(index);
+        if ((buffer.getInt(offset + 16) & PRECISE) == 0) {
+            return 0;
+        }
+        return buffer.getLong(buffer.getInt(offset + 20) + field);
+    }
+
+    private String readString(int offset) {
+        int length = Short.toUnsignedInt(buffer.getShort(offset));
+        byte[] bytes = new byte[length];
+        buffer.get(offset + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long epochMinute(LocalDateTime dateTime) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    private static long nanosOfMinute(LocalDateTime dateTime) {
+        return dateTime.getSecond() * 1_000_000_000L + dateTime.getNano();
+    }
+
+    private static LocalDateTime toDateTime(int epochMinute, long nanosOfMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * 60L + nanosOfMinute / 1_000_000_000L,
+                (int) (nanosOfMinute % 1_000_000_000L), ZoneOffset.UTC);
+    }
+
+    /**
+     * Builder for the string pool that follows the records.
+     */
+    private static class PoolBuilder {
+        private final Map<String, Integer> offsets = new HashMap<>();
+        private final int base;
+        private ByteBuffer bytes = ByteBuffer.allocate(1024).order(ByteOrder.LITTLE_ENDIAN);
+
+        PoolBuilder(int base) {
+            this.base = base;
+        }
+
+        int addString(String value) {
+            Integer existing = offsets.get(value);
+            if (existing != null) {
+                return existing;
+            }
+
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            if (encoded.length > 0xFFFF) {
+                throw new IllegalArgumentException("String too long for the entry file");
+            }
+            int offset = reserve(2 + encoded.length);
+            bytes.putShort((short) encoded.length).put(encoded);
+            offsets.put(value, offset);
+            return offset;
+        }
+
+        /**
+         * Shares a string already in the file with the strings added after it.
+         */
+        void reuse(String value, int offset) {
+            offsets.putIfAbsent(value, offset);
+        }
+
+        int addNanos(long startNanos, long endNanos) {
+            int offset = reserve(16);
+            bytes.putLong(startNanos).putLong(endNanos);
+            return offset;
+        }
+
+        /**
+         * Ensures there is room for more bytes and returns the absolute file
+         * offset they will be written at.
+         */
+        private int reserve(int length) {
+            if (bytes.remaining() < length) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(bytes.capacity() * 2, bytes.position() + length))
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                bytes.flip();
+                larger.put(bytes);
+                bytes = larger;
+            }
+            return base + bytes.position();
+        }
+
+        /**
+         * Gets the absolute file offset after the added bytes.
+         */
+        int end() {
+            return base + bytes.position();
+        }
+
+        ByteBuffer toByteBuffer() {
+            return bytes.duplicate().flip();
+        }
+    }
+}
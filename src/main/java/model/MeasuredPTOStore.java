@@ -0,0 +1,95 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package model;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import com.calendarfx.model.Entry;
+
+import utilities.Metrics;
+
+/**
+ * Store that records how long the operations of another store take. Only used
+ * when metrics are enabled, so the stores are not measured otherwise.
+ */
+class MeasuredPTOStore implements PTOStore {
+    private static final Metrics.Timer UPDATE_VACATIONS_TIMER = Metrics.timer("store.updateVacations");
+    private static final Metrics.Timer ADD_VACATIONS_TIMER = Metrics.timer("store.addVacations");
+    private static final Metrics.Timer GET_VACATIONS_TIMER = Metrics.timer("store.getVacations");
+    private static final Metrics.Timer UPDATE_USER_SETTINGS_TIMER = Metrics.timer("store.updateUserSettings");
+
+    private final PTOStore store;
+
+    /**
+     * Constructor to measure a store.
+     *
+     * @param store the store to measure
+     */
+    MeasuredPTOStore(PTOStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public boolean isFirstTimeUser() {
+        return store.isFirstTimeUser();
+    }
+
+    @Override
+    public void updateVacations(List<Entry<?>> entries) {
+        long start = UPDATE_VACATIONS_TIMER.start();
+        try {
+            store.updateVacations(entries);
+        } finally {
+            UPDATE_VACATIONS_TIMER.stop(start);
+        }
+    }
+
+    @Override
+    public boolean addVacations(List<Entry<?>> entries) {
+        long start = ADD_VACATIONS_TIMER.start();
+        try {
+            return store.addVacations(entries);
+        } finally {
+            ADD_VACATIONS_TIMER.stop(start);
+        }
+    }
+
+    @Override
+    public List<Entry<?>> getVacations() {
+        long start = GET_VACATIONS_TIMER.start();
+        try {
+            return store.getVacations();
+        } finally {
+            GET_VACATIONS_TIMER.stop(start);
+        }
+    }
+
+    @Override
+    public void updateUserSettings(UserSettings userSettings) {
+        long start = UPDATE_USER_SETTINGS_TIMER.start();
+        try {
+            store.updateUserSettings(userSettings);
+        } finally {
+            UPDATE_USER_SETTINGS_TIMER.stop(start);
+        }
+    }
+
+    @Override
+    public LocalDate getUserSettings(UserSettings userSettings) {
+        return store.getUserSettings(userSettings);
+    }
+
+    @Override
+    public Path getArchivePath() {
+        return store.getArchivePath();
+    }
+
+    @Override
+    public void close() {
+        store.close();
+    }
+}
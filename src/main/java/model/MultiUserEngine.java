@@ -0,0 +1,417 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+import com.calendarfx.model.Entry;
+
+import utilities.BalanceFunction;
+import utilities.EntriesHelper;
+import utilities.PTOCalculator;
+
+/**
+ * In-memory settings and entries of many users, for a service that projects
+ * balances for all of them at once.
+ *
+ * Users are hashed to shards, each a {@link ConcurrentHashMap}, so looking a
+ * user up never locks and adding or removing a user only contends with the
+ * users of the same shard. The settings and entries of a user are an immutable
+ * state that writes replace as a whole, one writer per user at a time, so
+ * projections never wait for writes, neither for other users nor for the same
+ * user. Each state caches the balances projected from it for the next two
+ * years as a {@link BalanceFunction}, built on the first projection, which the
+ * next write discards with the state.
+ */
+public class MultiUserEngine {
+    private static final int TIMELINE_DAYS = 731;
+
+    private final Shard[] shards;
+
+    /**
+     * Users of one shard.
+     */
+    private static class Shard {
+        private final Map<String, User> users = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Current state of a user. Writes and the removal of the user are
+     * serialized by synchronizing on the user.
+     */
+    private static class User {
+        private final AtomicReference<UserState> state = new AtomicReference<>(
+                UserState.of(new UserSettings(), new LinkedHashMap<>()));
+    }
+
+    /**
+     * Settings and entries of a user, never modified once published, with the
+     * balances projected from them starting on a given day.
+     */
+    private record UserState(PTOCalculator calculator, UserSettings settings, Map<String, Entry<?>> entriesById,
+            NavigableMap<LocalDate, List<Entry<?>>> entriesByDate, LocalDate timelineStart,
+            AtomicReference<BalanceFunction> timeline) {
+
+        static UserState of(UserSettings settings, Map<String, Entry<?>> entriesById) {
+            return new UserState(new PTOCalculator(settings), settings, Collections.unmodifiableMap(entriesById),
+                    EntriesHelper.groupByDate(entriesById.values()), LocalDate.now(), new AtomicReference<>());
+        }
+
+        UserState withTimelineFrom(LocalDate today) {
+            return new UserState(calculator, settings, entriesById, entriesByDate, today, new AtomicReference<>());
+        }
+
+        /**
+         * Gets the projected balances, building them on first use. Threads that
+         * race to build them build the same function, so the first one is kept.
+         */
+        BalanceFunction balanceFunction() {
+            BalanceFunction function = timeline.get();
+            if (function == null) {
+                function = calculator.computeBalanceFunction(timelineStart, timelineStart.plusDays(TIMELINE_DAYS),
+                        entriesByDate);
+                if (!timeline.compareAndSet(null, function)) {
+                    function = timeline.get();
+                }
+            }
+            return function;
+        }
+    }
+
+    /**
+     * Constructor with four shards per processor.
+     */
+    public MultiUserEngine() {
+        this(Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    /**
+     * Constructor with a number of shards.
+     *
+     * @param shardCount the number of shards
+     * @throws IllegalArgumentException if the shard count is not positive
+     */
+    public MultiUserEngine(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+
+        shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard();
+        }
+    }
+
+    /**
+     * Gets the shard of a user.
+     */
+    private Shard shardOf(String userId) {
+        int hash = userId.hashCode();
+        return shards[Math.floorMod(hash ^ (hash >>> 16), shards.length)];
+    }
+
+    /**
+     * Finds a user.
+     *
+     * @return the user, or null if the user does not exist
+     */
+    private User find(String userId) {
+        return shardOf(userId).users.get(userId);
+    }
+
+    /**
+     * Finds a user, adding the user if it does not exist.
+     */
+    private User findOrCreate(String userId) {
+        User user = find(userId);
+        return user != null ? user : shardOf(userId).users.computeIfAbsent(userId, key -> new User());
+    }
+
+    /**
+     * Replaces the state of a user, adding the user if needed. The user is
+     * checked to still be in its shard while holding its lock, so a write never
+     * goes to a user that was removed meanwhile.
+     */
+    private void updateState(String userId, UnaryOperator<UserState> update) {
+        Map<String, User> users = shardOf(userId).users;
+        while (true) {
+            User user = findOrCreate(userId);
+            synchronized (user) {
+                if (users.get(userId) == user) {
+                    user.state.set(update.apply(user.state.get()));
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the state of an existing user.
+     *
+     * @throws IllegalArgumentException if the user does not exist
+     */
+    private UserState stateOf(String userId) {
+        User user = find(userId);
+        if (user == null) {
+            throw new IllegalArgumentException("Unknown user: " + userId);
+        }
+
+        // Start a new timeline when the day changes, unless a write replaced the
+        // state meanwhile
+        UserState state = user.state.get();
+        LocalDate today = LocalDate.now();
+        if (!state.timelineStart().equals(today)) {
+            UserState refreshed = state.withTimelineFrom(today);
+            state = user.state.compareAndSet(state, refreshed) ? refreshed : user.state.get();
+        }
+        return state;
+    }
+
+    /**
+     * Updates the settings of a user, adding the user if needed.
+     *
+     * @param userId   the ID of the user
+     * @param settings the new settings, which are copied
+     */
+    public void updateUserSettings(String userId, UserSettings settings) {
+        UserSettings copy = new UserSettings(settings);
+        updateState(userId, state -> UserState.of(copy, new LinkedHashMap<>(state.entriesById())));
+    }
+
+    /**
+     * Gets a copy of the settings of a user.
+     *
+     * @param userId the ID of the user
+     * @return the settings, or null if the user does not exist
+     */
+    public UserSettings getUserSettings(String userId) {
+        User user = find(userId);
+        return user == null ? null : new UserSettings(user.state.get().settings());
+    }
+
+    /**
+     * Replaces all entries of a user, adding the user if needed.
+     *
+     * @param userId  the ID of the user
+     * @param entries the new entries, which are copied
+     */
+    public void updateVacations(String userId, List<Entry<?>> entries) {
+        Map<String, Entry<?>> entriesById = new LinkedHashMap<>();
+        for (Entry<?> entry : EntriesHelper.copyEntries(entries)) {
+            entriesById.put(entry.getId(), entry);
+        }
+        updateState(userId, state -> UserState.of(state.settings(), entriesById));
+    }
+
+    /**
+     * Adds entries to a user, replacing entries with the same IDs, and adds the
+     * user if needed.
+     *
+     * @param userId  the ID of the user
+     * @param entries the entries to add, which are copied
+     */
+    public void addVacations(String userId, List<Entry<?>> entries) {
+        List<Entry<?>> copies = EntriesHelper.copyEntries(entries);
+        updateState(userId, state -> {
+            Map<String, Entry<?>> entriesById = new LinkedHashMap<>(state.entriesById());
+            for (Entry<?> entry : copies) {
+                entriesById.put(entry.getId(), entry);
+            }
+            return UserState.of(state.settings(), entriesById);
+        });
+    }
+
+    /**
+     * Removes an entry of a user.
+     *
+     * @param userId  the ID of the user
+     * @param entryId the ID of the entry
+     * @return true if the entry was removed, false if it did not exist
+     */
+    public boolean removeVacation(String userId, String entryId) {
+        Map<String, User> users = shardOf(userId).users;
+        while (true) {
+            User user = users.get(userId);
+            if (user == null) {
+                return false;
+            }
+
+            synchronized (user) {
+                // Look the user up again if it was removed meanwhile
+                if (users.get(userId) != user) {
+                    continue;
+                }
+                UserState state = user.state.get();
+                if (!state.entriesById().containsKey(entryId)) {
+                    return false;
+                }
+                Map<String, Entry<?>> entriesById = new LinkedHashMap<>(state.entriesById());
+                entriesById.remove(entryId);
+                user.state.set(UserState.of(state.settings(), entriesById));
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gets copies of the entries of a user.
+     *
+     * @param userId the ID of the user
+     * @return the entries, or an empty list if the user does not exist
+     */
+    public List<Entry<?>> getVacations(String userId) {
+        User user = find(userId);
+        return user == null ? new ArrayList<>() : EntriesHelper.copyEntries(user.state.get().entriesById().values());
+    }
+
+    /**
+     * Removes a user with their settings and entries.
+     *
+     * @param userId the ID of the user
+     * @return true if the user was removed, false if it did not exist
+     */
+    public boolean removeUser(String userId) {
+        Map<String, User> users = shardOf(userId).users;
+        while (true) {
+            User user = users.get(userId);
+            if (user == null) {
+                return false;
+            }
+
+            // Remove the user between writes, so no write is made to it after
+            synchronized (user) {
+                if (users.remove(userId, user)) {
+                    return true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the number of users.
+     *
+     * @return the user count
+     */
+    public int getUserCount() {
+        int count = 0;
+        for (Shard shard : shards) {
+            count += shard.users.size();
+        }
+        return count;
+    }
+
+    /**
+     * Computes the projected balance of a user at a date, like
+     * {@link PTOCalculator#computeBalanceAtDate(LocalDate, Map)}. Balances of
+     * the next two years are cached until the settings or entries of the user
+     * change.
+     *
+     * @param userId the ID of the user
+     * @param date   the date to compute the balance for
+     * @return the projected balance at the beginning of the date
+     * @throws IllegalArgumentException if the user does not exist
+     */
+    public double computeBalanceAtDate(String userId, LocalDate date) {
+        UserState state = stateOf(userId);
+        BalanceFunction function = state.balanceFunction();
+        if (function.covers(date)) {
+            return function.balanceAt(date);
+        }
+        return state.calculator().computeAccruedBalance(state.timelineStart(), date, state.entriesByDate());
+    }
+
+    /**
+     * Finds the first date in the next two years that a user has at least an
+     * amount of PTO, such as the hours a trip needs.
+     *
+     * @param userId the ID of the user
+     * @param hours  the balance to reach
+     * @return the first date with the balance, or null if it is not reached in
+     *         the next two years
+     * @throws IllegalArgumentException if the user does not exist
+     */
+    public LocalDate findFirstDateAtLeast(String userId, double hours) {
+        return stateOf(userId).balanceFunction().findFirstDateAtLeast(hours);
+    }
+
+    /**
+     * Finds the first date in the next two years that a user is at the max
+     * balance and starts losing accrual.
+     *
+     * @param userId the ID of the user
+     * @return the first date at the max balance, today if the user is already
+     *         there, or null if it is not reached in the next two years
+     * @throws IllegalArgumentException if the user does not exist
+     */
+    public LocalDate findNextCapHit(String userId) {
+        UserState state = stateOf(userId);
+        return state.balanceFunction().findNextCapHit(state.timelineStart());
+    }
+
+    /**
+     * Computes how many of a set of users are off, and the PTO hours they use,
+     * on each day of a range. Keep the result up to date after booking changes
+     * with {@link #refreshTeamCoverage(TeamCoverage, String)}.
+     *
+     * @param userIds the IDs of the users
+     * @param from    the first date of the range
+     * @param to      the last date of the range
+     * @return the team coverage
+     * @throws IllegalArgumentException if a user does not exist or the last date
+     *                                  is before the first
+     */
+    public TeamCoverage computeTeamCoverage(Collection<String> userIds, LocalDate from, LocalDate to) {
+        TeamCoverage coverage = new TeamCoverage(from, to);
+        coverage.updateUsers(userIds, this::absencesOf);
+        return coverage;
+    }
+
+    /**
+     * Replaces the absences of a user in a team coverage with their current
+     * entries, or removes the user if they no longer exist.
+     *
+     * @param coverage the team coverage to update
+     * @param userId   the ID of the user
+     */
+    public void refreshTeamCoverage(TeamCoverage coverage, String userId) {
+        if (find(userId) == null) {
+            coverage.removeUser(userId);
+        } else {
+            coverage.updateUser(userId, absencesOf(userId));
+        }
+    }
+
+    /**
+     * Gets the current absences of an existing user.
+     */
+    private TeamCoverage.Absences absencesOf(String userId) {
+        UserState state = stateOf(userId);
+        return new TeamCoverage.Absences(state.settings().getHolidays(), state.entriesById().values());
+    }
+
+    /**
+     * Checks if a user has enough balance for a new entry, like
+     * {@link PTOCalculator#validateEntry(Entry, Map)}.
+     *
+     * @param userId the ID of the user
+     * @param entry  the entry to validate
+     * @return true if the entry is valid, otherwise false
+     * @throws IllegalArgumentException if the user does not exist
+     */
+    public boolean validateEntry(String userId, Entry<?> entry) {
+        UserState state = stateOf(userId);
+        return state.calculator().validateEntry(entry, state.entriesByDate());
+    }
+}
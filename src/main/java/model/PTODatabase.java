@@ -4,6 +4,7 @@
 
 package model;
 
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.sql.Connection;
@@ -22,51 +23,110 @@ import com.calendarfx.model.Entry;
 import com.calendarfx.model.Interval;
 
 import utilities.AccrualPeriod;
+import utilities.Log;
 
 /**
- * PTODatabase class for managing the data in the Paid Time Off Planning Tool.
+ * PTODatabase class for managing the data in the Paid Time Off Planning Tool
+ * in a SQLite database.
  */
-public class PTODatabase {
+public class PTODatabase implements PTOStore {
+    // Version of the tables, stored in the database to skip creating them again
+    private static final int SCHEMA_VERSION = 2;
+
     private Connection connection;
-    private final Path databasePath = Path.of(System.getenv("LOCALAPPDATA"), "PTO Planning Tool", "ptoCalculator.db");
+    private final Path databasePath;
     private int userId;
     private boolean firstTimeUser = false;
 
     /**
-     * Constructor to initialize the database connection and create necessary
-     * tables.
+     * Constructor to initialize the database connection in the data directory and
+     * create necessary tables.
      */
     public PTODatabase() {
+        this(PTOStore.getDataDirectory().resolve("ptoCalculator.db"));
+    }
+
+    /**
+     * Constructor to initialize the database connection at a specific path and
+     * create necessary tables.
+     * 
+     * @param databasePath the path to the SQLite database file
+     */
+    public PTODatabase(Path databasePath) {
+        this.databasePath = databasePath;
+
         // Create the database directory if it does not exist
         try {
             Files.createDirectories(databasePath.getParent());
-        } catch (java.io.IOException e) {
-            System.out.println("Failed to create database directory: " + e.getMessage());
+        } catch (IOException e) {
+            Log.error("database.directoryFailed", "path", databasePath.getParent(), "message", e.getMessage());
         }
 
         // Establish the database connection
         try {
             connection = DriverManager.getConnection("jdbc:sqlite:" + databasePath.toAbsolutePath());
             if (connection != null) {
-                System.out.println("Connected to the database.");
+                Log.info("database.connected", "path", databasePath);
             }
         } catch (SQLException e) {
-            System.out.println(e.getMessage());
+            Log.error("database.error", "operation", "connect", "message", e.getMessage());
         }
 
-        // Create necessary tables
-        createUsersTable();
-        createUserSettingsTable();
-        createPTOEntriesTable();
+        // Create necessary tables unless the database already has them, and
+        // only store the version once every table exists, so a failed step is
+        // tried again on the next start
+        int schemaVersion = getSchemaVersion();
+        if (schemaVersion != SCHEMA_VERSION) {
+            boolean created = createUsersTable() & createUserSettingsTable() & createPTOEntriesTable()
+                    & createPTOEntriesVersionTable() & createAccrualRateChangesTable();
+            // Databases from before version 2 have no hire date column, and
+            // those from before the version was stored have version 0
+            if (schemaVersion < 2) {
+                created &= addHireDateColumn();
+            }
+            if (created) {
+                setSchemaVersion(SCHEMA_VERSION);
+            }
+        }
 
         // Get or create the user
         getOrCreateUser();
     }
 
+    /**
+     * Gets the schema version stored in the database.
+     * 
+     * @return the schema version, or 0 if the tables were never created
+     */
+    private int getSchemaVersion() {
+        try (Statement stmt = connection.createStatement();
+                ResultSet rs = stmt.executeQuery("PRAGMA user_version;")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            Log.error("database.error", "operation", "getSchemaVersion", "message", e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Stores the schema version in the database.
+     * 
+     * @param version the schema version
+     */
+    private void setSchemaVersion(int version) {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA user_version = " + version + ";");
+        } catch (SQLException e) {
+            Log.error("database.error", "operation", "setSchemaVersion", "message", e.getMessage());
+        }
+    }
+
     /**
      * Creates the users table if it does not exist.
+     * 
+     * @return true if the table exists, false if creating it failed
      */
-    private void createUsersTable() {
+    private boolean createUsersTable() {
         // SQL statement to create the users table
         String sql = "CREATE TABLE IF NOT EXISTS users ("
                 + "id INTEGER PRIMARY KEY AUTOINCREMENT,"
@@ -76,15 +136,19 @@ public class PTODatabase {
         // Execute the SQL statement
         try (Statement stmt = connection.createStatement()) {
             stmt.execute(sql);
+            return true;
         } catch (SQLException e) {
-            System.out.println(e.getMessage());
+            Log.error("database.error", "operation", "createUsersTable", "message", e.getMessage());
+            return false;
         }
     }
 
     /**
      * Creates the user settings table if it does not exist.
+     * 
+     * @return true if the table exists, false if creating it failed
      */
-    private void createUserSettingsTable() {
+    private boolean createUserSettingsTable() {
         // SQL statement to create the user settings table
         String sql = "CREATE TABLE IF NOT EXISTS userSettings ("
                 + "userId INTEGER PRIMARY KEY NOT NULL,"
@@ -95,21 +159,79 @@ public class PTODatabase {
                 + "carryOverLimit REAL,"
                 + "expirationDate TEXT,"
                 + "lastUpdate TEXT NOT NULL,"
+                + "hireDate TEXT,"
                 + "FOREIGN KEY(userId) REFERENCES users(id)"
                 + ");";
 
         // Execute the SQL statement
         try (Statement stmt = connection.createStatement()) {
             stmt.execute(sql);
+            return true;
+        } catch (SQLException e) {
+            Log.error("database.error", "operation", "createUserSettingsTable", "message", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Adds the hire date column to a user settings table created before schema
+     * version 2, unless the table already has it.
+     * 
+     * @return true if the table has the column, false if adding it failed
+     */
+    private boolean addHireDateColumn() {
+        try (Statement stmt = connection.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("PRAGMA table_info(userSettings);")) {
+                while (rs.next()) {
+                    if (rs.getString("name").equals("hireDate")) {
+                        return true;
+                    }
+                }
+            }
+            stmt.execute("ALTER TABLE userSettings ADD COLUMN hireDate TEXT;");
+            return true;
         } catch (SQLException e) {
-            System.out.println(e.getMessage());
+            Log.error("database.error", "operation", "addHireDateColumn", "message", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Creates the accrual rate changes table if it does not exist. Each change
+     * has either an effective date or a number of years of service, and the
+     * position keeps the order the user gave them in.
+     * 
+     * @return true if the table exists, false if creating it failed
+     */
+    private boolean createAccrualRateChangesTable() {
+        // SQL statement to create the accrual rate changes table
+        String sql = "CREATE TABLE IF NOT EXISTS accrualRateChanges ("
+                + "userId INTEGER NOT NULL,"
+                + "position INTEGER NOT NULL,"
+                + "effectiveDate TEXT,"
+                + "serviceYears INTEGER NOT NULL,"
+                + "accrualRate REAL NOT NULL,"
+                + "accrualPeriod INTEGER NOT NULL,"
+                + "PRIMARY KEY(userId, position),"
+                + "FOREIGN KEY(userId) REFERENCES users(id)"
+                + ");";
+
+        // Execute the SQL statement
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute(sql);
+            return true;
+        } catch (SQLException e) {
+            Log.error("database.error", "operation", "createAccrualRateChangesTable", "message", e.getMessage());
+            return false;
         }
     }
 
     /**
      * Creates the PTO entries table if it does not exist.
+     * 
+     * @return true if the table exists, false if creating it failed
      */
-    private void createPTOEntriesTable() {
+    private boolean createPTOEntriesTable() {
         // SQL statement to create the PTO entries table
         String sql = "CREATE TABLE IF NOT EXISTS ptoEntries ("
                 + "id TEXT PRIMARY KEY,"
@@ -124,8 +246,35 @@ public class PTODatabase {
         // Execute the SQL statement
         try (Statement stmt = connection.createStatement()) {
             stmt.execute(sql);
+            return true;
+        } catch (SQLException e) {
+            Log.error("database.error", "operation", "createPTOEntriesTable", "message", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Creates the PTO entries version table if it does not exist. The version is
+     * incremented on every update of a user's entries and is used to check if
+     * the entry cache file is up to date.
+     * 
+     * @return true if the table exists, false if creating it failed
+     */
+    private boolean createPTOEntriesVersionTable() {
+        // SQL statement to create the PTO entries version table
+        String sql = "CREATE TABLE IF NOT EXISTS ptoEntriesVersion ("
+                + "userId INTEGER PRIMARY KEY NOT NULL,"
+                + "version INTEGER NOT NULL,"
+                + "FOREIGN KEY(userId) REFERENCES users(id)"
+                + ");";
+
+        // Execute the SQL statement
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute(sql);
+            return true;
         } catch (SQLException e) {
-            System.out.println(e.getMessage());
+            Log.error("database.error", "operation", "createPTOEntriesVersionTable", "message", e.getMessage());
+            return false;
         }
     }
 
@@ -145,7 +294,7 @@ public class PTODatabase {
             int rowsAffected = pstmt.executeUpdate();
             firstTimeUser = rowsAffected == 1;
         } catch (SQLException e) {
-            System.out.println(e.getMessage());
+            Log.error("database.error", "operation", "getOrCreateUser", "message", e.getMessage());
         }
 
         // Retrieve the user ID
@@ -157,7 +306,7 @@ public class PTODatabase {
                 userId = rs.getInt("id");
             }
         } catch (SQLException e) {
-            System.out.println(e.getMessage());
+            Log.error("database.error", "operation", "getOrCreateUser", "message", e.getMessage());
         }
     }
 
@@ -166,50 +315,155 @@ public class PTODatabase {
      * 
      * @return true if the user is a first-time user, false otherwise
      */
+    @Override
     public boolean isFirstTimeUser() {
         return firstTimeUser;
     }
 
     /**
-     * Updates the vacation entries in the database.
+     * Updates the vacation entries in the database and patches the changed
+     * entries in the entry cache file.
      * 
      * @param entries the list of vacation entries to update
      */
+    @Override
     public void updateVacations(List<Entry<?>> entries) {
-        // SQL statements to delete and replace vacation entries
+        // SQL statements to delete and replace vacation entries and bump the version
         String deleteSql = "DELETE FROM ptoEntries WHERE userId = ?;";
         String insertSql = "INSERT INTO ptoEntries (id, userId, title, startDate, endDate, fullDay) VALUES (?, ?, ?, ?, ?, ?);";
+        String versionSql = "INSERT INTO ptoEntriesVersion (userId, version) VALUES (?, 1) "
+                + "ON CONFLICT(userId) DO UPDATE SET version = version + 1;";
 
-        // Delete existing entries for the user
-        try (PreparedStatement deletePstmt = connection.prepareStatement(deleteSql)) {
-            deletePstmt.setInt(1, userId);
-            deletePstmt.executeUpdate();
+        // Replace the entries in a single transaction
+        DatabaseEvent event = DatabaseEvent.start("updateVacations", insertSql);
+        try {
+            connection.setAutoCommit(false);
+
+            // Delete existing entries for the user
+            try (PreparedStatement deletePstmt = connection.prepareStatement(deleteSql)) {
+                deletePstmt.setInt(1, userId);
+                deletePstmt.executeUpdate();
+            }
+
+            // Insert new entries for the user
+            try (PreparedStatement insertPstmt = connection.prepareStatement(insertSql)) {
+                for (Entry<?> entry : entries) {
+                    insertPstmt.setString(1, entry.getId());
+                    insertPstmt.setInt(2, userId);
+                    insertPstmt.setString(3, entry.getTitle());
+                    insertPstmt.setString(4, entry.getStartAsLocalDateTime().toString());
+                    insertPstmt.setString(5, entry.getEndAsLocalDateTime().toString());
+                    insertPstmt.setBoolean(6, entry.isFullDay());
+                    insertPstmt.addBatch();
+                }
+                insertPstmt.executeBatch();
+            }
+
+            // Increment the entries version
+            try (PreparedStatement versionPstmt = connection.prepareStatement(versionSql)) {
+                versionPstmt.setInt(1, userId);
+                versionPstmt.executeUpdate();
+            }
+
+            connection.commit();
         } catch (SQLException e) {
-            System.out.println(e.getMessage());
+            Log.error("database.error", "operation", "updateVacations", "message", e.getMessage());
+            rollback();
+            return;
+        } finally {
+            setAutoCommit();
+            event.finish(entries.size());
         }
 
-        // Insert new entries for the user
-        try (PreparedStatement insertPstmt = connection.prepareStatement(insertSql)) {
-            for (Entry<?> entry : entries) {
-                insertPstmt.setString(1, entry.getId());
-                insertPstmt.setInt(2, userId);
-                insertPstmt.setString(3, entry.getTitle());
-                insertPstmt.setString(4, entry.getStartAsLocalDateTime().toString());
-                insertPstmt.setString(5, entry.getEndAsLocalDateTime().toString());
-                insertPstmt.setBoolean(6, entry.isFullDay());
-                insertPstmt.executeUpdate();
+        // Patch the entry cache file to the new version
+        updateEntryCache(entries, true);
+    }
+
+    /**
+     * Adds vacation entries to the database in a single transaction and appends
+     * them to the entry cache file.
+     * 
+     * @param entries the list of vacation entries to add
+     * @return true if the entries were saved, false if the transaction failed
+     *         and was rolled back
+     */
+    @Override
+    public boolean addVacations(List<Entry<?>> entries) {
+        // SQL statements to insert vacation entries and bump the version
+        String insertSql = "INSERT INTO ptoEntries (id, userId, title, startDate, endDate, fullDay) VALUES (?, ?, ?, ?, ?, ?);";
+        String versionSql = "INSERT INTO ptoEntriesVersion (userId, version) VALUES (?, 1) "
+                + "ON CONFLICT(userId) DO UPDATE SET version = version + 1;";
+
+        DatabaseEvent event = DatabaseEvent.start("addVacations", insertSql);
+        try {
+            connection.setAutoCommit(false);
+
+            // Insert the entries in batches
+            try (PreparedStatement insertPstmt = connection.prepareStatement(insertSql)) {
+                int batchSize = 0;
+                for (Entry<?> entry : entries) {
+                    insertPstmt.setString(1, entry.getId());
+                    insertPstmt.setInt(2, userId);
+                    insertPstmt.setString(3, entry.getTitle());
+                    insertPstmt.setString(4, entry.getStartAsLocalDateTime().toString());
+                    insertPstmt.setString(5, entry.getEndAsLocalDateTime().toString());
+                    insertPstmt.setBoolean(6, entry.isFullDay());
+                    insertPstmt.addBatch();
+                    if (++batchSize == 1000) {
+                        insertPstmt.executeBatch();
+                        batchSize = 0;
+                    }
+                }
+                insertPstmt.executeBatch();
             }
+
+            // Increment the entries version
+            try (PreparedStatement versionPstmt = connection.prepareStatement(versionSql)) {
+                versionPstmt.setInt(1, userId);
+                versionPstmt.executeUpdate();
+            }
+
+            connection.commit();
         } catch (SQLException e) {
-            System.out.println(e.getMessage());
+            Log.error("database.error", "operation", "addVacations", "message", e.getMessage());
+            rollback();
+            return false;
+        } finally {
+            setAutoCommit();
+            event.finish(entries.size());
         }
+
+        // Append the entries to the entry cache file
+        updateEntryCache(entries, false);
+        return true;
     }
 
     /**
-     * Retrieves the vacation entries.
+     * Retrieves the vacation entries, reading them from the entry cache file when
+     * it is up to date.
      * 
      * @return a list of vacation entries
      */
+    @Override
     public List<Entry<?>> getVacations() {
+        // Use the entry cache file if it matches the stored entries
+        DatabaseEvent event = DatabaseEvent.start("getVacations", "SELECT * FROM ptoEntries");
+        long version = getEntriesVersion();
+        try {
+            MappedEntryFile cache = MappedEntryFile.open(getEntryCachePath());
+            if (cache.getDataVersion() == version) {
+                List<Entry<?>> entries = cache.getEntries();
+                event.cached = true;
+                event.finish(entries.size());
+                return entries;
+            }
+        } catch (IOException e) {
+            // The cache is missing or unreadable, so fall back to the database
+        } catch (RuntimeException e) {
+            // The records of the cache are corrupt, so rebuild it from the database
+            entryCacheFailed(e);
+        }
+
         // SQL statement to select vacation entries
         String sql = "SELECT * FROM ptoEntries WHERE userId = ?;";
 
@@ -231,23 +485,154 @@ public class PTODatabase {
                 entries.add(entry);
             }
         } catch (SQLException e) {
-            System.out.println(e.getMessage());
+            Log.error("database.error", "operation", "getVacations", "message", e.getMessage());
+            return entries;
+        } finally {
+            event.finish(entries.size());
         }
 
+        // Create the entry cache file for the next load
+        writeEntryCache(entries, version);
+
         return entries;
     }
 
     /**
-     * Updates the user settings in the database.
+     * Gets the version of the user's entries.
+     * 
+     * @return the entries version, or 0 if the entries were never updated
+     */
+    private long getEntriesVersion() {
+        String sql = "SELECT version FROM ptoEntriesVersion WHERE userId = ?;";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setInt(1, userId);
+            ResultSet rs = pstmt.executeQuery();
+            if (rs.next()) {
+                return rs.getLong("version");
+            }
+        } catch (SQLException e) {
+            Log.error("database.error", "operation", "getEntriesVersion", "message", e.getMessage());
+        }
+        return 0;
+    }
+
+    /**
+     * Gets the path of the user's entry cache file beside the database.
+     * 
+     * @return the entry cache path
+     */
+    private Path getEntryCachePath() {
+        return databasePath.resolveSibling(databasePath.getFileName() + ".entries-" + userId + ".bin");
+    }
+
+    /**
+     * Gets the path of the user's entry archive beside the database.
+     * 
+     * @return the archive path
+     */
+    @Override
+    public Path getArchivePath() {
+        return databasePath.resolveSibling(databasePath.getFileName() + ".archive-" + userId + ".bin");
+    }
+
+    /**
+     * Writes the entry cache file. A failure only means the next load reads
+     * from the database.
+     * 
+     * @param entries the entries to write
+     * @param version the entries version the cache belongs to
+     */
+    private void writeEntryCache(List<Entry<?>> entries, long version) {
+        try {
+            MappedEntryFile.write(getEntryCachePath(), entries, version);
+        } catch (IOException | RuntimeException e) {
+            entryCacheFailed(e);
+        }
+    }
+
+    /**
+     * Patches the entry cache file after the entries were saved, rewriting it
+     * if it cannot be patched. A cache of an older version that cannot be
+     * appended to is left for the next load to rebuild, since its version no
+     * longer matches.
+     * 
+     * @param entries    the saved entries
+     * @param replaceAll true if the entries replace all entries, false if they
+     *                   were added
+     */
+    private void updateEntryCache(List<Entry<?>> entries, boolean replaceAll) {
+        // Each save bumps the version by one
+        long version = getEntriesVersion();
+        Path path = getEntryCachePath();
+        try {
+            if (replaceAll) {
+                if (!MappedEntryFile.update(path, version - 1, entries, version)) {
+                    MappedEntryFile.write(path, entries, version);
+                }
+            } else {
+                MappedEntryFile.append(path, version - 1, entries, version);
+            }
+        } catch (IOException | RuntimeException e) {
+            entryCacheFailed(e);
+        }
+    }
+
+    /**
+     * Logs a failed read or write of the entry cache file and invalidates the
+     * file, so the next load reads from the database.
+     * 
+     * @param failure the cause of the failure
+     */
+    private void entryCacheFailed(Exception failure) {
+        Log.warn("database.entryCacheFailed", "path", getEntryCachePath(), "message", failure.getMessage());
+        try {
+            MappedEntryFile.invalidate(getEntryCachePath());
+        } catch (IOException e) {
+            Log.error("database.entryCacheInvalidateFailed", "path", getEntryCachePath(), "message",
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Rolls back the current transaction.
+     */
+    private void rollback() {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            Log.error("database.error", "operation", "rollback", "message", e.getMessage());
+        }
+    }
+
+    /**
+     * Restores auto-commit mode after a transaction.
+     */
+    private void setAutoCommit() {
+        try {
+            connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            Log.error("database.error", "operation", "setAutoCommit", "message", e.getMessage());
+        }
+    }
+
+    /**
+     * Updates the user settings and accrual rate changes in the database in a
+     * single transaction.
      * 
      * @param userSettings the user settings to update
      */
+    @Override
     public void updateUserSettings(UserSettings userSettings) {
-        // SQL statement to insert or replace user settings
-        String sql = "INSERT OR REPLACE INTO userSettings (userId, currentBalance, accrualRate, accrualPeriod, maxBalance, carryOverLimit, expirationDate, lastUpdate) VALUES (?, ?, ?, ?, ?, ?, ?, ?);";
-
-        // Set the parameters and execute the query
+        // SQL statements to insert or replace user settings and rate changes
+        String sql = "INSERT OR REPLACE INTO userSettings (userId, currentBalance, accrualRate, accrualPeriod, maxBalance, carryOverLimit, expirationDate, lastUpdate, hireDate) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?);";
+        String deleteChangesSql = "DELETE FROM accrualRateChanges WHERE userId = ?;";
+        String insertChangeSql = "INSERT INTO accrualRateChanges (userId, position, effectiveDate, serviceYears, accrualRate, accrualPeriod) VALUES (?, ?, ?, ?, ?, ?);";
+
+        // Set the parameters and execute the queries
+        DatabaseEvent event = DatabaseEvent.start("updateUserSettings", sql);
+        int rowsAffected = 0;
         try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            connection.setAutoCommit(false);
             pstmt.setInt(1, userId);
             pstmt.setDouble(2, userSettings.getCurrentBalance());
             pstmt.setDouble(3, userSettings.getAccrualRate());
@@ -259,9 +644,37 @@ public class PTODatabase {
                     : null;
             pstmt.setString(7, expirationDate);
             pstmt.setString(8, LocalDate.now().toString());
-            pstmt.executeUpdate();
+            pstmt.setString(9, userSettings.getHireDate() != null ? userSettings.getHireDate().toString() : null);
+            rowsAffected = pstmt.executeUpdate();
+
+            // Replace the accrual rate changes
+            try (PreparedStatement deletePstmt = connection.prepareStatement(deleteChangesSql)) {
+                deletePstmt.setInt(1, userId);
+                deletePstmt.executeUpdate();
+            }
+            try (PreparedStatement insertPstmt = connection.prepareStatement(insertChangeSql)) {
+                List<AccrualRateChange> changes = userSettings.getAccrualRateChanges();
+                for (int i = 0; i < changes.size(); i++) {
+                    AccrualRateChange change = changes.get(i);
+                    insertPstmt.setInt(1, userId);
+                    insertPstmt.setInt(2, i);
+                    insertPstmt.setString(3, change.effectiveDate() != null ? change.effectiveDate().toString() : null);
+                    insertPstmt.setInt(4, change.serviceYears());
+                    insertPstmt.setDouble(5, change.accrualRate());
+                    insertPstmt.setInt(6, change.accrualPeriod().ordinal());
+                    insertPstmt.addBatch();
+                }
+                insertPstmt.executeBatch();
+                rowsAffected += changes.size();
+            }
+
+            connection.commit();
         } catch (SQLException e) {
-            System.out.println(e.getMessage());
+            Log.error("database.error", "operation", "updateUserSettings", "message", e.getMessage());
+            rollback();
+        } finally {
+            setAutoCommit();
+            event.finish(rowsAffected);
         }
     }
 
@@ -271,6 +684,7 @@ public class PTODatabase {
      * @param userSettings the user settings object to populate
      * @return the last update
      */
+    @Override
     public LocalDate getUserSettings(UserSettings userSettings) {
         // SQL statement to select the user settings
         String sql = "SELECT * FROM userSettings WHERE userId = ?;";
@@ -287,14 +701,58 @@ public class PTODatabase {
                 userSettings.setMaxBalance(rs.getDouble("maxBalance"));
                 userSettings.setCarryOverLimit(rs.getDouble("carryOverLimit"));
                 userSettings.setExpirationDate(expirationDateStr != null ? MonthDay.parse(expirationDateStr) : null);
+                String hireDateStr = rs.getString("hireDate");
+                userSettings.setHireDate(hireDateStr != null ? LocalDate.parse(hireDateStr) : null);
+                userSettings.setAccrualRateChanges(getAccrualRateChanges());
 
                 // Return the last update
                 return LocalDate.parse(rs.getString("lastUpdate"));
             }
         } catch (SQLException e) {
-            System.out.println(e.getMessage());
+            Log.error("database.error", "operation", "getUserSettings", "message", e.getMessage());
         }
 
         return null;
     }
+
+    /**
+     * Retrieves the accrual rate changes of the user from the database.
+     * 
+     * @return the changes, in the order they were saved in
+     */
+    private List<AccrualRateChange> getAccrualRateChanges() {
+        // SQL statement to select the accrual rate changes
+        String sql = "SELECT * FROM accrualRateChanges WHERE userId = ? ORDER BY position;";
+
+        List<AccrualRateChange> changes = new ArrayList<>();
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setInt(1, userId);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                String effectiveDateStr = rs.getString("effectiveDate");
+                changes.add(new AccrualRateChange(
+                        effectiveDateStr != null ? LocalDate.parse(effectiveDateStr) : null,
+                        rs.getInt("serviceYears"),
+                        rs.getDouble("accrualRate"),
+                        AccrualPeriod.values()[rs.getInt("accrualPeriod")]));
+            }
+        } catch (SQLException e) {
+            Log.error("database.error", "operation", "getAccrualRateChanges", "message", e.getMessage());
+        }
+        return changes;
+    }
+
+    /**
+     * Closes the database connection.
+     */
+    @Override
+    public void close() {
+        try {
+            if (connection != null) {
+                connection.close();
+            }
+        } catch (SQLException e) {
+            Log.error("database.error", "operation", "close", "message", e.getMessage());
+        }
+    }
 }
@@ -0,0 +1,608 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.MonthDay;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import com.calendarfx.model.Entry;
+
+import utilities.AccrualPeriod;
+import utilities.Log;
+
+/**
+ * Event-sourced alternative to {@link PTODatabase}. Every change is appended
+ * to a journal file as an add, move, delete or settings event instead of
+ * rewriting the stored rows. The journal is periodically compacted into a
+ * snapshot, and startup replays the journal on top of the latest snapshot.
+ */
+public class PTOJournal implements PTOStore {
+    /** Number of journal events after which a new snapshot is written. */
+    static final int SNAPSHOT_INTERVAL = 1000;
+
+    private static final int SNAPSHOT_MAGIC = 0x50544F53; // "PTOS"
+    private static final int SNAPSHOT_VERSION = 2;
+
+    private static final byte ADD = 1;
+    private static final byte MOVE = 2;
+    private static final byte DELETE = 3;
+    // Journals written before settings and schedule shared a record use 4 and 5
+    private static final byte SETTINGS = 4;
+    private static final byte ACCRUAL_SCHEDULE = 5;
+    private static final byte SETTINGS_WITH_SCHEDULE = 6;
+
+    private final Path journalPath;
+    private final Path snapshotPath;
+    private final Path archivePath;
+    private final Map<String, EntryRecord> entries = new LinkedHashMap<>();
+    private FileChannel journal;
+    private UserSettings userSettings;
+    private LocalDate lastUpdate;
+    private boolean firstTimeUser;
+    private int eventsSinceSnapshot = 0;
+    private long bytesWritten = 0;
+
+    /**
+     * Constructor to open (or create) the journal of the current system user in
+     * the given directory and replay it from the latest snapshot.
+     *
+     * @param directory the directory holding the journal and snapshot files
+     * @throws IOException if the journal or snapshot cannot be read or opened
+     */
+    public PTOJournal(Path directory) throws IOException {
+        // Use one journal and snapshot per system user
+        String username = System.getProperty("user.name").replaceAll("[^A-Za-z0-9._-]", "_");
+        journalPath = directory.resolve(username + ".journal");
+        snapshotPath = directory.resolve(username + ".snapshot");
+        archivePath = directory.resolve(username + ".archive");
+
+        Files.createDirectories(directory);
+        firstTimeUser = !Files.exists(journalPath) && !Files.exists(snapshotPath);
+
+        // Rebuild the state from the snapshot and the events appended after it
+        readSnapshot();
+        long validLength = replayJournal();
+
+        // Open the journal for appending, dropping any torn record at the end
+        journal = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            journal.truncate(validLength);
+            journal.position(validLength);
+        } catch (IOException e) {
+            journal.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Checks if the user is a first-time user.
+     *
+     * @return true if the user is a first-time user, false otherwise
+     */
+    @Override
+    public synchronized boolean isFirstTimeUser() {
+        return firstTimeUser;
+    }
+
+    /**
+     * Updates the vacation entries by appending an event for each entry that was
+     * added, moved or deleted since the last update.
+     *
+     * @param newEntries the complete list of vacation entries
+     */
+    @Override
+    public synchronized void updateVacations(List<Entry<?>> newEntries) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        List<EntryRecord> changed = new ArrayList<>();
+
+        // Append add and move events for new and changed entries
+        Set<String> seen = new HashSet<>();
+        for (Entry<?> entry : newEntries) {
+            EntryRecord stored = EntryRecord.of(entry);
+            EntryRecord previous = entries.get(stored.id());
+            seen.add(stored.id());
+            if (previous == null || !previous.title().equals(stored.title())) {
+                writeRecord(buffer, ADD, out -> writeEntry(out, stored));
+            } else if (!previous.sameTiming(stored)) {
+                writeRecord(buffer, MOVE, out -> {
+                    out.writeUTF(stored.id());
+                    writeTiming(out, stored);
+                });
+            } else {
+                continue;
+            }
+            changed.add(stored);
+        }
+
+        // Append delete events for entries that no longer exist
+        List<String> removed = new ArrayList<>();
+        for (String id : entries.keySet()) {
+            if (!seen.contains(id)) {
+                removed.add(id);
+                writeRecord(buffer, DELETE, out -> out.writeUTF(id));
+            }
+        }
+
+        // Only apply the changes once they are in the journal, so a failed
+        // append is retried by the next update
+        if (!append(buffer, changed.size() + removed.size())) {
+            return;
+        }
+        for (EntryRecord stored : changed) {
+            entries.put(stored.id(), stored);
+        }
+        for (String id : removed) {
+            entries.remove(id);
+        }
+    }
+
+    /**
+     * Adds vacation entries by appending an add event for each of them.
+     *
+     * @param newEntries the vacation entries to add
+     * @return true if the events were appended, false if the journal could not
+     *         be written and no entries were added
+     */
+    @Override
+    public synchronized boolean addVacations(List<Entry<?>> newEntries) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        Map<String, EntryRecord> replaced = new HashMap<>();
+        for (Entry<?> entry : newEntries) {
+            EntryRecord stored = EntryRecord.of(entry);
+            writeRecord(buffer, ADD, out -> writeEntry(out, stored));
+            EntryRecord previous = entries.put(stored.id(), stored);
+            if (previous != null) {
+                replaced.putIfAbsent(stored.id(), previous);
+            }
+        }
+        if (append(buffer, newEntries.size())) {
+            return true;
+        }
+
+        // Undo the added entries, which are not in the journal
+        for (Entry<?> entry : newEntries) {
+            EntryRecord previous = replaced.get(entry.getId());
+            if (previous != null) {
+                entries.put(entry.getId(), previous);
+            } else {
+                entries.remove(entry.getId());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Retrieves the vacation entries.
+     *
+     * @return a list of vacation entries
+     */
+    @Override
+    public synchronized List<Entry<?>> getVacations() {
+        List<Entry<?>> result = new ArrayList<>(entries.size());
+        for (EntryRecord stored : entries.values()) {
+            result.add(stored.toEntry());
+        }
+        return result;
+    }
+
+    /**
+     * Updates the user settings by appending a settings event, which holds the
+     * accrual schedule as well so they are replayed together.
+     *
+     * @param newSettings the user settings to update
+     */
+    @Override
+    public synchronized void updateUserSettings(UserSettings newSettings) {
+        UserSettings settings = new UserSettings(newSettings);
+        LocalDate today = LocalDate.now();
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        writeRecord(buffer, SETTINGS_WITH_SCHEDULE, out -> {
+            writeSettings(out, settings, today);
+            writeAccrualSchedule(out, settings);
+        });
+        if (append(buffer, 1)) {
+            userSettings = settings;
+            lastUpdate = today;
+        }
+    }
+
+    /**
+     * Retrieves the user settings.
+     *
+     * @param target the user settings object to populate
+     * @return the last update, or null if no settings have been saved
+     */
+    @Override
+    public synchronized LocalDate getUserSettings(UserSettings target) {
+        if (userSettings == null) {
+            return null;
+        }
+
+        target.setCurrentBalance(userSettings.getCurrentBalance());
+        target.setAccrualRate(userSettings.getAccrualRate());
+        target.setAccrualPeriod(userSettings.getAccrualPeriod());
+        target.setMaxBalance(userSettings.getMaxBalance());
+        target.setCarryOverLimit(userSettings.getCarryOverLimit());
+        target.setExpirationDate(userSettings.getExpirationDate());
+        target.setHireDate(userSettings.getHireDate());
+        target.setAccrualRateChanges(userSettings.getAccrualRateChanges());
+        return lastUpdate;
+    }
+
+    /**
+     * Writes a snapshot of the current state and truncates the journal.
+     */
+    public synchronized void compact() {
+        try {
+            // Write the snapshot to a temporary file and atomically replace the old one
+            Path temporaryPath = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(temporaryPath)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeBoolean(userSettings != null);
+                if (userSettings != null) {
+                    writeSettings(out, userSettings, lastUpdate);
+                    writeAccrualSchedule(out, userSettings);
+                }
+                out.writeInt(entries.size());
+                for (EntryRecord stored : entries.values()) {
+                    writeEntry(out, stored);
+                }
+                bytesWritten += out.size();
+            }
+            Files.move(temporaryPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+
+            // Every event is now part of the snapshot
+            journal.truncate(0);
+            journal.position(0);
+            eventsSinceSnapshot = 0;
+        } catch (IOException e) {
+            Log.error("journal.compactFailed", "path", journalPath, "message", e.getMessage());
+        }
+    }
+
+    /**
+     * Gets the path of the user's entry archive beside the journal.
+     *
+     * @return the archive path
+     */
+    @Override
+    public Path getArchivePath() {
+        return archivePath;
+    }
+
+    /**
+     * Gets the total number of bytes appended to the journal and written to
+     * snapshots since this journal was opened.
+     *
+     * @return the number of bytes written
+     */
+    public synchronized long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Closes the journal file.
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            journal.close();
+        } catch (IOException e) {
+            Log.error("journal.closeFailed", "path", journalPath, "message", e.getMessage());
+        }
+    }
+
+    /**
+     * Appends the buffered records to the journal and compacts it if enough
+     * events have accumulated.
+     *
+     * @param buffer the buffered records
+     * @param events the number of records in the buffer
+     * @return true if the records were written, false otherwise
+     */
+    private boolean append(ByteArrayOutputStream buffer, int events) {
+        if (events == 0) {
+            return true;
+        }
+
+        long position = -1;
+        try {
+            position = journal.position();
+            ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+            while (bytes.hasRemaining()) {
+                journal.write(bytes);
+            }
+            bytesWritten += buffer.size();
+        } catch (IOException e) {
+            Log.error("journal.appendFailed", "path", journalPath, "message", e.getMessage());
+            truncate(position);
+            return false;
+        }
+
+        eventsSinceSnapshot += events;
+        if (eventsSinceSnapshot >= SNAPSHOT_INTERVAL) {
+            compact();
+        }
+        return true;
+    }
+
+    /**
+     * Drops a partly written append from the end of the journal, so later
+     * appends do not follow a torn record.
+     *
+     * @param position the length of the journal before the append, or -1 if it
+     *                 is unknown
+     */
+    private void truncate(long position) {
+        if (position < 0) {
+            return;
+        }
+
+        try {
+            journal.truncate(position);
+            journal.position(position);
+        } catch (IOException e) {
+            Log.error("journal.truncateFailed", "path", journalPath, "message", e.getMessage());
+        }
+    }
+
+    /**
+     * Loads the snapshot file, if one exists.
+     */
+    private void readSnapshot() throws IOException {
+        if (!Files.exists(snapshotPath)) {
+            return;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+            // Version 1 snapshots have no accrual schedule
+            int version = in.readInt() == SNAPSHOT_MAGIC ? in.readInt() : 0;
+            if (version != 1 && version != SNAPSHOT_VERSION) {
+                throw new IOException("Unsupported snapshot format: " + snapshotPath);
+            }
+            if (in.readBoolean()) {
+                readSettings(in);
+                if (version >= 2) {
+                    readAccrualSchedule(in);
+                }
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                EntryRecord stored = readEntry(in);
+                entries.put(stored.id(), stored);
+            }
+        }
+    }
+
+    /**
+     * Replays the journal events on top of the snapshot.
+     *
+     * @return the length of the valid part of the journal
+     */
+    private long replayJournal() throws IOException {
+        if (!Files.exists(journalPath)) {
+            return 0;
+        }
+
+        long validLength = 0;
+        try (InputStream file = new BufferedInputStream(Files.newInputStream(journalPath))) {
+            DataInputStream in = new DataInputStream(file);
+            while (true) {
+                // Read the next record, stopping at the end of the file or a torn record
+                byte[] payload;
+                try {
+                    int length = in.readInt();
+                    long checksum = in.readInt() & 0xFFFFFFFFL;
+                    payload = in.readNBytes(length);
+                    if (length < 1 || payload.length != length || checksum(payload) != checksum) {
+                        break;
+                    }
+                } catch (EOFException e) {
+                    break;
+                }
+
+                applyRecord(new DataInputStream(new ByteArrayInputStream(payload)));
+                validLength += 8 + payload.length;
+                eventsSinceSnapshot++;
+            }
+        }
+
+        return validLength;
+    }
+
+    /**
+     * Applies a single journal record to the in-memory state.
+     *
+     * @param in the record payload
+     */
+    private void applyRecord(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case ADD:
+                EntryRecord added = readEntry(in);
+                entries.put(added.id(), added);
+                break;
+            case MOVE:
+                String id = in.readUTF();
+                EntryRecord moved = entries.get(id);
+                LocalDateTime start = readDateTime(in);
+                LocalDateTime end = readDateTime(in);
+                boolean fullDay = in.readBoolean();
+                if (moved != null) {
+                    entries.put(id, new EntryRecord(id, moved.title(), start, end, fullDay));
+                }
+                break;
+            case DELETE:
+                entries.remove(in.readUTF());
+                break;
+            case SETTINGS:
+                readSettings(in);
+                break;
+            case ACCRUAL_SCHEDULE:
+                readAccrualSchedule(in);
+                break;
+            case SETTINGS_WITH_SCHEDULE:
+                readSettings(in);
+                readAccrualSchedule(in);
+                break;
+            default:
+                throw new IOException("Unknown journal record type: " + type);
+        }
+    }
+
+    /**
+     * Writer for the payload of a single record.
+     */
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Frames a record as length, CRC32 checksum and payload.
+     *
+     * @param buffer the buffer to write the record to
+     * @param type   the record type
+     * @param writer the writer for the record payload
+     */
+    private static void writeRecord(ByteArrayOutputStream buffer, byte type, RecordWriter writer) {
+        try {
+            ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
+            DataOutputStream payload = new DataOutputStream(payloadBytes);
+            payload.writeByte(type);
+            writer.write(payload);
+            byte[] bytes = payloadBytes.toByteArray();
+
+            DataOutputStream out = new DataOutputStream(buffer);
+            out.writeInt(bytes.length);
+            out.writeInt((int) checksum(bytes));
+            out.write(bytes);
+        } catch (IOException e) {
+            // Writing to memory cannot fail
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+
+    private static void writeEntry(DataOutputStream out, EntryRecord stored) throws IOException {
+        out.writeUTF(stored.id());
+        out.writeUTF(stored.title());
+        writeTiming(out, stored);
+    }
+
+    private static void writeTiming(DataOutputStream out, EntryRecord stored) throws IOException {
+        writeDateTime(out, stored.start());
+        writeDateTime(out, stored.end());
+        out.writeBoolean(stored.fullDay());
+    }
+
+    private static EntryRecord readEntry(DataInputStream in) throws IOException {
+        return new EntryRecord(in.readUTF(), in.readUTF(), readDateTime(in), readDateTime(in), in.readBoolean());
+    }
+
+    private static void writeDateTime(DataOutputStream out, LocalDateTime dateTime) throws IOException {
+        out.writeLong(dateTime.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(dateTime.getNano());
+    }
+
+    private static LocalDateTime readDateTime(DataInputStream in) throws IOException {
+        return LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+    }
+
+    private static void writeSettings(DataOutputStream out, UserSettings settings, LocalDate lastUpdate)
+            throws IOException {
+        out.writeDouble(settings.getCurrentBalance());
+        out.writeDouble(settings.getAccrualRate());
+        out.writeByte(settings.getAccrualPeriod().ordinal());
+        out.writeDouble(settings.getMaxBalance());
+        out.writeDouble(settings.getCarryOverLimit());
+        out.writeUTF(settings.getExpirationDate() != null ? settings.getExpirationDate().toString() : "");
+        out.writeLong(lastUpdate.toEpochDay());
+    }
+
+    private void readSettings(DataInputStream in) throws IOException {
+        UserSettings settings = new UserSettings();
+        settings.setCurrentBalance(in.readDouble());
+        settings.setAccrualRate(in.readDouble());
+        settings.setAccrualPeriod(AccrualPeriod.values()[in.readByte()]);
+        settings.setMaxBalance(in.readDouble());
+        settings.setCarryOverLimit(in.readDouble());
+        String expirationDate = in.readUTF();
+        settings.setExpirationDate(expirationDate.isEmpty() ? null : MonthDay.parse(expirationDate));
+        userSettings = settings;
+        lastUpdate = LocalDate.ofEpochDay(in.readLong());
+    }
+
+    private static void writeAccrualSchedule(DataOutputStream out, UserSettings settings) throws IOException {
+        out.writeBoolean(settings.getHireDate() != null);
+        if (settings.getHireDate() != null) {
+            out.writeLong(settings.getHireDate().toEpochDay());
+        }
+        out.writeInt(settings.getAccrualRateChanges().size());
+        for (AccrualRateChange change : settings.getAccrualRateChanges()) {
+            out.writeBoolean(change.effectiveDate() != null);
+            if (change.effectiveDate() != null) {
+                out.writeLong(change.effectiveDate().toEpochDay());
+            } else {
+                out.writeInt(change.serviceYears());
+            }
+            out.writeDouble(change.accrualRate());
+            out.writeByte(change.accrualPeriod().ordinal());
+        }
+    }
+
+    /**
+     * Reads the hire date and accrual rate changes into the settings read
+     * before them.
+     */
+    private void readAccrualSchedule(DataInputStream in) throws IOException {
+        LocalDate hireDate = in.readBoolean() ? LocalDate.ofEpochDay(in.readLong()) : null;
+        int count = in.readInt();
+        List<AccrualRateChange> changes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalDate effectiveDate = in.readBoolean() ? LocalDate.ofEpochDay(in.readLong()) : null;
+            int serviceYears = effectiveDate == null ? in.readInt() : 0;
+            changes.add(new AccrualRateChange(effectiveDate, serviceYears, in.readDouble(),
+                    AccrualPeriod.values()[in.readByte()]));
+        }
+        if (userSettings != null) {
+            userSettings.setHireDate(hireDate);
+            userSettings.setAccrualRateChanges(changes);
+        }
+    }
+}
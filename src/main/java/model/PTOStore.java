@@ -0,0 +1,135 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import com.calendarfx.model.Entry;
+
+import utilities.Metrics;
+
+/**
+ * Storage backend for the vacation entries and user settings of the Paid Time
+ * Off Planning Tool.
+ */
+public interface PTOStore {
+    /**
+     * Checks if the user is a first-time user.
+     *
+     * @return true if the user is a first-time user, false otherwise
+     */
+    boolean isFirstTimeUser();
+
+    /**
+     * Updates the vacation entries.
+     *
+     * @param entries the complete list of vacation entries
+     */
+    void updateVacations(List<Entry<?>> entries);
+
+    /**
+     * Adds vacation entries to the existing ones, for example from an import.
+     * Either all of the entries are saved or none of them are.
+     *
+     * @param entries the vacation entries to add
+     * @return true if the entries were saved, false if saving them failed
+     */
+    boolean addVacations(List<Entry<?>> entries);
+
+    /**
+     * Retrieves the vacation entries.
+     *
+     * @return a list of vacation entries
+     */
+    List<Entry<?>> getVacations();
+
+    /**
+     * Updates the user settings.
+     *
+     * @param userSettings the user settings to update
+     */
+    void updateUserSettings(UserSettings userSettings);
+
+    /**
+     * Retrieves the user settings.
+     *
+     * @param userSettings the user settings object to populate
+     * @return the last update, or null if no settings have been saved
+     */
+    LocalDate getUserSettings(UserSettings userSettings);
+
+    /**
+     * Gets the file the old entries of the user are archived to. Every user
+     * has their own archive.
+     *
+     * @return the archive file, or null if the store is not kept on disk
+     */
+    Path getArchivePath();
+
+    /**
+     * Releases any resources held by the store.
+     */
+    default void close() {
+    }
+
+    /**
+     * Gets the directory where the application data is stored. The location is
+     * taken from the {@code pto.dataDir} system property or the
+     * {@code PTO_DATA_DIR} environment variable, then defaults to
+     * {@code %LOCALAPPDATA%\PTO Planning Tool} on Windows and
+     * {@code ~/.pto-planning-tool} elsewhere.
+     *
+     * @return the data directory
+     */
+    static Path getDataDirectory() {
+        String dataDirectory = System.getProperty("pto.dataDir", System.getenv("PTO_DATA_DIR"));
+        if (dataDirectory != null && !dataDirectory.isBlank()) {
+            return Path.of(dataDirectory);
+        }
+
+        String localAppData = System.getenv("LOCALAPPDATA");
+        if (localAppData != null) {
+            return Path.of(localAppData, "PTO Planning Tool");
+        }
+
+        return Path.of(System.getProperty("user.home"), ".pto-planning-tool");
+    }
+
+    /**
+     * Opens the store selected by the {@code pto.storage} system property:
+     * {@code sqlite} (default), {@code journal} or {@code memory}. The store is
+     * measured if metrics are enabled.
+     *
+     * @return the opened store
+     * @throws IllegalArgumentException if the storage type is unknown
+     * @throws UncheckedIOException     if the journal cannot be opened
+     */
+    static PTOStore open() {
+        String storage = System.getProperty("pto.storage", "sqlite");
+        PTOStore store;
+        switch (storage) {
+            case "sqlite":
+                store = new PTODatabase(getDataDirectory().resolve("ptoCalculator.db"));
+                break;
+            case "journal":
+                try {
+                    store = new PTOJournal(getDataDirectory().resolve("journal"));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot open the journal", e);
+                }
+                break;
+            case "memory":
+                store = new InMemoryPTOStore();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown storage type: " + storage);
+        }
+        return Metrics.ENABLED ? new MeasuredPTOStore(store) : store;
+    }
+}
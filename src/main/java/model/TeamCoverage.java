@@ -0,0 +1,297 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package model;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.calendarfx.model.Entry;
+
+import utilities.HolidayCalendar;
+import utilities.PTOCalculator;
+
+/**
+ * Number of people off and PTO hours used on each day of a range, for a team
+ * of users.
+ *
+ * The absences of each user are reduced to a short list of changes at the
+ * days a run of absences starts or ends, and the changes of all users are
+ * summed into difference arrays over the days of the range. The counts of a
+ * day are then a prefix sum, so a year of coverage costs the same however
+ * many people are off. Users are reduced in parallel, and a booking change
+ * replaces the changes of one user without touching the others.
+ */
+public class TeamCoverage {
+    private static final long MINUTES_PER_DAY = 8 * 60;
+
+    private final long fromDay;
+    private final int dayCount;
+    // Changes of the people off and minutes used at the start of each day
+    private final int[] peopleDiff;
+    private final long[] minutesDiff;
+    private final Map<String, Changes> changesByUser = new HashMap<>();
+
+    /**
+     * Absences of a user.
+     *
+     * @param holidays the holidays of the user, on which no PTO is used
+     * @param entries  the time off entries of the user
+     */
+    public record Absences(HolidayCalendar holidays, Collection<? extends Entry<?>> entries) {
+    }
+
+    /**
+     * Coverage of every day of the range at one point in time.
+     *
+     * @param from      the first date of the range
+     * @param peopleOff the number of people with time off on each date
+     * @param hoursOff  the PTO hours used on each date
+     */
+    public record Coverage(LocalDate from, int[] peopleOff, double[] hoursOff) {
+        /**
+         * Gets the number of people with time off on a date.
+         *
+         * @param date a date in the range
+         * @return the people off
+         * @throws IllegalArgumentException if the date is not in the range
+         */
+        public int peopleOffAt(LocalDate date) {
+            return peopleOff[indexOf(date)];
+        }
+
+        /**
+         * Gets the PTO hours used on a date.
+         *
+         * @param date a date in the range
+         * @return the hours off
+         * @throws IllegalArgumentException if the date is not in the range
+         */
+        public double hoursOffAt(LocalDate date) {
+            return hoursOff[indexOf(date)];
+        }
+
+        private int indexOf(LocalDate date) {
+            long index = ChronoUnit.DAYS.between(from, date);
+            if (index < 0 || index >= peopleOff.length) {
+                throw new IllegalArgumentException(
+                        date + " is not between " + from + " and " + from.plusDays(peopleOff.length - 1L));
+            }
+            return (int) index;
+        }
+    }
+
+    /**
+     * Changes of one user at the indexes of the difference arrays.
+     */
+    private record Changes(int[] indexes, int[] people, long[] minutes) {
+    }
+
+    /**
+     * Constructor for a team without users.
+     *
+     * @param from the first date of the range
+     * @param to   the last date of the range
+     * @throws IllegalArgumentException if the last date is before the first
+     */
+    public TeamCoverage(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("End date " + to + " is before start date " + from);
+        }
+
+        fromDay = from.toEpochDay();
+        dayCount = Math.toIntExact(to.toEpochDay() - fromDay + 1);
+        peopleDiff = new int[dayCount + 1];
+        minutesDiff = new long[dayCount + 1];
+    }
+
+    /**
+     * Adds or replaces the absences of many users, reducing them in parallel.
+     *
+     * @param userIds    the IDs of the users
+     * @param absencesOf gets the absences of a user
+     */
+    public void updateUsers(Collection<String> userIds, Function<String, Absences> absencesOf) {
+        List<Map.Entry<String, Changes>> reduced = userIds.parallelStream()
+                .map(userId -> Map.entry(userId, reduce(absencesOf.apply(userId))))
+                .toList();
+        synchronized (this) {
+            for (Map.Entry<String, Changes> changes : reduced) {
+                replace(changes.getKey(), changes.getValue());
+            }
+        }
+    }
+
+    /**
+     * Adds or replaces the absences of a user, such as after a booking change.
+     *
+     * @param userId   the ID of the user
+     * @param absences the absences of the user
+     */
+    public void updateUser(String userId, Absences absences) {
+        Changes changes = reduce(absences);
+        synchronized (this) {
+            replace(userId, changes);
+        }
+    }
+
+    /**
+     * Removes the absences of a user.
+     *
+     * @param userId the ID of the user
+     * @return true if the user was removed, false if it was not in the team
+     */
+    public synchronized boolean removeUser(String userId) {
+        return replace(userId, null);
+    }
+
+    /**
+     * Gets the number of users in the team.
+     *
+     * @return the user count
+     */
+    public synchronized int getUserCount() {
+        return changesByUser.size();
+    }
+
+    /**
+     * Computes the coverage of every day of the range.
+     *
+     * @return the coverage
+     */
+    public synchronized Coverage getCoverage() {
+        int[] peopleOff = new int[dayCount];
+        double[] hoursOff = new double[dayCount];
+        int people = 0;
+        long minutes = 0;
+        for (int i = 0; i < dayCount; i++) {
+            people += peopleDiff[i];
+            minutes += minutesDiff[i];
+            peopleOff[i] = people;
+            hoursOff[i] = minutes / 60.0;
+        }
+        return new Coverage(LocalDate.ofEpochDay(fromDay), peopleOff, hoursOff);
+    }
+
+    /**
+     * Replaces the changes of a user in the difference arrays.
+     *
+     * @return true if the user had changes before
+     */
+    private boolean replace(String userId, Changes changes) {
+        Changes old = changes == null ? changesByUser.remove(userId) : changesByUser.put(userId, changes);
+        if (old != null) {
+            apply(old, -1);
+        }
+        if (changes != null) {
+            apply(changes, 1);
+        }
+        return old != null;
+    }
+
+    /**
+     * Adds or subtracts changes to the difference arrays.
+     */
+    private void apply(Changes changes, int sign) {
+        for (int i = 0; i < changes.indexes().length; i++) {
+            peopleDiff[changes.indexes()[i]] += sign * changes.people()[i];
+            minutesDiff[changes.indexes()[i]] += sign * changes.minutes()[i];
+        }
+    }
+
+    /**
+     * Reduces the absences of a user in the range to the changes at the start
+     * and end of each run of days off. A user with overlapping entries counts
+     * as one person off, and PTO is only used on working days.
+     */
+    private Changes reduce(Absences absences) {
+        ChangeBuffer changes = new ChangeBuffer();
+        List<long[]> runs = new ArrayList<>();
+        long lastDay = fromDay + dayCount - 1;
+
+        for (Entry<?> entry : absences.entries()) {
+            long start = Math.max(entry.getStartDate().toEpochDay(), fromDay);
+            long end = Math.min(entry.getEndDate().toEpochDay(), lastDay);
+            if (start > end) {
+                continue;
+            }
+            runs.add(new long[] { start, end });
+
+            // The minutes of each run of working days
+            long minutes = Math.min(MINUTES_PER_DAY, Math.round(PTOCalculator
+                    .calculateDeduction(entry.isFullDay(), entry.isMultiDay(), entry.getDuration().toMinutes()) * 60));
+            long runStart = -1;
+            for (long day = start; day <= end + 1; day++) {
+                boolean working = day <= end && absences.holidays().isWorkingDay(LocalDate.ofEpochDay(day));
+                if (working && runStart < 0) {
+                    runStart = day;
+                } else if (!working && runStart >= 0) {
+                    changes.add(runStart, 0, minutes);
+                    changes.add(day, 0, -minutes);
+                    runStart = -1;
+                }
+            }
+        }
+
+        // Merge overlapping entries so each day counts the user once
+        runs.sort(Comparator.comparingLong(run -> run[0]));
+        long mergedStart = -1;
+        long mergedEnd = -1;
+        for (long[] run : runs) {
+            if (mergedStart >= 0 && run[0] <= mergedEnd + 1) {
+                mergedEnd = Math.max(mergedEnd, run[1]);
+                continue;
+            }
+            if (mergedStart >= 0) {
+                changes.add(mergedStart, 1, 0);
+                changes.add(mergedEnd + 1, -1, 0);
+            }
+            mergedStart = run[0];
+            mergedEnd = run[1];
+        }
+        if (mergedStart >= 0) {
+            changes.add(mergedStart, 1, 0);
+            changes.add(mergedEnd + 1, -1, 0);
+        }
+        return changes.toChanges();
+    }
+
+    /**
+     * Growable arrays of the changes of a user while they are reduced.
+     */
+    private class ChangeBuffer {
+        private int[] indexes = new int[16];
+        private int[] people = new int[16];
+        private long[] minutes = new long[16];
+        private int size;
+
+        /**
+         * Adds a change at an epoch day in the range, or the day after it.
+         */
+        void add(long day, int peopleChange, long minuteChange) {
+            if (size == indexes.length) {
+                indexes = Arrays.copyOf(indexes, size * 2);
+                people = Arrays.copyOf(people, size * 2);
+                minutes = Arrays.copyOf(minutes, size * 2);
+            }
+            indexes[size] = (int) (day - fromDay);
+            people[size] = peopleChange;
+            minutes[size] = minuteChange;
+            size++;
+        }
+
+        Changes toChanges() {
+            return new Changes(Arrays.copyOf(indexes, size), Arrays.copyOf(people, size),
+                    Arrays.copyOf(minutes, size));
+        }
+    }
+}
@@ -6,8 +6,11 @@ package model;
 
 import java.time.LocalDate;
 import java.time.MonthDay;
+import java.util.List;
 
 import utilities.AccrualPeriod;
+import utilities.AccrualSchedule;
+import utilities.HolidayCalendar;
 
 /**
  * Represents user settings for the Paid Time Off Planning Tool.
@@ -19,6 +22,13 @@ public class UserSettings {
     double carryOverLimit;
     MonthDay expirationDate;
     double currentBalance;
+    LocalDate hireDate;
+    List<AccrualRateChange> accrualRateChanges = List.of();
+    // Company holidays, loaded from files rather than stored
+    HolidayCalendar holidays = HolidayCalendar.NONE;
+
+    // Schedule built from the accrual settings, until they change
+    private AccrualSchedule accrualSchedule;
 
     /**
      * Default constructor initializing with default values.
@@ -53,6 +63,37 @@ public class UserSettings {
         this.currentBalance = currentBalance;
     }
 
+    /**
+     * Copy constructor.
+     * 
+     * @param other the user settings to copy
+     */
+    public UserSettings(UserSettings other) {
+        this(other.accrualRate, other.accrualPeriod, other.maxBalance, other.carryOverLimit, other.expirationDate,
+                other.currentBalance);
+        this.hireDate = other.hireDate;
+        this.accrualRateChanges = other.accrualRateChanges;
+        this.holidays = other.holidays;
+    }
+
+    /**
+     * Copies all values from other user settings.
+     * 
+     * @param other the user settings to copy
+     */
+    public void copyFrom(UserSettings other) {
+        this.accrualRate = other.accrualRate;
+        this.accrualPeriod = other.accrualPeriod;
+        this.maxBalance = other.maxBalance;
+        this.carryOverLimit = other.carryOverLimit;
+        this.expirationDate = other.expirationDate;
+        this.currentBalance = other.currentBalance;
+        this.hireDate = other.hireDate;
+        this.accrualRateChanges = other.accrualRateChanges;
+        this.holidays = other.holidays;
+        this.accrualSchedule = null;
+    }
+
     /**
      * Gets the accrual rate.
      * 
@@ -74,6 +115,7 @@ public class UserSettings {
         }
 
         this.accrualRate = accrualRate;
+        this.accrualSchedule = null;
     }
 
     /**
@@ -92,6 +134,7 @@ public class UserSettings {
      */
     public void setAccrualPeriod(AccrualPeriod accrualPeriod) {
         this.accrualPeriod = accrualPeriod;
+        this.accrualSchedule = null;
     }
 
     /**
@@ -199,6 +242,79 @@ public class UserSettings {
         this.currentBalance = currentBalance;
     }
 
+    /**
+     * Gets the hire date used for seniority tiers.
+     * 
+     * @return the hire date, or null if unknown
+     */
+    public LocalDate getHireDate() {
+        return hireDate;
+    }
+
+    /**
+     * Sets the hire date used for seniority tiers.
+     * 
+     * @param hireDate the hire date to set, or null if unknown
+     */
+    public void setHireDate(LocalDate hireDate) {
+        this.hireDate = hireDate;
+        this.accrualSchedule = null;
+    }
+
+    /**
+     * Gets the changes of the accrual rate over time.
+     * 
+     * @return the unmodifiable list of changes
+     */
+    public List<AccrualRateChange> getAccrualRateChanges() {
+        return accrualRateChanges;
+    }
+
+    /**
+     * Sets the changes of the accrual rate over time. The accrual rate and
+     * period apply until the first change.
+     * 
+     * @param accrualRateChanges the changes to set, which are copied
+     */
+    public void setAccrualRateChanges(List<AccrualRateChange> accrualRateChanges) {
+        this.accrualRateChanges = List.copyOf(accrualRateChanges);
+        this.accrualSchedule = null;
+    }
+
+    /**
+     * Gets the accrual schedule built from the accrual rate, period, hire date
+     * and rate changes. The schedule is built once and reused until one of them
+     * changes.
+     * 
+     * @return the accrual schedule
+     */
+    public AccrualSchedule getAccrualSchedule() {
+        AccrualSchedule schedule = accrualSchedule;
+        if (schedule == null) {
+            schedule = new AccrualSchedule(accrualRate, accrualPeriod, hireDate, accrualRateChanges);
+            accrualSchedule = schedule;
+        }
+        return schedule;
+    }
+
+    /**
+     * Gets the company holidays, on which time off uses no PTO.
+     * 
+     * @return the holiday calendar
+     */
+    public HolidayCalendar getHolidays() {
+        return holidays;
+    }
+
+    /**
+     * Sets the company holidays. Holidays are not saved by the stores.
+     * 
+     * @param holidays the holiday calendar to set
+     */
+    public void setHolidays(HolidayCalendar holidays) {
+        this.holidays = holidays;
+    }
+
     /**
      * Calculates the next expiration date given a start date.
      * 
@@ -234,6 +350,8 @@ public class UserSettings {
                 ", maxBalance=" + maxBalance +
                 ", carryOverLimit=" + carryOverLimit +
                 ", expirationDate=" + expirationDate +
+                ", hireDate=" + hireDate +
+                ", accrualRateChanges=" + accrualRateChanges +
                 ')';
     }
 }
@@ -5,8 +5,13 @@ module pto.calculator {
     requires transitive javafx.graphics;
     requires transitive com.calendarfx.view;
     requires java.sql;
+    requires java.management;
+    requires jdk.jfr;
+    requires jdk.httpserver;
 
+    exports cli;
     exports gui;
     exports model;
+    exports server;
     exports utilities;
 }
\ No newline at end of file
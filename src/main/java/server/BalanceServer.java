@@ -0,0 +1,444 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.calendarfx.model.Entry;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import model.PTOStore;
+import model.UserSettings;
+import utilities.EntriesHelper;
+import utilities.EntryCsv;
+import utilities.HolidayCalendar;
+import utilities.Log;
+import utilities.Metrics;
+import utilities.PTOCalculator;
+
+/**
+ * Local HTTP API for the balance calculations, so other tools can ask what the
+ * balance will be on a date and whether a booking is valid. Requests are
+ * handled on a virtual thread each and answered with JSON:
+ *
+ * <ul>
+ * <li>{@code GET /balance?date=2025-06-30&date=2025-12-31}: the projected
+ * balances at one or more dates.</li>
+ * <li>{@code POST /validate}: checks the entries in the CSV request body, in the
+ * import format, against the balance and the saved entries.</li>
+ * <li>{@code GET /stats}: the request count and latency percentiles against the
+ * p99 target.</li>
+ * </ul>
+ *
+ * Calculations run on an immutable snapshot of the settings and entries, which
+ * is reloaded from the store in the background, so requests never wait for the
+ * store. Responses have a fixed length, which keeps connections alive between
+ * requests.
+ */
+public class BalanceServer {
+    private static final int BACKLOG = 1024;
+
+    private final PTOStore store;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Balance Server Refresh Thread");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Metrics.Timer requests = new Metrics.Timer();
+    private final double p99TargetMillis;
+    private final HolidayCalendar holidays;
+
+    private volatile Snapshot snapshot;
+
+    static {
+        // Send small responses right away instead of waiting for the client to
+        // acknowledge the headers, which adds 40 ms to each keep-alive request.
+        // Read when the first server is created.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    /**
+     * Settings and entries the calculations run on. Never modified once
+     * published. The entries are kept both once each and grouped by date,
+     * where a multi-day entry is listed on every date it spans.
+     */
+    private record Snapshot(PTOCalculator calculator, List<Entry<?>> saved,
+            NavigableMap<LocalDate, List<Entry<?>>> entries) {
+    }
+
+    /**
+     * Error answered with a status code other than 200.
+     */
+    private static class HttpError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        HttpError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * Constructor to serve the balances of a store.
+     *
+     * @param store           the store to read the settings and entries from;
+     *                        only used by the refresh thread
+     * @param address         the address to listen on, with port 0 for any free
+     *                        port
+     * @param p99TargetMillis the 99th percentile latency the server should stay
+     *                        under
+     * @throws IOException if the server cannot listen on the address
+     */
+    public BalanceServer(PTOStore store, InetSocketAddress address, double p99TargetMillis) throws IOException {
+        this(store, address, p99TargetMillis, HolidayCalendar.NONE);
+    }
+
+    /**
+     * Constructor to serve the balances of a store with company holidays.
+     *
+     * @param store           the store to read the settings and entries from;
+     *                        only used by the refresh thread
+     * @param address         the address to listen on, with port 0 for any free
+     *                        port
+     * @param p99TargetMillis the 99th percentile latency the server should stay
+     *                        under
+     * @param holidays        the holidays on which time off uses no PTO
+     * @throws IOException if the server cannot listen on the address
+     */
+    public BalanceServer(PTOStore store, InetSocketAddress address, double p99TargetMillis,
+            HolidayCalendar holidays) throws IOException {
+        this.store = store;
+        this.p99TargetMillis = p99TargetMillis;
+        this.holidays = holidays;
+        server = HttpServer.create(address, BACKLOG);
+        server.setExecutor(executor);
+        server.createContext("/balance", exchange -> handle(exchange, "GET", this::balance));
+        server.createContext("/validate", exchange -> handle(exchange, "POST", this::validate));
+        server.createContext("/stats", exchange -> handle(exchange, "GET", this::stats));
+    }
+
+    /**
+     * Loads the snapshot and starts serving requests. The snapshot is reloaded
+     * every refresh period.
+     *
+     * @param refreshSeconds how often to reload the store, or 0 to never reload
+     */
+    public void start(long refreshSeconds) {
+        refresh();
+        if (refreshSeconds > 0) {
+            refresher.scheduleWithFixedDelay(this::refresh, refreshSeconds, refreshSeconds, TimeUnit.SECONDS);
+        }
+        server.start();
+        Log.info("server.started", "address", server.getAddress());
+    }
+
+    /**
+     * Stops the server, waiting up to a second for running requests.
+     */
+    public void stop() {
+        server.stop(1);
+        refresher.shutdownNow();
+        executor.shutdown();
+        Log.info("server.stopped", "requests", requests.getCount(), "p99Ms", requests.getP99Millis());
+    }
+
+    /**
+     * Gets the address the server listens on.
+     *
+     * @return the address, with the chosen port
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Reloads the settings and entries from the store.
+     */
+    void refresh() {
+        try {
+            UserSettings settings = new UserSettings();
+            store.getUserSettings(settings);
+            settings.setHolidays(holidays);
+            List<Entry<?>> saved = List.copyOf(store.getVacations());
+            snapshot = new Snapshot(new PTOCalculator(settings), saved, EntriesHelper.groupByDate(saved));
+        } catch (RuntimeException e) {
+            Log.error("server.refreshFailed", "message", e.getMessage());
+        }
+    }
+
+    /**
+     * Answers a request with the JSON from a handler, recording the latency.
+     */
+    private void handle(HttpExchange exchange, String method, RequestHandler handler) throws IOException {
+        long start = System.nanoTime();
+        int status = 200;
+        String body;
+        // Closing the request body reads what is left of it, so the connection
+        // can be reused
+        try (InputStream requestBody = exchange.getRequestBody()) {
+            if (!method.equals(exchange.getRequestMethod())) {
+                throw new HttpError(405, "Use " + method);
+            }
+            body = handler.handle(exchange, requestBody);
+        } catch (HttpError e) {
+            status = e.status;
+            body = "{\"error\":" + quote(e.getMessage()) + "}";
+        } catch (IllegalArgumentException | DateTimeParseException | UncheckedIOException e) {
+            status = 400;
+            body = "{\"error\":" + quote(e.getMessage()) + "}";
+        } catch (RuntimeException e) {
+            Log.error("server.requestFailed", "path", exchange.getRequestURI().getPath(), "message", e.getMessage());
+            status = 500;
+            body = "{\"error\":" + quote(String.valueOf(e.getMessage())) + "}";
+        }
+
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream responseBody = exchange.getResponseBody()) {
+            responseBody.write(bytes);
+        }
+        requests.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Handler of one endpoint.
+     */
+    @FunctionalInterface
+    private interface RequestHandler {
+        String handle(HttpExchange exchange, InputStream requestBody) throws IOException;
+    }
+
+    /**
+     * Projects the balance at the {@code date} query parameters.
+     */
+    private String balance(HttpExchange exchange, InputStream requestBody) {
+        List<LocalDate> dates = new ArrayList<>();
+        for (String date : queryParameters(exchange, "date")) {
+            dates.add(LocalDate.parse(date));
+        }
+        if (dates.isEmpty()) {
+            throw new IllegalArgumentException("Missing date parameter");
+        }
+
+        // One date uses a single projection, more use one sweep for all dates
+        Snapshot current = snapshot;
+        dates = dates.stream().distinct().sorted().toList();
+        double[] balances;
+        if (dates.size() == 1) {
+            balances = new double[] { current.calculator().computeBalanceAtDate(dates.get(0), current.entries()) };
+        } else {
+            balances = current.calculator().computeAccruedBalances(LocalDate.now(), dates, current.entries());
+        }
+
+        StringBuilder json = new StringBuilder("{\"balances\":[");
+        for (int i = 0; i < balances.length; i++) {
+            json.append(i > 0 ? "," : "").append("{\"date\":\"").append(dates.get(i)).append("\",\"balance\":")
+                    .append(number(balances[i])).append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Validates the entries in the CSV request body together with the saved
+     * entries, over the whole timeline as the calendar does: an entry is
+     * invalid if it overlaps a saved entry or another entry of the request, is
+     * not covered by the balance, or
+     * leaves too little balance for a later saved entry.
+     */
+    private String validate(HttpExchange exchange, InputStream requestBody) {
+        List<Entry<?>> candidates = new ArrayList<>();
+        Iterator<Entry<?>> rows = EntryCsv.read(new InputStreamReader(requestBody, StandardCharsets.UTF_8));
+        rows.forEachRemaining(candidates::add);
+        if (candidates.isEmpty()) {
+            throw new IllegalArgumentException("No entries to validate");
+        }
+
+        // Check the balance of the saved entries and candidates in one sweep
+        Snapshot current = snapshot;
+        List<Entry<?>> saved = current.saved();
+        List<Entry<?>> combined = new ArrayList<>(saved);
+        combined.addAll(candidates);
+        Set<Entry<?>> candidateSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        candidateSet.addAll(candidates);
+        Set<Entry<?>> overdrawn = Collections.newSetFromMap(new IdentityHashMap<>());
+        TreeMap<LocalDate, Entry<?>> overdrawnSaved = new TreeMap<>();
+        for (PTOCalculator.BalanceCheck check : current.calculator().findOverdrawnEntries(combined,
+                EntriesHelper.groupByDate(combined))) {
+            if (candidateSet.contains(check.entry())) {
+                overdrawn.add(check.entry());
+            } else {
+                overdrawnSaved.putIfAbsent(check.date(), check.entry());
+            }
+        }
+
+        // Saved entries that are overdrawn without the candidates are not
+        // caused by them
+        if (!overdrawnSaved.isEmpty()) {
+            for (PTOCalculator.BalanceCheck check : current.calculator().findOverdrawnEntries(saved,
+                    current.entries())) {
+                overdrawnSaved.values().removeIf(entry -> entry == check.entry());
+            }
+        }
+
+        // Candidates may also overlap each other
+        Map<Entry<?>, Entry<?>> intersections = EntriesHelper.findIntersections(combined);
+
+        StringBuilder json = new StringBuilder("{\"results\":[");
+        for (int i = 0; i < candidates.size(); i++) {
+            Entry<?> candidate = candidates.get(i);
+            Entry<?> conflict = findConflict(candidate, current.entries());
+            if (conflict == null) {
+                conflict = intersections.get(candidate);
+            }
+            Map.Entry<LocalDate, Entry<?>> later = overdrawnSaved.ceilingEntry(candidate.getStartDate());
+            String problem = conflict != null ? "Overlaps \"" + conflict.getTitle() + "\" on " + conflict.getStartDate()
+                    : overdrawn.contains(candidate) ? "Not enough balance"
+                    : later != null ? "Leaves too little balance for \"" + later.getValue().getTitle() + "\" on "
+                            + later.getKey()
+                    : null;
+            json.append(i > 0 ? "," : "").append("{\"title\":").append(quote(candidate.getTitle()))
+                    .append(",\"start\":\"").append(candidate.getStartAsLocalDateTime())
+                    .append("\",\"end\":\"").append(candidate.getEndAsLocalDateTime())
+                    .append("\",\"valid\":").append(problem == null);
+            if (problem != null) {
+                json.append(",\"problem\":").append(quote(problem));
+            }
+            json.append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Reports the request latency against the p99 target.
+     */
+    private String stats(HttpExchange exchange, InputStream requestBody) {
+        double p99 = requests.getP99Millis();
+        return "{\"requests\":" + requests.getCount() + ",\"p50Millis\":" + number(requests.getP50Millis())
+                + ",\"p99Millis\":" + number(p99) + ",\"maxMillis\":" + number(requests.getMaxMillis())
+                + ",\"p99TargetMillis\":" + number(p99TargetMillis) + ",\"withinTarget\":" + (p99 <= p99TargetMillis)
+                + "}";
+    }
+
+    /**
+     * Finds a saved entry that overlaps an entry.
+     *
+     * @return the overlapping entry, or null if there is none
+     */
+    private static Entry<?> findConflict(Entry<?> candidate, NavigableMap<LocalDate, List<Entry<?>>> entries) {
+        for (List<Entry<?>> dayEntries : entries.subMap(candidate.getStartDate(), true, candidate.getEndDate(), true)
+                .values()) {
+            for (Entry<?> entry : dayEntries) {
+                if (entry.intersects(candidate)) {
+                    return entry;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the values of a query parameter.
+     */
+    private static List<String> queryParameters(HttpExchange exchange, String name) {
+        List<String> values = new ArrayList<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return values;
+        }
+        for (String parameter : query.split("&")) {
+            int equals = parameter.indexOf('=');
+            if (equals > 0 && URLDecoder.decode(parameter.substring(0, equals), StandardCharsets.UTF_8).equals(name)) {
+                values.add(URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return values;
+    }
+
+    private static String number(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    /**
+     * Quotes a JSON string.
+     */
+    static String quote(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> quoted.append("\\\"");
+                case '\\' -> quoted.append("\\\\");
+                case '\n' -> quoted.append("\\n");
+                case '\r' -> quoted.append("\\r");
+                case '\t' -> quoted.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+                }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    /**
+     * Serves the balances of the store selected by {@code pto.storage} on the
+     * loopback interface until the process is stopped.
+     *
+     * Usage: {@code BalanceServer [PORT]}, with port 8642 by default.
+     *
+     * @param args the command line arguments
+     * @throws IOException if the server cannot listen on the port
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8642;
+        Log.setDirectory(PTOStore.getDataDirectory());
+        PTOStore store = PTOStore.open();
+        BalanceServer server = new BalanceServer(store,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+                Double.parseDouble(System.getProperty("pto.server.p99TargetMs", "50")),
+                HolidayCalendar.fromSystemProperty());
+        server.start(Long.getLong("pto.server.refreshSeconds", 5));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            store.close();
+            Log.flush();
+        }, "Balance Server Shutdown Thread"));
+    }
+}
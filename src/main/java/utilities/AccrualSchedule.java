@@ -0,0 +1,160 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package utilities;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import model.AccrualRateChange;
+
+/**
+ * Accrual rates over time, precomputed as a sorted array of segments with a
+ * constant rate each. The hours accrued from the start of the first change to
+ * the start of every segment are summed in advance, so the accrual between any
+ * two dates is two binary searches instead of a walk over the days.
+ *
+ * The base rate applies before the first change, and each change applies
+ * until the next one. Of several changes on the same date, the last one in the
+ * list wins.
+ */
+public final class AccrualSchedule {
+    // Epoch day each segment starts on; the first segment also extends back
+    private final long[] startDays;
+    private final double[] rates;
+    private final int[] periodDays;
+    // Hours accrued from the start of the first segment to the start of each
+    private final double[] accruedAtStart;
+
+    /**
+     * Constructor.
+     *
+     * @param accrualRate   the base accrual rate
+     * @param accrualPeriod the period of the base accrual rate
+     * @param hireDate      the hire date for seniority tiers, or null if unknown
+     * @param changes       the changes of the rate, in any order
+     */
+    public AccrualSchedule(double accrualRate, AccrualPeriod accrualPeriod, LocalDate hireDate,
+            List<AccrualRateChange> changes) {
+        // Find the dates of the changes, ignoring seniority tiers without a
+        // hire date, and sort them (stable, so the last of a date wins)
+        record DatedChange(long day, AccrualRateChange change) {
+        }
+        List<DatedChange> datedChanges = new ArrayList<>();
+        for (AccrualRateChange change : changes) {
+            LocalDate date = change.getEffectiveDate(hireDate);
+            if (date != null) {
+                datedChanges.add(new DatedChange(date.toEpochDay(), change));
+            }
+        }
+        datedChanges.sort(Comparator.comparingLong(DatedChange::day));
+
+        // The base segment starts where the first change starts
+        int count = datedChanges.size() + 1;
+        startDays = new long[count];
+        rates = new double[count];
+        periodDays = new int[count];
+        accruedAtStart = new double[count];
+        startDays[0] = datedChanges.isEmpty() ? 0 : datedChanges.get(0).day();
+        rates[0] = accrualRate;
+        periodDays[0] = AccrualPeriod.getDaysInPeriod(accrualPeriod);
+
+        for (int i = 1; i < count; i++) {
+            DatedChange datedChange = datedChanges.get(i - 1);
+            startDays[i] = datedChange.day();
+            rates[i] = datedChange.change().accrualRate();
+            periodDays[i] = AccrualPeriod.getDaysInPeriod(datedChange.change().accrualPeriod());
+            accruedAtStart[i] = accruedAtStart[i - 1] + accrual(i - 1, startDays[i - 1], startDays[i]);
+        }
+    }
+
+    /**
+     * Gets the number of segments with a constant rate.
+     *
+     * @return the segment count, at least 1
+     */
+    public int getSegmentCount() {
+        return startDays.length;
+    }
+
+    /**
+     * Computes the hours accrued between the start of two dates.
+     *
+     * @param from the date to accrue from
+     * @param to   the date to accrue to
+     * @return the accrued hours, negative if the dates are reversed
+     */
+    public double accrualBetween(LocalDate from, LocalDate to) {
+        long fromDay = from.toEpochDay();
+        long toDay = to.toEpochDay();
+        int fromSegment = segmentOf(fromDay);
+        int toSegment = segmentOf(toDay);
+
+        // Most ranges are within one segment
+        if (fromSegment == toSegment) {
+            return accrual(fromSegment, fromDay, toDay);
+        }
+        return accruedAt(toSegment, toDay) - accruedAt(fromSegment, fromDay);
+    }
+
+    /**
+     * Gets the accrual rate in effect on a date.
+     *
+     * @param date the date
+     * @return the hours accrued per day
+     */
+    public double getDailyRate(LocalDate date) {
+        int segment = segmentOf(date.toEpochDay());
+        return rates[segment] / periodDays[segment];
+    }
+
+    /**
+     * Gets the date of the first rate change after a date.
+     *
+     * @param date the date
+     * @return the date the next rate applies from, or null if the rate never
+     *         changes after the date
+     */
+    public LocalDate getNextChangeDate(LocalDate date) {
+        int next = segmentOf(date.toEpochDay()) + 1;
+        return next < startDays.length ? LocalDate.ofEpochDay(startDays[next]) : null;
+    }
+
+    /**
+     * Finds the last segment starting on or before a day, or the first segment
+     * if all start later.
+     */
+    private int segmentOf(long day) {
+        int low = 1;
+        int high = startDays.length - 1;
+        int segment = 0;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (startDays[middle] <= day) {
+                segment = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return segment;
+    }
+
+    /**
+     * Computes the hours accrued from the start of the first segment to a day
+     * in a segment.
+     */
+    private double accruedAt(int segment, long day) {
+        return accruedAtStart[segment] + accrual(segment, startDays[segment], day);
+    }
+
+    /**
+     * Computes the hours accrued between two days at the rate of a segment.
+     */
+    private double accrual(int segment, long fromDay, long toDay) {
+        return ((double) (toDay - fromDay) / periodDays[segment]) * rates[segment];
+    }
+}
@@ -0,0 +1,101 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package utilities;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import com.calendarfx.model.Entry;
+
+/**
+ * New projected balances for a range of dates, published by a
+ * {@link BalanceFeed} after the entries or settings change. Dates outside the
+ * range kept their balances.
+ *
+ * @param from     the first date of the range
+ * @param balances the balance at the start of each date of the range, in date
+ *                 order
+ */
+public record BalanceChange(LocalDate from, double[] balances) {
+    /**
+     * Projects the balances for a range of dates from today, in a single pass
+     * over the entries.
+     *
+     * @param calculator the calculator with the settings to project with
+     * @param entries    the time off entries grouped by date
+     * @param from       the first date of the range, not before today
+     * @param to         the last date of the range
+     * @return the change with the projected balances
+     */
+    public static BalanceChange project(PTOCalculator calculator, Map<LocalDate, List<Entry<?>>> entries,
+            LocalDate from, LocalDate to) {
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            dates.add(date);
+        }
+        return new BalanceChange(from, calculator.computeAccruedBalances(LocalDate.now(), dates, entries));
+    }
+
+    /**
+     * Gets the last date of the range.
+     *
+     * @return the last date
+     */
+    public LocalDate to() {
+        return from.plusDays(balances.length - 1L);
+    }
+
+    /**
+     * Checks if the balance of a date changed.
+     *
+     * @param date the date to check
+     * @return true if the date is in the range, false otherwise
+     */
+    public boolean covers(LocalDate date) {
+        return !date.isBefore(from) && date.isBefore(from.plusDays(balances.length));
+    }
+
+    /**
+     * Gets the new balance at the start of a date.
+     *
+     * @param date a date in the range
+     * @return the balance, or NaN if it is unknown
+     * @throws IllegalArgumentException if the date is not in the range
+     */
+    public double balanceAt(LocalDate date) {
+        if (!covers(date)) {
+            throw new IllegalArgumentException(date + " is not between " + from + " and " + to());
+        }
+        return balances[(int) ChronoUnit.DAYS.between(from, date)];
+    }
+
+    /**
+     * Combines this change with a newer one, for subscribers that did not see
+     * this change yet. The combined range spans both changes, and the known
+     * newer balances replace the older ones where the ranges overlap. Dates
+     * between two ranges that do not touch have an unknown (NaN) balance.
+     *
+     * @param newer the newer change
+     * @return the combined change
+     */
+    public BalanceChange mergedWith(BalanceChange newer) {
+        LocalDate mergedFrom = from.isBefore(newer.from) ? from : newer.from;
+        LocalDate mergedTo = to().isAfter(newer.to()) ? to() : newer.to();
+        double[] merged = new double[(int) ChronoUnit.DAYS.between(mergedFrom, mergedTo) + 1];
+        Arrays.fill(merged, Double.NaN);
+        System.arraycopy(balances, 0, merged, (int) ChronoUnit.DAYS.between(mergedFrom, from), balances.length);
+        int offset = (int) ChronoUnit.DAYS.between(mergedFrom, newer.from);
+        for (int i = 0; i < newer.balances.length; i++) {
+            if (!Double.isNaN(newer.balances[i])) {
+                merged[offset + i] = newer.balances[i];
+            }
+        }
+        return new BalanceChange(mergedFrom, merged);
+    }
+}
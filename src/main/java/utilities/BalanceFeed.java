@@ -0,0 +1,221 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package utilities;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Publishes a {@link BalanceChange} each time the projected balances change,
+ * so views that show balances are updated from a single calculation instead of
+ * each recomputing on its own.
+ *
+ * Subscribers are signaled on the executor given to the feed, one signal at a
+ * time per subscriber, and only receive changes they requested. Changes that
+ * arrive while a subscriber has no demand are merged into one, since only the
+ * newest balance of each date matters, so a slow subscriber never queues more
+ * than one change. A new subscriber first receives all the changes published
+ * so far, merged.
+ */
+public class BalanceFeed implements Flow.Publisher<BalanceChange>, AutoCloseable {
+    private final Executor executor;
+    private final List<BalanceSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private BalanceChange latest;
+    private boolean closed;
+
+    /**
+     * Constructor.
+     *
+     * @param executor the executor to signal subscribers on
+     */
+    public BalanceFeed(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super BalanceChange> subscriber) {
+        BalanceSubscription subscription = new BalanceSubscription(subscriber);
+        boolean wasClosed;
+        synchronized (this) {
+            wasClosed = closed;
+            if (!wasClosed) {
+                subscriptions.add(subscription);
+                if (latest != null) {
+                    subscription.pending.set(latest);
+                }
+            }
+        }
+        subscriber.onSubscribe(subscription);
+        if (wasClosed) {
+            subscription.complete();
+        }
+    }
+
+    /**
+     * Subscribes a consumer that takes changes one at a time.
+     *
+     * @param consumer the consumer of the changes
+     */
+    public void subscribe(Consumer<BalanceChange> consumer) {
+        subscribe(new Flow.Subscriber<BalanceChange>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(BalanceChange change) {
+                consumer.accept(change);
+                subscription.request(1);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                Log.error("balanceFeed.subscriberFailed", "error", throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                // Nothing to release
+            }
+        });
+    }
+
+    /**
+     * Publishes a change to all subscribers.
+     *
+     * @param change the change to publish
+     * @throws IllegalStateException if the feed is closed
+     */
+    public void submit(BalanceChange change) {
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Balance feed is closed");
+            }
+            latest = latest == null ? change : latest.mergedWith(change);
+        }
+        for (BalanceSubscription subscription : subscriptions) {
+            subscription.offer(change);
+        }
+    }
+
+    /**
+     * Gets the number of current subscribers.
+     *
+     * @return the subscriber count
+     */
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Completes all subscriptions once their pending changes are delivered.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        for (BalanceSubscription subscription : subscriptions) {
+            subscription.complete();
+        }
+    }
+
+    /**
+     * Subscription with at most one pending (merged) change.
+     */
+    private class BalanceSubscription implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super BalanceChange> subscriber;
+        private final AtomicReference<BalanceChange> pending = new AtomicReference<>();
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger work = new AtomicInteger();
+        private volatile boolean completing;
+        private volatile boolean done;
+        private volatile Throwable error;
+
+        BalanceSubscription(Flow.Subscriber<? super BalanceChange> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        void offer(BalanceChange change) {
+            pending.accumulateAndGet(change, (older, newer) -> older == null ? newer : older.mergedWith(newer));
+            signal();
+        }
+
+        void complete() {
+            completing = true;
+            signal();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException("Requested " + n + " changes, which is not positive");
+            } else {
+                demand.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            }
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            done = true;
+            subscriptions.remove(this);
+        }
+
+        /**
+         * Schedules a drain unless one is already scheduled or running.
+         */
+        private void signal() {
+            if (work.getAndIncrement() == 0) {
+                executor.execute(this);
+            }
+        }
+
+        /**
+         * Delivers the pending change if there is demand, then completes or
+         * fails the subscription if needed. Only one drain runs at a time.
+         */
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                if (!done) {
+                    if (error != null) {
+                        cancel();
+                        subscriber.onError(error);
+                    } else {
+                        if (demand.get() > 0) {
+                            BalanceChange change = pending.getAndSet(null);
+                            if (change != null) {
+                                if (demand.get() != Long.MAX_VALUE) {
+                                    demand.decrementAndGet();
+                                }
+                                subscriber.onNext(change);
+                            }
+                        }
+                        if (completing && pending.get() == null && !done) {
+                            cancel();
+                            subscriber.onComplete();
+                        }
+                    }
+                }
+                missed = work.addAndGet(-missed);
+            } while (missed != 0);
+        }
+    }
+}
@@ -0,0 +1,371 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package utilities;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Projected balance over a range of dates as a piecewise-linear function of
+ * the day. Between time off entries, expirations, rate changes and the days
+ * the balance reaches the max balance, the balance grows by a constant number
+ * of hours per day, so the whole range is a short sorted array of segments
+ * with a starting balance and a slope each, built by
+ * {@link PTOCalculator#computeBalanceFunction(LocalDate, LocalDate, java.util.Map)}.
+ *
+ * The balance at any date is a binary search over the segment starts. The
+ * highest balance up to the end of each segment, the lowest up to its start
+ * and the next segment at the max balance are kept in advance, so finding the
+ * first date a balance is reached, the balance drops below an amount or
+ * accrual is lost to the max balance is also a binary search plus a division,
+ * without stepping through the days.
+ */
+public final class BalanceFunction {
+    // Epoch day each segment starts on; each ends where the next one starts
+    private final long[] startDays;
+    private final double[] startBalances;
+    // Hours accrued per day in each segment
+    private final double[] slopes;
+    // Whether each segment is at the max balance with accrual being lost
+    private final boolean[] capped;
+    private final long endDay;
+    // Highest balance through the end of each segment
+    private final double[] highestThrough;
+    // Lowest balance through the start of each segment
+    private final double[] lowestThrough;
+    // First capped segment at or after each segment, or the segment count
+    private final int[] nextCapped;
+
+    /**
+     * Constructor from the segments of a builder.
+     */
+    private BalanceFunction(List<Segment> segments, long endDay) {
+        int count = segments.size();
+        startDays = new long[count];
+        startBalances = new double[count];
+        slopes = new double[count];
+        capped = new boolean[count];
+        this.endDay = endDay;
+        for (int i = 0; i < count; i++) {
+            Segment segment = segments.get(i);
+            startDays[i] = segment.startDay();
+            startBalances[i] = segment.balance();
+            slopes[i] = segment.slope();
+            capped[i] = segment.capped();
+        }
+
+        highestThrough = new double[count];
+        lowestThrough = new double[count];
+        for (int i = 0; i < count; i++) {
+            // Balances only grow within a segment
+            double highest = balanceIn(i, lastDayOf(i));
+            highestThrough[i] = i == 0 ? highest : Math.max(highestThrough[i - 1], highest);
+            lowestThrough[i] = i == 0 ? startBalances[i] : Math.min(lowestThrough[i - 1], startBalances[i]);
+        }
+
+        nextCapped = new int[count + 1];
+        nextCapped[count] = count;
+        for (int i = count - 1; i >= 0; i--) {
+            nextCapped[i] = capped[i] ? i : nextCapped[i + 1];
+        }
+    }
+
+    /**
+     * Gets the first date of the function.
+     *
+     * @return the start date
+     */
+    public LocalDate getStartDate() {
+        return LocalDate.ofEpochDay(startDays[0]);
+    }
+
+    /**
+     * Gets the last date of the function.
+     *
+     * @return the end date
+     */
+    public LocalDate getEndDate() {
+        return LocalDate.ofEpochDay(endDay);
+    }
+
+    /**
+     * Gets the number of linear segments.
+     *
+     * @return the segment count, at least 1
+     */
+    public int getSegmentCount() {
+        return startDays.length;
+    }
+
+    /**
+     * Checks if a date is in the range of the function.
+     *
+     * @param date the date to check
+     * @return true if the date is between the start and end dates
+     */
+    public boolean covers(LocalDate date) {
+        long day = date.toEpochDay();
+        return day >= startDays[0] && day <= endDay;
+    }
+
+    /**
+     * Gets the projected balance at the beginning of a date.
+     *
+     * @param date a date in the range
+     * @return the projected balance
+     * @throws IllegalArgumentException if the date is not in the range
+     */
+    public double balanceAt(LocalDate date) {
+        long day = checkedDay(date);
+        return balanceIn(segmentOf(day), day);
+    }
+
+    /**
+     * Finds the first date the balance is at least an amount, such as the
+     * hours a trip needs.
+     *
+     * @param hours the balance to reach
+     * @return the first date with the balance, or null if it is not reached in
+     *         the range
+     */
+    public LocalDate findFirstDateAtLeast(double hours) {
+        int segment = firstSegment(highestThrough, hours, true);
+        if (segment == startDays.length) {
+            return null;
+        }
+        if (startBalances[segment] >= hours) {
+            return LocalDate.ofEpochDay(startDays[segment]);
+        }
+
+        // The balance is reached in this segment, which therefore has a slope
+        long start = startDays[segment];
+        long last = lastDayOf(segment);
+        long day = Math.min(last, start + (long) Math.ceil((hours - startBalances[segment]) / slopes[segment]));
+        // Correct the rounding of the division
+        while (day > start && balanceIn(segment, day - 1) >= hours) {
+            day--;
+        }
+        while (day < last && balanceIn(segment, day) < hours) {
+            day++;
+        }
+        return LocalDate.ofEpochDay(day);
+    }
+
+    /**
+     * Finds the first date the balance is below an amount, such as zero for
+     * the first overdrawn date.
+     *
+     * @param hours the balance to stay at or above
+     * @return the first date below the balance, or null if the balance stays
+     *         at or above it in the range
+     */
+    public LocalDate findFirstDateBelow(double hours) {
+        // Balances only grow within a segment, so they first drop at a start
+        int segment = firstSegment(lowestThrough, hours, false);
+        return segment == startDays.length ? null : LocalDate.ofEpochDay(startDays[segment]);
+    }
+
+    /**
+     * Finds the first date on or after a date that the balance is at the max
+     * balance, from which accrual is lost until time off is taken.
+     *
+     * @param from a date in the range to search from
+     * @return the first date at the max balance, which is the given date if the
+     *         balance is already there, or null if the max balance is not
+     *         reached in the range
+     * @throws IllegalArgumentException if the date is not in the range
+     */
+    public LocalDate findNextCapHit(LocalDate from) {
+        long day = checkedDay(from);
+        int segment = nextCapped[segmentOf(day)];
+        if (segment == startDays.length) {
+            return null;
+        }
+        return LocalDate.ofEpochDay(Math.max(day, startDays[segment]));
+    }
+
+    /**
+     * Gets every date the balance reaches the max balance, in date order. The
+     * balance stays there, losing accrual, until time off or an expiration
+     * lowers it.
+     *
+     * @return the dates the max balance is reached
+     */
+    public List<LocalDate> getCapHits() {
+        List<LocalDate> hits = new ArrayList<>();
+        for (int i = 0; i < startDays.length; i++) {
+            if (capped[i]) {
+                hits.add(LocalDate.ofEpochDay(startDays[i]));
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * Converts a date to an epoch day in the range.
+     */
+    private long checkedDay(LocalDate date) {
+        if (!covers(date)) {
+            throw new IllegalArgumentException(date + " is not between " + getStartDate() + " and " + getEndDate());
+        }
+        return date.toEpochDay();
+    }
+
+    /**
+     * Finds the last segment starting on or before a day in the range.
+     */
+    private int segmentOf(long day) {
+        int low = 0;
+        int high = startDays.length - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (startDays[middle] <= day) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds the first segment whose running highest balance is at least, or
+     * running lowest balance is below, an amount.
+     *
+     * @return the segment, or the segment count if there is none
+     */
+    private int firstSegment(double[] through, double hours, boolean atLeast) {
+        int low = 0;
+        int high = through.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (atLeast ? through[middle] >= hours : through[middle] < hours) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Gets the last day of a segment.
+     */
+    private long lastDayOf(int segment) {
+        return segment + 1 < startDays.length ? startDays[segment + 1] - 1 : endDay;
+    }
+
+    /**
+     * Gets the balance at a day of a segment.
+     */
+    private double balanceIn(int segment, long day) {
+        return startBalances[segment] + slopes[segment] * (day - startDays[segment]);
+    }
+
+    /**
+     * Linear piece of the balance while it is built.
+     */
+    private record Segment(long startDay, double balance, double slope, boolean capped) {
+    }
+
+    /**
+     * Collects the balances at the breakpoints in date order, then splits the
+     * segments where they reach the max balance.
+     */
+    static class Builder {
+        private final double maxBalance;
+        private final List<Segment> segments = new ArrayList<>();
+
+        /**
+         * Constructor.
+         *
+         * @param maxBalance the max balance, or infinity if there is none
+         */
+        Builder(double maxBalance) {
+            this.maxBalance = maxBalance;
+        }
+
+        /**
+         * Starts a segment. A segment starting on the same date replaces the
+         * previous one, and a segment that continues the previous one is
+         * skipped.
+         *
+         * @param date    the date the segment starts on, not before the last one
+         * @param balance the balance at the date, not above the max balance
+         * @param slope   the hours accrued per day from the date, not negative
+         */
+        void add(LocalDate date, double balance, double slope) {
+            long day = date.toEpochDay();
+            if (!segments.isEmpty()) {
+                Segment last = segments.getLast();
+                if (last.startDay() == day) {
+                    segments.removeLast();
+                } else if (last.slope() == slope && Math.abs(
+                        Math.min(last.balance() + slope * (day - last.startDay()), maxBalance) - balance) < 1e-9) {
+                    return;
+                }
+            }
+            segments.add(new Segment(day, balance, slope, false));
+        }
+
+        /**
+         * Builds the function.
+         *
+         * @param endDate the last date of the function
+         * @return the balance function
+         * @throws IllegalStateException if no segment was added
+         */
+        BalanceFunction build(LocalDate endDate) {
+            if (segments.isEmpty()) {
+                throw new IllegalStateException("A balance function needs at least one segment");
+            }
+
+            long endDay = endDate.toEpochDay();
+            List<Segment> split = new ArrayList<>(segments.size() + 1);
+            for (int i = 0; i < segments.size(); i++) {
+                Segment segment = segments.get(i);
+                long nextStart = i + 1 < segments.size() ? segments.get(i + 1).startDay() : endDay + 1;
+                if (segment.slope() <= 0) {
+                    split.add(segment);
+                } else if (segment.balance() >= maxBalance) {
+                    addCapped(split, segment.startDay());
+                } else {
+                    split.add(segment);
+                    if ((maxBalance - segment.balance()) / segment.slope() < nextStart - segment.startDay()) {
+                        addCapped(split, capHitOf(segment));
+                    }
+                }
+            }
+            return new BalanceFunction(split, endDay);
+        }
+
+        /**
+         * Adds a segment at the max balance, extending the previous one if it is
+         * also at the max balance.
+         */
+        private void addCapped(List<Segment> split, long day) {
+            if (split.isEmpty() || !split.getLast().capped()) {
+                split.add(new Segment(day, maxBalance, 0, true));
+            }
+        }
+
+        /**
+         * Finds the first day a growing segment below the max balance reaches it.
+         */
+        private long capHitOf(Segment segment) {
+            long start = segment.startDay();
+            long day = start + (long) Math.ceil((maxBalance - segment.balance()) / segment.slope());
+            // Correct the rounding of the division
+            while (day > start + 1 && segment.balance() + segment.slope() * (day - 1 - start) >= maxBalance) {
+                day--;
+            }
+            while (segment.balance() + segment.slope() * (day - start) < maxBalance) {
+                day++;
+            }
+            return day;
+        }
+    }
+}
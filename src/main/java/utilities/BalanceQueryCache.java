@@ -0,0 +1,113 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package utilities;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least recently used cache of projected balances. Balances are keyed by the
+ * date together with the versions of the settings and entries they were
+ * computed from, so a change of either makes the old balances unreachable,
+ * and {@link #retainVersions(long, long)} drops them right away.
+ */
+public class BalanceQueryCache {
+    private final int capacity;
+    private final LinkedHashMap<Key, Double> balances;
+    private long hitCount = 0;
+    private long missCount = 0;
+
+    /**
+     * Key of a cached balance.
+     */
+    private record Key(LocalDate date, long settingsVersion, long entriesVersion) {
+    }
+
+    /**
+     * Constructor to initialize the cache.
+     *
+     * @param capacity the maximum number of balances to keep
+     */
+    public BalanceQueryCache(int capacity) {
+        this.capacity = capacity;
+        this.balances = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Double> eldest) {
+                return size() > BalanceQueryCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Gets a cached balance, counting the lookup as a hit or a miss.
+     *
+     * @param date            the date of the balance
+     * @param settingsVersion the current version of the settings
+     * @param entriesVersion  the current version of the entries
+     * @return the cached balance, or null if it is not cached
+     */
+    public synchronized Double get(LocalDate date, long settingsVersion, long entriesVersion) {
+        Double balance = balances.get(new Key(date, settingsVersion, entriesVersion));
+        if (balance == null) {
+            missCount++;
+        } else {
+            hitCount++;
+        }
+        return balance;
+    }
+
+    /**
+     * Caches a balance, evicting the least recently used balance if the cache is
+     * full.
+     *
+     * @param date            the date of the balance
+     * @param settingsVersion the version of the settings it was computed from
+     * @param entriesVersion  the version of the entries it was computed from
+     * @param balance         the projected balance
+     */
+    public synchronized void put(LocalDate date, long settingsVersion, long entriesVersion, double balance) {
+        balances.put(new Key(date, settingsVersion, entriesVersion), balance);
+    }
+
+    /**
+     * Drops the balances computed from other versions of the settings or
+     * entries.
+     *
+     * @param settingsVersion the current version of the settings
+     * @param entriesVersion  the current version of the entries
+     */
+    public synchronized void retainVersions(long settingsVersion, long entriesVersion) {
+        balances.keySet().removeIf(
+                key -> key.settingsVersion() != settingsVersion || key.entriesVersion() != entriesVersion);
+    }
+
+    /**
+     * Gets the number of cached balances.
+     *
+     * @return the number of balances
+     */
+    public synchronized int size() {
+        return balances.size();
+    }
+
+    /**
+     * Gets the number of lookups that found a cached balance.
+     *
+     * @return the hit count
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Gets the number of lookups that did not find a cached balance.
+     *
+     * @return the miss count
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+}
@@ -0,0 +1,77 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package utilities;
+
+import java.util.List;
+
+import com.calendarfx.model.Calendar;
+import com.calendarfx.model.Entry;
+
+/**
+ * Groups many changes to the entries of a calendar into one edit. While the
+ * edit is open the calendar fires no event per entry; ending the edit fires a
+ * single change event, so the combined end state can be validated and saved
+ * once. If the end state is invalid, the edit is rolled back as a whole.
+ *
+ * Batch edits must not be nested, and must be used on the thread that owns the
+ * calendar.
+ */
+public class BatchEdit {
+    private final Calendar<?> calendar;
+    private final List<Entry<?>> snapshot;
+    private boolean open = true;
+
+    private BatchEdit(Calendar<?> calendar, List<Entry<?>> snapshot) {
+        this.calendar = calendar;
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Begins a batch edit, remembering the entries to roll back to.
+     *
+     * @param calendar the calendar to edit
+     * @return the open batch edit
+     */
+    public static BatchEdit begin(Calendar<?> calendar) {
+        BatchEdit batch = new BatchEdit(calendar,
+                EntriesHelper.copyEntries(new EntriesHelper(calendar).getAllEntries()));
+        calendar.startBatchUpdates();
+        return batch;
+    }
+
+    /**
+     * Ends the batch edit, firing a single change event for all changes.
+     */
+    public void end() {
+        if (open) {
+            open = false;
+            calendar.stopBatchUpdates();
+        }
+    }
+
+    /**
+     * Checks if the batch edit is still open.
+     *
+     * @return true if the edit was not ended, false otherwise
+     */
+    public boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * Restores the entries the calendar had when the edit began, with a single
+     * change event. Ends the edit first if it is still open.
+     */
+    public void rollback() {
+        end();
+        calendar.startBatchUpdates();
+        try {
+            calendar.clear();
+            calendar.addEntries(EntriesHelper.copyEntries(snapshot));
+        } finally {
+            calendar.stopBatchUpdates();
+        }
+    }
+}
@@ -2,14 +2,25 @@ package utilities;
 
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 import com.calendarfx.model.Calendar;
 import com.calendarfx.model.Entry;
 
 public class EntriesHelper {
+    private static final Metrics.Timer INTERSECTS_TIMER = Metrics.timer("entries.intersects");
+    private static final Metrics.Timer FIND_INTERSECTIONS_TIMER = Metrics.timer("entries.findIntersections");
+
     private final Calendar<?> calendar;
 
     public EntriesHelper(Calendar<?> calendar) {
@@ -46,13 +57,133 @@ public class EntriesHelper {
      *         otherwise
      */
     public boolean intersects(Entry<?> entry) {
-        for (Entry<?> existingEntry : getAllEntries()) {
-            // Check if the existing entry is not the same as the new entry and if they
-            // intersect
-            if (existingEntry.getId() != entry.getId() && existingEntry.intersects(entry)) {
-                return true;
+        long start = INTERSECTS_TIMER.start();
+        IntersectionScanEvent event = new IntersectionScanEvent();
+        event.begin();
+        try {
+            int scanned = 0;
+            for (Entry<?> existingEntry : getAllEntries()) {
+                scanned++;
+                // Check if the existing entry is not the same as the new entry and if
+                // they intersect
+                if (existingEntry.getId() != entry.getId() && existingEntry.intersects(entry)) {
+                    event.finish("intersects", scanned, 1);
+                    return true;
+                }
+            }
+            event.finish("intersects", scanned, 0);
+            return false;
+        } finally {
+            INTERSECTS_TIMER.stop(start);
+        }
+    }
+
+    /**
+     * Creates detached copies of entries that keep their ID, title, interval and
+     * full day flag. The copies can be read on other threads while the calendar
+     * changes.
+     * 
+     * @param entries The entries to copy.
+     * 
+     * @return The copied entries, in the same order.
+     */
+    public static List<Entry<?>> copyEntries(Collection<? extends Entry<?>> entries) {
+        List<Entry<?>> copies = new ArrayList<>(entries.size());
+        for (Entry<?> entry : entries) {
+            Entry<?> copy = new Entry<>(entry.getTitle(), entry.getInterval(), entry.getId());
+            copy.setFullDay(entry.isFullDay());
+            copies.add(copy);
+        }
+        return copies;
+    }
+
+    /**
+     * Groups entries by each date they span, like
+     * {@link Calendar#findEntries(LocalDate, LocalDate, ZoneId)} does for the
+     * entries of a calendar.
+     * 
+     * @param entries The entries to group.
+     * 
+     * @return A sorted map from each date to the entries on that date.
+     */
+    public static NavigableMap<LocalDate, List<Entry<?>>> groupByDate(Collection<? extends Entry<?>> entries) {
+        NavigableMap<LocalDate, List<Entry<?>>> entriesMap = new TreeMap<>();
+        for (Entry<?> entry : entries) {
+            for (LocalDate date = entry.getStartDate(); !date.isAfter(entry.getEndDate()); date = date.plusDays(1)) {
+                entriesMap.computeIfAbsent(date, key -> new ArrayList<>()).add(entry);
+            }
+        }
+        return entriesMap;
+    }
+
+    /**
+     * Finds all entries that intersect with another entry by sorting the entries
+     * once and sweeping over them, instead of checking each entry against all
+     * others. Uses the same rules as {@link Entry#intersects(Entry)}.
+     * 
+     * @param entries The entries to check.
+     * 
+     * @return A map from each intersecting entry to an entry it intersects with,
+     *         in start order.
+     */
+    public static Map<Entry<?>, Entry<?>> findIntersections(Collection<? extends Entry<?>> entries) {
+        long start = FIND_INTERSECTIONS_TIMER.start();
+        IntersectionScanEvent event = new IntersectionScanEvent();
+        event.begin();
+        try {
+            Map<Entry<?>, Entry<?>> intersections = sweepIntersections(entries);
+            event.finish("findIntersections", entries.size(), intersections.size());
+            return intersections;
+        } finally {
+            FIND_INTERSECTIONS_TIMER.stop(start);
+        }
+    }
+
+    /**
+     * Sweeps over the sorted entries for {@link #findIntersections(Collection)}.
+     */
+    private static Map<Entry<?>, Entry<?>> sweepIntersections(Collection<? extends Entry<?>> entries) {
+        // Sort the entries by start and end
+        List<Entry<?>> sortedEntries = new ArrayList<>(entries);
+        sortedEntries.sort(Comparator.<Entry<?>>comparingLong(Entry::getStartMillis)
+                .thenComparingLong(Entry::getEndMillis));
+
+        Map<Entry<?>, Entry<?>> intersections = new IdentityHashMap<>();
+        Map<Long, Entry<?>> entriesByEnd = new HashMap<>();
+        Entry<?> furthestEntry = null;
+        Entry<?> previousEntry = null;
+        for (Entry<?> entry : sortedEntries) {
+            // Entries intersect if they start or end at the same time, or overlap
+            Entry<?> other = null;
+            if (previousEntry != null && previousEntry.getStartMillis() == entry.getStartMillis()) {
+                other = previousEntry;
+            } else if (furthestEntry != null && entry.getStartMillis() < furthestEntry.getEndMillis()
+                    && entry.getEndMillis() > furthestEntry.getStartMillis()) {
+                other = furthestEntry;
+            } else if (entriesByEnd.containsKey(entry.getEndMillis())) {
+                other = entriesByEnd.get(entry.getEndMillis());
+            }
+
+            if (other != null) {
+                intersections.putIfAbsent(entry, other);
+                intersections.putIfAbsent(other, entry);
+            }
+
+            // Keep track of the entry reaching furthest and of all end times
+            if (furthestEntry == null || entry.getEndMillis() > furthestEntry.getEndMillis()) {
+                furthestEntry = entry;
+            }
+            entriesByEnd.putIfAbsent(entry.getEndMillis(), entry);
+            previousEntry = entry;
+        }
+
+        // Return the intersecting entries in start order
+        Map<Entry<?>, Entry<?>> result = new LinkedHashMap<>();
+        for (Entry<?> entry : sortedEntries) {
+            if (intersections.containsKey(entry)) {
+                result.put(entry, intersections.get(entry));
             }
         }
-        return false;
+        return result;
     }
 }
@@ -0,0 +1,289 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package utilities;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import com.calendarfx.model.Entry;
+import com.calendarfx.model.Interval;
+
+/**
+ * Streaming reader and writer for time off entries in CSV format. The first
+ * row is a header naming the columns {@code title}, {@code start},
+ * {@code end} and, optionally, {@code fullDay} and {@code id}. Dates are ISO
+ * dates or date-times; rows with plain dates become full day entries.
+ * Entries of many people can be kept in one file with an extra key column,
+ * read with {@link #readKeyed(Reader, String)}.
+ */
+public class EntryCsv {
+    static final LocalTime DEFAULT_START_TIME = LocalTime.of(9, 0);
+    static final LocalTime DEFAULT_END_TIME = LocalTime.of(17, 0);
+
+    private EntryCsv() {
+    }
+
+    /**
+     * An entry read together with the value of a key column, such as the
+     * employee the entry belongs to.
+     */
+    public record KeyedEntry(String key, Entry<?> entry) {
+    }
+
+    /**
+     * Reads entries lazily, one row at a time, so memory use does not depend
+     * on the size of the input.
+     *
+     * @param reader the CSV input
+     * @return an iterator over the entries
+     * @throws IllegalArgumentException from the iterator if a row is invalid
+     * @throws UncheckedIOException     from the iterator if the input cannot be
+     *                                  read
+     */
+    public static Iterator<Entry<?>> read(Reader reader) {
+        CsvIterator rows = new CsvIterator(
+                reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader), null);
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return rows.hasNext();
+            }
+
+            @Override
+            public Entry<?> next() {
+                return rows.next().entry();
+            }
+        };
+    }
+
+    /**
+     * Reads entries lazily together with the value of a key column.
+     *
+     * @param reader    the CSV input
+     * @param keyColumn the name of the key column, which must be present
+     * @return an iterator over the entries and their keys
+     * @throws IllegalArgumentException from the iterator if a row is invalid
+     * @throws UncheckedIOException     from the iterator if the input cannot be
+     *                                  read
+     */
+    public static Iterator<KeyedEntry> readKeyed(Reader reader, String keyColumn) {
+        return new CsvIterator(reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader),
+                keyColumn.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Writes entries as CSV, including a header row.
+     *
+     * @param writer  the CSV output
+     * @param entries the entries to write
+     * @throws IOException if the output cannot be written
+     */
+    public static void write(Writer writer, Iterable<? extends Entry<?>> entries) throws IOException {
+        writer.write("id,title,start,end,fullDay\r\n");
+        for (Entry<?> entry : entries) {
+            writer.write(quote(entry.getId()));
+            writer.write(',');
+            writer.write(quote(entry.getTitle()));
+            writer.write(',');
+            writer.write(entry.getStartAsLocalDateTime().toString());
+            writer.write(',');
+            writer.write(entry.getEndAsLocalDateTime().toString());
+            writer.write(',');
+            writer.write(Boolean.toString(entry.isFullDay()));
+            writer.write("\r\n");
+        }
+        writer.flush();
+    }
+
+    /**
+     * Quotes a field if it contains a delimiter, quote or line break.
+     */
+    private static String quote(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Iterator that parses one CSV record at a time.
+     */
+    private static class CsvIterator implements Iterator<KeyedEntry> {
+        private final BufferedReader reader;
+        private final String keyColumn;
+        private final Map<String, Integer> columns = new HashMap<>();
+        private List<String> nextRecord;
+        private int lineNumber = 0;
+        private int recordLine;
+
+        CsvIterator(BufferedReader reader, String keyColumn) {
+            this.reader = reader;
+            this.keyColumn = keyColumn;
+
+            // Map the header names to column indexes
+            List<String> header = readRecord();
+            if (header == null) {
+                return;
+            }
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            for (String required : List.of("title", "start", "end")) {
+                if (!columns.containsKey(required)) {
+                    throw new IllegalArgumentException("Missing CSV column: " + required);
+                }
+            }
+            if (keyColumn != null && !columns.containsKey(keyColumn)) {
+                throw new IllegalArgumentException("Missing CSV column: " + keyColumn);
+            }
+            nextRecord = readRecord();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextRecord != null;
+        }
+
+        @Override
+        public KeyedEntry next() {
+            if (nextRecord == null) {
+                throw new NoSuchElementException();
+            }
+            List<String> record = nextRecord;
+            int line = recordLine;
+            nextRecord = readRecord();
+
+            try {
+                return new KeyedEntry(keyColumn != null ? requiredField(record, keyColumn) : null, toEntry(record));
+            } catch (DateTimeParseException | IndexOutOfBoundsException | IllegalArgumentException e) {
+                throw new IllegalArgumentException("Line " + line + ": " + e.getMessage(), e);
+            }
+        }
+
+        /**
+         * Creates an entry from the fields of a record.
+         */
+        private Entry<?> toEntry(List<String> record) {
+            String title = field(record, "title");
+            String start = requiredField(record, "start");
+            String end = requiredField(record, "end");
+            String fullDay = field(record, "fullday");
+            String id = field(record, "id");
+
+            // Plain dates are full days, date-times keep their times
+            boolean dateOnly = start.length() <= 10 && end.length() <= 10;
+            LocalDateTime startDateTime = dateOnly ? LocalDate.parse(start).atTime(DEFAULT_START_TIME)
+                    : LocalDateTime.parse(start);
+            LocalDateTime endDateTime = dateOnly ? LocalDate.parse(end).atTime(DEFAULT_END_TIME)
+                    : LocalDateTime.parse(end);
+
+            Interval interval = new Interval(startDateTime, endDateTime);
+            Entry<?> entry = id == null || id.isEmpty() ? new Entry<>(title, interval) : new Entry<>(title, interval, id);
+            entry.setFullDay(fullDay == null || fullDay.isEmpty() ? dateOnly : Boolean.parseBoolean(fullDay));
+            return entry;
+        }
+
+        /**
+         * Gets a field that must have a value, such as the start of the entry.
+         *
+         * @throws IllegalArgumentException if the record is too short for the
+         *                                  field or the field is empty
+         */
+        private String requiredField(List<String> record, String name) {
+            String value = field(record, name);
+            if (value == null || value.isEmpty()) {
+                throw new IllegalArgumentException("missing " + name);
+            }
+            return value;
+        }
+
+        private String field(List<String> record, String name) {
+            Integer column = columns.get(name);
+            if (column == null || column >= record.size()) {
+                return null;
+            }
+            return record.get(column).trim();
+        }
+
+        /**
+         * Reads the next record, which may span multiple lines if a quoted field
+         * contains line breaks. Blank lines are skipped.
+         *
+         * @return the fields of the record, or null at the end of the input
+         */
+        private List<String> readRecord() {
+            try {
+                String line;
+                do {
+                    line = reader.readLine();
+                    lineNumber++;
+                    if (line == null) {
+                        return null;
+                    }
+                } while (line.isBlank());
+                recordLine = lineNumber;
+
+                List<String> fields = new ArrayList<>();
+                StringBuilder field = new StringBuilder();
+                boolean quoted = false;
+                int i = 0;
+                while (true) {
+                    if (i == line.length()) {
+                        if (!quoted) {
+                            break;
+                        }
+                        // A quoted field continues on the next line
+                        line = reader.readLine();
+                        lineNumber++;
+                        if (line == null) {
+                            throw new IllegalArgumentException("Line " + recordLine + ": unterminated quote");
+                        }
+                        field.append('\n');
+                        i = 0;
+                        continue;
+                    }
+
+                    char c = line.charAt(i++);
+                    if (quoted) {
+                        if (c == '"' && i < line.length() && line.charAt(i) == '"') {
+                            field.append('"');
+                            i++;
+                        } else if (c == '"') {
+                            quoted = false;
+                        } else {
+                            field.append(c);
+                        }
+                    } else if (c == '"') {
+                        quoted = true;
+                    } else if (c == ',') {
+                        fields.add(field.toString());
+                        field.setLength(0);
+                    } else {
+                        field.append(c);
+                    }
+                }
+                fields.add(field.toString());
+                return fields;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
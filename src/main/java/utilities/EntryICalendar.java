@@ -0,0 +1,286 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package utilities;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+
+import com.calendarfx.model.Entry;
+import com.calendarfx.model.Interval;
+
+/**
+ * Streaming reader and writer for time off entries in iCalendar (.ics)
+ * format. Only the {@code VEVENT} components are read, using their
+ * {@code UID}, {@code SUMMARY}, {@code DTSTART} and {@code DTEND}
+ * properties. All-day events become full day entries.
+ */
+public class EntryICalendar {
+    private static final DateTimeFormatter DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    private EntryICalendar() {
+    }
+
+    /**
+     * Reads entries lazily, one event at a time, so memory use does not depend
+     * on the size of the input.
+     *
+     * @param reader the iCalendar input
+     * @return an iterator over the entries
+     * @throws IllegalArgumentException from the iterator if an event is invalid
+     * @throws UncheckedIOException     from the iterator if the input cannot be
+     *                                  read
+     */
+    public static Iterator<Entry<?>> read(Reader reader) {
+        return new EventIterator(reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader));
+    }
+
+    /**
+     * Writes entries as an iCalendar file with one event per entry.
+     *
+     * @param writer  the iCalendar output
+     * @param entries the entries to write
+     * @throws IOException if the output cannot be written
+     */
+    public static void write(Writer writer, Iterable<? extends Entry<?>> entries) throws IOException {
+        writer.write("BEGIN:VCALENDAR\r\nVERSION:2.0\r\nPRODID:-//PTO Planning Tool//EN\r\n");
+        String stamp = LocalDateTime.now(ZoneOffset.UTC).format(DATE_TIME) + "Z";
+        for (Entry<?> entry : entries) {
+            writer.write("BEGIN:VEVENT\r\n");
+            writeLine(writer, "UID:" + escape(entry.getId()));
+            writer.write("DTSTAMP:" + stamp + "\r\n");
+            writeLine(writer, "SUMMARY:" + escape(entry.getTitle()));
+            if (entry.isFullDay()) {
+                // All-day events end on the day after the last day
+                writer.write("DTSTART;VALUE=DATE:" + entry.getStartDate().format(DATE) + "\r\n");
+                writer.write("DTEND;VALUE=DATE:" + entry.getEndDate().plusDays(1).format(DATE) + "\r\n");
+            } else {
+                writer.write("DTSTART:" + entry.getStartAsLocalDateTime().format(DATE_TIME) + "\r\n");
+                writer.write("DTEND:" + entry.getEndAsLocalDateTime().format(DATE_TIME) + "\r\n");
+            }
+            writer.write("END:VEVENT\r\n");
+        }
+        writer.write("END:VCALENDAR\r\n");
+        writer.flush();
+    }
+
+    /**
+     * Writes a content line, folding it at 75 characters.
+     */
+    private static void writeLine(Writer writer, String line) throws IOException {
+        int start = 0;
+        while (line.length() - start > 75) {
+            writer.write(line, start, 75);
+            writer.write("\r\n ");
+            start += 75;
+        }
+        writer.write(line, start, line.length() - start);
+        writer.write("\r\n");
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace(";", "\\;").replace(",", "\\,").replace("\n", "\\n");
+    }
+
+    private static String unescape(String value) {
+        StringBuilder result = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                result.append(next == 'n' || next == 'N' ? '\n' : next);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Iterator that parses one event at a time.
+     */
+    private static class EventIterator implements Iterator<Entry<?>> {
+        private final BufferedReader reader;
+        private String pendingLine;
+        private int lineNumber = 0;
+        private Entry<?> nextEntry;
+
+        EventIterator(BufferedReader reader) {
+            this.reader = reader;
+            nextEntry = readEvent();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextEntry != null;
+        }
+
+        @Override
+        public Entry<?> next() {
+            if (nextEntry == null) {
+                throw new NoSuchElementException();
+            }
+            Entry<?> entry = nextEntry;
+            nextEntry = readEvent();
+            return entry;
+        }
+
+        /**
+         * Reads up to the end of the next event.
+         *
+         * @return the entry for the event, or null at the end of the input
+         */
+        private Entry<?> readEvent() {
+            String uid = null;
+            String summary = "";
+            String start = null;
+            String end = null;
+            boolean inEvent = false;
+            int eventLine = 0;
+
+            String line;
+            while ((line = readUnfoldedLine()) != null) {
+                if (line.equalsIgnoreCase("BEGIN:VEVENT")) {
+                    inEvent = true;
+                    eventLine = lineNumber;
+                } else if (inEvent && line.equalsIgnoreCase("END:VEVENT")) {
+                    try {
+                        return toEntry(uid, summary, start, end);
+                    } catch (DateTimeException | NullPointerException e) {
+                        throw new IllegalArgumentException("Event on line " + eventLine + ": invalid dates", e);
+                    }
+                } else if (inEvent) {
+                    // Split the property name (with parameters) from the value
+                    int colon = line.indexOf(':');
+                    if (colon < 0) {
+                        continue;
+                    }
+                    String name = line.substring(0, colon).toUpperCase(Locale.ROOT);
+                    String value = line.substring(colon + 1);
+                    String property = name.contains(";") ? name.substring(0, name.indexOf(';')) : name;
+                    switch (property) {
+                        case "UID":
+                            uid = unescape(value);
+                            break;
+                        case "SUMMARY":
+                            summary = unescape(value);
+                            break;
+                        case "DTSTART":
+                            start = line.substring(0, colon) + ":" + value;
+                            break;
+                        case "DTEND":
+                            end = line.substring(0, colon) + ":" + value;
+                            break;
+                        default:
+                            break;
+                    }
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Creates an entry from the properties of an event.
+         */
+        private Entry<?> toEntry(String uid, String summary, String start, String end) {
+            boolean allDay = isDate(start);
+            LocalDateTime startDateTime;
+            LocalDateTime endDateTime;
+            if (allDay) {
+                // All-day events end on the day after the last day
+                LocalDate startDate = LocalDate.parse(value(start), DATE);
+                LocalDate endDate = end == null ? startDate : LocalDate.parse(value(end), DATE).minusDays(1);
+                startDateTime = startDate.atTime(EntryCsv.DEFAULT_START_TIME);
+                endDateTime = (endDate.isBefore(startDate) ? startDate : endDate).atTime(EntryCsv.DEFAULT_END_TIME);
+            } else {
+                startDateTime = parseDateTime(start);
+                endDateTime = end == null ? startDateTime : parseDateTime(end);
+            }
+
+            Interval interval = new Interval(startDateTime, endDateTime);
+            Entry<?> entry = uid == null ? new Entry<>(summary, interval) : new Entry<>(summary, interval, uid);
+            entry.setFullDay(allDay);
+            return entry;
+        }
+
+        private static boolean isDate(String property) {
+            return property.toUpperCase(Locale.ROOT).contains("VALUE=DATE:") || value(property).length() == 8;
+        }
+
+        private static String value(String property) {
+            return property.substring(property.indexOf(':') + 1).trim();
+        }
+
+        /**
+         * Parses a date-time in UTC, in a TZID zone or in floating local time,
+         * converting it to the local time of the system. Zones that are not
+         * known by their IANA names, such as the Windows names Outlook writes,
+         * are read as local time.
+         */
+        private static LocalDateTime parseDateTime(String property) {
+            String value = value(property);
+            if (value.endsWith("Z")) {
+                return LocalDateTime.parse(value.substring(0, value.length() - 1), DATE_TIME)
+                        .atZone(ZoneOffset.UTC).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+            }
+
+            LocalDateTime dateTime = LocalDateTime.parse(value, DATE_TIME);
+            int zoneIndex = property.toUpperCase(Locale.ROOT).indexOf("TZID=");
+            if (zoneIndex >= 0) {
+                String zone = property.substring(zoneIndex + 5, property.indexOf(':'));
+                zone = zone.contains(";") ? zone.substring(0, zone.indexOf(';')) : zone;
+                ZoneId zoneId;
+                try {
+                    zoneId = ZoneId.of(zone.replace("\"", ""));
+                } catch (DateTimeException e) {
+                    return dateTime;
+                }
+                return dateTime.atZone(zoneId).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+            }
+            return dateTime;
+        }
+
+        /**
+         * Reads the next logical line, joining folded continuation lines.
+         */
+        private String readUnfoldedLine() {
+            try {
+                String line = pendingLine != null ? pendingLine : reader.readLine();
+                pendingLine = null;
+                if (line == null) {
+                    return null;
+                }
+                lineNumber++;
+
+                StringBuilder unfolded = new StringBuilder(line);
+                String next;
+                while ((next = reader.readLine()) != null) {
+                    if (!next.isEmpty() && (next.charAt(0) == ' ' || next.charAt(0) == '\t')) {
+                        unfolded.append(next, 1, next.length());
+                        lineNumber++;
+                    } else {
+                        pendingLine = next;
+                        break;
+                    }
+                }
+                return unfolded.toString();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package utilities;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.calendarfx.model.Entry;
+
+import model.PTOStore;
+
+/**
+ * Imports time off entries in bulk. The imported entries are validated
+ * together with the saved ones in one pass: overlaps are found by sorting the
+ * entries once, and balances are checked with a single sweep over the dates,
+ * so an imported entry may neither be overdrawn itself nor overdraw a later
+ * saved or imported entry. Nothing is saved unless every imported entry is
+ * valid, and the entries are saved in one transaction.
+ */
+public class EntryImporter {
+    private final PTOCalculator ptoCalculator;
+    private final PTOStore ptoStore;
+
+    /**
+     * Result of an import.
+     *
+     * @param imported the entries that were imported, or that are valid to
+     *                 import, empty if the import failed
+     * @param problems descriptions of the problems that prevented the import
+     */
+    public record ImportResult(List<Entry<?>> imported, List<String> problems) {
+        /**
+         * Checks if the import succeeded.
+         *
+         * @return true if there were no problems, false otherwise
+         */
+        public boolean succeeded() {
+            return problems.isEmpty();
+        }
+    }
+
+    /**
+     * Constructor to initialize the importer.
+     *
+     * @param ptoCalculator the calculator used to validate balances
+     * @param ptoStore      the store to validate against and save the imported
+     *                      entries to
+     */
+    public EntryImporter(PTOCalculator ptoCalculator, PTOStore ptoStore) {
+        this.ptoCalculator = ptoCalculator;
+        this.ptoStore = ptoStore;
+    }
+
+    /**
+     * Validates the entries read from a source against the saved entries and
+     * saves them. Rows that cannot be read are reported as problems with their
+     * line numbers.
+     *
+     * @param source the entries to import, for example from
+     *               {@link EntryCsv#read(java.io.Reader)}
+     * @return the imported entries, or the problems that were found
+     * @throws java.io.UncheckedIOException if the source cannot be read
+     */
+    public ImportResult importEntries(Iterator<? extends Entry<?>> source) {
+        ImportResult result = validate(source, ptoStore.getVacations());
+        if (!result.succeeded()) {
+            return result;
+        }
+
+        // Save the entries in one transaction, so a failure saves none of them
+        if (!ptoStore.addVacations(result.imported())) {
+            return new ImportResult(List.of(), List.of("The entries could not be saved"));
+        }
+        return result;
+    }
+
+    /**
+     * Validates the entries read from a source against a copy of the saved
+     * entries without saving them, so it can run in the background. Rows that
+     * cannot be read are reported as problems with their line numbers.
+     *
+     * @param source the entries to import, for example from
+     *               {@link EntryCsv#read(java.io.Reader)}
+     * @param saved  the saved entries
+     * @return the valid entries to save, or the problems that were found
+     * @throws java.io.UncheckedIOException if the source cannot be read
+     */
+    public ImportResult validate(Iterator<? extends Entry<?>> source, List<Entry<?>> saved) {
+        List<String> problems = new ArrayList<>();
+        List<Entry<?>> imported = new ArrayList<>();
+        while (source.hasNext()) {
+            try {
+                imported.add(source.next());
+            } catch (IllegalArgumentException e) {
+                problems.add(e.getMessage());
+            }
+        }
+        if (!problems.isEmpty()) {
+            return new ImportResult(List.of(), problems);
+        }
+
+        List<Entry<?>> combined = new ArrayList<>(saved.size() + imported.size());
+        combined.addAll(saved);
+        combined.addAll(imported);
+
+        // Check that every imported entry has a new ID
+        Set<String> ids = new HashSet<>();
+        for (Entry<?> entry : saved) {
+            ids.add(entry.getId());
+        }
+        for (Entry<?> entry : imported) {
+            if (!ids.add(entry.getId())) {
+                problems.add("Entry \"" + entry.getTitle() + "\" has the ID " + entry.getId()
+                        + ", which is already used by another entry");
+            }
+        }
+
+        // Check for overlapping entries among the saved and imported entries
+        Set<Entry<?>> importedSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        importedSet.addAll(imported);
+        for (Map.Entry<Entry<?>, Entry<?>> intersection : EntriesHelper.findIntersections(combined).entrySet()) {
+            if (!importedSet.contains(intersection.getKey())) {
+                continue;
+            }
+            problems.add(new IntegrityChecker.Problem(intersection.getKey(), intersection.getValue(), null)
+                    .getDescription());
+        }
+
+        // Check that the balance covers every imported entry and the saved
+        // entries after them
+        for (PTOCalculator.BalanceCheck check : ptoCalculator.findOverdrawnEntries(combined,
+                EntriesHelper.groupByDate(combined))) {
+            problems.add(new IntegrityChecker.Problem(check.entry(), null, check).getDescription());
+        }
+
+        if (!problems.isEmpty()) {
+            return new ImportResult(List.of(), problems);
+        }
+        return new ImportResult(imported, List.of());
+    }
+}
@@ -0,0 +1,56 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package utilities;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+/**
+ * Starts a Flight Recorder recording with the bundled
+ * {@code ptoCalculator.jfc} profile when the {@code pto.recording} system
+ * property is true. The recording keeps the last 30 minutes and is written to
+ * {@code ptoCalculator.jfr} in the data directory when the application exits.
+ */
+public final class FlightRecording {
+    private FlightRecording() {
+    }
+
+    /**
+     * Starts the recording if it is enabled.
+     *
+     * @param directory the directory to write the recording to
+     * @return true if the recording was started, false if recording is
+     *         disabled or could not be started
+     */
+    public static boolean startIfEnabled(Path directory) {
+        if (!Boolean.getBoolean("pto.recording")) {
+            return false;
+        }
+
+        try (Reader reader = new InputStreamReader(FlightRecording.class.getResourceAsStream("/ptoCalculator.jfc"),
+                StandardCharsets.UTF_8)) {
+            Recording recording = new Recording(Configuration.create(reader));
+            recording.setName("PTO Calculator");
+            recording.setToDisk(true);
+            recording.setMaxAge(Duration.ofMinutes(30));
+            recording.setDumpOnExit(true);
+            recording.setDestination(directory.resolve("ptoCalculator.jfr"));
+            recording.start();
+            Log.info("recording.started", "path", recording.getDestination());
+            return true;
+        } catch (IOException | ParseException | RuntimeException e) {
+            Log.warn("recording.failed", "message", e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package utilities;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+import com.calendarfx.model.Entry;
+
+/**
+ * Company holidays, on which time off uses no PTO just like on weekends.
+ *
+ * The holidays that fall on weekdays are compiled into a bitset indexed by
+ * epoch day, with the number of holidays before each 64-day word summed in
+ * advance. Checking a date is a single bit test, and counting the working days
+ * of a range is arithmetic on the weekdays minus two bit counts, however long
+ * the range is.
+ */
+public final class HolidayCalendar {
+    /** Calendar without holidays, where only weekends are not working days. */
+    public static final HolidayCalendar NONE = new HolidayCalendar(List.of());
+
+    // Epoch day of the first bit, a multiple of 64
+    private final long firstDay;
+    private final long[] words;
+    // Holidays in the words before each word, and in all words at the end
+    private final int[] holidayPrefix;
+
+    /**
+     * Constructor.
+     *
+     * @param holidays the holiday dates, in any order
+     */
+    public HolidayCalendar(Collection<LocalDate> holidays) {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (LocalDate holiday : holidays) {
+            min = Math.min(min, holiday.toEpochDay());
+            max = Math.max(max, holiday.toEpochDay());
+        }
+
+        if (holidays.isEmpty()) {
+            firstDay = 0;
+            words = new long[0];
+        } else {
+            firstDay = Math.floorDiv(min, 64) * 64;
+            words = new long[(int) ((max - firstDay) / 64) + 1];
+            for (LocalDate holiday : holidays) {
+                long day = holiday.toEpochDay();
+                // Holidays on weekends change nothing
+                if (isWeekday(day)) {
+                    words[(int) ((day - firstDay) >>> 6)] |= 1L << (day - firstDay);
+                }
+            }
+        }
+
+        holidayPrefix = new int[words.length + 1];
+        for (int i = 0; i < words.length; i++) {
+            holidayPrefix[i + 1] = holidayPrefix[i] + Long.bitCount(words[i]);
+        }
+    }
+
+    /**
+     * Reads the holidays from iCalendar (.ics) or CSV files, in the formats of
+     * {@link EntryICalendar} and {@link EntryCsv}. Every date of each event is
+     * a holiday.
+     *
+     * @param files the files to read
+     * @return the holiday calendar
+     * @throws IOException              if a file cannot be read
+     * @throws IllegalArgumentException if a file has an unknown extension or an
+     *                                  invalid event
+     */
+    public static HolidayCalendar read(Collection<Path> files) throws IOException {
+        List<LocalDate> holidays = new ArrayList<>();
+        for (Path file : files) {
+            String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            if (!name.endsWith(".ics") && !name.endsWith(".csv")) {
+                throw new IllegalArgumentException("Holiday files must be .ics or .csv: " + file);
+            }
+
+            try (Reader reader = Files.newBufferedReader(file)) {
+                Iterator<Entry<?>> events = name.endsWith(".ics") ? EntryICalendar.read(reader)
+                        : EntryCsv.read(reader);
+                while (events.hasNext()) {
+                    Entry<?> event = events.next();
+                    for (LocalDate date = event.getStartDate(); !date.isAfter(event.getEndDate()); date = date
+                            .plusDays(1)) {
+                        holidays.add(date);
+                    }
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+        return new HolidayCalendar(holidays);
+    }
+
+    /**
+     * Reads the holiday files listed in the {@code pto.holidays} system
+     * property, separated by the path separator. Files that cannot be read are
+     * logged and skipped.
+     *
+     * @return the holiday calendar, or {@link #NONE} if the property is not set
+     */
+    public static HolidayCalendar fromSystemProperty() {
+        String property = System.getProperty("pto.holidays");
+        if (property == null || property.isBlank()) {
+            return NONE;
+        }
+
+        List<Path> files = new ArrayList<>();
+        for (String file : property.split(File.pathSeparator)) {
+            if (!file.isBlank()) {
+                files.add(Path.of(file.trim()));
+            }
+        }
+        try {
+            HolidayCalendar calendar = read(files);
+            Log.info("holidays.loaded", "files", files.size(), "holidays", calendar.getHolidayCount());
+            return calendar;
+        } catch (IOException | IllegalArgumentException e) {
+            Log.warn("holidays.loadFailed", "files", property, "message", e.getMessage());
+            return NONE;
+        }
+    }
+
+    /**
+     * Gets the number of holidays on weekdays.
+     *
+     * @return the holiday count
+     */
+    public int getHolidayCount() {
+        return holidayPrefix[words.length];
+    }
+
+    /**
+     * Checks if a date is a holiday on a weekday.
+     *
+     * @param date the date to check
+     * @return true if the date is a holiday, false otherwise
+     */
+    public boolean isHoliday(LocalDate date) {
+        long offset = date.toEpochDay() - firstDay;
+        return offset >= 0 && offset < (long) words.length * 64
+                && (words[(int) (offset >>> 6)] & (1L << offset)) != 0;
+    }
+
+    /**
+     * Checks if time off on a date uses PTO: weekdays that are not holidays.
+     *
+     * @param date the date to check
+     * @return true if the date is a working day, false otherwise
+     */
+    public boolean isWorkingDay(LocalDate date) {
+        return isWeekday(date.toEpochDay()) && !isHoliday(date);
+    }
+
+    /**
+     * Counts the working days in a range of dates.
+     *
+     * @param from        the first date of the range
+     * @param toExclusive the date after the last date of the range
+     * @return the number of working days, or 0 if the range is empty
+     */
+    public long countWorkingDays(LocalDate from, LocalDate toExclusive) {
+        long fromDay = from.toEpochDay();
+        long toDay = toExclusive.toEpochDay();
+        if (toDay <= fromDay) {
+            return 0;
+        }
+        return weekdaysBefore(toDay) - weekdaysBefore(fromDay) - (holidaysBefore(toDay) - holidaysBefore(fromDay));
+    }
+
+    /**
+     * Counts the holidays before an epoch day.
+     */
+    private long holidaysBefore(long day) {
+        long offset = day - firstDay;
+        if (offset <= 0) {
+            return 0;
+        }
+        if (offset >= (long) words.length * 64) {
+            return holidayPrefix[words.length];
+        }
+        int word = (int) (offset >>> 6);
+        return holidayPrefix[word] + Long.bitCount(words[word] & ((1L << offset) - 1));
+    }
+
+    /**
+     * Counts the weekdays before an epoch day, from a Monday long ago.
+     */
+    private static long weekdaysBefore(long day) {
+        // Epoch day 0 is a Thursday, so day + 3 counts from a Monday
+        long sinceMonday = day + 3;
+        return Math.floorDiv(sinceMonday, 7) * 5 + Math.min(Math.floorMod(sinceMonday, 7), 5);
+    }
+
+    /**
+     * Checks if an epoch day is Monday to Friday.
+     */
+    private static boolean isWeekday(long day) {
+        return Math.floorMod(day + 3, 7) < 5;
+    }
+}
@@ -0,0 +1,116 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package utilities;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.calendarfx.model.Entry;
+
+/**
+ * Checks the stored time off entries for entries that should not have been
+ * saved: future entries that intersect with another entry, and future entries
+ * the balance does not cover. The entries are sorted once and swept for
+ * intersections, and the remaining entries are checked with a single balance
+ * sweep, so the check takes linear time after sorting.
+ *
+ * The result does not depend on the order the entries are stored in: of two
+ * intersecting entries, the one starting later is reported, and every entry
+ * is checked against the balance left by all entries without intersections.
+ * Past entries are never reported.
+ */
+public class IntegrityChecker {
+    private final PTOCalculator ptoCalculator;
+
+    /**
+     * A stored entry that is invalid, with the reason it is invalid.
+     *
+     * @param entry        the invalid entry
+     * @param conflict     the entry it intersects with, or null
+     * @param balanceCheck the balance check it failed, or null
+     */
+    public record Problem(Entry<?> entry, Entry<?> conflict, PTOCalculator.BalanceCheck balanceCheck) {
+        /**
+         * Describes why the entry is invalid.
+         *
+         * @return the description of the problem
+         */
+        public String getDescription() {
+            if (conflict != null) {
+                return "\"" + entry.getTitle() + "\" on " + entry.getStartDate() + " overlaps \""
+                        + conflict.getTitle() + "\" on " + conflict.getStartDate();
+            }
+            return String.format("\"%s\" on %s needs %.2f hours but only %.2f are available", entry.getTitle(),
+                    balanceCheck.date(), balanceCheck.required(), balanceCheck.available());
+        }
+    }
+
+    /**
+     * Constructor to initialize the integrity checker.
+     *
+     * @param ptoCalculator the calculator used to check balances
+     */
+    public IntegrityChecker(PTOCalculator ptoCalculator) {
+        this.ptoCalculator = ptoCalculator;
+    }
+
+    /**
+     * Finds the invalid entries.
+     *
+     * @param entries the stored entries
+     * @return the problems found, intersections first, each in date order
+     */
+    public List<Problem> check(Collection<? extends Entry<?>> entries) {
+        // Sort the entries by start and end
+        List<Entry<?>> sortedEntries = new ArrayList<>(entries);
+        sortedEntries.sort(Comparator.<Entry<?>>comparingLong(Entry::getStartMillis)
+                .thenComparingLong(Entry::getEndMillis));
+
+        // Sweep over the entries, keeping each entry that does not intersect with
+        // a kept entry, using the same rules as EntriesHelper.findIntersections
+        LocalDate today = LocalDate.now();
+        List<Problem> problems = new ArrayList<>();
+        List<Entry<?>> keptEntries = new ArrayList<>(sortedEntries.size());
+        Map<Long, Entry<?>> keptEntriesByEnd = new HashMap<>();
+        Entry<?> furthestEntry = null;
+        Entry<?> previousEntry = null;
+        for (Entry<?> entry : sortedEntries) {
+            Entry<?> other;
+            if (previousEntry != null && previousEntry.getStartMillis() == entry.getStartMillis()) {
+                other = previousEntry;
+            } else if (furthestEntry != null && entry.getStartMillis() < furthestEntry.getEndMillis()
+                    && entry.getEndMillis() > furthestEntry.getStartMillis()) {
+                other = furthestEntry;
+            } else {
+                other = keptEntriesByEnd.get(entry.getEndMillis());
+            }
+
+            // Past entries are kept even if they intersect
+            if (other != null && !entry.getEndDate().isBefore(today)) {
+                problems.add(new Problem(entry, other, null));
+                continue;
+            }
+
+            keptEntries.add(entry);
+            if (furthestEntry == null || entry.getEndMillis() > furthestEntry.getEndMillis()) {
+                furthestEntry = entry;
+            }
+            keptEntriesByEnd.putIfAbsent(entry.getEndMillis(), entry);
+            previousEntry = entry;
+        }
+
+        // Check the balance of the kept entries in one sweep
+        for (PTOCalculator.BalanceCheck check : ptoCalculator.findOverdrawnEntries(keptEntries,
+                EntriesHelper.groupByDate(keptEntries))) {
+            problems.add(new Problem(check.entry(), null, check));
+        }
+        return problems;
+    }
+}
@@ -0,0 +1,47 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package utilities;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for a scan of the time off entries for intersections.
+ */
+@Name("pto.IntersectionScan")
+@Label("Intersection Scan")
+@Category({ "PTO Calculator", "Engine" })
+@Description("Scan of the time off entries for intersecting entries")
+@StackTrace(false)
+final class IntersectionScanEvent extends jdk.jfr.Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Entries Scanned")
+    int entriesScanned;
+
+    @Label("Intersections")
+    int intersections;
+
+    /**
+     * Ends the scan and commits the event if it is recorded.
+     *
+     * @param operation      the helper method, such as "findIntersections"
+     * @param entriesScanned the number of entries scanned
+     * @param intersections  the number of intersecting entries found
+     */
+    void finish(String operation, int entriesScanned, int intersections) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.entriesScanned = entriesScanned;
+            this.intersections = intersections;
+            commit();
+        }
+    }
+}
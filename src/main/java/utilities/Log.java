@@ -0,0 +1,370 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package utilities;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous structured log. Logging a record only checks the level and
+ * puts the record in a lock-free ring buffer; a background thread formats the
+ * records and writes them to the console and to a rotating log file, so a slow
+ * console or disk never blocks the calling thread. If the buffer is full, the
+ * record is dropped and counted instead of waiting.
+ *
+ * Records have an event name and key-value fields, written as
+ * {@code 2025-01-01T09:00:00.000 INFO [thread] calendar.entryChanged type=ENTRY_INTERVAL_CHANGED id=123}.
+ * Quoted values escape quotes, backslashes and line breaks, so every record
+ * is one line. The level is taken from the {@code pto.log.level} system
+ * property (INFO by default or if the value is not a level, OFF disables
+ * logging), and console output from {@code pto.log.console} (true by
+ * default).
+ */
+public final class Log {
+    /**
+     * Severity of a log record.
+     */
+    public enum Level {
+        DEBUG, INFO, WARN, ERROR, OFF
+    }
+
+    private static final int CAPACITY = 8192;
+    private static final long MAX_FILE_SIZE = 5L * 1024 * 1024;
+    private static final int MAX_FILES = 3;
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter
+            .ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS")
+            .withZone(ZoneId.systemDefault());
+
+    private static final String configuredLevel = System.getProperty("pto.log.level", "INFO");
+    private static final Level level = parseLevel(configuredLevel);
+    private static final boolean console = Boolean.parseBoolean(System.getProperty("pto.log.console", "true"));
+
+    // Bounded multi-producer ring buffer: a slot may be written when its
+    // sequence equals the tail position, and read when it is one past the head
+    private static final AtomicReferenceArray<LogRecord> slots = new AtomicReferenceArray<>(CAPACITY);
+    private static final AtomicLongArray sequences = new AtomicLongArray(CAPACITY);
+    private static final AtomicLong tail = new AtomicLong();
+    private static long head = 0;
+    private static final AtomicLong dropped = new AtomicLong();
+
+    // Position up to which records have been written, for flush()
+    private static volatile long writtenPosition = 0;
+
+    private static volatile Path logFile;
+    private static final Thread writerThread;
+
+    /**
+     * A log record waiting to be written.
+     */
+    record LogRecord(long timeMillis, Level level, String thread, String event, Object[] fields) {
+    }
+
+    static {
+        for (int i = 0; i < CAPACITY; i++) {
+            sequences.set(i, i);
+        }
+        writerThread = new Thread(Log::writeRecords, "Log Writer Thread");
+        writerThread.setDaemon(true);
+        writerThread.setPriority(Thread.MIN_PRIORITY);
+        if (level != Level.OFF) {
+            writerThread.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(Log::flush, "Log Flush Thread"));
+        }
+        if (!level.name().equalsIgnoreCase(configuredLevel.trim())) {
+            warn("log.invalidLevel", "value", configuredLevel, "level", level);
+        }
+    }
+
+    private Log() {
+    }
+
+    /**
+     * Parses a level name, falling back to INFO if it is not a level.
+     */
+    static Level parseLevel(String name) {
+        try {
+            return Level.valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return Level.INFO;
+        }
+    }
+
+    /**
+     * Writes the log to {@code ptoCalculator.log} in a directory as well, keeping
+     * up to three rotated files of 5 MB.
+     *
+     * @param directory the directory of the log file, or null to only write to
+     *                  the console
+     */
+    public static void setDirectory(Path directory) {
+        logFile = directory == null ? null : directory.resolve("ptoCalculator.log");
+    }
+
+    /**
+     * Gets the directory the log file is written to.
+     *
+     * @return the directory, or null if no log file is written
+     */
+    static Path getDirectory() {
+        Path file = logFile;
+        return file == null ? null : file.getParent();
+    }
+
+    /**
+     * Checks if records of a level are logged, to skip building expensive
+     * fields.
+     *
+     * @param recordLevel the level of the record
+     * @return true if the records are logged, false otherwise
+     */
+    public static boolean isEnabled(Level recordLevel) {
+        return recordLevel.compareTo(level) >= 0 && level != Level.OFF;
+    }
+
+    /**
+     * Logs a debug record.
+     *
+     * @param event  the name of the event, such as "calendar.entryChanged"
+     * @param fields alternating field names and values
+     */
+    public static void debug(String event, Object... fields) {
+        if (isEnabled(Level.DEBUG)) {
+            offer(Level.DEBUG, event, fields);
+        }
+    }
+
+    /**
+     * Logs an info record.
+     *
+     * @param event  the name of the event
+     * @param fields alternating field names and values
+     */
+    public static void info(String event, Object... fields) {
+        if (isEnabled(Level.INFO)) {
+            offer(Level.INFO, event, fields);
+        }
+    }
+
+    /**
+     * Logs a warning record.
+     *
+     * @param event  the name of the event
+     * @param fields alternating field names and values
+     */
+    public static void warn(String event, Object... fields) {
+        if (isEnabled(Level.WARN)) {
+            offer(Level.WARN, event, fields);
+        }
+    }
+
+    /**
+     * Logs an error record.
+     *
+     * @param event  the name of the event
+     * @param fields alternating field names and values
+     */
+    public static void error(String event, Object... fields) {
+        if (isEnabled(Level.ERROR)) {
+            offer(Level.ERROR, event, fields);
+        }
+    }
+
+    /**
+     * Gets the number of records dropped because the buffer was full.
+     *
+     * @return the dropped record count
+     */
+    public static long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Waits until the records logged so far are written, for up to a second.
+     */
+    public static void flush() {
+        long target = tail.get();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (writtenPosition < target && System.nanoTime() < deadline && writerThread.isAlive()) {
+            LockSupport.unpark(writerThread);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    /**
+     * Puts a record in the ring buffer, dropping it if the buffer is full.
+     */
+    private static void offer(Level recordLevel, String event, Object[] fields) {
+        LogRecord record = new LogRecord(System.currentTimeMillis(), recordLevel, Thread.currentThread().getName(),
+                event, fields);
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & (CAPACITY - 1));
+            long available = sequences.get(index) - position;
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.set(index, record);
+                    sequences.set(index, position + 1);
+                    return;
+                }
+                position = tail.get();
+            } else if (available < 0) {
+                dropped.incrementAndGet();
+                return;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Takes the next record from the ring buffer. Only called by the writer
+     * thread.
+     *
+     * @return the record, or null if the buffer is empty
+     */
+    private static LogRecord poll() {
+        int index = (int) (head & (CAPACITY - 1));
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        LogRecord record = slots.get(index);
+        slots.set(index, null);
+        sequences.set(index, head + CAPACITY);
+        head++;
+        return record;
+    }
+
+    /**
+     * Writes the records in the ring buffer until the application exits.
+     */
+    private static void writeRecords() {
+        BufferedWriter writer = null;
+        Path openFile = null;
+        long fileSize = 0;
+        StringBuilder line = new StringBuilder(256);
+        while (true) {
+            LogRecord record = poll();
+            if (record == null) {
+                // Flush once the buffer is drained, then wait for more records
+                try {
+                    if (writer != null) {
+                        writer.flush();
+                    }
+                } catch (IOException e) {
+                    writer = closeQuietly(writer);
+                }
+                if (console) {
+                    System.out.flush();
+                }
+                writtenPosition = head;
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+                continue;
+            }
+
+            line.setLength(0);
+            format(record, line);
+            line.append(System.lineSeparator());
+            if (console) {
+                PrintStream out = record.level().compareTo(Level.WARN) >= 0 ? System.err : System.out;
+                out.append(line);
+            }
+
+            // Open the log file once it is set, and rotate it when it is full
+            Path file = logFile;
+            try {
+                if (file != null && (writer == null || !file.equals(openFile) || fileSize > MAX_FILE_SIZE)) {
+                    writer = closeQuietly(writer);
+                    if (fileSize > MAX_FILE_SIZE || (Files.exists(file) && Files.size(file) > MAX_FILE_SIZE)) {
+                        rotate(file);
+                    }
+                    Files.createDirectories(file.getParent());
+                    writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                            StandardOpenOption.APPEND);
+                    openFile = file;
+                    fileSize = Files.size(file);
+                }
+                if (writer != null) {
+                    writer.append(line);
+                    fileSize += line.length();
+                }
+            } catch (IOException e) {
+                writer = closeQuietly(writer);
+                logFile = null;
+                System.err.println("Failed to write the log file: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Formats a record as a single line.
+     */
+    static void format(LogRecord record, StringBuilder line) {
+        line.append(TIME_FORMAT.format(Instant.ofEpochMilli(record.timeMillis())))
+                .append(' ').append(record.level())
+                .append(" [").append(record.thread()).append("] ")
+                .append(record.event());
+        Object[] fields = record.fields();
+        for (int i = 0; i + 1 < fields.length; i += 2) {
+            line.append(' ').append(fields[i]).append('=');
+            String value = String.valueOf(fields[i + 1]);
+            if (value.isEmpty() || value.chars()
+                    .anyMatch(c -> c == ' ' || c == '"' || c == '=' || c == '\n' || c == '\r' || c == '\\')) {
+                line.append('"');
+                for (int j = 0; j < value.length(); j++) {
+                    char c = value.charAt(j);
+                    switch (c) {
+                        case '"' -> line.append("\\\"");
+                        case '\\' -> line.append("\\\\");
+                        case '\n' -> line.append("\\n");
+                        case '\r' -> line.append("\\r");
+                        default -> line.append(c);
+                    }
+                }
+                line.append('"');
+            } else {
+                line.append(value);
+            }
+        }
+    }
+
+    /**
+     * Shifts the rotated log files, dropping the oldest.
+     */
+    private static void rotate(Path file) throws IOException {
+        String name = file.getFileName().toString().replace(".log", "");
+        for (int i = MAX_FILES - 1; i >= 1; i--) {
+            Path source = i == 1 ? file : file.resolveSibling(name + "." + (i - 1) + ".log");
+            if (Files.exists(source)) {
+                Files.move(source, file.resolveSibling(name + "." + i + ".log"), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    private static BufferedWriter closeQuietly(BufferedWriter writer) {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                // The file is reopened for the next record
+            }
+        }
+        return null;
+    }
+}
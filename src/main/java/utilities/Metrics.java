@@ -0,0 +1,315 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package utilities;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * In-process metrics for the hot paths of the calculator, the store and the
+ * user interface. Metrics are only recorded when the {@code pto.metrics}
+ * system property is true; otherwise recording is a check of a constant that
+ * the JIT compiler removes. Enabled metrics are registered with the platform
+ * MBean server under the {@code pto.calculator} domain and can be printed
+ * periodically with {@link #startPeriodicDump()}.
+ *
+ * Timers record durations in a histogram with logarithmic buckets, eight per
+ * power of two, so percentiles are accurate to within 12.5% and recording
+ * takes constant time and no allocation.
+ */
+public final class Metrics {
+    /**
+     * Whether metrics are recorded, from the {@code pto.metrics} system property.
+     */
+    public static final boolean ENABLED = Boolean.getBoolean("pto.metrics");
+
+    private static final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private static final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private Metrics() {
+    }
+
+    /**
+     * Management interface of a timer.
+     */
+    public interface TimerMXBean {
+        /**
+         * Gets the number of recorded durations.
+         *
+         * @return the count
+         */
+        long getCount();
+
+        /**
+         * Gets the mean duration.
+         *
+         * @return the mean in milliseconds
+         */
+        double getMeanMillis();
+
+        /**
+         * Gets the median duration.
+         *
+         * @return the median in milliseconds
+         */
+        double getP50Millis();
+
+        /**
+         * Gets the 99th percentile of the durations.
+         *
+         * @return the 99th percentile in milliseconds
+         */
+        double getP99Millis();
+
+        /**
+         * Gets the longest duration.
+         *
+         * @return the maximum in milliseconds
+         */
+        double getMaxMillis();
+    }
+
+    /**
+     * Management interface of a counter.
+     */
+    public interface CounterMXBean {
+        /**
+         * Gets the number of counted events.
+         *
+         * @return the count
+         */
+        long getCount();
+    }
+
+    /**
+     * Measures the durations of an operation. Use as
+     * {@code long start = timer.start(); try { ... } finally { timer.stop(start); }}.
+     */
+    public static class Timer implements TimerMXBean {
+        private static final int SUB_BUCKET_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+        private final AtomicLongArray buckets = new AtomicLongArray((64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        /**
+         * Starts measuring a duration.
+         *
+         * @return the start time to pass to {@link #stop(long)}
+         */
+        public long start() {
+            return ENABLED ? System.nanoTime() : 0;
+        }
+
+        /**
+         * Records the duration since a start time.
+         *
+         * @param start the start time returned by {@link #start()}
+         */
+        public void stop(long start) {
+            if (ENABLED) {
+                record(System.nanoTime() - start);
+            }
+        }
+
+        /**
+         * Records a duration.
+         *
+         * @param nanos the duration in nanoseconds
+         */
+        public void record(long nanos) {
+            long value = Math.max(0, nanos);
+            buckets.incrementAndGet(bucketIndex(value));
+            count.increment();
+            total.add(value);
+            max.accumulate(value);
+        }
+
+        /**
+         * Gets the bucket of a value: values below the number of sub-buckets have
+         * a bucket each, and every higher power of two is split into equal parts.
+         */
+        static int bucketIndex(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+            return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+        }
+
+        /**
+         * Gets the smallest value of a bucket.
+         */
+        static long bucketLowerBound(int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+            return (long) (SUB_BUCKETS + index % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+        }
+
+        /**
+         * Gets a percentile of the recorded durations, as the largest value of
+         * the bucket it falls in.
+         *
+         * @param percentile the percentile, between 0 and 100
+         * @return the duration in nanoseconds, or 0 if nothing was recorded
+         */
+        public long getPercentileNanos(double percentile) {
+            long recorded = count.sum();
+            if (recorded == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * recorded));
+            long seen = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    return i + 1 == buckets.length() ? max.get() : Math.min(bucketLowerBound(i + 1) - 1, max.get());
+                }
+            }
+            return max.get();
+        }
+
+        @Override
+        public long getCount() {
+            return count.sum();
+        }
+
+        @Override
+        public double getMeanMillis() {
+            long recorded = count.sum();
+            return recorded == 0 ? 0 : total.sum() / (double) recorded / 1e6;
+        }
+
+        @Override
+        public double getP50Millis() {
+            return getPercentileNanos(50) / 1e6;
+        }
+
+        @Override
+        public double getP99Millis() {
+            return getPercentileNanos(99) / 1e6;
+        }
+
+        @Override
+        public double getMaxMillis() {
+            return max.get() / 1e6;
+        }
+    }
+
+    /**
+     * Counts events, such as validation failures.
+     */
+    public static class Counter implements CounterMXBean {
+        private final LongAdder count = new LongAdder();
+
+        /**
+         * Counts an event.
+         */
+        public void increment() {
+            if (ENABLED) {
+                count.increment();
+            }
+        }
+
+        @Override
+        public long getCount() {
+            return count.sum();
+        }
+    }
+
+    /**
+     * Gets the timer with a name, creating and registering it if needed.
+     *
+     * @param name the name of the timer, such as "store.getVacations"
+     * @return the timer
+     */
+    public static Timer timer(String name) {
+        return timers.computeIfAbsent(name, key -> register("Timer", key, new Timer()));
+    }
+
+    /**
+     * Gets the counter with a name, creating and registering it if needed.
+     *
+     * @param name the name of the counter, such as "validation.failures"
+     * @return the counter
+     */
+    public static Counter counter(String name) {
+        return counters.computeIfAbsent(name, key -> register("Counter", key, new Counter()));
+    }
+
+    /**
+     * Registers a metric with the platform MBean server if metrics are enabled.
+     */
+    private static <T> T register(String type, String name, T metric) {
+        if (ENABLED) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(metric,
+                        new ObjectName("pto.calculator:type=" + type + ",name=" + ObjectName.quote(name)));
+            } catch (JMException e) {
+                Log.warn("metrics.registerFailed", "name", name, "message", e.getMessage());
+            }
+        }
+        return metric;
+    }
+
+    /**
+     * Formats all metrics that recorded something, one per line.
+     *
+     * @return the metrics report
+     */
+    public static String report() {
+        StringBuilder report = new StringBuilder("Metrics:");
+        for (Map.Entry<String, Timer> entry : new TreeMap<>(timers).entrySet()) {
+            Timer timer = entry.getValue();
+            if (timer.getCount() > 0) {
+                report.append(String.format("%n  %-36s count=%d mean=%.3fms p50=%.3fms p99=%.3fms max=%.3fms",
+                        entry.getKey(), timer.getCount(), timer.getMeanMillis(), timer.getP50Millis(),
+                        timer.getP99Millis(), timer.getMaxMillis()));
+            }
+        }
+        for (Map.Entry<String, Counter> entry : new TreeMap<>(counters).entrySet()) {
+            if (entry.getValue().getCount() > 0) {
+                report.append(String.format("%n  %-36s count=%d", entry.getKey(), entry.getValue().getCount()));
+            }
+        }
+        return report.toString();
+    }
+
+    /**
+     * Prints the metrics report every {@code pto.metrics.dumpSeconds} seconds
+     * (60 by default) on a daemon thread. Does nothing if metrics are disabled
+     * or the interval is not positive.
+     */
+    public static void startPeriodicDump() {
+        long interval = Long.getLong("pto.metrics.dumpSeconds", 60);
+        if (!ENABLED || interval <= 0) {
+            return;
+        }
+
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Metrics: Dump Thread");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(() -> Log.info("metrics.report", "metrics", report()), interval, interval, TimeUnit.SECONDS);
+    }
+}
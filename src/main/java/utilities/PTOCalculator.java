@@ -5,8 +5,13 @@
 package utilities;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.TreeMap;
 
 import com.calendarfx.model.Entry;
@@ -18,6 +23,12 @@ import model.UserSettings;
  * time off entries.
  */
 public class PTOCalculator {
+    private static final Metrics.Timer COMPUTE_ACCRUED_BALANCE_TIMER = Metrics
+            .timer("calculator.computeAccruedBalance");
+    private static final Metrics.Timer VALIDATE_ENTRY_TIMER = Metrics.timer("calculator.validateEntry");
+    private static final Metrics.Timer FIND_OVERDRAWN_ENTRIES_TIMER = Metrics
+            .timer("calculator.findOverdrawnEntries");
+
     UserSettings userSettings;
 
     /**
@@ -52,71 +63,284 @@ public class PTOCalculator {
      */
     public double computeAccruedBalance(LocalDate startDate, LocalDate targetDate,
             Map<LocalDate, List<Entry<?>>> entries) {
-        // Prepare variables
-        double balance = userSettings.getCurrentBalance();
-        LocalDate nextExpirationDate = userSettings.getNextExpirationDate(startDate);
-        LocalDate currentDate = startDate;
-
-        // For each date in the range of entries (sorted using TreeMap)
-        TreeMap<LocalDate, List<Entry<?>>> sortedEntries = new TreeMap<>(entries);
-        for (Map.Entry<LocalDate, List<Entry<?>>> currentEntries : sortedEntries.entrySet()) {
-            // Get the next entry date
-            LocalDate nextEntryDate = currentEntries.getKey();
-
-            // If the next entry date is before the start date, skip it
-            if (nextEntryDate.isBefore(startDate)) {
-                continue;
+        long start = COMPUTE_ACCRUED_BALANCE_TIMER.start();
+        ProjectionEvent event = new ProjectionEvent();
+        event.begin();
+        try {
+            BalanceSweep sweep = new BalanceSweep(startDate, entries);
+            double balance = sweep.balanceAt(targetDate);
+            event.finish("computeAccruedBalance", startDate, targetDate, 1, sweep.entriesScanned);
+            return balance;
+        } finally {
+            COMPUTE_ACCRUED_BALANCE_TIMER.stop(start);
+        }
+    }
+
+    /**
+     * Computes the projected PTO balances at many dates in a single pass over the
+     * entries. Each balance is the same as calling
+     * {@link #computeAccruedBalance(LocalDate, LocalDate, Map)} for that date.
+     * 
+     * @param startDate   the start date to compute the accrual from
+     * @param targetDates the dates to compute the balance for, in ascending order
+     * @param entries     the set of existing time off entries
+     * @return the projected PTO balances, in the order of the target dates
+     */
+    public double[] computeAccruedBalances(LocalDate startDate, List<LocalDate> targetDates,
+            Map<LocalDate, List<Entry<?>>> entries) {
+        ProjectionEvent event = new ProjectionEvent();
+        event.begin();
+        BalanceSweep sweep = new BalanceSweep(startDate, entries);
+        double[] balances = new double[targetDates.size()];
+        for (int i = 0; i < balances.length; i++) {
+            balances[i] = sweep.balanceAt(targetDates.get(i));
+        }
+        event.finish("computeAccruedBalances", startDate, targetDates.isEmpty() ? null : targetDates.getLast(),
+                balances.length, sweep.entriesScanned);
+        return balances;
+    }
+
+    /**
+     * Walks the time off entries in date order, keeping the balance at the last
+     * processed entry date so balances at ascending target dates can be computed
+     * without replaying the earlier entries.
+     */
+    class BalanceSweep {
+        private final Iterator<Map.Entry<LocalDate, List<Entry<?>>>> iterator;
+        private Map.Entry<LocalDate, List<Entry<?>>> nextEntries;
+        private double balance;
+        private LocalDate currentDate;
+        private LocalDate nextExpirationDate;
+        private int entriesScanned = 0;
+
+        /**
+         * Creates a sweep starting at the current balance on the start date.
+         * 
+         * @param startDate the start date to compute the accrual from
+         * @param entries   the set of existing time off entries
+         */
+        BalanceSweep(LocalDate startDate, Map<LocalDate, List<Entry<?>>> entries) {
+            // Prepare variables
+            balance = userSettings.getCurrentBalance();
+            nextExpirationDate = userSettings.getNextExpirationDate(startDate);
+            currentDate = startDate;
+
+            // Walk the entries on or after the start date (sorted using TreeMap)
+            NavigableMap<LocalDate, List<Entry<?>>> sortedEntries = entries instanceof NavigableMap
+                    ? (NavigableMap<LocalDate, List<Entry<?>>>) entries
+                    : new TreeMap<>(entries);
+            iterator = sortedEntries.tailMap(startDate, true).entrySet().iterator();
+            nextEntries = iterator.hasNext() ? iterator.next() : null;
+        }
+
+        /**
+         * Computes the projected balance at the beginning of the target date.
+         * Target dates must not decrease between calls.
+         * 
+         * @param targetDate the date to compute the balance for
+         * @return the projected PTO balance at the target date
+         */
+        double balanceAt(LocalDate targetDate) {
+            advanceTo(targetDate);
+
+            double targetBalance = balance;
+            LocalDate date = currentDate;
+            LocalDate expirationDate = nextExpirationDate;
+
+            // For each expiration on or before the target date
+            while (userSettings.isCarryOverEnabled() && !expirationDate.isAfter(targetDate)) {
+                // Compute accrual until the expiration date and apply limits
+                targetBalance = accrueAndApplyLimits(date, expirationDate, targetBalance, true);
+
+                // Update the current date and move to the next year's expiration
+                date = expirationDate;
+                expirationDate = userSettings.getNextExpirationDate(expirationDate.plusDays(1));
             }
-            // If the next entry date is on or after the target date, break the loop
-            // On or after since PTO is removed at the end of the day and wouldn't affect
+
+            // Compute accrual until the target date
+            return accrueAndApplyLimits(date, targetDate, targetBalance, false);
+        }
+
+        /**
+         * Processes all entry dates before the target date.
+         * 
+         * @param targetDate the date to process the entries up to
+         */
+        private void advanceTo(LocalDate targetDate) {
+            // For each date in the range of entries before the target date
+            // Before since PTO is removed at the end of the day and wouldn't affect
             // the balance until the next day
-            else if (!nextEntryDate.isBefore(targetDate)) {
-                break;
-            }
+            while (nextEntries != null && nextEntries.getKey().isBefore(targetDate)) {
+                // Get the next entry date
+                LocalDate nextEntryDate = nextEntries.getKey();
 
-            // If the carry over limit is applied before the next entry usage
-            if (userSettings.isCarryOverEnabled() && !nextExpirationDate.isAfter(nextEntryDate)) {
-                // Compute accrual until the next expiration date
-                balance = accrueAndApplyLimits(currentDate, nextExpirationDate, balance, true);
+                // For each carry over limit applied before the next entry usage
+                while (userSettings.isCarryOverEnabled() && !nextExpirationDate.isAfter(nextEntryDate)) {
+                    // Compute accrual until the next expiration date
+                    balance = accrueAndApplyLimits(currentDate, nextExpirationDate, balance, true);
 
-                // Update the current date and next expiration date
-                currentDate = nextExpirationDate;
-                nextExpirationDate = userSettings.getNextExpirationDate(currentDate);
-            }
+                    // Update the current date and move to the next year's expiration
+                    currentDate = nextExpirationDate;
+                    nextExpirationDate = userSettings.getNextExpirationDate(currentDate.plusDays(1));
+                }
+
+                // Compute accrual until the current date
+                balance = accrueAndApplyLimits(currentDate, nextEntryDate, balance, false);
+
+                // If it is not a weekend or holiday
+                if (userSettings.getHolidays().isWorkingDay(nextEntryDate)) {
+                    // For each entry on the current date, deduct the PTO used
+                    for (Entry<?> entry : nextEntries.getValue()) {
+                        balance -= calculateDeduction(entry);
+                    }
+                }
+                entriesScanned += nextEntries.getValue().size();
 
-            // Compute accrual until the current date
-            balance = accrueAndApplyLimits(currentDate, nextEntryDate, balance, false);
+                // Update the current date
+                currentDate = nextEntryDate;
 
-            // If it is not a weekend
-            if (nextEntryDate.getDayOfWeek().getValue() < 6) {
-                // For each entry on the current date, deduct the PTO used
-                for (Entry<?> entry : currentEntries.getValue()) {
-                    balance -= calculateDeduction(entry);
+                // Account for max balance
+                if (userSettings.isMaxBalanceEnabled()) {
+                    balance = Math.min(balance, userSettings.getMaxBalance());
                 }
+
+                nextEntries = iterator.hasNext() ? iterator.next() : null;
             }
+        }
+    }
+
+    /**
+     * Computes the projected PTO balance over a range of dates as a
+     * piecewise-linear function, with a breakpoint at each time off entry,
+     * expiration, rate change and day the max balance is reached. The balance
+     * at each date of the range is the same as calling
+     * {@link #computeAccruedBalance(LocalDate, LocalDate, Map)} for that date.
+     * 
+     * @param startDate the start date to compute the accrual from
+     * @param endDate   the last date of the function
+     * @param entries   the set of existing time off entries
+     * @return the balance function
+     * @throws IllegalArgumentException if the end date is before the start date
+     */
+    public BalanceFunction computeBalanceFunction(LocalDate startDate, LocalDate endDate,
+            Map<LocalDate, List<Entry<?>>> entries) {
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("End date " + endDate + " is before start date " + startDate);
+        }
+
+        ProjectionEvent event = new ProjectionEvent();
+        event.begin();
+        BalanceFunction.Builder builder = new BalanceFunction.Builder(
+                userSettings.isMaxBalanceEnabled() ? userSettings.getMaxBalance() : Double.POSITIVE_INFINITY);
+        BalanceAnchor anchor = new BalanceAnchor(startDate, builder);
 
-            // Update the current date
-            currentDate = nextEntryDate;
+        // Entries on the end date only change the balance after it
+        NavigableMap<LocalDate, List<Entry<?>>> sortedEntries = entries instanceof NavigableMap
+                ? (NavigableMap<LocalDate, List<Entry<?>>>) entries
+                : new TreeMap<>(entries);
+        int entriesScanned = 0;
+        for (Map.Entry<LocalDate, List<Entry<?>>> dateEntries : sortedEntries.subMap(startDate, true, endDate, false)
+                .entrySet()) {
+            LocalDate date = dateEntries.getKey();
+            entriesScanned += dateEntries.getValue().size();
 
-            // Account for max balance
-            if (userSettings.isMaxBalanceEnabled()) {
-                balance = Math.min(balance, userSettings.getMaxBalance());
+            // If it is not a weekend or holiday
+            if (userSettings.getHolidays().isWorkingDay(date)) {
+                double deduction = 0;
+                for (Entry<?> entry : dateEntries.getValue()) {
+                    deduction += calculateDeduction(entry);
+                }
+                anchor.advanceTo(date);
+                anchor.deduct(date, deduction);
             }
         }
+        anchor.advanceTo(endDate);
+
+        BalanceFunction function = builder.build(endDate);
+        event.finish("computeBalanceFunction", startDate, endDate, function.getSegmentCount(), entriesScanned);
+        return function;
+    }
+
+    /**
+     * Last breakpoint of a balance function being built, moved forward through
+     * the expirations, rate changes and entries in date order.
+     */
+    private class BalanceAnchor {
+        private final AccrualSchedule schedule = userSettings.getAccrualSchedule();
+        private final BalanceFunction.Builder builder;
+        private final double maxBalance;
+        private LocalDate date;
+        private double balance;
+        private LocalDate nextExpirationDate;
+
+        /**
+         * Creates an anchor at the current balance on the start date.
+         * 
+         * @param startDate the start date to compute the accrual from
+         * @param builder   the builder to add the breakpoints to
+         */
+        BalanceAnchor(LocalDate startDate, BalanceFunction.Builder builder) {
+            this.builder = builder;
+            maxBalance = userSettings.isMaxBalanceEnabled() ? userSettings.getMaxBalance()
+                    : Double.POSITIVE_INFINITY;
+            date = startDate;
+            balance = Math.min(userSettings.getCurrentBalance(), maxBalance);
+            nextExpirationDate = userSettings.isCarryOverEnabled() ? userSettings.getNextExpirationDate(startDate)
+                    : null;
+            applyExpiration();
+            builder.add(date, balance, schedule.getDailyRate(date));
+        }
 
-        // If the carry over limit is applied before the target date
-        if (userSettings.isCarryOverEnabled() && !nextExpirationDate.isAfter(targetDate)) {
-            // Compute accrual until the next expiration date and apply limits
-            balance = accrueAndApplyLimits(currentDate, nextExpirationDate, balance, true);
+        /**
+         * Adds the breakpoints of the expirations and rate changes up to a date.
+         * 
+         * @param limit the last date to add breakpoints on
+         */
+        void advanceTo(LocalDate limit) {
+            while (true) {
+                LocalDate next = schedule.getNextChangeDate(date);
+                if (nextExpirationDate != null && (next == null || nextExpirationDate.isBefore(next))) {
+                    next = nextExpirationDate;
+                }
+                if (next == null || next.isAfter(limit)) {
+                    return;
+                }
+                moveTo(next);
+            }
+        }
 
-            // Update the current date
-            currentDate = nextExpirationDate;
+        /**
+         * Deducts the PTO used on a date, which lowers the balance from the next
+         * date on.
+         * 
+         * @param entryDate the date of the entries, not before the anchor
+         * @param deduction the hours used
+         */
+        void deduct(LocalDate entryDate, double deduction) {
+            balance = Math.min(balance + schedule.accrualBetween(date, entryDate), maxBalance) - deduction;
+            date = entryDate;
+            moveTo(entryDate.plusDays(1));
         }
 
-        // Compute accrual until the target date
-        balance = accrueAndApplyLimits(currentDate, targetDate, balance, false);
+        /**
+         * Accrues to a date, applies the limits and adds a breakpoint there.
+         */
+        private void moveTo(LocalDate next) {
+            balance = Math.min(balance + schedule.accrualBetween(date, next), maxBalance);
+            date = next;
+            applyExpiration();
+            builder.add(date, balance, schedule.getDailyRate(date));
+        }
 
-        return balance;
+        /**
+         * Applies the carry over limit if the anchor is on an expiration date.
+         */
+        private void applyExpiration() {
+            if (date.equals(nextExpirationDate)) {
+                balance = Math.min(balance, userSettings.getCarryOverLimit());
+                nextExpirationDate = userSettings.getNextExpirationDate(date.plusDays(1));
+            }
+        }
     }
 
     /**
@@ -151,12 +375,25 @@ public class PTOCalculator {
      * Calculates the PTO deduction for a given time off entry.
      */
     double calculateDeduction(Entry<?> entry) {
+        return calculateDeduction(entry.isFullDay(), entry.isMultiDay(), entry.getDuration().toMinutes());
+    }
+
+    /**
+     * Calculates the PTO deduction for each weekday of a time off entry from its
+     * timing alone.
+     * 
+     * @param fullDay         whether the entry is a full day entry
+     * @param multiDay        whether the entry spans multiple days
+     * @param durationMinutes the duration of the entry in minutes
+     * @return the hours to deduct
+     */
+    public static double calculateDeduction(boolean fullDay, boolean multiDay, long durationMinutes) {
         // If the entry is a full day or multi-day event, deduct 8 hours
-        if (entry.isFullDay() || entry.isMultiDay()) {
+        if (fullDay || multiDay) {
             return 8;
         }
         // Otherwise, deduct the actual duration in hours, capped at 8 hours
-        return Math.min(entry.getDuration().toMinutes() / 60.0, 8);
+        return Math.min(durationMinutes / 60.0, 8);
     }
 
     /**
@@ -167,15 +404,8 @@ public class PTOCalculator {
      * @return the projected PTO balance at the beginning of the specified date
      */
     double computeAccrualBetweenDates(LocalDate startDate, LocalDate targetDate) {
-        // Prepare variables
-        double accrualRate = userSettings.getAccrualRate();
-        AccrualPeriod accrualPeriod = userSettings.getAccrualPeriod();
-
-        // Compute projected balance
-        double daysSinceLastAccrual = targetDate.toEpochDay() - startDate.toEpochDay();
-        double accruedPto = (daysSinceLastAccrual / AccrualPeriod.getDaysInPeriod(accrualPeriod)) * accrualRate;
-
-        return accruedPto;
+        // Look the accrual up in the precomputed rate segments
+        return userSettings.getAccrualSchedule().accrualBetween(startDate, targetDate);
     }
 
     /**
@@ -187,21 +417,102 @@ public class PTOCalculator {
      * @return true if the entry is valid, otherwise false
      */
     public boolean validateEntry(Entry<?> entry, Map<LocalDate, List<Entry<?>>> entries) {
-        // If the entry is in the future
-        if (!entry.getEndDate().isBefore(LocalDate.now())) {
-            if (entry.isMultiDay()) {
-                // Get the number of days in the entry
-                double days = entry.getEndDate().toEpochDay() - entry.getStartDate().toEpochDay();
-                // Ensure the balance is sufficient for the entire duration
-                return computeBalanceAtDate(entry.getEndDate(), entries) >= days * 8;
+        long start = VALIDATE_ENTRY_TIMER.start();
+        try {
+            // If the entry is in the future
+            if (!entry.getEndDate().isBefore(LocalDate.now())) {
+                // Ensure the balance is sufficient for the entry
+                return computeBalanceAtDate(getCheckDate(entry), entries) >= getRequiredHours(entry);
             } else {
-                // For single-day entries, check if the balance is sufficient for the entry
-                // duration
-                double hours = entry.isFullDay() ? 8 : entry.getDuration().toHours();
-                return computeBalanceAtDate(entry.getStartDate(), entries) >= hours;
+                return true;
             }
-        } else {
-            return true;
+        } finally {
+            VALIDATE_ENTRY_TIMER.stop(start);
+        }
+    }
+
+    /**
+     * Validates many time off entries with a single balance sweep. The result is
+     * the same as calling {@link #validateEntry(Entry, Map)} for each entry.
+     * 
+     * @param candidates the time off entries to validate
+     * @param entries    the set of existing time off entries
+     * @return the checks of the entries without enough balance, in date order
+     */
+    public List<BalanceCheck> findOverdrawnEntries(Collection<? extends Entry<?>> candidates,
+            Map<LocalDate, List<Entry<?>>> entries) {
+        long start = FIND_OVERDRAWN_ENTRIES_TIMER.start();
+        ProjectionEvent event = new ProjectionEvent();
+        event.begin();
+        try {
+            // Only future entries need to be checked, sorted by the date they are
+            // checked at
+            LocalDate today = LocalDate.now();
+            List<Entry<?>> futureEntries = new ArrayList<>();
+            for (Entry<?> entry : candidates) {
+                if (!entry.getEndDate().isBefore(today)) {
+                    futureEntries.add(entry);
+                }
+            }
+            futureEntries.sort(Comparator.comparing(PTOCalculator::getCheckDate));
+
+            // Compute the balance at each check date in one pass
+            BalanceSweep sweep = new BalanceSweep(today, entries);
+            List<BalanceCheck> overdrawn = new ArrayList<>();
+            for (Entry<?> entry : futureEntries) {
+                LocalDate date = getCheckDate(entry);
+                double available = sweep.balanceAt(date);
+                double required = getRequiredHours(entry);
+                if (available < required) {
+                    overdrawn.add(new BalanceCheck(entry, date, required, available));
+                }
+            }
+            event.finish("findOverdrawnEntries", today,
+                    futureEntries.isEmpty() ? null : getCheckDate(futureEntries.getLast()), futureEntries.size(),
+                    sweep.entriesScanned);
+            return overdrawn;
+        } finally {
+            FIND_OVERDRAWN_ENTRIES_TIMER.stop(start);
+        }
+    }
+
+    /**
+     * Result of checking the balance available for a time off entry.
+     * 
+     * @param entry     the time off entry
+     * @param date      the date the balance was checked at
+     * @param required  the hours the entry requires
+     * @param available the projected balance at the date
+     */
+    public record BalanceCheck(Entry<?> entry, LocalDate date, double required, double available) {
+    }
+
+    /**
+     * Gets the date whose projected balance must cover an entry: the end date of
+     * multi-day entries and the start date of single-day entries.
+     * 
+     * @param entry the time off entry
+     * @return the date to check the balance at
+     */
+    static LocalDate getCheckDate(Entry<?> entry) {
+        return entry.isMultiDay() ? entry.getEndDate() : entry.getStartDate();
+    }
+
+    /**
+     * Gets the number of hours the balance must cover for an entry. Weekends and
+     * holidays of multi-day entries are not counted.
+     * 
+     * @param entry the time off entry
+     * @return the required hours
+     */
+    double getRequiredHours(Entry<?> entry) {
+        if (entry.isMultiDay()) {
+            // Ensure the balance is sufficient for the working days of the duration
+            long days = userSettings.getHolidays().countWorkingDays(entry.getStartDate(), entry.getEndDate());
+            return days * 8;
         }
+        // For single-day entries, check if the balance is sufficient for the entry
+        // duration
+        return entry.isFullDay() ? 8 : entry.getDuration().toHours();
     }
 }
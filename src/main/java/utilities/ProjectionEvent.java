@@ -0,0 +1,63 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package utilities;
+
+import java.time.LocalDate;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for a balance projection over the time off entries.
+ * Costs nothing beyond a check of the recording state when the event is not
+ * enabled.
+ */
+@Name("pto.Projection")
+@Label("Balance Projection")
+@Category({ "PTO Calculator", "Engine" })
+@Description("Projection of the PTO balance over the time off entries")
+@StackTrace(false)
+final class ProjectionEvent extends jdk.jfr.Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Start Date")
+    String startDate;
+
+    @Label("Horizon Days")
+    @Description("Days between the start date and the last projected date")
+    long horizonDays;
+
+    @Label("Target Dates")
+    int targetDates;
+
+    @Label("Entries Scanned")
+    @Description("Time off entries processed by the projection, once for each day they cover")
+    int entriesScanned;
+
+    /**
+     * Ends the projection and commits the event if it is recorded.
+     *
+     * @param operation      the calculator method, such as "findOverdrawnEntries"
+     * @param startDate      the date the projection started from
+     * @param lastDate       the last projected date
+     * @param targetDates    the number of dates a balance was projected for
+     * @param entriesScanned the number of entries deducted
+     */
+    void finish(String operation, LocalDate startDate, LocalDate lastDate, int targetDates, int entriesScanned) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.startDate = startDate.toString();
+            this.horizonDays = lastDate == null ? 0 : lastDate.toEpochDay() - startDate.toEpochDay();
+            this.targetDates = targetDates;
+            this.entriesScanned = entriesScanned;
+            commit();
+        }
+    }
+}
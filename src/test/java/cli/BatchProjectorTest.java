@@ -0,0 +1,138 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package cli;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.Test;
+
+import com.calendarfx.model.Entry;
+import com.calendarfx.model.Interval;
+
+import model.UserSettings;
+import utilities.AccrualPeriod;
+import utilities.EntriesHelper;
+import utilities.PTOCalculator;
+
+public class BatchProjectorTest {
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+    private static final LocalDate TARGET = LocalDate.of(2025, 3, 1);
+
+    @Test
+    public void testProject() throws IOException {
+        String employees = "employee,accrualRate,accrualPeriod,currentBalance\n"
+                + "E1,1,daily,40\n"
+                + "E2,4,weekly,10\n";
+        String entries = "employee,title,start,end\n"
+                + "E1,Vacation,2025-01-06,2025-01-07\n"
+                + "E1,Holidays,2025-02-10,2025-02-10\n";
+
+        StringWriter output = new StringWriter();
+        BatchProjector projector = new BatchProjector(START, List.of(TARGET, START.plusDays(10)), 2);
+        long count = projector.project(new StringReader(employees), new StringReader(entries), output);
+
+        // Expect the same balances as the calculator, with the dates in order
+        UserSettings settings1 = new UserSettings(1, AccrualPeriod.DAILY, 0, 0, null, 40);
+        List<Entry<?>> entries1 = List.of(
+                new Entry<>("Vacation", new Interval(LocalDateTime.of(2025, 1, 6, 9, 0),
+                        LocalDateTime.of(2025, 1, 7, 17, 0))),
+                new Entry<>("Holidays", new Interval(LocalDateTime.of(2025, 2, 10, 9, 0),
+                        LocalDateTime.of(2025, 2, 10, 17, 0))));
+        entries1.forEach(entry -> entry.setFullDay(true));
+        UserSettings settings2 = new UserSettings(4, AccrualPeriod.WEEKLY, 0, 0, null, 10);
+
+        String expected = "employee,date,balance\r\n"
+                + row("E1", START.plusDays(10), settings1, entries1)
+                + row("E1", TARGET, settings1, entries1)
+                + row("E2", START.plusDays(10), settings2, List.of())
+                + row("E2", TARGET, settings2, List.of());
+        assertEquals(2, count);
+        assertEquals(expected, output.toString());
+    }
+
+    @Test
+    public void testProjectKeepsInputOrder() throws IOException {
+        StringBuilder employees = new StringBuilder("employee,accrualRate,accrualPeriod\n");
+        StringBuilder entries = new StringBuilder("employee,title,start,end\n");
+        for (int i = 0; i < 500; i++) {
+            employees.append("E").append(i).append(",1,DAILY\n");
+            entries.append("E").append(i).append(",Day off,2025-01-0").append(1 + i % 9).append(",2025-01-10\n");
+        }
+
+        StringWriter output = new StringWriter();
+        BatchProjector projector = new BatchProjector(START, List.of(TARGET), 4);
+        long count = projector.project(new StringReader(employees.toString()), new StringReader(entries.toString()),
+                output);
+
+        String[] lines = output.toString().split("\r\n");
+        assertEquals(500, count);
+        assertEquals(501, lines.length);
+        for (int i = 0; i < 500; i++) {
+            assert lines[i + 1].startsWith("E" + i + ",") : "Expected employee E" + i + " on line " + (i + 2);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testProjectUngroupedEntries() throws IOException {
+        String employees = "employee\nE1\nE2\n";
+        String entries = "employee,title,start,end\n"
+                + "E2,Vacation,2025-01-06,2025-01-07\n"
+                + "E1,Vacation,2025-01-06,2025-01-07\n";
+
+        new BatchProjector(START, List.of(TARGET), 1).project(new StringReader(employees),
+                new StringReader(entries), new StringWriter());
+    }
+
+    @Test
+    public void testProjectStopsAtFirstUngroupedEmployee() throws IOException {
+        // E1 is projected without entries, and its entries follow those of E2
+        StringBuilder employees = new StringBuilder("employee\n");
+        for (int i = 0; i < 100; i++) {
+            employees.append("E").append(i).append('\n');
+        }
+        String entries = "employee,title,start,end\n"
+                + "E2,Vacation,2025-01-06,2025-01-07\n"
+                + "E1,Vacation,2025-01-08,2025-01-08\n";
+
+        StringWriter output = new StringWriter();
+        try {
+            new BatchProjector(START, List.of(TARGET), 1).project(new StringReader(employees.toString()),
+                    new StringReader(entries), output);
+            fail("Expected the ungrouped entries to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("E1"));
+        }
+        assertEquals("employee,date,balance\r\n", output.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testProjectUnknownEmployee() throws IOException {
+        new BatchProjector(START, List.of(TARGET), 1).project(new StringReader("employee\nE1\n"),
+                new StringReader("employee,title,start,end\nE9,Vacation,2025-01-06,2025-01-07\n"),
+                new StringWriter());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testProjectInvalidSettings() throws IOException {
+        new BatchProjector(START, List.of(TARGET), 1).project(new StringReader("employee,accrualRate\nE1,fast\n"),
+                new StringReader("employee,title,start,end\n"), new StringWriter());
+    }
+
+    private static String row(String employee, LocalDate date, UserSettings settings, List<Entry<?>> entries) {
+        double balance = new PTOCalculator(settings).computeAccruedBalance(START, date,
+                EntriesHelper.groupByDate(entries));
+        return employee + "," + date + "," + String.format(Locale.ROOT, "%.2f", balance) + "\r\n";
+    }
+}
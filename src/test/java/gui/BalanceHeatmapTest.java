@@ -0,0 +1,88 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package gui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.calendarfx.model.Entry;
+import com.calendarfx.model.Interval;
+
+import model.UserSettings;
+import utilities.AccrualPeriod;
+
+public class BalanceHeatmapTest {
+    private final LocalDate today = LocalDate.now();
+
+    private BalanceHeatmap compute(UserSettings settings, List<Entry<?>> entries) {
+        return BalanceHeatmap.compute(settings, entries, today, today.plusDays(60), 0, 0);
+    }
+
+    @Test
+    public void testLevelsScaleToMaxBalance() {
+        // Without accrual, the balance stays at half the max balance
+        BalanceHeatmap heatmap = compute(new UserSettings(0, AccrualPeriod.DAILY, 80, 0, null, 40), List.of());
+        assertEquals(List.of("heatmap-level-2"), heatmap.getStyleClasses(today));
+        assertEquals(List.of("heatmap-level-2"), heatmap.getStyleClasses(today.plusDays(60)));
+    }
+
+    @Test
+    public void testLevelsScaleToHighestBalance() {
+        // Without a max balance, the highest balance is full
+        LocalDate date = today.plusDays(30);
+        while (date.getDayOfWeek().getValue() >= 6) {
+            date = date.plusDays(1);
+        }
+        Entry<?> entry = new Entry<>("Trip", new Interval(date.atTime(9, 0), date.atTime(17, 0)));
+        entry.setFullDay(true);
+        BalanceHeatmap heatmap = compute(new UserSettings(0, AccrualPeriod.DAILY, 0, 0, null, 40), List.of(entry));
+
+        assertEquals(List.of("heatmap-level-4"), heatmap.getStyleClasses(date));
+        // 32 of 40 hours are left after the day off
+        assertEquals(List.of("heatmap-level-4"), heatmap.getStyleClasses(date.plusDays(1)));
+        assertEquals(List.of(), heatmap.getStyleClasses(today.minusDays(1)));
+        assertEquals(List.of(), heatmap.getStyleClasses(today.plusDays(61)));
+    }
+
+    @Test
+    public void testCapHit() {
+        // One hour a day reaches the max balance of 80 in ten days
+        BalanceHeatmap heatmap = compute(new UserSettings(1, AccrualPeriod.DAILY, 80, 0, null, 70), List.of());
+
+        assertEquals(List.of("heatmap-level-4"), heatmap.getStyleClasses(today.plusDays(9)));
+        assertEquals(List.of("heatmap-level-4", "heatmap-cap"), heatmap.getStyleClasses(today.plusDays(10)));
+        assertEquals(List.of("heatmap-level-4", "heatmap-cap"), heatmap.getStyleClasses(today.plusDays(30)));
+    }
+
+    @Test
+    public void testForfeiture() {
+        // The balance above the carry over limit of 40 expires in twenty days
+        LocalDate expiration = today.plusDays(20);
+        BalanceHeatmap heatmap = compute(new UserSettings(0, AccrualPeriod.DAILY, 80, 40,
+                MonthDay.from(expiration), 60), List.of());
+
+        assertFalse(heatmap.getStyleClasses(expiration.minusDays(1)).contains("heatmap-forfeit"));
+        assertEquals(List.of("heatmap-level-2", "heatmap-forfeit"), heatmap.getStyleClasses(expiration));
+        assertEquals(List.of("heatmap-level-2"), heatmap.getStyleClasses(expiration.plusDays(1)));
+    }
+
+    @Test
+    public void testNoForfeitureUnderCarryOverLimit() {
+        LocalDate expiration = today.plusDays(20);
+        BalanceHeatmap heatmap = compute(new UserSettings(0, AccrualPeriod.DAILY, 80, 40,
+                MonthDay.from(expiration), 40), List.of());
+
+        assertEquals(List.of("heatmap-level-2"), heatmap.getStyleClasses(expiration));
+        assertTrue(heatmap.covers(today, today.plusDays(60)));
+        assertFalse(heatmap.covers(today, today.plusDays(61)));
+    }
+}
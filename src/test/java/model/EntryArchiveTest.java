@@ -0,0 +1,123 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.calendarfx.model.Entry;
+import com.calendarfx.model.Interval;
+
+import utilities.HolidayCalendar;
+
+public class EntryArchiveTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static Entry<?> createEntry(String id, LocalDateTime start, LocalDateTime end, boolean fullDay) {
+        Entry<?> entry = new Entry<>("Vacation", new Interval(start, end), id);
+        entry.setFullDay(fullDay);
+        return entry;
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("archive.bin");
+        Entry<?> later = createEntry("a", LocalDateTime.of(2025, 1, 1, 9, 0), LocalDateTime.of(2025, 1, 3, 17, 0), true);
+        Entry<?> earlier = new Entry<>("Dentist é",
+                new Interval(LocalDateTime.of(2024, 2, 1, 9, 0, 12, 345), LocalDateTime.of(2024, 2, 1, 11, 30)), "b");
+
+        EntryArchive.write(path, List.of(later, earlier));
+        EntryArchive archive = EntryArchive.open(path);
+        List<Entry<?>> entries = archive.getEntries();
+
+        assertEquals(2, archive.size());
+        assertEquals("b", entries.get(0).getId());
+        assertEquals("Dentist é", entries.get(0).getTitle());
+        assertEquals(earlier.getInterval(), entries.get(0).getInterval());
+        assertFalse(entries.get(0).isFullDay());
+        assertEquals("a", entries.get(1).getId());
+        assertEquals(later.getInterval(), entries.get(1).getInterval());
+        assertTrue(entries.get(1).isFullDay());
+    }
+
+    @Test
+    public void testMissingArchiveIsEmpty() throws IOException {
+        EntryArchive archive = EntryArchive.open(folder.getRoot().toPath().resolve("missing.bin"));
+
+        assertEquals(0, archive.size());
+        assertEquals(0, archive.getEntries().size());
+        assertEquals(0, archive.getYearlyHours(2025, HolidayCalendar.NONE), 0);
+    }
+
+    @Test
+    public void testMonthlyHours() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("archive.bin");
+        EntryArchive.write(path, List.of(
+                // Tuesday to Wednesday across the new year
+                createEntry("a", LocalDateTime.of(2024, 12, 31, 9, 0), LocalDateTime.of(2025, 1, 1, 17, 0), true),
+                // Friday to Monday, skipping the weekend
+                createEntry("b", LocalDateTime.of(2025, 1, 3, 9, 0), LocalDateTime.of(2025, 1, 6, 17, 0), true),
+                // Partial Monday
+                createEntry("c", LocalDateTime.of(2025, 2, 3, 9, 0), LocalDateTime.of(2025, 2, 3, 11, 30), false)));
+        EntryArchive archive = EntryArchive.open(path);
+
+        double[] hours = archive.getMonthlyHours(2025, HolidayCalendar.NONE);
+
+        assertEquals(24, hours[0], 0);
+        assertEquals(2.5, hours[1], 0);
+        assertEquals(26.5, archive.getYearlyHours(2025, HolidayCalendar.NONE), 0);
+        assertEquals(8, archive.getMonthlyHours(2024, HolidayCalendar.NONE)[11], 0);
+    }
+
+    @Test
+    public void testMonthlyHoursSkipHolidays() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("archive.bin");
+        EntryArchive.write(path, List.of(
+                // Monday to Friday around a holiday on Wednesday, into March
+                createEntry("a", LocalDateTime.of(2025, 2, 24, 9, 0), LocalDateTime.of(2025, 2, 28, 17, 0), true),
+                createEntry("b", LocalDateTime.of(2025, 3, 3, 9, 0), LocalDateTime.of(2025, 3, 4, 17, 0), true),
+                // A day off on the holiday itself
+                createEntry("c", LocalDateTime.of(2025, 7, 4, 9, 0), LocalDateTime.of(2025, 7, 4, 17, 0), true)));
+        EntryArchive archive = EntryArchive.open(path);
+        HolidayCalendar holidays = new HolidayCalendar(List.of(LocalDate.of(2025, 2, 26), LocalDate.of(2025, 3, 4),
+                LocalDate.of(2025, 7, 4)));
+
+        double[] hours = archive.getMonthlyHours(2025, holidays);
+
+        assertEquals(32, hours[1], 0);
+        assertEquals(8, hours[2], 0);
+        assertEquals(0, hours[6], 0);
+        assertEquals(40, archive.getYearlyHours(2025, holidays), 0);
+    }
+
+    @Test
+    public void testRoll() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("archive.bin");
+        PTOStore store = new InMemoryPTOStore();
+        store.updateVacations(List.of(
+                createEntry("old", LocalDateTime.of(2020, 3, 2, 9, 0), LocalDateTime.of(2020, 3, 2, 17, 0), true),
+                createEntry("new", LocalDateTime.of(2025, 3, 3, 9, 0), LocalDateTime.of(2025, 3, 3, 17, 0), true)));
+
+        assertEquals(1, EntryArchive.roll(store, path, LocalDate.of(2024, 1, 1)));
+        assertEquals(0, EntryArchive.roll(store, path, LocalDate.of(2024, 1, 1)));
+
+        assertEquals(1, store.getVacations().size());
+        assertEquals("new", store.getVacations().get(0).getId());
+        assertEquals(1, EntryArchive.open(path).size());
+        assertEquals(8, EntryArchive.open(path).getYearlyHours(2020, HolidayCalendar.NONE), 0);
+    }
+}
@@ -0,0 +1,76 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.calendarfx.model.Entry;
+import com.calendarfx.model.Interval;
+
+/**
+ * Compares cold loading of historical entries from SQLite with loading them
+ * from the memory-mapped entry cache file.
+ *
+ * Run with: java -cp target/classes:target/test-classes:... model.EntryLoadBenchmark [entries]
+ */
+public class EntryLoadBenchmark {
+    public static void main(String[] args) throws IOException {
+        int entryCount = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        Path directory = Files.createTempDirectory("pto-load-benchmark");
+        Path databasePath = directory.resolve("benchmark.db");
+
+        // Store the entries, which also writes the cache file
+        List<Entry<?>> entries = new ArrayList<>(entryCount);
+        LocalDateTime start = LocalDateTime.of(1990, 1, 1, 9, 0);
+        for (int i = 0; i < entryCount; i++) {
+            Interval interval = new Interval(start.plusDays(i), start.plusDays(i).plusHours(8));
+            Entry<?> entry = new Entry<>("Vacation", interval, "entry-" + i);
+            entry.setFullDay(true);
+            entries.add(entry);
+        }
+        PTODatabase database = new PTODatabase(databasePath);
+        database.updateVacations(entries);
+        database.close();
+        Path cachePath;
+        try (var files = Files.list(directory)) {
+            cachePath = files.filter(path -> path.toString().endsWith(".bin")).findFirst().orElseThrow();
+        }
+
+        // Mapping the file and scanning the fixed-width fields touches no strings
+        long begin = System.nanoTime();
+        MappedEntryFile file = MappedEntryFile.open(cachePath);
+        long openNanos = System.nanoTime() - begin;
+        begin = System.nanoTime();
+        long minutes = 0;
+        for (int i = 0; i < file.size(); i++) {
+            minutes += file.getEndMinute(i) - file.getStartMinute(i);
+        }
+        long scanNanos = System.nanoTime() - begin;
+
+        // Loading through the store materializes every entry from the cache
+        database = new PTODatabase(databasePath);
+        begin = System.nanoTime();
+        int cached = database.getVacations().size();
+        long cachedNanos = System.nanoTime() - begin;
+
+        // Without the cache, every row is parsed from SQL
+        Files.delete(cachePath);
+        begin = System.nanoTime();
+        int parsed = database.getVacations().size();
+        long sqlNanos = System.nanoTime() - begin;
+        database.close();
+
+        System.out.printf("%d entries (%d minutes booked)%n", entryCount, minutes);
+        System.out.printf("Mapped open:         %8.2f ms (includes first use of the NIO classes)%n", openNanos / 1e6);
+        System.out.printf("Mapped scan:         %8.2f ms%n", scanNanos / 1e6);
+        System.out.printf("Cache getVacations:  %8.2f ms (%d entries)%n", cachedNanos / 1e6, cached);
+        System.out.printf("SQLite getVacations: %8.2f ms (%d entries)%n", sqlNanos / 1e6, parsed);
+    }
+}
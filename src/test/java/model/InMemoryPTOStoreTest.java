@@ -0,0 +1,67 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.MonthDay;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.calendarfx.model.Entry;
+import com.calendarfx.model.Interval;
+
+import utilities.AccrualPeriod;
+
+public class InMemoryPTOStoreTest {
+    private InMemoryPTOStore store;
+
+    @Before
+    public void setUp() {
+        store = new InMemoryPTOStore();
+    }
+
+    @Test
+    public void testVacationsAreCopied() {
+        Interval interval = new Interval(LocalDateTime.of(2025, 1, 1, 9, 0), LocalDateTime.of(2025, 1, 1, 17, 0));
+        Entry<?> entry = new Entry<>("Test", interval, "id");
+        entry.setFullDay(true);
+        store.updateVacations(List.of(entry));
+
+        // Changing the original entry does not change the stored copy
+        entry.setTitle("Changed");
+
+        List<Entry<?>> vacations = store.getVacations();
+        assertEquals(1, vacations.size());
+        assertNotSame(entry, vacations.get(0));
+        assertEquals("id", vacations.get(0).getId());
+        assertEquals("Test", vacations.get(0).getTitle());
+        assertTrue(vacations.get(0).isFullDay());
+    }
+
+    @Test
+    public void testUserSettings() {
+        assertTrue(store.isFirstTimeUser());
+        assertNull(store.getUserSettings(new UserSettings()));
+
+        UserSettings settings = new UserSettings(2, AccrualPeriod.MONTHLY, 80, 40, MonthDay.of(3, 1), 12);
+        store.updateUserSettings(settings);
+        settings.setCurrentBalance(0);
+
+        UserSettings loaded = new UserSettings();
+        assertEquals(LocalDate.now(), store.getUserSettings(loaded));
+        assertFalse(store.isFirstTimeUser());
+        assert loaded.getCurrentBalance() == 12;
+        assertEquals(MonthDay.of(3, 1), loaded.getExpirationDate());
+    }
+}
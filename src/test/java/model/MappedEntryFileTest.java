@@ -0,0 +1,173 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.calendarfx.model.Entry;
+import com.calendarfx.model.Interval;
+
+public class MappedEntryFileTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("entries.bin");
+        Entry<?> fullDay = new Entry<>("Vacation",
+                new Interval(LocalDateTime.of(2025, 1, 1, 9, 0), LocalDateTime.of(2025, 1, 3, 17, 0)), "a");
+        fullDay.setFullDay(true);
+        Entry<?> precise = new Entry<>("Dentist é",
+                new Interval(LocalDateTime.of(2025, 2, 1, 9, 0, 12, 345), LocalDateTime.of(2025, 2, 1, 11, 30)), "b");
+
+        MappedEntryFile.write(path, List.of(fullDay, precise), 7);
+        MappedEntryFile file = MappedEntryFile.open(path);
+
+        assertEquals(7, file.getDataVersion());
+        assertEquals(2, file.size());
+        assertTrue(file.isFullDay(0));
+        assertFalse(file.isFullDay(1));
+        assertEquals("Vacation", file.getTitle(0));
+        assertEquals("Dentist é", file.getTitle(1));
+        assertEquals("b", file.getId(1));
+        assertEquals(LocalDateTime.of(2025, 1, 3, 17, 0), file.getEnd(0));
+        assertEquals(LocalDateTime.of(2025, 2, 1, 9, 0, 12, 345), file.getStart(1));
+
+        Entry<?> entry = file.getEntries().get(1);
+        assertEquals(precise.getInterval(), entry.getInterval());
+        assertEquals("b", entry.getId());
+    }
+
+    @Test
+    public void testTitlesAreDeduplicated() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("entries.bin");
+        List<Entry<?>> entries = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            LocalDateTime start = LocalDateTime.of(2025, 1, 1, 9, 0).plusDays(i);
+            entries.add(new Entry<>("A long repeated vacation title", new Interval(start, start.plusHours(8)), "" + i));
+        }
+
+        MappedEntryFile.write(path, entries, 1);
+
+        // One title and the short IDs
+        MappedEntryFile file = MappedEntryFile.open(path);
+        assertTrue(file.getPoolSize() < 40 + 100 * 4);
+        assertEquals("A long repeated vacation title", file.getTitle(99));
+    }
+
+    @Test
+    public void testEmptyFile() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("entries.bin");
+        MappedEntryFile.write(path, List.of(), 3);
+
+        MappedEntryFile file = MappedEntryFile.open(path);
+        assertEquals(0, file.size());
+        assertEquals(3, file.getDataVersion());
+        assertThrows(IndexOutOfBoundsException.class, () -> file.getStartMinute(0));
+    }
+
+    @Test
+    public void testInvalidFile() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("entries.bin");
+        Files.write(path, new byte[64]);
+
+        assertThrows(IOException.class, () -> MappedEntryFile.open(path));
+    }
+
+    private static Entry<?> vacation(String id, int day) {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 9, 0).plusDays(day);
+        Entry<?> entry = new Entry<>("Vacation", new Interval(start, start.plusHours(8)), id);
+        entry.setFullDay(true);
+        return entry;
+    }
+
+    private static Map<String, Interval> intervalsById(List<Entry<?>> entries) {
+        Map<String, Interval> intervals = new HashMap<>();
+        for (Entry<?> entry : entries) {
+            intervals.put(entry.getId(), entry.getInterval());
+        }
+        return intervals;
+    }
+
+    @Test
+    public void testUpdatePatchesInPlace() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("entries.bin");
+        List<Entry<?>> entries = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            entries.add(vacation("" + i, i));
+        }
+        MappedEntryFile.write(path, entries, 1);
+        long size = Files.size(path);
+
+        // Move one entry, rename another, remove two and add one
+        entries.set(3, vacation("3", 100));
+        Entry<?> renamed = vacation("4", 4);
+        renamed.setTitle("Trip");
+        entries.set(4, renamed);
+        entries.remove(20);
+        entries.remove(0);
+        entries.add(vacation("new", 60));
+
+        assertFalse(MappedEntryFile.update(path, 2, entries, 3));
+        assertTrue(MappedEntryFile.update(path, 1, entries, 2));
+        MappedEntryFile file = MappedEntryFile.open(path);
+        assertEquals(2, file.getDataVersion());
+        assertEquals(intervalsById(entries), intervalsById(file.getEntries()));
+        for (Entry<?> entry : file.getEntries()) {
+            assertEquals(entry.getId().equals("4") ? "Trip" : "Vacation", entry.getTitle());
+        }
+        // Only the new strings were appended
+        assertTrue(Files.size(path) <= size + 2 + "Trip".length() + 2 + "new".length());
+    }
+
+    @Test
+    public void testAppendUsesSpareSlots() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("entries.bin");
+        MappedEntryFile.write(path, List.of(vacation("a", 0)), 1);
+
+        assertTrue(MappedEntryFile.append(path, 1, List.of(vacation("b", 1), vacation("a", 5)), 2));
+        MappedEntryFile file = MappedEntryFile.open(path);
+        assertEquals(2, file.size());
+        assertEquals(intervalsById(List.of(vacation("a", 5), vacation("b", 1))), intervalsById(file.getEntries()));
+
+        // Without spare slots, the file must be written again
+        List<Entry<?>> many = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            many.add(vacation("many" + i, i));
+        }
+        assertFalse(MappedEntryFile.append(path, 2, many, 3));
+    }
+
+    @Test
+    public void testInvalidatedFileIsNotTrusted() throws IOException {
+        Path path = folder.getRoot().toPath().resolve("entries.bin");
+        MappedEntryFile.write(path, List.of(vacation("a", 0)), 1);
+        MappedEntryFile mapped = MappedEntryFile.open(path);
+
+        // The file can be rewritten and invalidated while it is still mapped
+        MappedEntryFile.write(path, List.of(vacation("a", 0), vacation("b", 1)), 2);
+        assertEquals(2, MappedEntryFile.open(path).size());
+        MappedEntryFile.invalidate(path);
+        assertThrows(IOException.class, () -> MappedEntryFile.open(path));
+        assertFalse(MappedEntryFile.update(path, 2, List.of(), 3));
+        assertEquals(1, mapped.size());
+    }
+}
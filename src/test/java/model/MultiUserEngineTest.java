@@ -0,0 +1,178 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.calendarfx.model.Entry;
+import com.calendarfx.model.Interval;
+
+import utilities.AccrualPeriod;
+import utilities.EntriesHelper;
+import utilities.PTOCalculator;
+
+public class MultiUserEngineTest {
+    private final LocalDate today = LocalDate.now();
+    private MultiUserEngine engine;
+    private UserSettings settings;
+
+    @Before
+    public void setUp() {
+        engine = new MultiUserEngine(4);
+        settings = new UserSettings(1, AccrualPeriod.DAILY, 0, 0, null, 40);
+    }
+
+    private Entry<?> dayOff(String id, int daysFromToday) {
+        // Move weekend days to Monday, since only weekdays use PTO
+        LocalDate date = today.plusDays(daysFromToday);
+        while (date.getDayOfWeek().getValue() >= 6) {
+            date = date.plusDays(1);
+        }
+        Entry<?> entry = new Entry<>("Day off", new Interval(date.atTime(9, 0), date.atTime(17, 0)), id);
+        entry.setFullDay(true);
+        return entry;
+    }
+
+    private double expectedBalance(List<Entry<?>> entries, LocalDate date) {
+        return new PTOCalculator(settings).computeBalanceAtDate(date, EntriesHelper.groupByDate(entries));
+    }
+
+    @Test
+    public void testComputeBalanceAtDate() {
+        List<Entry<?>> entries = List.of(dayOff("a", 5), dayOff("b", 12));
+        engine.updateUserSettings("alice", settings);
+        engine.updateVacations("alice", entries);
+
+        LocalDate date = today.plusDays(20);
+        assertEquals(expectedBalance(entries, date), engine.computeBalanceAtDate("alice", date), 0.001);
+        // The cached balance is the same
+        assertEquals(expectedBalance(entries, date), engine.computeBalanceAtDate("alice", date), 0.001);
+    }
+
+    @Test
+    public void testWritesReplaceCachedBalances() {
+        engine.updateUserSettings("alice", settings);
+        LocalDate date = today.plusDays(20);
+        double before = engine.computeBalanceAtDate("alice", date);
+
+        engine.addVacations("alice", List.of(dayOff("a", 5)));
+        assertEquals(before - 8, engine.computeBalanceAtDate("alice", date), 0.001);
+
+        assertTrue(engine.removeVacation("alice", "a"));
+        assertFalse(engine.removeVacation("alice", "a"));
+        assertEquals(before, engine.computeBalanceAtDate("alice", date), 0.001);
+    }
+
+    @Test
+    public void testUsersAreSeparate() {
+        engine.updateUserSettings("alice", settings);
+        engine.updateUserSettings("bob", settings);
+        engine.addVacations("alice", List.of(dayOff("a", 5)));
+
+        assertEquals(1, engine.getVacations("alice").size());
+        assertEquals(0, engine.getVacations("bob").size());
+        assertEquals(2, engine.getUserCount());
+
+        assertTrue(engine.removeUser("bob"));
+        assertNull(engine.getUserSettings("bob"));
+        assertEquals(1, engine.getUserCount());
+    }
+
+    @Test
+    public void testEntriesAreCopied() {
+        Entry<?> entry = dayOff("a", 5);
+        engine.updateVacations("alice", List.of(entry));
+        entry.setTitle("Changed");
+
+        assertEquals("Day off", engine.getVacations("alice").get(0).getTitle());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownUser() {
+        engine.computeBalanceAtDate("nobody", today);
+    }
+
+    @Test
+    public void testValidateEntry() {
+        engine.updateUserSettings("alice", settings);
+
+        assertTrue(engine.validateEntry("alice", dayOff("a", 1)));
+        Entry<?> longTrip = new Entry<>("Trip", new Interval(today.plusDays(1).atTime(9, 0),
+                today.plusDays(30).atTime(17, 0)));
+        longTrip.setFullDay(true);
+        assertFalse(engine.validateEntry("alice", longTrip));
+    }
+
+    @Test
+    public void testBalanceQueries() {
+        settings.setMaxBalance(60);
+        engine.updateUserSettings("alice", settings);
+        engine.addVacations("alice", List.of(dayOff("a", 5)));
+
+        // Balances past the cached two years are computed directly
+        LocalDate later = today.plusYears(3);
+        assertEquals(expectedBalance(List.of(dayOff("a", 5)), later), engine.computeBalanceAtDate("alice", later),
+                0.001);
+
+        LocalDate date = engine.findFirstDateAtLeast("alice", 50);
+        assertTrue(engine.computeBalanceAtDate("alice", date) >= 50);
+        assertTrue(engine.computeBalanceAtDate("alice", date.minusDays(1)) < 50);
+        assertNull(engine.findFirstDateAtLeast("alice", 61));
+
+        LocalDate capHit = engine.findNextCapHit("alice");
+        assertEquals(60, engine.computeBalanceAtDate("alice", capHit), 0.001);
+        assertTrue(engine.computeBalanceAtDate("alice", capHit.minusDays(1)) < 60);
+    }
+
+    @Test
+    public void testConcurrentReadsAndWrites() throws Exception {
+        for (int user = 0; user < 100; user++) {
+            engine.updateUserSettings("user" + user, settings);
+        }
+        LocalDate date = today.plusDays(60);
+        double withoutEntries = expectedBalance(List.of(), date);
+
+        // Writers toggle one entry per user while readers project balances
+        List<Future<?>> tasks = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int thread = 0; thread < 4; thread++) {
+                int offset = thread;
+                tasks.add(executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        String user = "user" + ((i * 4 + offset) % 100);
+                        engine.addVacations(user, List.of(dayOff("toggle", 3)));
+                        engine.removeVacation(user, "toggle");
+                    }
+                }));
+                tasks.add(executor.submit(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        double balance = engine.computeBalanceAtDate("user" + (i % 100), date);
+                        assertTrue(balance == withoutEntries || balance == withoutEntries - 8);
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        }
+
+        for (int user = 0; user < 100; user++) {
+            assertEquals(withoutEntries, engine.computeBalanceAtDate("user" + user, date), 0.001);
+        }
+    }
+}
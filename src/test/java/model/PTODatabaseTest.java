@@ -0,0 +1,141 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.calendarfx.model.Entry;
+import com.calendarfx.model.Interval;
+
+public class PTODatabaseTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path databasePath;
+
+    @Before
+    public void setUp() {
+        databasePath = folder.getRoot().toPath().resolve("ptoCalculator.db");
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection("jdbc:sqlite:" + databasePath.toAbsolutePath());
+    }
+
+    /**
+     * Creates a database with the tables of the first release, which did not
+     * store a schema version.
+     */
+    private void createBaselineDatabase() throws SQLException {
+        try (Connection connection = connect(); Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE TABLE users (id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT NOT NULL UNIQUE);");
+            stmt.execute("CREATE TABLE userSettings (userId INTEGER PRIMARY KEY NOT NULL,"
+                    + "currentBalance REAL NOT NULL, accrualRate REAL NOT NULL, accrualPeriod INTEGER NOT NULL,"
+                    + "maxBalance REAL, carryOverLimit REAL, expirationDate TEXT, lastUpdate TEXT NOT NULL,"
+                    + "FOREIGN KEY(userId) REFERENCES users(id));");
+            stmt.execute("CREATE TABLE ptoEntries (id TEXT PRIMARY KEY, userId INTEGER NOT NULL,"
+                    + "title TEXT NOT NULL, startDate TEXT NOT NULL, endDate TEXT NOT NULL,"
+                    + "fullDay BOOLEAN NOT NULL, FOREIGN KEY(userId) REFERENCES users(id));");
+            stmt.execute("INSERT INTO users (name) VALUES ('" + System.getProperty("user.name") + "');");
+            stmt.execute("INSERT INTO userSettings VALUES (1, 40, 4, 1, 120, 40, '--01-01', '2024-01-01');");
+            stmt.execute("INSERT INTO ptoEntries VALUES ('a', 1, 'Vacation', '2024-06-03T09:00',"
+                    + " '2024-06-03T17:00', 1);");
+        }
+    }
+
+    private int getSchemaVersion() throws SQLException {
+        try (Connection connection = connect();
+                Statement stmt = connection.createStatement();
+                ResultSet rs = stmt.executeQuery("PRAGMA user_version;")) {
+            return rs.getInt(1);
+        }
+    }
+
+    @Test
+    public void testMigratesBaselineDatabase() throws SQLException {
+        createBaselineDatabase();
+
+        PTODatabase database = new PTODatabase(databasePath);
+        assertFalse(database.isFirstTimeUser());
+        assertEquals(1, database.getVacations().size());
+
+        // The hire date can be saved once the column is added
+        UserSettings settings = new UserSettings();
+        assertEquals(LocalDate.of(2024, 1, 1), database.getUserSettings(settings));
+        settings.setHireDate(LocalDate.of(2019, 5, 20));
+        database.updateUserSettings(settings);
+        database.close();
+        assertEquals(2, getSchemaVersion());
+
+        PTODatabase reopened = new PTODatabase(databasePath);
+        UserSettings reloaded = new UserSettings();
+        reopened.getUserSettings(reloaded);
+        assertEquals(LocalDate.of(2019, 5, 20), reloaded.getHireDate());
+        assertEquals(40, reloaded.getCurrentBalance(), 0.001);
+        reopened.close();
+    }
+
+    @Test
+    public void testCreatesNewDatabase() throws SQLException {
+        PTODatabase database = new PTODatabase(databasePath);
+        assertTrue(database.isFirstTimeUser());
+        Entry<?> entry = new Entry<>("Vacation",
+                new Interval(LocalDateTime.of(2025, 1, 6, 9, 0), LocalDateTime.of(2025, 1, 6, 17, 0)), "a");
+        assertTrue(database.addVacations(List.of(entry)));
+        database.close();
+        assertEquals(2, getSchemaVersion());
+
+        PTODatabase reopened = new PTODatabase(databasePath);
+        assertFalse(reopened.isFirstTimeUser());
+        assertEquals(List.of("a"), reopened.getVacations().stream().map(Entry::getId).toList());
+        reopened.close();
+    }
+
+    @Test
+    public void testCorruptEntryCacheFallsBackToDatabase() throws IOException, SQLException {
+        PTODatabase database = new PTODatabase(databasePath);
+        Entry<?> entry = new Entry<>("Vacation",
+                new Interval(LocalDateTime.of(2025, 1, 6, 9, 0), LocalDateTime.of(2025, 1, 6, 17, 0)), "a");
+        assertTrue(database.addVacations(List.of(entry)));
+        // Loading the entries writes the cache
+        database.getVacations();
+        database.close();
+
+        // Point the title of the first record past the end of the cache, which
+        // its header does not detect
+        Path cachePath = databasePath.resolveSibling(databasePath.getFileName() + ".entries-1.bin");
+        try (FileChannel channel = FileChannel.open(cachePath, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(0, Integer.MAX_VALUE), 48);
+        }
+
+        PTODatabase reopened = new PTODatabase(databasePath);
+        assertEquals(List.of("Vacation"), reopened.getVacations().stream().map(Entry::getTitle).toList());
+        // The cache was rebuilt for the next load
+        assertEquals(List.of("Vacation"), reopened.getVacations().stream().map(Entry::getTitle).toList());
+        reopened.close();
+    }
+}
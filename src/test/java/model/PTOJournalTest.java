@@ -0,0 +1,212 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.MonthDay;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.calendarfx.model.Entry;
+import com.calendarfx.model.Interval;
+
+import utilities.AccrualPeriod;
+
+public class PTOJournalTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path directory;
+    private PTOJournal journal;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = folder.getRoot().toPath();
+        journal = new PTOJournal(directory);
+    }
+
+    private static Entry<?> createEntry(String id, int day) {
+        Interval interval = new Interval(LocalDateTime.of(2025, 1, day, 9, 0), LocalDateTime.of(2025, 1, day, 17, 0));
+        Entry<?> entry = new Entry<>("Vacation", interval, id);
+        entry.setFullDay(true);
+        return entry;
+    }
+
+    private PTOJournal reopen() throws IOException {
+        journal.close();
+        return new PTOJournal(directory);
+    }
+
+    @Test
+    public void testFirstTimeUser() throws IOException {
+        assertTrue(journal.isFirstTimeUser());
+        assertFalse(reopen().isFirstTimeUser());
+    }
+
+    @Test
+    public void testReplayEntries() throws IOException {
+        List<Entry<?>> entries = new ArrayList<>(List.of(createEntry("a", 1), createEntry("b", 2)));
+        journal.updateVacations(entries);
+
+        // Move one entry and delete the other
+        entries.get(0).setInterval(LocalDateTime.of(2025, 1, 6, 9, 0, 30), LocalDateTime.of(2025, 1, 6, 12, 0));
+        entries.get(0).setFullDay(false);
+        entries.remove(1);
+        journal.updateVacations(entries);
+
+        List<Entry<?>> replayed = reopen().getVacations();
+        assertEquals(1, replayed.size());
+        assertEquals("a", replayed.get(0).getId());
+        assertEquals(LocalDateTime.of(2025, 1, 6, 9, 0, 30), replayed.get(0).getStartAsLocalDateTime());
+        assertFalse(replayed.get(0).isFullDay());
+    }
+
+    @Test
+    public void testUnchangedEntriesAppendNothing() throws IOException {
+        List<Entry<?>> entries = List.of(createEntry("a", 1), createEntry("b", 2));
+        journal.updateVacations(entries);
+        long bytesWritten = journal.getBytesWritten();
+
+        journal.updateVacations(entries);
+
+        assertEquals(bytesWritten, journal.getBytesWritten());
+    }
+
+    @Test
+    public void testReplaySettings() throws IOException {
+        assertNull(journal.getUserSettings(new UserSettings()));
+
+        UserSettings settings = new UserSettings(2, AccrualPeriod.MONTHLY, 80, 40, MonthDay.of(3, 1), 12);
+        journal.updateUserSettings(settings);
+
+        UserSettings replayed = new UserSettings();
+        LocalDate lastUpdate = reopen().getUserSettings(replayed);
+        assertEquals(LocalDate.now(), lastUpdate);
+        assertEquals(settings.toString(), replayed.toString());
+    }
+
+    @Test
+    public void testReplayAccrualSchedule() throws IOException {
+        UserSettings settings = new UserSettings(2, AccrualPeriod.MONTHLY, 80, 40, MonthDay.of(3, 1), 12);
+        settings.setHireDate(LocalDate.of(2019, 6, 1));
+        settings.setAccrualRateChanges(List.of(AccrualRateChange.afterServiceYears(5, 3, AccrualPeriod.MONTHLY),
+                AccrualRateChange.onDate(LocalDate.of(2026, 1, 1), 4, AccrualPeriod.WEEKLY)));
+        journal.updateUserSettings(settings);
+
+        UserSettings replayed = new UserSettings();
+        journal = reopen();
+        journal.getUserSettings(replayed);
+        assertEquals(settings.toString(), replayed.toString());
+
+        // The snapshot keeps the schedule as well
+        journal.compact();
+        UserSettings compacted = new UserSettings();
+        reopen().getUserSettings(compacted);
+        assertEquals(settings.toString(), compacted.toString());
+    }
+
+    @Test
+    public void testCompaction() throws IOException {
+        journal.updateVacations(List.of(createEntry("a", 1)));
+        journal.updateUserSettings(new UserSettings(1, AccrualPeriod.DAILY, 0, 0, null, 5));
+        journal.compact();
+
+        String username = System.getProperty("user.name").replaceAll("[^A-Za-z0-9._-]", "_");
+        assertEquals(0, Files.size(directory.resolve(username + ".journal")));
+
+        PTOJournal reopened = reopen();
+        assertEquals(1, reopened.getVacations().size());
+        UserSettings settings = new UserSettings();
+        reopened.getUserSettings(settings);
+        assert settings.getCurrentBalance() == 5;
+    }
+
+    @Test
+    public void testTornRecordIgnored() throws IOException {
+        journal.updateVacations(List.of(createEntry("a", 1)));
+        journal.close();
+
+        // Simulate a crash in the middle of an append
+        String username = System.getProperty("user.name").replaceAll("[^A-Za-z0-9._-]", "_");
+        Files.write(directory.resolve(username + ".journal"), new byte[] { 0, 0, 0, 42, 1, 2 },
+                StandardOpenOption.APPEND);
+
+        journal = new PTOJournal(directory);
+        assertEquals(1, journal.getVacations().size());
+
+        // New events are appended after the last valid record
+        journal.updateVacations(List.of(createEntry("a", 1), createEntry("b", 2)));
+        assertEquals(2, reopen().getVacations().size());
+    }
+
+    @Test
+    public void testFailedUpdateChangesNothing() throws IOException {
+        journal.updateVacations(List.of(createEntry("a", 1)));
+
+        // Appends fail once the journal file is closed
+        journal.close();
+        journal.updateVacations(List.of(createEntry("b", 2)));
+        assertEquals(List.of("a"), journal.getVacations().stream().map(Entry::getId).toList());
+
+        journal = new PTOJournal(directory);
+        assertEquals(List.of("a"), journal.getVacations().stream().map(Entry::getId).toList());
+    }
+
+    @Test
+    public void testFailedSettingsUpdateChangesNothing() throws IOException {
+        journal.updateUserSettings(new UserSettings(2, AccrualPeriod.MONTHLY, 80, 40, null, 12));
+
+        journal.close();
+        UserSettings changed = new UserSettings(4, AccrualPeriod.WEEKLY, 80, 40, null, 20);
+        changed.setHireDate(LocalDate.of(2020, 3, 1));
+        journal.updateUserSettings(changed);
+
+        UserSettings current = new UserSettings();
+        journal.getUserSettings(current);
+        assertEquals(2, current.getAccrualRate(), 0.001);
+        assertNull(current.getHireDate());
+    }
+
+    @Test(expected = IOException.class)
+    public void testUnreadableSnapshotFailsToOpen() throws IOException {
+        journal.close();
+        String username = System.getProperty("user.name").replaceAll("[^A-Za-z0-9._-]", "_");
+        Files.write(directory.resolve(username + ".snapshot"), new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+
+        journal = new PTOJournal(directory);
+    }
+
+    @Test
+    public void testArchiveIsPerUser() throws IOException {
+        String username = System.getProperty("user.name").replaceAll("[^A-Za-z0-9._-]", "_");
+        assertEquals(directory.resolve(username + ".archive"), journal.getArchivePath());
+
+        String previous = System.getProperty("user.name");
+        System.setProperty("user.name", "someone-else");
+        PTOJournal other;
+        try {
+            other = new PTOJournal(directory);
+        } finally {
+            System.setProperty("user.name", previous);
+        }
+        assertFalse(journal.getArchivePath().equals(other.getArchivePath()));
+        other.close();
+    }
+}
@@ -0,0 +1,102 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.calendarfx.model.Entry;
+import com.calendarfx.model.Interval;
+
+/**
+ * Compares the write cost of the storage backends. Every store receives the
+ * same sequence of saves, each of which moves a single entry and then saves
+ * the complete entry list, like the application does after every calendar
+ * change.
+ *
+ * Run with: java -cp target/classes:target/test-classes:... model.StorageWriteBenchmark [entries] [saves]
+ */
+public class StorageWriteBenchmark {
+    public static void main(String[] args) throws IOException {
+        int entryCount = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int saveCount = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        Path directory = Files.createTempDirectory("pto-storage-benchmark");
+
+        System.out.printf("%d entries, %d saves of one moved entry each%n", entryCount, saveCount);
+        measure("SQLite", new PTODatabase(directory.resolve("benchmark.db")), entryCount, saveCount, 2L * entryCount);
+        measure("Journal", new PTOJournal(directory.resolve("journal")), entryCount, saveCount, 1);
+        measure("Memory", new InMemoryPTOStore(), entryCount, saveCount, entryCount);
+    }
+
+    /**
+     * Measures the saves against a single store and prints the results.
+     *
+     * @param name        the name of the store
+     * @param store       the store to measure
+     * @param entryCount  the number of entries to save
+     * @param saveCount   the number of saves
+     * @param rowsPerSave the number of rows (or records) each save writes
+     */
+    private static void measure(String name, PTOStore store, int entryCount, int saveCount, long rowsPerSave) {
+        List<Entry<?>> entries = createEntries(entryCount);
+        store.updateVacations(entries);
+
+        long journalBytesBefore = store instanceof PTOJournal journal ? journal.getBytesWritten() : 0;
+        long bytesBefore = processBytesWritten();
+        long start = System.nanoTime();
+        Random random = new Random(42);
+        for (int i = 0; i < saveCount; i++) {
+            Entry<?> entry = entries.get(random.nextInt(entries.size()));
+            entry.setInterval(entry.getStartAsLocalDateTime().plusDays(1), entry.getEndAsLocalDateTime().plusDays(1));
+            store.updateVacations(entries);
+        }
+        long nanos = System.nanoTime() - start;
+        long bytes = processBytesWritten() - bytesBefore;
+
+        System.out.printf("%-8s %9.3f ms/save, %8d rows written/save, %10s bytes written/save%n",
+                name + ":", nanos / 1e6 / saveCount, rowsPerSave, bytesBefore < 0 ? "n/a" : bytes / saveCount);
+        if (store instanceof PTOJournal journal) {
+            System.out.printf("%-8s %d bytes of journal payload/save%n", "",
+                    (journal.getBytesWritten() - journalBytesBefore) / saveCount);
+        }
+        store.close();
+    }
+
+    private static List<Entry<?>> createEntries(int count) {
+        List<Entry<?>> entries = new ArrayList<>(count);
+        LocalDateTime start = LocalDateTime.of(2020, 1, 1, 9, 0);
+        for (int i = 0; i < count; i++) {
+            Interval interval = new Interval(start.plusDays(i * 3), start.plusDays(i * 3).plusHours(8));
+            Entry<?> entry = new Entry<>("Vacation", interval, "entry-" + i);
+            entry.setFullDay(true);
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    /**
+     * Reads the number of bytes this process has passed to write calls, which
+     * includes the SQLite rollback journal. Only available on Linux.
+     *
+     * @return the number of bytes written, or -1 if unavailable
+     */
+    private static long processBytesWritten() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/io"))) {
+                if (line.startsWith("wchar:")) {
+                    return Long.parseLong(line.substring(6).trim());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Not available on this platform
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,78 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.calendarfx.model.Entry;
+import com.calendarfx.model.Interval;
+
+import utilities.AccrualPeriod;
+
+/**
+ * Measures building a year of team coverage for an organization, and updating
+ * it after a booking.
+ *
+ * Run with: java -cp target/classes:target/test-classes:... model.TeamCoverageBenchmark [users] [rounds]
+ */
+public class TeamCoverageBenchmark {
+    public static void main(String[] args) {
+        int userCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        LocalDate from = LocalDate.now();
+        LocalDate to = from.plusYears(1).minusDays(1);
+
+        // Each user plans about one trip a month over the year
+        Random random = new Random(42);
+        MultiUserEngine engine = new MultiUserEngine();
+        List<String> userIds = new ArrayList<>();
+        for (int user = 0; user < userCount; user++) {
+            String userId = "user" + user;
+            userIds.add(userId);
+            engine.updateUserSettings(userId, new UserSettings(4, AccrualPeriod.WEEKLY, 0, 0, null, 40));
+            List<Entry<?>> entries = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                entries.add(trip(from.plusDays(random.nextInt(365)), 1 + random.nextInt(5), "entry-" + i));
+            }
+            engine.updateVacations(userId, entries);
+        }
+
+        long best = Long.MAX_VALUE;
+        long bestUpdate = Long.MAX_VALUE;
+        int peak = 0;
+        for (int round = 0; round < rounds; round++) {
+            long begin = System.nanoTime();
+            TeamCoverage coverage = engine.computeTeamCoverage(userIds, from, to);
+            TeamCoverage.Coverage result = coverage.getCoverage();
+            best = Math.min(best, System.nanoTime() - begin);
+
+            // Rebook one user and read the coverage again
+            String userId = userIds.get(random.nextInt(userCount));
+            engine.addVacations(userId, List.of(trip(from.plusDays(random.nextInt(365)), 3, "booking")));
+            begin = System.nanoTime();
+            engine.refreshTeamCoverage(coverage, userId);
+            coverage.getCoverage();
+            bestUpdate = Math.min(bestUpdate, System.nanoTime() - begin);
+
+            for (int people : result.peopleOff()) {
+                peak = Math.max(peak, people);
+            }
+        }
+
+        System.out.printf("%d users, %s to %s, at most %d off on one day%n", userCount, from, to, peak);
+        System.out.printf("Build and read:  %8.2f ms (best of %d)%n", best / 1e6, rounds);
+        System.out.printf("Update and read: %8.3f ms (best of %d)%n", bestUpdate / 1e6, rounds);
+    }
+
+    private static Entry<?> trip(LocalDate start, int days, String id) {
+        Entry<?> entry = new Entry<>("Trip", new Interval(start.atTime(9, 0), start.plusDays(days - 1).atTime(17, 0)),
+                id);
+        entry.setFullDay(true);
+        return entry;
+    }
+}
@@ -0,0 +1,157 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+import com.calendarfx.model.Entry;
+import com.calendarfx.model.Interval;
+
+import utilities.AccrualPeriod;
+import utilities.HolidayCalendar;
+
+public class TeamCoverageTest {
+    // A Monday
+    private final LocalDate from = LocalDate.of(2025, 6, 2);
+    private final LocalDate to = from.plusDays(27);
+
+    private Entry<?> trip(String id, LocalDate start, int days) {
+        Entry<?> entry = new Entry<>("Trip", new Interval(start.atTime(9, 0), start.plusDays(days - 1).atTime(17, 0)),
+                id);
+        entry.setFullDay(true);
+        return entry;
+    }
+
+    private TeamCoverage.Absences absences(Entry<?>... entries) {
+        return new TeamCoverage.Absences(HolidayCalendar.NONE, List.of(entries));
+    }
+
+    @Test
+    public void testCountsPeopleAndHours() {
+        TeamCoverage coverage = new TeamCoverage(from, to);
+        // Friday to Monday, over a weekend
+        coverage.updateUser("alice", absences(trip("a", from.plusDays(4), 4)));
+        // An afternoon off on the same Friday
+        Entry<?> afternoon = new Entry<>("Dentist",
+                new Interval(from.plusDays(4).atTime(13, 0), from.plusDays(4).atTime(16, 30)), "b");
+        coverage.updateUser("bob", absences(afternoon));
+
+        TeamCoverage.Coverage result = coverage.getCoverage();
+        assertEquals(0, result.peopleOffAt(from.plusDays(3)));
+        assertEquals(2, result.peopleOffAt(from.plusDays(4)));
+        assertEquals(11.5, result.hoursOffAt(from.plusDays(4)), 0.001);
+        // People are off on the weekend, but use no PTO
+        assertEquals(1, result.peopleOffAt(from.plusDays(5)));
+        assertEquals(0, result.hoursOffAt(from.plusDays(5)), 0.001);
+        assertEquals(8, result.hoursOffAt(from.plusDays(7)), 0.001);
+        assertEquals(0, result.peopleOffAt(from.plusDays(8)));
+    }
+
+    @Test
+    public void testOverlappingEntriesCountOnce() {
+        TeamCoverage coverage = new TeamCoverage(from, to);
+        coverage.updateUser("alice", absences(trip("a", from, 3), trip("b", from.plusDays(2), 2)));
+
+        TeamCoverage.Coverage result = coverage.getCoverage();
+        assertEquals(1, result.peopleOffAt(from.plusDays(2)));
+        assertEquals(1, result.peopleOffAt(from.plusDays(3)));
+        assertEquals(0, result.peopleOffAt(from.plusDays(4)));
+    }
+
+    @Test
+    public void testHolidaysUseNoHours() {
+        TeamCoverage coverage = new TeamCoverage(from, to);
+        coverage.updateUser("alice", new TeamCoverage.Absences(new HolidayCalendar(List.of(from.plusDays(1))),
+                List.of(trip("a", from, 3))));
+
+        TeamCoverage.Coverage result = coverage.getCoverage();
+        assertEquals(1, result.peopleOffAt(from.plusDays(1)));
+        assertEquals(0, result.hoursOffAt(from.plusDays(1)), 0.001);
+        assertEquals(8, result.hoursOffAt(from.plusDays(2)), 0.001);
+    }
+
+    @Test
+    public void testEntriesAreClippedToTheRange() {
+        TeamCoverage coverage = new TeamCoverage(from, to);
+        coverage.updateUser("alice", absences(trip("a", from.minusDays(3), 5), trip("b", to.minusDays(1), 10)));
+
+        TeamCoverage.Coverage result = coverage.getCoverage();
+        assertEquals(1, result.peopleOffAt(from));
+        assertEquals(0, result.peopleOffAt(from.plusDays(2)));
+        assertEquals(1, result.peopleOffAt(to));
+        assertEquals(28, result.peopleOff().length);
+    }
+
+    @Test
+    public void testUpdatesMatchRebuild() {
+        Random random = new Random(42);
+        List<List<Entry<?>>> plans = new ArrayList<>();
+        for (int user = 0; user < 50; user++) {
+            List<Entry<?>> plan = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                plan.add(trip("u" + user + "-" + i, from.plusDays(random.nextInt(28)), 1 + random.nextInt(5)));
+            }
+            plans.add(plan);
+        }
+
+        TeamCoverage incremental = new TeamCoverage(from, to);
+        for (int user = 0; user < plans.size(); user++) {
+            incremental.updateUser("user" + user, new TeamCoverage.Absences(HolidayCalendar.NONE, plans.get(user)));
+        }
+        // Rebook some trips and remove a user
+        for (int user = 0; user < 10; user++) {
+            plans.get(user).set(0, trip("moved" + user, from.plusDays(random.nextInt(28)), 2));
+            incremental.updateUser("user" + user, new TeamCoverage.Absences(HolidayCalendar.NONE, plans.get(user)));
+        }
+        assertTrue(incremental.removeUser("user49"));
+        assertFalse(incremental.removeUser("user49"));
+
+        TeamCoverage rebuilt = new TeamCoverage(from, to);
+        rebuilt.updateUsers(IntStream.range(0, 49).mapToObj(user -> "user" + user).toList(),
+                userId -> new TeamCoverage.Absences(HolidayCalendar.NONE,
+                        plans.get(Integer.parseInt(userId.substring(4)))));
+
+        assertEquals(49, incremental.getUserCount());
+        assertArrayEquals(rebuilt.getCoverage().peopleOff(), incremental.getCoverage().peopleOff());
+        assertArrayEquals(rebuilt.getCoverage().hoursOff(), incremental.getCoverage().hoursOff(), 0.001);
+    }
+
+    @Test
+    public void testEngineCoverage() {
+        MultiUserEngine engine = new MultiUserEngine(4);
+        UserSettings settings = new UserSettings(1, AccrualPeriod.DAILY, 0, 0, null, 40);
+        engine.updateUserSettings("alice", settings);
+        engine.updateUserSettings("bob", settings);
+        engine.addVacations("alice", List.of(trip("a", from, 2)));
+
+        TeamCoverage coverage = engine.computeTeamCoverage(List.of("alice", "bob"), from, to);
+        assertEquals(1, coverage.getCoverage().peopleOffAt(from));
+
+        engine.addVacations("bob", List.of(trip("b", from, 1)));
+        engine.refreshTeamCoverage(coverage, "bob");
+        assertEquals(2, coverage.getCoverage().peopleOffAt(from));
+
+        engine.removeUser("alice");
+        engine.refreshTeamCoverage(coverage, "alice");
+        assertEquals(1, coverage.getCoverage().peopleOffAt(from));
+        assertEquals(0, coverage.getCoverage().peopleOffAt(from.plusDays(1)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDateOutOfRange() {
+        new TeamCoverage(from, to).getCoverage().peopleOffAt(to.plusDays(1));
+    }
+}
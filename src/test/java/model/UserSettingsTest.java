@@ -8,6 +8,7 @@ import static org.junit.Assert.assertThrows;
 
 import java.time.LocalDate;
 import java.time.MonthDay;
+import java.util.List;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -49,6 +50,18 @@ public class UserSettingsTest {
         assert settings.getCurrentBalance() == 5.0;
     }
 
+    @Test
+    public void testCopyFrom() {
+        MonthDay expiration = MonthDay.of(1, 1);
+        settings.copyFrom(new UserSettings(20.0, AccrualPeriod.MONTHLY, 40.0, 10.0, expiration, 5.0));
+        assert settings.getAccrualRate() == 20.0;
+        assert settings.getAccrualPeriod() == AccrualPeriod.MONTHLY;
+        assert settings.getMaxBalance() == 40.0;
+        assert settings.getCarryOverLimit() == 10.0;
+        assert settings.getExpirationDate().equals(expiration);
+        assert settings.getCurrentBalance() == 5.0;
+    }
+
     @Test
     public void testSetAndGetAccrualRate() {
         settings.setAccrualRate(3.0);
@@ -141,4 +154,33 @@ public class UserSettingsTest {
         assert str.contains("carryOverLimit=5.0");
         assert str.contains("expirationDate=--07-15");
     }
+
+    @Test
+    public void testAccrualScheduleFollowsChanges() {
+        settings.setAccrualRate(1);
+        settings.setAccrualPeriod(AccrualPeriod.DAILY);
+        LocalDate date = LocalDate.of(2025, 1, 1);
+        assert settings.getAccrualSchedule().getDailyRate(date) == 1;
+
+        settings.setAccrualRateChanges(List.of(AccrualRateChange.onDate(date, 3, AccrualPeriod.DAILY)));
+        assert settings.getAccrualSchedule().getDailyRate(date) == 3;
+        assert settings.getAccrualSchedule().getDailyRate(date.minusDays(1)) == 1;
+
+        settings.setAccrualRate(2);
+        assert settings.getAccrualSchedule().getDailyRate(date.minusDays(1)) == 2;
+    }
+
+    @Test
+    public void testCopyIncludesAccrualSchedule() {
+        settings.setHireDate(LocalDate.of(2020, 1, 1));
+        settings.setAccrualRateChanges(List.of(AccrualRateChange.afterServiceYears(5, 2, AccrualPeriod.DAILY)));
+
+        UserSettings copy = new UserSettings(settings);
+        UserSettings copied = new UserSettings();
+        copied.copyFrom(settings);
+
+        assert copy.getHireDate().equals(settings.getHireDate());
+        assert copy.getAccrualRateChanges().equals(settings.getAccrualRateChanges());
+        assert copied.getAccrualRateChanges().equals(settings.getAccrualRateChanges());
+    }
 }
@@ -0,0 +1,298 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import com.calendarfx.model.Entry;
+import com.calendarfx.model.Interval;
+
+import model.InMemoryPTOStore;
+import model.MultiUserEngine;
+import model.UserSettings;
+import utilities.AccrualPeriod;
+import utilities.Metrics;
+
+/**
+ * Measures the capacity of the balance calculations as a shared service.
+ * Synthetic users get accrual settings and a year of planned time off drawn
+ * from typical distributions: mostly single days, some long weekends and a
+ * few full weeks. Worker threads then run a mix of projections, validations
+ * and bookings for random users, either in process against a
+ * {@link MultiUserEngine} or over localhost HTTP against a
+ * {@link BalanceServer}, and the throughput, latency percentiles and
+ * allocated bytes per operation are printed.
+ *
+ * The HTTP server serves a single user and has no booking endpoint, so in
+ * {@code http} mode bookings are sent as validations.
+ *
+ * Run with: java -cp target/classes:target/test-classes:... server.BalanceLoadGenerator [engine|http] [users]
+ * [threads] [seconds] [projections,validations,bookings]
+ */
+public class BalanceLoadGenerator {
+    private enum Operation {
+        PROJECTION, VALIDATION, BOOKING
+    }
+
+    /**
+     * Runs one operation against the system under test.
+     */
+    private interface Target {
+        void run(Operation operation, int user, Random random);
+    }
+
+    private static final LocalDate TODAY = LocalDate.now();
+    private static final AtomicLong bookingIds = new AtomicLong();
+
+    public static void main(String[] args) throws Exception {
+        String mode = args.length > 0 ? args[0] : "engine";
+        int userCount = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        String[] mixArgs = (args.length > 4 ? args[4] : "70,20,10").split(",");
+        int[] mix = new int[Operation.values().length];
+        for (int i = 0; i < mix.length; i++) {
+            mix[i] = Integer.parseInt(mixArgs[i].trim()) + (i > 0 ? mix[i - 1] : 0);
+        }
+
+        Random random = new Random(42);
+        BalanceServer server = null;
+        Target target;
+        if (mode.equals("http")) {
+            InMemoryPTOStore store = new InMemoryPTOStore();
+            store.updateUserSettings(createSettings(random));
+            store.updateVacations(createEntries(random));
+            server = new BalanceServer(store, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 50);
+            server.start(0);
+            userCount = 1;
+            target = httpTarget(server.getAddress());
+        } else {
+            MultiUserEngine engine = new MultiUserEngine();
+            for (int user = 0; user < userCount; user++) {
+                engine.updateUserSettings("user" + user, createSettings(random));
+                engine.updateVacations("user" + user, createEntries(random));
+            }
+            target = engineTarget(engine);
+        }
+
+        System.out.printf("Mode %s, %d users, %d threads, %d s, mix %s%n", mode, userCount, threads, seconds,
+                String.join("/", mixArgs));
+
+        // Warm up, then measure the allocation of each operation on its own
+        run(target, userCount, threads, Math.max(1, seconds / 4), mix);
+        long[] bytesPerOperation = new long[Operation.values().length];
+        for (Operation operation : Operation.values()) {
+            bytesPerOperation[operation.ordinal()] = measureAllocation(target, userCount, operation);
+        }
+
+        // Measure the mix
+        Result result = run(target, userCount, threads, seconds, mix);
+        System.out.printf("%-12s %10s %10s %9s %9s %9s %9s %9s %10s%n", "operation", "count", "ops/s", "p50 ms",
+                "p90 ms", "p99 ms", "p99.9 ms", "max ms", "bytes/op");
+        long total = 0;
+        for (Operation operation : Operation.values()) {
+            Metrics.Timer timer = result.timers()[operation.ordinal()];
+            total += timer.getCount();
+            System.out.printf("%-12s %10d %10.0f %9.3f %9.3f %9.3f %9.3f %9.3f %10d%n",
+                    operation.name().toLowerCase(), timer.getCount(), timer.getCount() / result.seconds(),
+                    timer.getPercentileNanos(50) / 1e6, timer.getPercentileNanos(90) / 1e6,
+                    timer.getPercentileNanos(99) / 1e6, timer.getPercentileNanos(99.9) / 1e6,
+                    timer.getMaxMillis(), bytesPerOperation[operation.ordinal()]);
+        }
+        System.out.printf("%-12s %10d %10.0f%n", "total", total, total / result.seconds());
+        if (result.allocatedBytes() >= 0) {
+            System.out.printf("Allocated %.1f MB/s, %d bytes/op%n", result.allocatedBytes() / result.seconds() / 1e6,
+                    result.allocatedBytes() / Math.max(1, total));
+        }
+
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    /**
+     * Latencies and allocation of a run.
+     */
+    private record Result(Metrics.Timer[] timers, double seconds, long allocatedBytes) {
+    }
+
+    /**
+     * Runs the mix on worker threads for a number of seconds.
+     */
+    private static Result run(Target target, int userCount, int threads, int seconds, int[] mix) throws Exception {
+        Metrics.Timer[] timers = new Metrics.Timer[Operation.values().length];
+        for (int i = 0; i < timers.length; i++) {
+            timers[i] = new Metrics.Timer();
+        }
+        AtomicLong allocatedBytes = new AtomicLong();
+        long start = System.nanoTime();
+        long deadline = start + seconds * 1_000_000_000L;
+
+        List<Future<?>> workers = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int i = 0; i < threads; i++) {
+                workers.add(executor.submit(() -> {
+                    Random random = ThreadLocalRandom.current();
+                    long bytesBefore = currentThreadAllocatedBytes();
+                    while (System.nanoTime() < deadline) {
+                        int pick = random.nextInt(mix[mix.length - 1]);
+                        Operation operation = Operation.values()[pick < mix[0] ? 0 : pick < mix[1] ? 1 : 2];
+                        long operationStart = System.nanoTime();
+                        target.run(operation, random.nextInt(userCount), random);
+                        timers[operation.ordinal()].record(System.nanoTime() - operationStart);
+                    }
+                    long bytesAfter = currentThreadAllocatedBytes();
+                    allocatedBytes.addAndGet(bytesBefore < 0 || bytesAfter < 0 ? -1 : bytesAfter - bytesBefore);
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+        return new Result(timers, (System.nanoTime() - start) / 1e9, allocatedBytes.get());
+    }
+
+    /**
+     * Measures the bytes allocated by one kind of operation on the current
+     * thread.
+     *
+     * @return the average allocated bytes, or -1 if unavailable
+     */
+    private static long measureAllocation(Target target, int userCount, Operation operation) {
+        Random random = new Random(7);
+        int count = 2_000;
+        long before = currentThreadAllocatedBytes();
+        for (int i = 0; i < count; i++) {
+            target.run(operation, random.nextInt(userCount), random);
+        }
+        long after = currentThreadAllocatedBytes();
+        return before < 0 || after < 0 ? -1 : (after - before) / count;
+    }
+
+    /**
+     * Reads the bytes allocated by the current thread from the threading MBean.
+     *
+     * @return the allocated bytes, or -1 if unsupported
+     */
+    private static long currentThreadAllocatedBytes() {
+        try {
+            return (Long) ManagementFactory.getPlatformMBeanServer()
+                    .getAttribute(new ObjectName(ManagementFactory.THREAD_MXBEAN_NAME), "CurrentThreadAllocatedBytes");
+        } catch (JMException | ClassCastException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Runs the operations against an engine, with a user per ID.
+     */
+    private static Target engineTarget(MultiUserEngine engine) {
+        return (operation, user, random) -> {
+            String userId = "user" + user;
+            switch (operation) {
+                case PROJECTION -> engine.computeBalanceAtDate(userId, TODAY.plusDays(random.nextInt(365)));
+                case VALIDATION -> engine.validateEntry(userId, createTrip(random, "candidate"));
+                case BOOKING -> {
+                    // Book a trip if it fits, then cancel it, so the plan keeps its size
+                    Entry<?> trip = createTrip(random, "booking-" + bookingIds.incrementAndGet());
+                    if (engine.validateEntry(userId, trip)) {
+                        engine.addVacations(userId, List.of(trip));
+                        engine.removeVacation(userId, trip.getId());
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Sends the operations to a balance server.
+     */
+    private static Target httpTarget(InetSocketAddress address) {
+        String base = "http://" + address.getHostString() + ":" + address.getPort();
+        return (operation, user, random) -> {
+            try {
+                HttpURLConnection connection;
+                if (operation == Operation.PROJECTION) {
+                    connection = (HttpURLConnection) URI
+                            .create(base + "/balance?date=" + TODAY.plusDays(random.nextInt(365))).toURL()
+                            .openConnection();
+                } else {
+                    Entry<?> trip = createTrip(random, "candidate");
+                    connection = (HttpURLConnection) URI.create(base + "/validate").toURL().openConnection();
+                    connection.setRequestMethod("POST");
+                    connection.setDoOutput(true);
+                    try (OutputStream output = connection.getOutputStream()) {
+                        output.write(("title,start,end\nTrip," + trip.getStartDate() + "," + trip.getEndDate() + "\n")
+                                .getBytes(StandardCharsets.UTF_8));
+                    }
+                }
+                // Read the whole response so the connection is kept alive
+                try (InputStream input = connection.getInputStream()) {
+                    input.readAllBytes();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    /**
+     * Creates settings with a weekly or monthly accrual and a starting balance
+     * of up to a week.
+     */
+    private static UserSettings createSettings(Random random) {
+        boolean weekly = random.nextInt(3) > 0;
+        double rate = weekly ? 3 + random.nextInt(4) : 8 + random.nextInt(9);
+        return new UserSettings(rate, weekly ? AccrualPeriod.WEEKLY : AccrualPeriod.MONTHLY,
+                random.nextInt(4) == 0 ? 240 : 0, 0, null, random.nextInt(41));
+    }
+
+    /**
+     * Creates a year of planned time off, about one trip a month.
+     */
+    private static List<Entry<?>> createEntries(Random random) {
+        List<Entry<?>> entries = new ArrayList<>();
+        int trips = 6 + random.nextInt(13);
+        for (int i = 0; i < trips; i++) {
+            entries.add(createTrip(random, "entry-" + i));
+        }
+        return entries;
+    }
+
+    /**
+     * Creates a full day trip in the next year: 60% single days, 30% long
+     * weekends and 10% full weeks.
+     */
+    private static Entry<?> createTrip(Random random, String id) {
+        int kind = random.nextInt(10);
+        int days = kind < 6 ? 1 : kind < 9 ? 3 : 5;
+        LocalDate start = TODAY.plusDays(1 + random.nextInt(365));
+        Entry<?> entry = new Entry<>("Trip", new Interval(start.atTime(9, 0), start.plusDays(days - 1).atTime(17, 0)),
+                id);
+        entry.setFullDay(true);
+        return entry;
+    }
+}
@@ -0,0 +1,231 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.calendarfx.model.Entry;
+import com.calendarfx.model.Interval;
+
+import model.InMemoryPTOStore;
+import model.UserSettings;
+import utilities.AccrualPeriod;
+import utilities.EntriesHelper;
+import utilities.PTOCalculator;
+
+public class BalanceServerTest {
+    private final LocalDate today = LocalDate.now();
+    private InMemoryPTOStore store;
+    private BalanceServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        store = new InMemoryPTOStore();
+        store.updateUserSettings(new UserSettings(1, AccrualPeriod.DAILY, 0, 0, null, 40));
+        Entry<?> entry = new Entry<>("Trip", new Interval(today.plusDays(10).atTime(9, 0),
+                today.plusDays(10).atTime(17, 0)));
+        entry.setFullDay(true);
+        store.updateVacations(List.of(entry));
+
+        server = new BalanceServer(store, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 50);
+        server.start(0);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testBalance() throws Exception {
+        LocalDate date = today.plusDays(30);
+        PTOCalculator calculator = new PTOCalculator(new UserSettings(1, AccrualPeriod.DAILY, 0, 0, null, 40));
+        double expected = calculator.computeBalanceAtDate(date, EntriesHelper.groupByDate(store.getVacations()));
+
+        Response response = get("/balance?date=" + date);
+
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"balances\":[{\"date\":\"" + date + "\",\"balance\":"
+                + String.format(Locale.ROOT, "%.2f", expected) + "}]}", response.body());
+    }
+
+    @Test
+    public void testBalances() throws Exception {
+        Response response = get("/balance?date=" + today.plusDays(30) + "&date=" + today.plusDays(5));
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().indexOf(today.plusDays(5).toString()) < response.body()
+                .indexOf(today.plusDays(30).toString()));
+    }
+
+    @Test
+    public void testBalanceErrors() throws Exception {
+        assertEquals(400, get("/balance").statusCode());
+        assertEquals(400, get("/balance?date=tomorrow").statusCode());
+        assertEquals(405, post("/balance", "").statusCode());
+    }
+
+    @Test
+    public void testValidate() throws Exception {
+        String csv = "title,start,end\n"
+                + "Overlap," + today.plusDays(10) + "," + today.plusDays(11) + "\n"
+                + "Short," + today.plusDays(2) + "," + today.plusDays(2) + "\n"
+                + "Long," + today.plusDays(20) + "," + today.plusDays(40) + "\n";
+
+        Response response = post("/validate", csv);
+
+        assertEquals(200, response.statusCode());
+        String body = response.body();
+        assertTrue(body, body.contains("\"title\":\"Overlap\",\"start\":\"" + today.plusDays(10)
+                + "T09:00\",\"end\":\"" + today.plusDays(11) + "T17:00\",\"valid\":false,\"problem\":\"Overlaps"));
+        assertTrue(body, body.contains("\"title\":\"Short\",\"start\":\"" + today.plusDays(2)
+                + "T09:00\",\"end\":\"" + today.plusDays(2) + "T17:00\",\"valid\":true}"));
+        assertTrue(body, body.contains("\"valid\":false,\"problem\":\"Not enough balance\"}]}"));
+    }
+
+    @Test
+    public void testValidateAgainstLaterEntries() throws Exception {
+        // Without accrual, the balance covers exactly a week off the Monday
+        // after next
+        LocalDate monday = today.with(TemporalAdjusters.next(DayOfWeek.MONDAY)).plusWeeks(1);
+        store.updateUserSettings(new UserSettings(0, AccrualPeriod.DAILY, 0, 0, null, 40));
+        Entry<?> later = new Entry<>("Later", new Interval(monday.plusDays(7).atTime(9, 0),
+                monday.plusDays(7).atTime(17, 0)));
+        later.setFullDay(true);
+        store.updateVacations(List.of(later));
+        restartServer();
+
+        String csv = "title,start,end\n"
+                + "First," + monday + "," + monday.plusDays(2) + "\n"
+                + "Second," + monday.plusDays(3) + "," + monday.plusDays(4) + "\n"
+                + "Third," + monday.plusDays(14) + "," + monday.plusDays(14) + "\n";
+
+        String body = post("/validate", csv).body();
+        String problem = "\"valid\":false,\"problem\":\"Leaves too little balance for \\\"Later\\\" on "
+                + monday.plusDays(7) + "\"}";
+        assertTrue(body, body.contains("\"title\":\"First\",\"start\":\"" + monday + "T09:00\",\"end\":\""
+                + monday.plusDays(2) + "T17:00\"," + problem));
+        assertTrue(body, body.contains("\"title\":\"Second\",\"start\":\"" + monday.plusDays(3)
+                + "T09:00\",\"end\":\"" + monday.plusDays(4) + "T17:00\"," + problem));
+        // The saved entry and the other candidates leave nothing for the last one
+        assertTrue(body, body.contains("\"title\":\"Third\",\"start\":\"" + monday.plusDays(14)
+                + "T09:00\",\"end\":\"" + monday.plusDays(14) + "T17:00\",\"valid\":false,"
+                + "\"problem\":\"Not enough balance\"}"));
+    }
+
+    @Test
+    public void testValidateAfterMultiDayEntry() throws Exception {
+        // A saved week off leaves exactly one day of balance
+        LocalDate monday = today.with(TemporalAdjusters.next(DayOfWeek.MONDAY)).plusWeeks(1);
+        store.updateUserSettings(new UserSettings(0, AccrualPeriod.DAILY, 0, 0, null, 48));
+        Entry<?> week = new Entry<>("Week", new Interval(monday.atTime(9, 0), monday.plusDays(4).atTime(17, 0)));
+        week.setFullDay(true);
+        store.updateVacations(List.of(week));
+        restartServer();
+
+        String body = post("/validate", "title,start,end\nDay," + monday.plusDays(7) + "," + monday.plusDays(7))
+                .body();
+        assertTrue(body, body.contains("\"title\":\"Day\",\"start\":\"" + monday.plusDays(7) + "T09:00\",\"end\":\""
+                + monday.plusDays(7) + "T17:00\",\"valid\":true}"));
+    }
+
+    @Test
+    public void testValidateOverlappingCandidates() throws Exception {
+        LocalDate date = today.plusDays(30);
+        String csv = "title,start,end\n"
+                + "First," + date + "," + date.plusDays(1) + "\n"
+                + "Second," + date.plusDays(1) + "," + date.plusDays(1) + "\n";
+
+        String body = post("/validate", csv).body();
+        assertTrue(body, body.contains("\"title\":\"First\",\"start\":\"" + date + "T09:00\",\"end\":\""
+                + date.plusDays(1) + "T17:00\",\"valid\":false,\"problem\":\"Overlaps \\\"Second\\\" on "
+                + date.plusDays(1) + "\"}"));
+        assertTrue(body, body.contains("\"title\":\"Second\",\"start\":\"" + date.plusDays(1)
+                + "T09:00\",\"end\":\"" + date.plusDays(1) + "T17:00\",\"valid\":false,\"problem\":\"Overlaps "
+                + "\\\"First\\\" on " + date + "\"}"));
+    }
+
+    @Test
+    public void testConcurrentRequests() throws Exception {
+        List<Future<Response>> responses = new ArrayList<>();
+        try (ExecutorService clients = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 500; i++) {
+                String path = "/balance?date=" + today.plusDays(i % 365);
+                responses.add(clients.submit(() -> get(path)));
+            }
+            for (Future<Response> response : responses) {
+                assertEquals(200, response.get().statusCode());
+            }
+        }
+
+        String stats = get("/stats").body();
+        assertTrue(stats, stats.startsWith("{\"requests\":500,"));
+    }
+
+    @Test
+    public void testQuote() {
+        assertEquals("\"a \\\"b\\\"\\n\\\\\"", BalanceServer.quote("a \"b\"\n\\"));
+    }
+
+    /**
+     * Restarts the server so it loads the entries saved in the store.
+     */
+    private void restartServer() throws IOException {
+        server.stop();
+        server = new BalanceServer(store, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 50);
+        server.start(0);
+    }
+
+    private record Response(int statusCode, String body) {
+    }
+
+    private Response get(String path) throws IOException {
+        return send("GET", path, null);
+    }
+
+    private Response post(String path, String body) throws IOException {
+        return send("POST", path, body);
+    }
+
+    private Response send(String method, String path, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) URI.create("http://"
+                + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + path).toURL()
+                .openConnection();
+        connection.setRequestMethod(method);
+        if (body != null) {
+            connection.setDoOutput(true);
+            try (OutputStream output = connection.getOutputStream()) {
+                output.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int status = connection.getResponseCode();
+        try (InputStream input = status == 200 ? connection.getInputStream() : connection.getErrorStream()) {
+            return new Response(status, new String(input.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package utilities;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import model.AccrualRateChange;
+
+public class AccrualScheduleTest {
+    private final LocalDate hireDate = LocalDate.of(2020, 3, 15);
+
+    @Test
+    public void testWithoutChanges() {
+        AccrualSchedule schedule = new AccrualSchedule(14, AccrualPeriod.WEEKLY, null, List.of());
+
+        assertEquals(1, schedule.getSegmentCount());
+        assertEquals(360, schedule.accrualBetween(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 6, 30)), 0);
+        assertEquals(-2, schedule.accrualBetween(LocalDate.of(2025, 1, 2), LocalDate.of(2025, 1, 1)), 0);
+    }
+
+    @Test
+    public void testSeniorityTiers() {
+        AccrualSchedule schedule = new AccrualSchedule(1, AccrualPeriod.DAILY, hireDate, List.of(
+                AccrualRateChange.afterServiceYears(3, 2, AccrualPeriod.DAILY),
+                AccrualRateChange.afterServiceYears(5, 3, AccrualPeriod.DAILY)));
+        LocalDate threeYears = hireDate.plusYears(3);
+
+        assertEquals(3, schedule.getSegmentCount());
+        assertEquals(1, schedule.getDailyRate(threeYears.minusDays(1)), 0);
+        assertEquals(2, schedule.getDailyRate(threeYears), 0);
+        // Ten days before the tier at 1 hour, then ten days at 2 hours
+        assertEquals(30, schedule.accrualBetween(threeYears.minusDays(10), threeYears.plusDays(10)), 0.000001);
+    }
+
+    @Test
+    public void testSeniorityTiersNeedHireDate() {
+        AccrualSchedule schedule = new AccrualSchedule(1, AccrualPeriod.DAILY, null, List.of(
+                AccrualRateChange.afterServiceYears(3, 2, AccrualPeriod.DAILY)));
+
+        assertEquals(1, schedule.getSegmentCount());
+    }
+
+    @Test
+    public void testLastChangeOfDateWins() {
+        LocalDate date = LocalDate.of(2025, 1, 1);
+        AccrualSchedule schedule = new AccrualSchedule(1, AccrualPeriod.DAILY, null, List.of(
+                AccrualRateChange.onDate(date, 5, AccrualPeriod.DAILY),
+                AccrualRateChange.onDate(date, 7, AccrualPeriod.DAILY)));
+
+        assertEquals(7, schedule.getDailyRate(date), 0);
+        assertEquals(71, schedule.accrualBetween(date.minusDays(1), date.plusDays(10)), 0.000001);
+    }
+
+    @Test
+    public void testMatchesDailyWalk() {
+        // Random dated changes and tiers, compared with adding up each day's rate
+        Random random = new Random(12);
+        AccrualPeriod[] periods = AccrualPeriod.values();
+        List<AccrualRateChange> changes = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            AccrualPeriod period = periods[random.nextInt(periods.length)];
+            changes.add(i % 4 == 0
+                    ? AccrualRateChange.afterServiceYears(1 + random.nextInt(10), random.nextInt(40), period)
+                    : AccrualRateChange.onDate(hireDate.plusDays(random.nextInt(4000)), random.nextInt(40), period));
+        }
+        AccrualSchedule schedule = new AccrualSchedule(4, AccrualPeriod.WEEKLY, hireDate, changes);
+
+        for (int i = 0; i < 200; i++) {
+            LocalDate from = hireDate.plusDays(random.nextInt(4400) - 200);
+            LocalDate to = from.plusDays(random.nextInt(800));
+            double expected = 0;
+            for (LocalDate date = from; date.isBefore(to); date = date.plusDays(1)) {
+                expected += schedule.getDailyRate(date);
+            }
+            assertEquals(from + " to " + to, expected, schedule.accrualBetween(from, to), 0.000001);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testChangeNeedsDateOrServiceYears() {
+        new AccrualRateChange(null, 0, 1, AccrualPeriod.DAILY);
+    }
+}
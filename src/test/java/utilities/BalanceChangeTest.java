@@ -0,0 +1,79 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package utilities;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.calendarfx.model.Entry;
+import com.calendarfx.model.Interval;
+
+import model.UserSettings;
+
+public class BalanceChangeTest {
+    private final LocalDate from = LocalDate.of(2030, 1, 1);
+
+    @Test
+    public void testBalanceAt() {
+        BalanceChange change = new BalanceChange(from, new double[] { 1, 2, 3 });
+
+        assertEquals(from.plusDays(2), change.to());
+        assertTrue(change.covers(from.plusDays(2)));
+        assertFalse(change.covers(from.minusDays(1)));
+        assertFalse(change.covers(from.plusDays(3)));
+        assertEquals(2, change.balanceAt(from.plusDays(1)), 0.001);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBalanceAtOutsideRange() {
+        new BalanceChange(from, new double[] { 1 }).balanceAt(from.plusDays(1));
+    }
+
+    @Test
+    public void testMergedWithOverlappingChange() {
+        BalanceChange older = new BalanceChange(from, new double[] { 1, 2, 3 });
+        BalanceChange newer = new BalanceChange(from.plusDays(1), new double[] { 20, 30, 40 });
+
+        BalanceChange merged = older.mergedWith(newer);
+
+        assertEquals(from, merged.from());
+        assertArrayEquals(new double[] { 1, 20, 30, 40 }, merged.balances(), 0.001);
+    }
+
+    @Test
+    public void testMergedWithSeparateChange() {
+        BalanceChange older = new BalanceChange(from.plusDays(3), new double[] { 4 });
+        BalanceChange newer = new BalanceChange(from, new double[] { 1 });
+
+        BalanceChange merged = older.mergedWith(newer);
+
+        assertEquals(from, merged.from());
+        assertArrayEquals(new double[] { 1, Double.NaN, Double.NaN, 4 }, merged.balances(), 0.001);
+    }
+
+    @Test
+    public void testProject() {
+        LocalDate today = LocalDate.now();
+        PTOCalculator calculator = new PTOCalculator(new UserSettings(1, AccrualPeriod.DAILY, 0, 0, null, 40));
+        Entry<?> entry = new Entry<>("Trip", new Interval(today.plusDays(3).atTime(9, 0),
+                today.plusDays(4).atTime(17, 0)));
+        entry.setFullDay(true);
+        var entries = EntriesHelper.groupByDate(List.of(entry));
+
+        BalanceChange change = BalanceChange.project(calculator, entries, today.plusDays(2), today.plusDays(9));
+
+        assertEquals(8, change.balances().length);
+        for (LocalDate date = change.from(); !date.isAfter(change.to()); date = date.plusDays(1)) {
+            assertEquals(calculator.computeBalanceAtDate(date, entries), change.balanceAt(date), 0.001);
+        }
+    }
+}
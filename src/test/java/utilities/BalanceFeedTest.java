@@ -0,0 +1,185 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package utilities;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class BalanceFeedTest {
+    private final LocalDate from = LocalDate.of(2030, 1, 1);
+    private BalanceFeed feed;
+
+    /**
+     * Subscriber that records its signals and requests changes on demand.
+     */
+    private static class RecordingSubscriber implements Flow.Subscriber<BalanceChange> {
+        private final List<BalanceChange> changes = new ArrayList<>();
+        private Flow.Subscription subscription;
+        private Throwable error;
+        private boolean completed;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(BalanceChange change) {
+            changes.add(change);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+
+    @Before
+    public void setUp() {
+        // Signal subscribers on the publishing thread
+        feed = new BalanceFeed(Runnable::run);
+    }
+
+    private BalanceChange change(int day, double... balances) {
+        return new BalanceChange(from.plusDays(day), balances);
+    }
+
+    @Test
+    public void testChangesWaitForDemand() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        feed.subscribe(subscriber);
+
+        feed.submit(change(0, 1, 2));
+        assertEquals(0, subscriber.changes.size());
+
+        subscriber.subscription.request(1);
+        assertEquals(1, subscriber.changes.size());
+        assertArrayEquals(new double[] { 1, 2 }, subscriber.changes.get(0).balances(), 0.001);
+
+        subscriber.subscription.request(1);
+        feed.submit(change(1, 3));
+        assertEquals(2, subscriber.changes.size());
+    }
+
+    @Test
+    public void testChangesAreConflated() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        feed.subscribe(subscriber);
+
+        feed.submit(change(0, 1, 2, 3));
+        feed.submit(change(2, 30, 40));
+        feed.submit(change(1, 20));
+        subscriber.subscription.request(5);
+
+        assertEquals(1, subscriber.changes.size());
+        assertEquals(from, subscriber.changes.get(0).from());
+        assertArrayEquals(new double[] { 1, 20, 30, 40 }, subscriber.changes.get(0).balances(), 0.001);
+    }
+
+    @Test
+    public void testNewSubscriberReceivesLatestBalances() {
+        feed.submit(change(0, 1, 2));
+        feed.submit(change(1, 3));
+        List<BalanceChange> changes = new ArrayList<>();
+
+        feed.subscribe(changes::add);
+
+        assertEquals(1, changes.size());
+        assertArrayEquals(new double[] { 1, 3 }, changes.get(0).balances(), 0.001);
+    }
+
+    @Test
+    public void testCancel() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        feed.subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(1, feed.getSubscriberCount());
+
+        subscriber.subscription.cancel();
+        feed.submit(change(0, 1));
+
+        assertEquals(0, subscriber.changes.size());
+        assertEquals(0, feed.getSubscriberCount());
+    }
+
+    @Test
+    public void testInvalidRequest() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        feed.subscribe(subscriber);
+
+        subscriber.subscription.request(0);
+
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+        assertEquals(0, feed.getSubscriberCount());
+    }
+
+    @Test
+    public void testCloseCompletesAfterPendingChange() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        feed.subscribe(subscriber);
+        feed.submit(change(0, 1));
+
+        feed.close();
+        assertEquals(false, subscriber.completed);
+
+        subscriber.subscription.request(1);
+        assertEquals(1, subscriber.changes.size());
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    public void testConcurrentPublishers() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        feed = new BalanceFeed(executor);
+        BalanceChange[] merged = new BalanceChange[1];
+        CountDownLatch complete = new CountDownLatch(1);
+        feed.subscribe(change -> {
+            merged[0] = merged[0] == null ? change : merged[0].mergedWith(change);
+            if (merged[0].balances().length == 400 && Arrays.stream(merged[0].balances()).noneMatch(Double::isNaN)) {
+                complete.countDown();
+            }
+        });
+
+        // Each thread publishes its own days, which must all arrive
+        Thread[] publishers = new Thread[4];
+        for (int t = 0; t < publishers.length; t++) {
+            int offset = t;
+            publishers[t] = new Thread(() -> {
+                for (int day = offset; day < 400; day += 4) {
+                    feed.submit(change(day, day));
+                }
+            });
+            publishers[t].start();
+        }
+        for (Thread publisher : publishers) {
+            publisher.join();
+        }
+
+        assertTrue(complete.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+        for (int day = 0; day < 400; day++) {
+            assertEquals(day, merged[0].balanceAt(from.plusDays(day)), 0.001);
+        }
+    }
+}
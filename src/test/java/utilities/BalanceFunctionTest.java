@@ -0,0 +1,161 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package utilities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.calendarfx.model.Entry;
+import com.calendarfx.model.Interval;
+
+import model.AccrualRateChange;
+import model.UserSettings;
+
+public class BalanceFunctionTest {
+    private final LocalDate start = LocalDate.of(2025, 3, 3);
+    private final LocalDate end = start.plusYears(3);
+    private UserSettings settings;
+    private PTOCalculator calculator;
+
+    @Before
+    public void setUp() {
+        settings = new UserSettings(4.5, AccrualPeriod.WEEKLY, 120, 40, MonthDay.of(1, 1), 30);
+        calculator = new PTOCalculator(settings);
+    }
+
+    private Entry<?> trip(LocalDate date, int days) {
+        Entry<?> entry = new Entry<>("Trip", new Interval(date.atTime(9, 0), date.plusDays(days - 1).atTime(17, 0)));
+        entry.setFullDay(true);
+        return entry;
+    }
+
+    private Map<LocalDate, List<Entry<?>>> randomEntries(long seed, int count) {
+        Random random = new Random(seed);
+        List<Entry<?>> entries = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            entries.add(trip(start.plusDays(random.nextInt(3 * 365)), 1 + random.nextInt(5)));
+        }
+        return EntriesHelper.groupByDate(entries);
+    }
+
+    private void assertMatchesSweep(Map<LocalDate, List<Entry<?>>> entries) {
+        BalanceFunction function = calculator.computeBalanceFunction(start, end, entries);
+        double[] expected = calculator.computeAccruedBalances(start, start.datesUntil(end.plusDays(1)).toList(),
+                entries);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("Balance at " + start.plusDays(i), expected[i], function.balanceAt(start.plusDays(i)),
+                    1e-6);
+        }
+    }
+
+    @Test
+    public void testMatchesSweepWithLimits() {
+        assertMatchesSweep(randomEntries(1, 30));
+    }
+
+    @Test
+    public void testMatchesSweepWithRateChangesAndHolidays() {
+        settings.setHireDate(LocalDate.of(2020, 6, 15));
+        settings.setAccrualRateChanges(List.of(AccrualRateChange.onDate(start.plusDays(100), 6, AccrualPeriod.WEEKLY),
+                AccrualRateChange.afterServiceYears(7, 10, AccrualPeriod.MONTHLY)));
+        settings.setHolidays(new HolidayCalendar(List.of(LocalDate.of(2025, 7, 4), LocalDate.of(2025, 12, 25),
+                LocalDate.of(2026, 7, 3), LocalDate.of(2026, 12, 25))));
+        assertMatchesSweep(randomEntries(2, 40));
+    }
+
+    @Test
+    public void testMatchesSweepWithoutLimits() {
+        settings.setMaxBalance(0);
+        settings.setCarryOverLimit(0);
+        assertMatchesSweep(randomEntries(3, 60));
+    }
+
+    @Test
+    public void testSegmentsAreCompact() {
+        settings.setMaxBalance(0);
+        settings.setCarryOverLimit(0);
+        assertEquals(1, calculator.computeBalanceFunction(start, end, Map.of()).getSegmentCount());
+
+        // The max balance adds a flat segment, and each expiration that lowers
+        // the balance starts a new one
+        settings.setMaxBalance(120);
+        assertEquals(2, calculator.computeBalanceFunction(start, end, Map.of()).getSegmentCount());
+        settings.setCarryOverLimit(40);
+        assertEquals(7, calculator.computeBalanceFunction(start, end, Map.of()).getSegmentCount());
+    }
+
+    @Test
+    public void testFindFirstDateAtLeast() {
+        Map<LocalDate, List<Entry<?>>> entries = randomEntries(4, 30);
+        BalanceFunction function = calculator.computeBalanceFunction(start, end, entries);
+
+        for (double hours : new double[] { -10, 0, 30, 30.5, 55, 80, 119.9, 120 }) {
+            LocalDate expected = null;
+            for (LocalDate date = start; expected == null && !date.isAfter(end); date = date.plusDays(1)) {
+                if (function.balanceAt(date) >= hours) {
+                    expected = date;
+                }
+            }
+            assertEquals("First date with " + hours, expected, function.findFirstDateAtLeast(hours));
+        }
+        assertNull(function.findFirstDateAtLeast(121));
+    }
+
+    @Test
+    public void testFindFirstDateBelow() {
+        Map<LocalDate, List<Entry<?>>> entries = randomEntries(5, 80);
+        BalanceFunction function = calculator.computeBalanceFunction(start, end, entries);
+
+        for (double hours : new double[] { 0, 20, 30, 31 }) {
+            LocalDate expected = null;
+            for (LocalDate date = start; expected == null && !date.isAfter(end); date = date.plusDays(1)) {
+                if (function.balanceAt(date) < hours) {
+                    expected = date;
+                }
+            }
+            assertEquals("First date below " + hours, expected, function.findFirstDateBelow(hours));
+        }
+        assertNull(function.findFirstDateBelow(-1000));
+    }
+
+    @Test
+    public void testFindNextCapHit() {
+        settings.setCarryOverLimit(0);
+        settings.setAccrualRate(1);
+        settings.setAccrualPeriod(AccrualPeriod.DAILY);
+        settings.setMaxBalance(80);
+        settings.setCurrentBalance(40);
+        LocalDate tripDate = start.plusDays(59);
+        BalanceFunction function = calculator.computeBalanceFunction(start, end,
+                EntriesHelper.groupByDate(List.of(trip(tripDate, 1))));
+
+        // Reaches the cap after 40 days, stays there through the trip date, and
+        // reaches it again 8 days after the trip
+        assertEquals(start.plusDays(40), function.findNextCapHit(start));
+        assertEquals(start.plusDays(45), function.findNextCapHit(start.plusDays(45)));
+        assertEquals(tripDate, function.findNextCapHit(tripDate));
+        assertEquals(tripDate.plusDays(8), function.findNextCapHit(tripDate.plusDays(1)));
+        assertEquals(List.of(start.plusDays(40), tripDate.plusDays(8)), function.getCapHits());
+        assertEquals(73, function.balanceAt(tripDate.plusDays(1)), 1e-9);
+
+        settings.setMaxBalance(0);
+        assertNull(calculator.computeBalanceFunction(start, end, Map.of()).findNextCapHit(start));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBalanceAtOutOfRange() {
+        calculator.computeBalanceFunction(start, end, Map.of()).balanceAt(end.plusDays(1));
+    }
+}
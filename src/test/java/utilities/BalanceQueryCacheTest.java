@@ -0,0 +1,72 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package utilities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.time.LocalDate;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class BalanceQueryCacheTest {
+    private BalanceQueryCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new BalanceQueryCache(2);
+    }
+
+    @Test
+    public void testHitAndMiss() {
+        LocalDate date = LocalDate.of(2025, 1, 1);
+
+        assertNull(cache.get(date, 1, 1));
+        cache.put(date, 1, 1, 42.5);
+
+        assertEquals(42.5, cache.get(date, 1, 1), 0);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testVersionsAreKeys() {
+        LocalDate date = LocalDate.of(2025, 1, 1);
+        cache.put(date, 1, 1, 42.5);
+
+        assertNull(cache.get(date, 2, 1));
+        assertNull(cache.get(date, 1, 2));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+        LocalDate date1 = LocalDate.of(2025, 1, 1);
+        LocalDate date2 = LocalDate.of(2025, 1, 2);
+        LocalDate date3 = LocalDate.of(2025, 1, 3);
+        cache.put(date1, 1, 1, 1);
+        cache.put(date2, 1, 1, 2);
+
+        // Using the first date makes the second one the least recently used
+        cache.get(date1, 1, 1);
+        cache.put(date3, 1, 1, 3);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.get(date1, 1, 1), 0);
+        assertNull(cache.get(date2, 1, 1));
+        assertEquals(3, cache.get(date3, 1, 1), 0);
+    }
+
+    @Test
+    public void testRetainVersions() {
+        cache.put(LocalDate.of(2025, 1, 1), 1, 1, 1);
+        cache.put(LocalDate.of(2025, 1, 2), 1, 2, 2);
+
+        cache.retainVersions(1, 2);
+
+        assertEquals(1, cache.size());
+        assertEquals(2, cache.get(LocalDate.of(2025, 1, 2), 1, 2), 0);
+    }
+}
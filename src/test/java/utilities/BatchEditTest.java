@@ -0,0 +1,75 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package utilities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.calendarfx.model.Calendar;
+import com.calendarfx.model.CalendarEvent;
+import com.calendarfx.model.Entry;
+import com.calendarfx.model.Interval;
+
+public class BatchEditTest {
+    private Calendar<?> calendar;
+    private EntriesHelper entriesHelper;
+    private List<CalendarEvent> events;
+
+    @Before
+    public void setUp() {
+        calendar = new Calendar<>();
+        entriesHelper = new EntriesHelper(calendar);
+        for (int day = 1; day <= 3; day++) {
+            calendar.addEntry(new Entry<>("Test " + day,
+                    new Interval(LocalDateTime.of(2025, 1, day, 9, 0), LocalDateTime.of(2025, 1, day, 17, 0)),
+                    "id" + day));
+        }
+
+        events = new ArrayList<>();
+        calendar.addEventHandler(events::add);
+    }
+
+    @Test
+    public void testEndFiresOneEvent() {
+        BatchEdit batch = BatchEdit.begin(calendar);
+        calendar.removeEntries(entriesHelper.getAllEntries());
+        assertTrue(events.isEmpty());
+
+        batch.end();
+
+        assertFalse(batch.isOpen());
+        assertEquals(1, events.size());
+        assertNull(events.get(0).getEntry());
+        assertEquals(0, entriesHelper.getAllEntries().size());
+    }
+
+    @Test
+    public void testRollback() {
+        BatchEdit batch = BatchEdit.begin(calendar);
+        Entry<?> moved = entriesHelper.getAllEntries().get(0);
+        moved.setInterval(LocalDateTime.of(2025, 2, 1, 9, 0), LocalDateTime.of(2025, 2, 1, 17, 0));
+        calendar.removeEntry(entriesHelper.getAllEntries().get(1));
+        batch.end();
+
+        batch.rollback();
+
+        List<Entry<?>> entries = entriesHelper.getAllEntries();
+        assertEquals(3, entries.size());
+        for (Entry<?> entry : entries) {
+            assertEquals(2025, entry.getStartDate().getYear());
+            assertEquals(1, entry.getStartDate().getMonthValue());
+        }
+        assertEquals(2, events.size());
+    }
+}
@@ -7,6 +7,9 @@ package utilities;
 import static org.junit.Assert.assertEquals;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -59,4 +62,44 @@ public class EntriesHelperTest {
         Entry<?> nonIntersectingEntry = new Entry<>("Non-Intersecting", nonIntersectingInterval);
         assertEquals(false, entriesHelper.intersects(nonIntersectingEntry));
     }
+
+    @Test
+    public void testFindIntersections() {
+        Interval interval1 = new Interval(LocalDateTime.of(2025, 1, 3, 9, 0), LocalDateTime.of(2025, 1, 3, 12, 0));
+        Entry<?> intersectingEntry = new Entry<>("Intersecting", interval1);
+        Interval interval2 = new Interval(LocalDateTime.of(2025, 1, 6, 9, 0), LocalDateTime.of(2025, 1, 6, 17, 0));
+        Entry<?> separateEntry = new Entry<>("Separate", interval2);
+
+        List<Entry<?>> entries = new ArrayList<>(entriesHelper.getAllEntries());
+        entries.add(intersectingEntry);
+        entries.add(separateEntry);
+        Map<Entry<?>, Entry<?>> intersections = EntriesHelper.findIntersections(entries);
+
+        assertEquals(2, intersections.size());
+        assertEquals("Test 2", intersections.get(intersectingEntry).getTitle());
+        assertEquals(intersectingEntry, intersections.get(intersections.keySet().iterator().next()));
+    }
+
+    @Test
+    public void testFindIntersectionsMatchesIntersects() {
+        List<Entry<?>> entries = entriesHelper.getAllEntries();
+        for (Entry<?> entry : EntriesHelper.findIntersections(entries).keySet()) {
+            assertEquals(true, entriesHelper.intersects(entry));
+        }
+        assertEquals(0, EntriesHelper.findIntersections(entries).size());
+    }
+
+    @Test
+    public void testCopyEntries() {
+        List<Entry<?>> entries = entriesHelper.getAllEntries();
+        List<Entry<?>> copies = EntriesHelper.copyEntries(entries);
+
+        assertEquals(entries.size(), copies.size());
+        for (int i = 0; i < entries.size(); i++) {
+            assertEquals(entries.get(i).getId(), copies.get(i).getId());
+            assertEquals(entries.get(i).getInterval(), copies.get(i).getInterval());
+            assertEquals(entries.get(i).isFullDay(), copies.get(i).isFullDay());
+            assertEquals(null, copies.get(i).getCalendar());
+        }
+    }
 }
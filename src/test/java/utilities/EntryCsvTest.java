@@ -0,0 +1,93 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package utilities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.calendarfx.model.Entry;
+import com.calendarfx.model.Interval;
+
+public class EntryCsvTest {
+    @Test
+    public void testRoundTrip() throws IOException {
+        Entry<?> entry1 = new Entry<>("Vacation, \"Beach\"",
+                new Interval(LocalDateTime.of(2025, 7, 1, 9, 0), LocalDateTime.of(2025, 7, 3, 17, 0)), "id-1");
+        entry1.setFullDay(true);
+        Entry<?> entry2 = new Entry<>("Doctor\nAppointment",
+                new Interval(LocalDateTime.of(2025, 7, 8, 13, 0), LocalDateTime.of(2025, 7, 8, 15, 30)), "id-2");
+
+        StringWriter writer = new StringWriter();
+        EntryCsv.write(writer, List.of(entry1, entry2));
+        List<Entry<?>> entries = readAll(EntryCsv.read(new StringReader(writer.toString())));
+
+        assertEquals(2, entries.size());
+        assertEquals("id-1", entries.get(0).getId());
+        assertEquals(entry1.getTitle(), entries.get(0).getTitle());
+        assertEquals(entry1.getInterval(), entries.get(0).getInterval());
+        assertTrue(entries.get(0).isFullDay());
+        assertEquals(entry2.getTitle(), entries.get(1).getTitle());
+        assertEquals(entry2.getInterval(), entries.get(1).getInterval());
+        assertFalse(entries.get(1).isFullDay());
+    }
+
+    @Test
+    public void testReadDates() {
+        String csv = "Start,End,Title\n2025-12-24,2025-12-26,Holidays\n\n";
+        List<Entry<?>> entries = readAll(EntryCsv.read(new StringReader(csv)));
+
+        assertEquals(1, entries.size());
+        assertEquals("Holidays", entries.get(0).getTitle());
+        assertEquals(LocalDateTime.of(2025, 12, 24, 9, 0), entries.get(0).getStartAsLocalDateTime());
+        assertEquals(LocalDateTime.of(2025, 12, 26, 17, 0), entries.get(0).getEndAsLocalDateTime());
+        assertTrue(entries.get(0).isFullDay());
+    }
+
+    @Test
+    public void testReadKeyed() {
+        String csv = "employee,title,start,end\nE1,Vacation,2025-07-01,2025-07-03\nE2,Holidays,2025-12-24,2025-12-26\n";
+        Iterator<EntryCsv.KeyedEntry> iterator = EntryCsv.readKeyed(new StringReader(csv), "Employee");
+
+        EntryCsv.KeyedEntry first = iterator.next();
+        assertEquals("E1", first.key());
+        assertEquals("Vacation", first.entry().getTitle());
+        assertEquals("E2", iterator.next().key());
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReadMissingColumn() {
+        EntryCsv.read(new StringReader("title,start\nVacation,2025-01-01\n"));
+    }
+
+    @Test
+    public void testReadInvalidDate() {
+        Iterator<Entry<?>> iterator = EntryCsv.read(new StringReader("title,start,end\nA,2025-01-01,2025-01-01\nB,soon,later\n"));
+        iterator.next();
+        try {
+            iterator.next();
+            assert false : "Expected an exception for the invalid date";
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().startsWith("Line 3:"));
+        }
+    }
+
+    private static List<Entry<?>> readAll(Iterator<Entry<?>> iterator) {
+        List<Entry<?>> entries = new ArrayList<>();
+        iterator.forEachRemaining(entries::add);
+        return entries;
+    }
+}
@@ -0,0 +1,85 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package utilities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.calendarfx.model.Entry;
+import com.calendarfx.model.Interval;
+
+public class EntryICalendarTest {
+    @Test
+    public void testRoundTrip() throws IOException {
+        Entry<?> entry1 = new Entry<>("A very long vacation title that needs to be folded across several lines, twice",
+                new Interval(LocalDateTime.of(2025, 7, 1, 9, 0), LocalDateTime.of(2025, 7, 3, 17, 0)), "id-1");
+        entry1.setFullDay(true);
+        Entry<?> entry2 = new Entry<>("Doctor; Dentist",
+                new Interval(LocalDateTime.of(2025, 7, 8, 13, 0), LocalDateTime.of(2025, 7, 8, 15, 30)), "id-2");
+
+        StringWriter writer = new StringWriter();
+        EntryICalendar.write(writer, List.of(entry1, entry2));
+        List<Entry<?>> entries = new ArrayList<>();
+        EntryICalendar.read(new StringReader(writer.toString())).forEachRemaining(entries::add);
+
+        assertEquals(2, entries.size());
+        assertEquals("id-1", entries.get(0).getId());
+        assertEquals(entry1.getTitle(), entries.get(0).getTitle());
+        assertEquals(entry1.getInterval(), entries.get(0).getInterval());
+        assertTrue(entries.get(0).isFullDay());
+        assertEquals(entry2.getTitle(), entries.get(1).getTitle());
+        assertEquals(entry2.getInterval(), entries.get(1).getInterval());
+        assertFalse(entries.get(1).isFullDay());
+    }
+
+    @Test
+    public void testReadAllDayEvent() {
+        String ics = "BEGIN:VCALENDAR\r\nBEGIN:VEVENT\r\nSUMMARY:Holidays\r\nDTSTART;VALUE=DATE:20251224\r\n"
+                + "DTEND;VALUE=DATE:20251227\r\nEND:VEVENT\r\nEND:VCALENDAR\r\n";
+        List<Entry<?>> entries = new ArrayList<>();
+        EntryICalendar.read(new StringReader(ics)).forEachRemaining(entries::add);
+
+        assertEquals(1, entries.size());
+        assertEquals(LocalDateTime.of(2025, 12, 24, 9, 0), entries.get(0).getStartAsLocalDateTime());
+        assertEquals(LocalDateTime.of(2025, 12, 26, 17, 0), entries.get(0).getEndAsLocalDateTime());
+        assertTrue(entries.get(0).isFullDay());
+    }
+
+    @Test
+    public void testReadUnknownZoneAsLocalTime() {
+        String ics = "BEGIN:VCALENDAR\r\nBEGIN:VEVENT\r\nSUMMARY:Dentist\r\n"
+                + "DTSTART;TZID=Eastern Standard Time:20250708T130000\r\n"
+                + "DTEND;TZID=Eastern Standard Time:20250708T153000\r\nEND:VEVENT\r\nEND:VCALENDAR\r\n";
+        List<Entry<?>> entries = new ArrayList<>();
+        EntryICalendar.read(new StringReader(ics)).forEachRemaining(entries::add);
+
+        assertEquals(1, entries.size());
+        assertEquals(LocalDateTime.of(2025, 7, 8, 13, 0), entries.get(0).getStartAsLocalDateTime());
+        assertEquals(LocalDateTime.of(2025, 7, 8, 15, 30), entries.get(0).getEndAsLocalDateTime());
+    }
+
+    @Test
+    public void testReadInvalidDate() {
+        String ics = "BEGIN:VCALENDAR\r\nBEGIN:VEVENT\r\nSUMMARY:Dentist\r\nDTSTART:20251332T130000\r\n"
+                + "END:VEVENT\r\nEND:VCALENDAR\r\n";
+        try {
+            EntryICalendar.read(new StringReader(ics)).next();
+            fail("Expected an invalid date");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Event on line 2: invalid dates", e.getMessage());
+        }
+    }
+}
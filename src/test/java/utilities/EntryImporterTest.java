@@ -0,0 +1,164 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package utilities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.calendarfx.model.Entry;
+import com.calendarfx.model.Interval;
+
+import model.InMemoryPTOStore;
+import model.PTOStore;
+import model.UserSettings;
+
+public class EntryImporterTest {
+    private InMemoryPTOStore ptoStore;
+    private EntryImporter entryImporter;
+
+    @Before
+    public void setUp() {
+        UserSettings userSettings = new UserSettings();
+        userSettings.setCurrentBalance(40);
+        userSettings.setAccrualRate(1);
+        userSettings.setAccrualPeriod(AccrualPeriod.DAILY);
+        userSettings.setMaxBalance(80);
+        userSettings.setCarryOverLimit(40);
+        userSettings.setExpirationDate(MonthDay.of(1, 1));
+
+        ptoStore = new InMemoryPTOStore();
+        entryImporter = new EntryImporter(new PTOCalculator(userSettings), ptoStore);
+    }
+
+    @Test
+    public void testImportValidEntries() {
+        List<Entry<?>> entries = List.of(createEntry(10), createEntry(11));
+
+        EntryImporter.ImportResult result = entryImporter.importEntries(entries.iterator());
+
+        assertTrue(result.succeeded());
+        assertEquals(2, result.imported().size());
+        assertEquals(2, ptoStore.getVacations().size());
+    }
+
+    @Test
+    public void testImportIntersectingEntry() {
+        ptoStore.addVacations(List.of(createEntry(10)));
+
+        EntryImporter.ImportResult result = entryImporter.importEntries(List.of(createEntry(10)).iterator());
+
+        assertFalse(result.succeeded());
+        assertEquals(1, result.problems().size());
+        assertEquals(1, ptoStore.getVacations().size());
+    }
+
+    @Test
+    public void testValidateDoesNotSave() {
+        EntryImporter.ImportResult result = entryImporter.validate(List.of(createEntry(11)).iterator(),
+                List.of(createEntry(10)));
+        assertTrue(result.succeeded());
+        assertEquals(0, ptoStore.getVacations().size());
+
+        // The given saved entries are checked, not the store
+        result = entryImporter.validate(List.of(createEntry(10)).iterator(), List.of(createEntry(10)));
+        assertFalse(result.succeeded());
+    }
+
+    @Test
+    public void testImportOverdrawnEntries() {
+        // 40 hours plus one hour per day does not cover two weeks off in a row
+        List<Entry<?>> entries = new ArrayList<>();
+        for (int day = 1; day <= 14; day++) {
+            entries.add(createEntry(day));
+        }
+
+        EntryImporter.ImportResult result = entryImporter.importEntries(entries.iterator());
+
+        assertFalse(result.succeeded());
+        assertEquals(0, ptoStore.getVacations().size());
+    }
+
+    private static Entry<?> createEntry(int daysFromNow) {
+        LocalDate date = LocalDate.now().plusDays(daysFromNow);
+        Entry<?> entry = new Entry<>("Vacation", new Interval(date.atTime(9, 0), date.atTime(17, 0)));
+        entry.setFullDay(true);
+        return entry;
+    }
+
+    @Test
+    public void testImportOverdrawsSavedEntry() {
+        // The imported week leaves too little for the saved week after it
+        List<Entry<?>> saved = new ArrayList<>();
+        List<Entry<?>> entries = new ArrayList<>();
+        for (int day = 1; day <= 5; day++) {
+            entries.add(createEntry(day));
+            saved.add(createEntry(day + 7));
+        }
+        ptoStore.addVacations(saved);
+
+        EntryImporter.ImportResult result = entryImporter.importEntries(entries.iterator());
+
+        assertFalse(result.succeeded());
+        assertEquals(5, ptoStore.getVacations().size());
+    }
+
+    @Test
+    public void testImportDuplicateIds() {
+        ptoStore.addVacations(List.of(createEntry(20, "saved")));
+
+        EntryImporter.ImportResult result = entryImporter.importEntries(
+                List.of(createEntry(10, "saved"), createEntry(11, "new"), createEntry(12, "new")).iterator());
+
+        assertFalse(result.succeeded());
+        assertEquals(2, result.problems().size());
+        assertEquals(1, ptoStore.getVacations().size());
+    }
+
+    @Test
+    public void testImportMalformedRows() {
+        String csv = "title,start,end\nA,2025-01-01,2025-01-01\nB,2025-01-02\nC\n";
+
+        EntryImporter.ImportResult result = entryImporter.importEntries(EntryCsv.read(new StringReader(csv)));
+
+        assertFalse(result.succeeded());
+        assertEquals(List.of("Line 3: missing end", "Line 4: missing start"), result.problems());
+        assertEquals(0, ptoStore.getVacations().size());
+    }
+
+    @Test
+    public void testImportSaveFailure() {
+        PTOStore failingStore = new InMemoryPTOStore() {
+            @Override
+            public synchronized boolean addVacations(List<Entry<?>> newEntries) {
+                return false;
+            }
+        };
+        UserSettings userSettings = new UserSettings();
+        userSettings.setCurrentBalance(40);
+
+        EntryImporter.ImportResult result = new EntryImporter(new PTOCalculator(userSettings), failingStore)
+                .importEntries(List.of(createEntry(10)).iterator());
+
+        assertFalse(result.succeeded());
+        assertTrue(result.imported().isEmpty());
+    }
+
+    private static Entry<?> createEntry(int daysFromNow, String id) {
+        LocalDate date = LocalDate.now().plusDays(daysFromNow);
+        Entry<?> entry = new Entry<>("Vacation", new Interval(date.atTime(9, 0), date.atTime(17, 0)), id);
+        entry.setFullDay(true);
+        return entry;
+    }
+}
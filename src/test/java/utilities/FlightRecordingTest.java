@@ -0,0 +1,76 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package utilities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.calendarfx.model.Entry;
+import com.calendarfx.model.Interval;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import model.UserSettings;
+
+public class FlightRecordingTest {
+    @Test
+    public void testDisabledByDefault() {
+        assertFalse(FlightRecording.startIfEnabled(Path.of(".")));
+    }
+
+    @Test
+    public void testProfileEnablesEngineEvents() throws Exception {
+        try (Reader reader = new InputStreamReader(getClass().getResourceAsStream("/ptoCalculator.jfc"),
+                StandardCharsets.UTF_8)) {
+            Map<String, String> settings = Configuration.create(reader).getSettings();
+            assertEquals("true", settings.get("pto.Projection#enabled"));
+            assertEquals("true", settings.get("pto.IntersectionScan#enabled"));
+            assertEquals("true", settings.get("pto.DatabaseOperation#enabled"));
+        }
+    }
+
+    @Test
+    public void testProjectionEvent() throws Exception {
+        LocalDate date = LocalDate.now().plusDays(1);
+        List<Entry<?>> entries = List.of(new Entry<>("Vacation", new Interval(date.atTime(9, 0), date.atTime(17, 0))));
+        PTOCalculator calculator = new PTOCalculator(new UserSettings());
+
+        Path file = Files.createTempFile("projection", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(ProjectionEvent.class).withThreshold(Duration.ZERO);
+            recording.start();
+            calculator.findOverdrawnEntries(entries, EntriesHelper.groupByDate(entries));
+            recording.stop();
+            recording.dump(file);
+        }
+
+        boolean found = false;
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            if (event.getEventType().getName().equals("pto.Projection")) {
+                assertEquals("findOverdrawnEntries", event.getString("operation"));
+                assertEquals(1, event.getInt("targetDates"));
+                assertEquals(1, event.getLong("horizonDays"));
+                found = true;
+            }
+        }
+        Files.deleteIfExists(file);
+        assertTrue(found);
+    }
+}
@@ -0,0 +1,102 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package utilities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class HolidayCalendarTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    // Thursday, Friday and Saturday
+    private final HolidayCalendar holidays = new HolidayCalendar(List.of(LocalDate.of(2025, 12, 25),
+            LocalDate.of(2025, 12, 26), LocalDate.of(2025, 12, 27)));
+
+    @Test
+    public void testIsWorkingDay() {
+        assertTrue(holidays.isWorkingDay(LocalDate.of(2025, 12, 24)));
+        assertFalse(holidays.isWorkingDay(LocalDate.of(2025, 12, 25)));
+        assertFalse(holidays.isWorkingDay(LocalDate.of(2025, 12, 28)));
+        assertTrue(holidays.isWorkingDay(LocalDate.of(2025, 12, 29)));
+        assertFalse(HolidayCalendar.NONE.isWorkingDay(LocalDate.of(2025, 12, 27)));
+        assertTrue(HolidayCalendar.NONE.isWorkingDay(LocalDate.of(2025, 12, 25)));
+    }
+
+    @Test
+    public void testWeekendHolidaysAreNotCounted() {
+        assertEquals(2, holidays.getHolidayCount());
+        assertFalse(holidays.isHoliday(LocalDate.of(2025, 12, 27)));
+    }
+
+    @Test
+    public void testCountWorkingDays() {
+        // Monday 22 to Friday 2, without the 25th and 26th
+        assertEquals(8, holidays.countWorkingDays(LocalDate.of(2025, 12, 22), LocalDate.of(2026, 1, 3)));
+        assertEquals(0, holidays.countWorkingDays(LocalDate.of(2025, 12, 25), LocalDate.of(2025, 12, 25)));
+        assertEquals(0, holidays.countWorkingDays(LocalDate.of(2025, 12, 26), LocalDate.of(2025, 12, 22)));
+    }
+
+    @Test
+    public void testCountWorkingDaysMatchesDailyWalk() {
+        // Random holidays over a few years, so ranges start and end in and
+        // around many 64-day words
+        Random random = new Random(5);
+        LocalDate first = LocalDate.of(2024, 1, 1);
+        List<LocalDate> dates = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            dates.add(first.plusDays(random.nextInt(1000)));
+        }
+        HolidayCalendar calendar = new HolidayCalendar(dates);
+
+        for (int i = 0; i < 500; i++) {
+            LocalDate from = first.plusDays(random.nextInt(1200) - 100);
+            LocalDate to = from.plusDays(random.nextInt(400));
+            long expected = 0;
+            for (LocalDate date = from; date.isBefore(to); date = date.plusDays(1)) {
+                boolean weekday = date.getDayOfWeek().getValue() < 6;
+                if (weekday && !dates.contains(date)) {
+                    expected++;
+                }
+                assertEquals(date.toString(), weekday && !dates.contains(date), calendar.isWorkingDay(date));
+            }
+            assertEquals(from + " to " + to, expected, calendar.countWorkingDays(from, to));
+        }
+    }
+
+    @Test
+    public void testRead() throws IOException {
+        Path csv = folder.getRoot().toPath().resolve("holidays.csv");
+        Files.writeString(csv, "title,start,end\nNew Year,2026-01-01,2026-01-01\n");
+        Path ics = folder.getRoot().toPath().resolve("holidays.ics");
+        Files.writeString(ics, "BEGIN:VCALENDAR\r\nBEGIN:VEVENT\r\nSUMMARY:Christmas\r\n"
+                + "DTSTART;VALUE=DATE:20251224\r\nDTEND;VALUE=DATE:20251227\r\nEND:VEVENT\r\nEND:VCALENDAR\r\n");
+
+        HolidayCalendar calendar = HolidayCalendar.read(List.of(csv, ics));
+
+        assertEquals(4, calendar.getHolidayCount());
+        assertTrue(calendar.isHoliday(LocalDate.of(2026, 1, 1)));
+        assertTrue(calendar.isHoliday(LocalDate.of(2025, 12, 24)));
+        assertTrue(calendar.isHoliday(LocalDate.of(2025, 12, 26)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReadUnknownExtension() throws IOException {
+        HolidayCalendar.read(List.of(folder.getRoot().toPath().resolve("holidays.txt")));
+    }
+}
@@ -0,0 +1,105 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package utilities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.calendarfx.model.Entry;
+import com.calendarfx.model.Interval;
+
+import model.UserSettings;
+
+public class IntegrityCheckerTest {
+    private IntegrityChecker integrityChecker;
+
+    @Before
+    public void setUp() {
+        UserSettings userSettings = new UserSettings();
+        userSettings.setCurrentBalance(40);
+        userSettings.setAccrualRate(1);
+        userSettings.setAccrualPeriod(AccrualPeriod.DAILY);
+
+        integrityChecker = new IntegrityChecker(new PTOCalculator(userSettings));
+    }
+
+    @Test
+    public void testValidEntries() {
+        assertTrue(integrityChecker.check(List.of(createEntry(10), createEntry(11))).isEmpty());
+    }
+
+    @Test
+    public void testIntersectingEntries() {
+        Entry<?> first = createEntry(10);
+        Entry<?> second = createEntry(10);
+
+        List<IntegrityChecker.Problem> problems = integrityChecker.check(List.of(first, second));
+
+        assertEquals(1, problems.size());
+        assertSame(second, problems.get(0).entry());
+        assertSame(first, problems.get(0).conflict());
+        assertNull(problems.get(0).balanceCheck());
+    }
+
+    @Test
+    public void testPastIntersectingEntriesAreKept() {
+        assertTrue(integrityChecker.check(List.of(createEntry(-10), createEntry(-10))).isEmpty());
+    }
+
+    @Test
+    public void testOverdrawnEntries() {
+        // 40 hours plus one hour per day does not cover two weeks off in a row
+        List<Entry<?>> entries = new ArrayList<>();
+        for (int day = 1; day <= 14; day++) {
+            entries.add(createEntry(day));
+        }
+
+        List<IntegrityChecker.Problem> problems = integrityChecker.check(entries);
+
+        assertTrue(problems.size() > 0);
+        for (IntegrityChecker.Problem problem : problems) {
+            assertNull(problem.conflict());
+            assertNotNull(problem.balanceCheck());
+            assertTrue(problem.getDescription().contains("are available"));
+        }
+    }
+
+    @Test
+    public void testManyEntries() {
+        UserSettings userSettings = new UserSettings();
+        userSettings.setCurrentBalance(100000);
+        integrityChecker = new IntegrityChecker(new PTOCalculator(userSettings));
+
+        // Ten thousand entries and one duplicate are checked in one pass
+        List<Entry<?>> entries = new ArrayList<>();
+        for (int day = 1; day <= 10000; day++) {
+            entries.add(createEntry(day));
+        }
+        Entry<?> duplicate = createEntry(5000);
+        entries.add(duplicate);
+
+        List<IntegrityChecker.Problem> problems = integrityChecker.check(entries);
+
+        assertEquals(1, problems.size());
+        assertSame(duplicate, problems.get(0).entry());
+    }
+
+    private static Entry<?> createEntry(int daysFromNow) {
+        LocalDate date = LocalDate.now().plusDays(daysFromNow);
+        Entry<?> entry = new Entry<>("Vacation", new Interval(date.atTime(9, 0), date.atTime(17, 0)));
+        entry.setFullDay(true);
+        return entry;
+    }
+}
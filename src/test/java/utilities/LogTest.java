@@ -0,0 +1,103 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package utilities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class LogTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path previousDirectory;
+
+    @Before
+    public void setUp() {
+        previousDirectory = Log.getDirectory();
+    }
+
+    @After
+    public void tearDown() {
+        Log.flush();
+        Log.setDirectory(previousDirectory);
+    }
+
+    @Test
+    public void testFormat() {
+        long time = LocalDateTime.of(2025, 1, 2, 9, 30).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        Log.LogRecord record = new Log.LogRecord(time, Log.Level.INFO, "main", "calendar.entryChanged",
+                new Object[] { "id", 42, "title", "Beach trip", "note", "", "missing", null });
+
+        StringBuilder line = new StringBuilder();
+        Log.format(record, line);
+
+        assertEquals("2025-01-02T09:30:00.000 INFO [main] calendar.entryChanged id=42 title=\"Beach trip\" "
+                + "note=\"\" missing=null", line.toString());
+    }
+
+    @Test
+    public void testFormatEscapesQuotes() {
+        Log.LogRecord record = new Log.LogRecord(0, Log.Level.WARN, "main", "entries.invalid",
+                new Object[] { "problem", "\"A\" overlaps" });
+
+        StringBuilder line = new StringBuilder();
+        Log.format(record, line);
+
+        assertTrue(line.toString().endsWith("entries.invalid problem=\"\\\"A\\\" overlaps\""));
+    }
+
+    @Test
+    public void testFormatEscapesLineBreaks() {
+        Log.LogRecord record = new Log.LogRecord(0, Log.Level.ERROR, "main", "calculation.failed",
+                new Object[] { "message", "first\nsecond\r\nC:\\data" });
+
+        StringBuilder line = new StringBuilder();
+        Log.format(record, line);
+
+        assertTrue(line.toString().endsWith("calculation.failed message=\"first\\nsecond\\r\\nC:\\\\data\""));
+    }
+
+    @Test
+    public void testParseLevel() {
+        assertEquals(Log.Level.WARN, Log.parseLevel(" warn"));
+        assertEquals(Log.Level.OFF, Log.parseLevel("OFF"));
+        assertEquals(Log.Level.INFO, Log.parseLevel("verbose"));
+    }
+
+    @Test
+    public void testIsEnabled() {
+        assertFalse(Log.isEnabled(Log.Level.DEBUG));
+        assertTrue(Log.isEnabled(Log.Level.INFO));
+        assertTrue(Log.isEnabled(Log.Level.ERROR));
+    }
+
+    @Test
+    public void testWritesToFile() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        Log.setDirectory(directory);
+        for (int i = 0; i < 100; i++) {
+            Log.info("test.record", "index", i);
+        }
+        Log.flush();
+
+        String contents = Files.readString(directory.resolve("ptoCalculator.log"));
+        assertTrue(contents.contains("test.record index=0"));
+        assertTrue(contents.contains("test.record index=99"));
+        assertEquals(0, Log.getDroppedCount());
+    }
+}
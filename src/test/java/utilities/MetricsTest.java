@@ -0,0 +1,59 @@
+// Paid Time Off Calculator
+// Matthew Vine
+// CSIS 643-D01 (Liberty University)
+
+package utilities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class MetricsTest {
+    @Test
+    public void testBucketBounds() {
+        for (long value : new long[] { 0, 1, 7, 8, 9, 15, 16, 1000, 123456789, Long.MAX_VALUE }) {
+            int index = Metrics.Timer.bucketIndex(value);
+            assertTrue(Metrics.Timer.bucketLowerBound(index) <= value);
+            if (value < Long.MAX_VALUE) {
+                assertTrue(index + 1 == 496 || Metrics.Timer.bucketLowerBound(index + 1) > value);
+            }
+        }
+    }
+
+    @Test
+    public void testPercentiles() {
+        Metrics.Timer timer = new Metrics.Timer();
+        for (long nanos = 1; nanos <= 1000; nanos++) {
+            timer.record(nanos * 1000);
+        }
+
+        assertEquals(1000, timer.getCount());
+        assertEquals(0.5005, timer.getMeanMillis(), 1e-9);
+        assertEquals(1.0, timer.getMaxMillis(), 1e-9);
+
+        // Percentiles are accurate to within one bucket
+        assertEquals(0.5, timer.getP50Millis(), 0.5 / 8);
+        assertEquals(0.99, timer.getP99Millis(), 0.99 / 8);
+    }
+
+    @Test
+    public void testEmptyTimer() {
+        Metrics.Timer timer = new Metrics.Timer();
+        assertEquals(0, timer.getPercentileNanos(99));
+        assertEquals(0, timer.getMeanMillis(), 0);
+    }
+
+    @Test
+    public void testDisabledRecording() {
+        // Metrics are disabled unless the pto.metrics property is set
+        Metrics.Timer timer = Metrics.timer("test.disabled");
+        timer.stop(timer.start());
+        Metrics.counter("test.disabled").increment();
+
+        assertSame(timer, Metrics.timer("test.disabled"));
+        assertEquals(Metrics.ENABLED ? 1 : 0, timer.getCount());
+        assertEquals(Metrics.ENABLED ? 1 : 0, Metrics.counter("test.disabled").getCount());
+    }
+}
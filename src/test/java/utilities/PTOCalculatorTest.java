@@ -8,6 +8,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.MonthDay;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -18,6 +19,7 @@ import com.calendarfx.model.Calendar;
 import com.calendarfx.model.Entry;
 import com.calendarfx.model.Interval;
 
+import model.AccrualRateChange;
 import model.UserSettings;
 
 public class PTOCalculatorTest {
@@ -131,6 +133,22 @@ public class PTOCalculatorTest {
         assert accruedPto == 360 : "Expected 360 hours of accrued PTO, but got " + accruedPto;
     }
 
+    @Test
+    public void testComputeAccrualBetweenDatesWithRateChanges() {
+        userSettings.setHireDate(LocalDate.of(2022, 1, 1));
+        userSettings.setAccrualRateChanges(List.of(
+                AccrualRateChange.afterServiceYears(3, 2, AccrualPeriod.DAILY),
+                AccrualRateChange.onDate(LocalDate.of(2025, 3, 1), 14, AccrualPeriod.WEEKLY)));
+
+        LocalDate startDate = LocalDate.of(2024, 12, 22);
+        LocalDate targetDate = LocalDate.of(2025, 3, 3);
+
+        double accruedPto = ptoCalculator.computeAccrualBetweenDates(startDate, targetDate);
+
+        // 10 days at 1 hour, 59 days at 2 hours and 2 days at 2 hours
+        assert Math.abs(accruedPto - 132) < 0.000001 : "Expected 132 hours of accrued PTO, but got " + accruedPto;
+    }
+
     // region Accrue-Limit
 
     @Test
@@ -193,6 +211,31 @@ public class PTOCalculatorTest {
         assert balance == expectedBalance : "Expected balance to be " + expectedBalance + ", but got " + balance;
     }
 
+    @Test
+    public void testComputeAccruedBalanceCarryOverCappedEachYear() {
+        LocalDate startDate = LocalDate.of(2025, 12, 1);
+        LocalDate targetDate = LocalDate.of(2027, 1, 10);
+        Map<LocalDate, List<Entry<?>>> entries = Map.of();
+
+        // The balance reaches the max balance in 2026 and is capped to the carry
+        // over limit on January 1 of both 2026 and 2027
+        double balance = ptoCalculator.computeAccruedBalance(startDate, targetDate, entries);
+        double[] balances = ptoCalculator.computeAccruedBalances(startDate,
+                List.of(LocalDate.of(2026, 1, 10), LocalDate.of(2026, 12, 31), targetDate), entries);
+
+        double expectedBalance = userSettings.getCarryOverLimit() + 9;
+        assert balance == expectedBalance : "Expected balance to be " + expectedBalance + ", but got " + balance;
+        assert balances[0] == expectedBalance : "Expected balance to be " + expectedBalance + " in 2026, but got "
+                + balances[0];
+        assert balances[1] == userSettings.getMaxBalance() : "Expected balance to be "
+                + userSettings.getMaxBalance() + " before the second expiration, but got " + balances[1];
+        assert balances[2] == expectedBalance : "Expected balance to be " + expectedBalance + " in 2027, but got "
+                + balances[2];
+        // A single target date after both expirations is swept the same way
+        double[] single = ptoCalculator.computeAccruedBalances(startDate, List.of(targetDate), entries);
+        assert single[0] == expectedBalance : "Expected balance to be " + expectedBalance + ", but got " + single[0];
+    }
+
     @Test
     public void testComputeAccruedBalanceWithASingleDayEntry() {
         LocalDate startDate = LocalDate.of(2025, 1, 1);
@@ -333,6 +376,36 @@ public class PTOCalculatorTest {
         assert accruedPto == expectedBalance : "Expected " + expectedBalance + " hours of PTO, but got " + accruedPto;
     }
 
+    @Test
+    public void testComputeAccruedBalanceWithHolidayInMultiDayEntry() {
+        userSettings.setHolidays(new HolidayCalendar(List.of(LocalDate.of(2025, 1, 20))));
+        LocalDate startDate = LocalDate.of(2025, 1, 1);
+        LocalDate targetDate = LocalDate.of(2025, 2, 1);
+        // Monday to Wednesday, with the Monday a holiday
+        Interval interval = new Interval(LocalDateTime.of(2025, 1, 20, 9, 0), LocalDateTime.of(2025, 1, 22, 17, 0));
+        Entry<?> entry = new Entry<>("Test", interval);
+        entry.setFullDay(true);
+        entry.setCalendar(calendar);
+        Map<LocalDate, List<Entry<?>>> entries = calendar.findEntries(startDate, targetDate, ZoneId.systemDefault());
+
+        double accruedPto = ptoCalculator.computeAccruedBalance(startDate, targetDate, entries);
+
+        double expectedBalance = userSettings.getCurrentBalance() + 31 - 16;
+        assert accruedPto == expectedBalance : "Expected " + expectedBalance + " hours of PTO, but got " + accruedPto;
+    }
+
+    @Test
+    public void testRequiredHoursSkipHolidays() {
+        userSettings.setHolidays(new HolidayCalendar(List.of(LocalDate.of(2025, 12, 25))));
+        // Monday 22 to Monday 29: five weekdays before the end, one a holiday
+        Interval interval = new Interval(LocalDateTime.of(2025, 12, 22, 9, 0), LocalDateTime.of(2025, 12, 29, 17, 0));
+        Entry<?> entry = new Entry<>("Test", interval);
+
+        double required = ptoCalculator.getRequiredHours(entry);
+
+        assert required == 32 : "Expected 32 required hours, but got " + required;
+    }
+
     @Test
     public void testComputeAccruedBalanceEverything() {
         LocalDate startDate = LocalDate.of(2025, 7, 1);
@@ -351,4 +424,30 @@ public class PTOCalculatorTest {
         double expectedBalance = userSettings.getCarryOverLimit() + 9 - 16;
         assert balance == expectedBalance : "Expected balance to be " + expectedBalance + ", but got " + balance;
     }
+
+    @Test
+    public void testComputeAccruedBalancesMatchesSingleDates() {
+        LocalDate startDate = LocalDate.of(2025, 7, 1);
+        Interval interval1 = new Interval(LocalDateTime.of(2025, 7, 21, 9, 0), LocalDateTime.of(2025, 7, 21, 17, 0));
+        Entry<?> entry1 = new Entry<>("Test 1", interval1);
+        entry1.setCalendar(calendar);
+        Interval interval2 = new Interval(LocalDateTime.of(2026, 1, 4, 9, 0), LocalDateTime.of(2026, 1, 6, 17, 0));
+        Entry<?> entry2 = new Entry<>("Test 2", interval2);
+        entry2.setFullDay(true);
+        entry2.setCalendar(calendar);
+        Map<LocalDate, List<Entry<?>>> entries = calendar.findEntries(startDate, LocalDate.of(2026, 2, 1),
+                ZoneId.systemDefault());
+
+        List<LocalDate> targetDates = new ArrayList<>();
+        for (LocalDate date = startDate; date.isBefore(LocalDate.of(2026, 2, 1)); date = date.plusDays(3)) {
+            targetDates.add(date);
+        }
+        double[] balances = ptoCalculator.computeAccruedBalances(startDate, targetDates, entries);
+
+        for (int i = 0; i < balances.length; i++) {
+            double expectedBalance = ptoCalculator.computeAccruedBalance(startDate, targetDates.get(i), entries);
+            assert balances[i] == expectedBalance : "Expected " + expectedBalance + " on " + targetDates.get(i)
+                    + ", but got " + balances[i];
+        }
+    }
 }